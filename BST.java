@@ -1,3 +1,7 @@
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
 /**
  * A generic Binary Search Tree (BST) implementation that stores elements of any
  * type that implements {@link Comparable}.
@@ -65,11 +69,25 @@ class BST<T extends Comparable<T>> {
      *         otherwise
      */
     public boolean insert(T value) {
+        return insert(value, new QueryStats());
+    }
+
+    /**
+     * Inserts a value, counting the nodes on the path to its new place.
+     *
+     * @param value
+     *              the value to insert
+     * @param stats
+     *              receives the counts
+     * @return {@code true} if the value was successfully inserted
+     */
+    public boolean insert(T value, QueryStats stats) {
+        stats.match();
         if (root == null) {
             root = new Node(value);
             return true;
         }
-        return insertRec(root, value);
+        return insertRec(root, value, 0, stats);
     }
 
     /**
@@ -79,25 +97,143 @@ class BST<T extends Comparable<T>> {
      *              the current node being examined
      * @param value
      *              the value to insert
+     * @param depth
+     *              the depth of {@code curr}
+     * @param stats
+     *              receives the counts
      * @return {@code true} if insertion was successful, {@code false} otherwise
      */
-    private boolean insertRec(Node curr, T value) {
+    private boolean insertRec(Node curr, T value, int depth, QueryStats stats) {
+        stats.visit(depth);
+        stats.compare();
         int cmp = value.compareTo(curr.data);
         if (cmp <= 0) { // equal goes LEFT
+            prune(curr.right, stats);
             if (curr.left == null) {
                 curr.left = new Node(value);
                 return true;
             }
-            return insertRec(curr.left, value);
+            return insertRec(curr.left, value, depth + 1, stats);
         } else {
+            prune(curr.left, stats);
             if (curr.right == null) {
                 curr.right = new Node(value);
                 return true;
             }
-            return insertRec(curr.right, value);
+            return insertRec(curr.right, value, depth + 1, stats);
         }
     }
 
+    /**
+     * Counts a subtree that an operation skips, if it is not empty.
+     *
+     * @param skipped
+     *                the subtree
+     * @param stats
+     *                receives the count
+     */
+    private void prune(Node skipped, QueryStats stats) {
+        if (skipped != null)
+            stats.prune();
+    }
+
+    /**
+     * Adds many values at once by rebuilding the whole tree balanced, which
+     * is much faster than inserting them one at a time and keeps the height
+     * at about log2(n) instead of depending on the input order.
+     * <p>
+     * Each subtree root is the middle value of its range, moved to the last
+     * of any run of equal values, so every equal value ends up in the left
+     * subtree: the same rule {@link #insert(Comparable)} follows. Equal
+     * values already in the tree keep their order, followed by the new ones
+     * in list order.
+     *
+     * @param values
+     *               the values to add
+     * @return the number of values in the rebuilt tree
+     */
+    public int bulkLoad(List<T> values) {
+        ArrayList<T> existing = new ArrayList<>();
+        inorderRec(root, existing);
+        ArrayList<T> added = new ArrayList<>(values);
+        added.sort(null); // stable
+
+        // Merge, taking the existing value first when two are equal
+        ArrayList<T> all = new ArrayList<>(existing.size() + added.size());
+        int i = 0;
+        int j = 0;
+        while (i < existing.size() || j < added.size()) {
+            if (j == added.size() || (i < existing.size() && existing.get(i)
+                .compareTo(added.get(j)) <= 0)) {
+                all.add(existing.get(i++));
+            } else {
+                all.add(added.get(j++));
+            }
+        }
+        root = buildRec(all, 0, all.size());
+        return all.size();
+    }
+
+    /**
+     * Adds every value in a subtree to a list, in order.
+     *
+     * @param curr
+     *             subtree root
+     * @param out
+     *             list to add to
+     */
+    private void inorderRec(Node curr, List<T> out) {
+        if (curr == null)
+            return;
+        inorderRec(curr.left, out);
+        out.add(curr.data);
+        inorderRec(curr.right, out);
+    }
+
+    /**
+     * Adds every value in the tree to a list, in order. This is the order in
+     * which {@link #printTree()} lists them.
+     *
+     * @param out
+     *            list to add to
+     */
+    void inorder(List<T> out) {
+        inorderRec(root, out);
+    }
+
+    /**
+     * Builds a balanced subtree from {@code sorted[lo, hi)}.
+     *
+     * @param sorted
+     *               the values, in order
+     * @param lo
+     *               first index (inclusive)
+     * @param hi
+     *               last index (exclusive)
+     * @return the subtree root, or {@code null} if the range is empty
+     */
+    private Node buildRec(List<T> sorted, int lo, int hi) {
+        if (lo >= hi)
+            return null;
+        // Last value equal to the middle one (binary search, since a run
+        // of equal values can be long): equal values must all be on the left
+        T middle = sorted.get((lo + hi) >>> 1);
+        int mid = (lo + hi) >>> 1;
+        int end = hi;
+        while (end - mid > 1) {
+            int probe = (mid + end) >>> 1;
+            if (sorted.get(probe).compareTo(middle) == 0) {
+                mid = probe;
+            } else {
+                end = probe;
+            }
+        }
+        Node node = new Node(sorted.get(mid));
+        node.left = buildRec(sorted, lo, mid);
+        node.right = buildRec(sorted, mid + 1, hi);
+        return node;
+    }
+
     /**
      * Deletes <strong>all</strong> occurrences of the specified value from the
      * BST.
@@ -108,9 +244,41 @@ class BST<T extends Comparable<T>> {
      *         otherwise
      */
     public boolean deleteAll(T value) {
-        boolean[] deleted = { false }; // wrapper to track deletion result
-        root = deleteRec(root, value, deleted);
-        return deleted[0];
+        return deleteAll(value, new QueryStats());
+    }
+
+    /**
+     * Deletes all occurrences of a value, counting the work done; each node
+     * deleted is a match.
+     *
+     * @param value
+     *              the value to delete
+     * @param stats
+     *              receives the counts
+     * @return {@code true} if at least one node was deleted
+     */
+    public boolean deleteAll(T value, QueryStats stats) {
+        return deleteAll(value, stats, null);
+    }
+
+    /**
+     * Deletes all occurrences of a value, counting the work done and
+     * listing the other values that moved up to replace a deleted node.
+     * Only those values change places in preorder, so only their
+     * {@link #findAll(Object)} results can change order.
+     *
+     * @param value
+     *              the value to delete
+     * @param stats
+     *              receives the counts
+     * @param moved
+     *              receives the values that moved, or null
+     * @return {@code true} if at least one node was deleted
+     */
+    public boolean deleteAll(T value, QueryStats stats, List<T> moved) {
+        long before = stats.getMatches();
+        root = deleteRec(root, value, 0, stats, moved);
+        return stats.getMatches() > before;
     }
 
     /**
@@ -120,22 +288,33 @@ class BST<T extends Comparable<T>> {
      *                the current node being examined
      * @param value
      *                the value to delete
-     * @param deleted
-     *                flag indicating if a deletion occurred
+     * @param depth
+     *                the depth of {@code curr}
+     * @param stats
+     *                receives the counts; a match per node deleted
+     * @param moved
+     *                receives values moved up to replace a node, or null
      * @return the updated subtree root after deletion
      */
-    private Node deleteRec(Node curr, T value, boolean[] deleted) {
+    private Node deleteRec(
+        Node curr,
+        T value,
+        int depth,
+        QueryStats stats,
+        List<T> moved) {
         if (curr == null)
             return null;
+        stats.visit(depth);
 
         // Remove matches in children first (post-order traversal)
-        curr.left = deleteRec(curr.left, value, deleted);
-        curr.right = deleteRec(curr.right, value, deleted);
+        curr.left = deleteRec(curr.left, value, depth + 1, stats, moved);
+        curr.right = deleteRec(curr.right, value, depth + 1, stats, moved);
 
         // Handle current node
+        stats.compare();
         int cmp = value.compareTo(curr.data);
         if (cmp == 0) {
-            deleted[0] = true;
+            stats.match();
             /**
              * // Case 1: no children if (curr.left == null) {
              * 
@@ -152,15 +331,34 @@ class BST<T extends Comparable<T>> {
                 return curr.left;
             }
 
-            // Case 3: two children – replace with max from left subtree
+            // Case 3: two children – replace with max from left subtree.
+            // Only that one node moves up, so only it is removed, even if
+            // other values in the left subtree compare equal to it.
             Node maxLeft = findMax(curr.left);
             curr.data = maxLeft.data;
-            curr.left = deleteRec(curr.left, maxLeft.data, deleted);
+            curr.left = spliceMax(curr.left);
+            if (moved != null)
+                moved.add(curr.data);
         }
 
         return curr;
     }
 
+    /**
+     * Removes the maximum node of a subtree by replacing it with its left
+     * child.
+     *
+     * @param curr
+     *             the root of the subtree (not {@code null})
+     * @return the updated subtree root
+     */
+    private Node spliceMax(Node curr) {
+        if (curr.right == null)
+            return curr.left;
+        curr.right = spliceMax(curr.right);
+        return curr;
+    }
+
     /**
      * Deletes a <strong>single specific</strong> object from the BST based on
      * exact
@@ -174,8 +372,40 @@ class BST<T extends Comparable<T>> {
      *         otherwise
      */
     public boolean deleteOne(T value) {
+        return deleteOne(value, new QueryStats());
+    }
+
+    /**
+     * Deletes one specific object, counting the work done.
+     *
+     * @param value
+     *              the exact object to delete
+     * @param stats
+     *              receives the counts
+     * @return {@code true} if the object was found and deleted
+     */
+    public boolean deleteOne(T value, QueryStats stats) {
+        return deleteOne(value, stats, null);
+    }
+
+    /**
+     * Deletes one specific object, counting the work done and listing the
+     * value that moved up to replace it, if any; see
+     * {@link #deleteAll(Comparable, QueryStats, List)}.
+     *
+     * @param value
+     *              the exact object to delete
+     * @param stats
+     *              receives the counts
+     * @param moved
+     *              receives the value that moved, or null
+     * @return {@code true} if the object was found and deleted
+     */
+    public boolean deleteOne(T value, QueryStats stats, List<T> moved) {
         boolean[] deleted = { false };
-        root = deleteOneRec(root, value, deleted);
+        root = deleteOneRec(root, value, deleted, 0, stats, moved);
+        if (deleted[0])
+            stats.match();
         return deleted[0];
     }
 
@@ -189,11 +419,25 @@ class BST<T extends Comparable<T>> {
      *                the exact object to delete
      * @param deleted
      *                flag indicating if deletion occurred
+     * @param depth
+     *                the depth of {@code curr}
+     * @param stats
+     *                receives the counts
+     * @param moved
+     *                receives the value moved up to replace it, or null
      * @return updated subtree root
      */
-    private Node deleteOneRec(Node curr, T value, boolean[] deleted) {
+    private Node deleteOneRec(
+        Node curr,
+        T value,
+        boolean[] deleted,
+        int depth,
+        QueryStats stats,
+        List<T> moved) {
         if (curr == null)
             return null;
+        stats.visit(depth);
+        stats.compare();
 
         // In-order: left, current, right
         // But we need to search the whole subtree where this value could be
@@ -202,9 +446,12 @@ class BST<T extends Comparable<T>> {
 
         // Search left subtree if value could be there
         if (cmp <= 0) {
-            curr.left = deleteOneRec(curr.left, value, deleted);
+            curr.left = deleteOneRec(curr.left, value, deleted, depth + 1,
+                stats, moved);
             if (deleted[0])
                 return curr;
+        } else {
+            prune(curr.left, stats);
         }
 
         // Check current node for exact match
@@ -229,13 +476,19 @@ class BST<T extends Comparable<T>> {
             Node maxLeft = findMax(curr.left);
             curr.data = maxLeft.data;
             boolean[] dummy = { false };
-            curr.left = deleteOneRec(curr.left, maxLeft.data, dummy);
+            curr.left = deleteOneRec(curr.left, maxLeft.data, dummy, depth
+                + 1, stats, null);
+            if (moved != null)
+                moved.add(curr.data);
             return curr;
         }
 
         // Search right subtree if value could be there
         if (cmp >= 0) {
-            curr.right = deleteOneRec(curr.right, value, deleted);
+            curr.right = deleteOneRec(curr.right, value, deleted, depth + 1,
+                stats, moved);
+        } else {
+            prune(curr.right, stats);
         }
 
         return curr;
@@ -266,11 +519,59 @@ class BST<T extends Comparable<T>> {
      *         if none found
      */
     public String findAll(T value) {
+        return findAll(value, new QueryStats());
+    }
+
+    /**
+     * Lists all occurrences of a value, as {@link #findAll(Object)} does,
+     * counting the work done.
+     *
+     * @param value
+     *              the value to search for
+     * @param stats
+     *              receives the counts
+     * @return a newline-separated list of all matching values
+     */
+    public String findAll(T value, QueryStats stats) {
         StringBuilder sb = new StringBuilder();
-        findAllRec(root, value, sb);
+        findAllRec(root, value, sb, 0, stats);
         return sb.toString().trim();
     }
 
+    /**
+     * Adds every stored value comparing equal to {@code value} to a list, in
+     * the same preorder as {@link #findAll(Object)}.
+     *
+     * @param value
+     *              the value to search for
+     * @param out
+     *              the list receiving the matches
+     */
+    public void findAll(T value, List<T> out) {
+        findAllRec(root, value, out);
+    }
+
+    /**
+     * Recursive helper method for {@link #findAll(Object, List)}.
+     *
+     * @param curr
+     *              the current node being examined
+     * @param value
+     *              the value to find
+     * @param out
+     *              the list accumulating results
+     */
+    private void findAllRec(Node curr, T value, List<T> out) {
+        if (curr == null)
+            return;
+
+        if (curr.data.compareTo(value) == 0) {
+            out.add(curr.data);
+        }
+        findAllRec(curr.left, value, out);
+        findAllRec(curr.right, value, out);
+    }
+
     /**
      * Recursive helper method for {@link #findAll(Object)}.
      *
@@ -280,16 +581,148 @@ class BST<T extends Comparable<T>> {
      *              the value to find
      * @param sb
      *              the string builder accumulating results
+     * @param depth
+     *              the depth of {@code curr}
+     * @param stats
+     *              receives the counts
      */
-    private void findAllRec(Node curr, T value, StringBuilder sb) {
+    private void findAllRec(
+        Node curr,
+        T value,
+        StringBuilder sb,
+        int depth,
+        QueryStats stats) {
         if (curr == null)
             return;
+        stats.visit(depth);
+        stats.compare();
 
         if (curr.data.compareTo(value) == 0) {
             sb.append(curr.data.toString()).append("\n");
+            stats.match();
+        }
+        findAllRec(curr.left, value, sb, depth + 1, stats);
+        findAllRec(curr.right, value, sb, depth + 1, stats);
+    }
+
+    /**
+     * Reports the shape of the tree in one pass over its nodes. The walk is
+     * iterative, so it works on the degenerate trees it is meant to
+     * diagnose.
+     *
+     * @return the report
+     */
+    public TreeHealth health() {
+        TreeHealth health = new TreeHealth();
+        // Post-order; the stack is the path from the root to the node
+        ArrayList<Node> path = new ArrayList<>();
+        Node curr = root;
+        Node done = null;
+        while (curr != null || !path.isEmpty()) {
+            if (curr != null) {
+                path.add(curr);
+                curr = curr.left;
+                continue;
+            }
+            Node top = path.get(path.size() - 1);
+            if (top.right != null && top.right != done) {
+                curr = top.right;
+            } else {
+                path.remove(path.size() - 1);
+                health.addNode(path.size(), top.left != null,
+                    top.right != null);
+                done = top;
+            }
+        }
+        return health;
+    }
+
+    /**
+     * Lists the values in preorder along with the shape of the tree, so that
+     * {@link #loadPreorder(List, BitSet)} can rebuild exactly this tree.
+     *
+     * @param out
+     *              receives the values, in preorder
+     * @param shape
+     *              for the {@code i}th value in preorder, bit {@code 2i} is
+     *              set if it has a left child and bit {@code 2i + 1} if it
+     *              has a right child
+     */
+    void preorder(List<T> out, BitSet shape) {
+        preorderRec(root, out, shape);
+    }
+
+    /**
+     * Recursive helper for {@link #preorder(List, BitSet)}.
+     *
+     * @param curr
+     *              the current node
+     * @param out
+     *              receives the values
+     * @param shape
+     *              receives the child flags
+     */
+    private void preorderRec(Node curr, List<T> out, BitSet shape) {
+        if (curr == null)
+            return;
+        int i = out.size();
+        out.add(curr.data);
+        shape.set(2 * i, curr.left != null);
+        shape.set(2 * i + 1, curr.right != null);
+        preorderRec(curr.left, out, shape);
+        preorderRec(curr.right, out, shape);
+    }
+
+    /**
+     * Replaces the contents of this tree with the tree described by
+     * {@link #preorder(List, BitSet)}. No values are compared, so the caller
+     * must pass a shape that came from a valid tree.
+     *
+     * @param values
+     *               the values, in preorder
+     * @param shape
+     *               the child flags
+     * @throws IllegalArgumentException
+     *                                  if the shape does not use exactly
+     *                                  {@code values.size()} nodes
+     */
+    void loadPreorder(List<T> values, BitSet shape) {
+        int[] next = new int[] { 0 };
+        Node loaded = values.isEmpty()
+            ? null
+            : loadRec(values, shape, next);
+        if (next[0] != values.size()) {
+            throw new IllegalArgumentException("shape does not match "
+                + values.size() + " values");
+        }
+        root = loaded;
+    }
+
+    /**
+     * Recursive helper for {@link #loadPreorder(List, BitSet)}.
+     *
+     * @param values
+     *               the values, in preorder
+     * @param shape
+     *               the child flags
+     * @param next
+     *               index of the next value to use
+     * @return the rebuilt subtree
+     */
+    private Node loadRec(List<T> values, BitSet shape, int[] next) {
+        int i = next[0]++;
+        if (i >= values.size()) {
+            throw new IllegalArgumentException("shape does not match "
+                + values.size() + " values");
+        }
+        Node node = new Node(values.get(i));
+        if (shape.get(2 * i)) {
+            node.left = loadRec(values, shape, next);
+        }
+        if (shape.get(2 * i + 1)) {
+            node.right = loadRec(values, shape, next);
         }
-        findAllRec(curr.left, value, sb);
-        findAllRec(curr.right, value, sb);
+        return node;
     }
 
     /**
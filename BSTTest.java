@@ -1,3 +1,5 @@
+import java.util.ArrayList;
+import java.util.Arrays;
 import org.junit.Before;
 import org.junit.Test;
 import student.TestCase;
@@ -406,4 +408,40 @@ public class BSTTest extends TestCase {
     assertTrue("Child should be at level 1", printed.contains("5"));
     assertTrue("Leaf should be at level 2", printed.contains("2"));
   }
+
+  /**
+   * Tests that deleting a node with two children removes only the copy of
+   * the left maximum that replaces it, not other values equal to it.
+   */
+  @Test
+  public void testDeleteAllKeepsEqualCopiesOfReplacement() {
+    tree.insert(10);
+    tree.insert(5);
+    tree.insert(5);
+    tree.insert(15);
+    assertTrue(tree.deleteAll(10));
+    assertEquals("1  5\n05\n1  15\n", tree.printTree());
+    assertEquals("5\n5", tree.findAll(5));
+  }
+
+  /**
+   * Tests that a bulk load builds a balanced tree and merges with the
+   * values already in it, keeping equal values on the left.
+   */
+  @Test
+  public void testBulkLoad() {
+    assertEquals(7, tree.bulkLoad(Arrays.asList(7, 3, 5, 1, 6, 2,
+        4)));
+    assertEquals("2    1\n1  2\n2    3\n04\n2    5\n1  6\n2    7\n",
+        tree.printTree());
+
+    st.insert(5);
+    assertEquals(5, st.bulkLoad(Arrays.asList(5, 8, 3, 5)));
+    assertEquals("3      3\n2    5\n1  5\n05\n1  8\n", st.printTree());
+    assertEquals("5\n5\n5", st.findAll(5));
+    st.insert(5);
+    assertTrue(st.deleteAll(5));
+    assertEquals("", st.findAll(5));
+    assertEquals(0, new BST<Integer>().bulkLoad(new ArrayList<>()));
+  }
 }
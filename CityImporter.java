@@ -0,0 +1,548 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Streaming importer for city lists in CSV or TSV form, such as gazetteer
+ * dumps. Each line is one city; the name, x and y columns are chosen by
+ * number, and any other columns are ignored. A field may be quoted with
+ * {@code "} so it can hold the delimiter, with {@code ""} standing for a
+ * quote inside it; a quoted field cannot span lines. Unquoted fields are
+ * trimmed of spaces. Blank lines are skipped, and so is the first line if
+ * its x or y column is not a number (a header).
+ * <p>
+ * Like {@link CommandReader}, bytes are read from a channel into one
+ * reusable buffer and parsed in place: no regular expressions, no
+ * {@code split}, and the only objects made per line are the name and its
+ * {@link City}. The accepted cities are handed to
+ * {@link GISDB#bulkLoad(List)} in one batch at the end, which builds both
+ * trees balanced instead of inserting city by city.
+ * <p>
+ * A line is rejected if a column is missing, the name is empty, x or y is
+ * not an integer from 0 to {@link GISDB#MAXCOORD}, or another city (in the
+ * database or earlier in the file) has the same coordinates. The
+ * {@link Report} counts rejected lines and describes the first
+ * {@link #MAX_REPORTED} of them.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class CityImporter {
+
+    /** Default size of the read buffer. */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    /** Most rejected lines described in a report. */
+    public static final int MAX_REPORTED = 100;
+
+    /**
+     * Outcome of an import.
+     */
+    public static final class Report {
+        private final int accepted;
+        private final int rejected;
+        private final List<String> rejections;
+
+        /**
+         * Creates a report.
+         *
+         * @param accepted
+         *                   number of cities inserted
+         * @param rejected
+         *                   number of lines rejected
+         * @param rejections
+         *                   descriptions of the first rejected lines
+         */
+        Report(int accepted, int rejected, List<String> rejections) {
+            this.accepted = accepted;
+            this.rejected = rejected;
+            this.rejections = Collections.unmodifiableList(rejections);
+        }
+
+        /**
+         * @return the number of cities inserted
+         */
+        public int getAccepted() {
+            return accepted;
+        }
+
+        /**
+         * @return the number of lines rejected
+         */
+        public int getRejected() {
+            return rejected;
+        }
+
+        /**
+         * Returns descriptions of the first {@link #MAX_REPORTED} rejected
+         * lines, in file order, such as {@code "line 7: x out of range"}.
+         *
+         * @return the descriptions
+         */
+        public List<String> getRejections() {
+            return rejections;
+        }
+
+        /**
+         * @return a one-line summary
+         */
+        @Override
+        public String toString() {
+            return accepted + " cities imported, " + rejected
+                + " lines rejected";
+        }
+    }
+
+    /** Field delimiter. */
+    private final byte delimiter;
+
+    /** Column numbers, counting from 0. */
+    private final int nameColumn;
+    private final int xColumn;
+    private final int yColumn;
+
+    /** Number of columns a line needs. */
+    private final int columns;
+
+    /** Bytes not yet parsed are {@code [position, limit)}. */
+    private ByteBuffer buffer;
+
+    /** Offset from the buffer position already checked for a newline. */
+    private int scanned;
+
+    /** Field boundaries of the current line, two ints per column. */
+    private final int[] fields;
+
+    /** Whether each field of the current line was quoted. */
+    private final boolean[] quoted;
+
+    /** Why the current line was rejected, or {@code null}. */
+    private String problem;
+
+    /** Value of the last number parsed by {@link #parseCoordinate}. */
+    private int value;
+
+    /**
+     * Creates an importer for lines of the form {@code name,x,y}, or
+     * {@code name<TAB>x<TAB>y} for a tab delimiter.
+     *
+     * @param delimiter
+     *                  the field delimiter, such as {@code ','} or
+     *                  {@code '\t'}
+     */
+    public CityImporter(char delimiter) {
+        this(delimiter, 0, 1, 2);
+    }
+
+    /**
+     * Creates an importer.
+     *
+     * @param delimiter
+     *                   the field delimiter, an ASCII character other than
+     *                   {@code "}
+     * @param nameColumn
+     *                   column of the name, counting from 0
+     * @param xColumn
+     *                   column of the x-coordinate
+     * @param yColumn
+     *                   column of the y-coordinate
+     * @throws IllegalArgumentException
+     *                                  if the delimiter or a column is not
+     *                                  valid
+     */
+    public CityImporter(char delimiter, int nameColumn, int xColumn,
+        int yColumn) {
+        if (delimiter >= 0x80 || delimiter == '"' || delimiter == '\n'
+            || delimiter == '\r') {
+            throw new IllegalArgumentException("bad delimiter");
+        }
+        if (nameColumn < 0 || xColumn < 0 || yColumn < 0
+            || nameColumn == xColumn || nameColumn == yColumn
+            || xColumn == yColumn) {
+            throw new IllegalArgumentException("bad columns");
+        }
+        this.delimiter = (byte)delimiter;
+        this.nameColumn = nameColumn;
+        this.xColumn = xColumn;
+        this.yColumn = yColumn;
+        columns = Math.max(nameColumn, Math.max(xColumn, yColumn)) + 1;
+        fields = new int[2 * columns];
+        quoted = new boolean[columns];
+    }
+
+    /**
+     * Returns an importer for a file's name: tab-delimited for
+     * {@code .tsv} and {@code .tab} files, comma-delimited otherwise, with
+     * the columns in name, x, y order.
+     *
+     * @param path
+     *             the file
+     * @return the importer
+     */
+    public static CityImporter forFile(Path path) {
+        String name = path.getFileName().toString().toLowerCase();
+        boolean tabs = name.endsWith(".tsv") || name.endsWith(".tab");
+        return new CityImporter(tabs ? '\t' : ',');
+    }
+
+    /**
+     * Imports a file into a database.
+     *
+     * @param path
+     *             the file
+     * @param db
+     *             the database
+     * @return what was imported and rejected
+     * @throws IOException
+     *                     if the file cannot be read
+     */
+    public Report importFile(Path path, GISDB db) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.READ)) {
+            return importFrom(channel, db);
+        }
+    }
+
+    /**
+     * Imports every line a channel supplies into a database. Nothing is
+     * inserted if reading fails.
+     *
+     * @param channel
+     *                where to read lines from
+     * @param db
+     *                the database
+     * @return what was imported and rejected
+     * @throws IOException
+     *                     if reading fails
+     */
+    public Report importFrom(ReadableByteChannel channel, GISDB db)
+        throws IOException {
+        buffer = ByteBuffer.allocate(DEFAULT_BUFFER_SIZE);
+        buffer.limit(0);
+        scanned = 0;
+        ArrayList<City> cities = new ArrayList<>();
+        long[] lines = new long[64];
+        List<String> rejections = new ArrayList<>();
+        int rejected = 0;
+
+        long lineNumber = 0;
+        while (true) {
+            int start = buffer.position();
+            int limit = buffer.limit();
+            int end = -1;
+            for (int i = start + scanned; i < limit; i++) {
+                if (buffer.get(i) == '\n') {
+                    end = i;
+                    break;
+                }
+            }
+            if (end < 0) {
+                scanned = limit - start;
+                if (fill(channel)) {
+                    continue;
+                }
+                if (!buffer.hasRemaining()) {
+                    break;
+                }
+                start = buffer.position();
+                end = buffer.limit(); // last line has no newline
+            }
+            scanned = 0;
+            lineNumber++;
+            buffer.position(Math.min(end + 1, buffer.limit()));
+
+            City city = parseLine(start, end);
+            if (city != null) {
+                if (cities.size() == lines.length) {
+                    lines = Arrays.copyOf(lines, lines.length * 2);
+                }
+                lines[cities.size()] = lineNumber;
+                cities.add(city);
+            } else if (problem != null && !(lineNumber == 1
+                && problem.startsWith("not a number"))) {
+                if (rejected++ < MAX_REPORTED) {
+                    rejections.add("line " + lineNumber + ": " + problem);
+                }
+            }
+        }
+        buffer = null;
+
+        boolean[] inserted = db.bulkLoad(cities);
+        int accepted = 0;
+        List<String> duplicates = new ArrayList<>();
+        for (int i = 0; i < inserted.length; i++) {
+            if (inserted[i]) {
+                accepted++;
+            } else {
+                rejected++;
+                if (duplicates.size() < MAX_REPORTED) {
+                    duplicates.add("line " + lines[i]
+                        + ": duplicate coordinates");
+                }
+            }
+        }
+        return new Report(accepted, rejected, merge(rejections,
+            duplicates));
+    }
+
+    /**
+     * Reads more bytes into the buffer, keeping the unparsed bytes at the
+     * front and growing the buffer if one line fills all of it.
+     *
+     * @param channel
+     *                where to read from
+     * @return {@code false} if there are no more bytes
+     * @throws IOException
+     *                     if reading fails
+     */
+    private boolean fill(ReadableByteChannel channel) throws IOException {
+        if (buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+            ByteBuffer bigger = ByteBuffer.allocate(buffer.capacity() * 2);
+            bigger.put(buffer);
+            buffer = bigger;
+        } else {
+            buffer.compact();
+        }
+        int read = channel.read(buffer);
+        buffer.flip();
+        return read > 0;
+    }
+
+    /**
+     * Parses one line, setting {@link #problem} if it is rejected.
+     *
+     * @param start
+     *              index of the first byte of the line
+     * @param end
+     *              index just past the last byte (the newline, if any)
+     * @return the city, or {@code null} if the line is blank or rejected
+     */
+    private City parseLine(int start, int end) {
+        problem = null;
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        if (skipSpace(start, end) == end) {
+            return null; // blank
+        }
+
+        int column = 0;
+        int from = start;
+        while (column < columns) {
+            int next = splitField(from, end, column);
+            if (next < 0) {
+                return null;
+            }
+            column++;
+            if (next >= end) {
+                break;
+            }
+            from = next + 1; // past the delimiter
+        }
+        if (column < columns) {
+            problem = "missing column " + column;
+            return null;
+        }
+
+        if (!parseCoordinate(xColumn, "x")) {
+            return null;
+        }
+        int x = value;
+        if (!parseCoordinate(yColumn, "y")) {
+            return null;
+        }
+        int y = value;
+        String name = decodeField(nameColumn);
+        if (name.isEmpty()) {
+            problem = "empty name";
+            return null;
+        }
+        return new City(name, x, y);
+    }
+
+    /**
+     * Finds the bounds of one field and records them in {@link #fields}.
+     *
+     * @param from
+     *               first byte of the field
+     * @param end
+     *               end of the line
+     * @param column
+     *               the field's column
+     * @return index of the delimiter after the field, or {@code end}; -1
+     *         if the field is not valid
+     */
+    private int splitField(int from, int end, int column) {
+        int i = skipSpace(from, end);
+        if (i < end && buffer.get(i) == '"') {
+            int close = i + 1;
+            while (true) {
+                while (close < end && buffer.get(close) != '"') {
+                    close++;
+                }
+                if (close + 1 < end && buffer.get(close + 1) == '"') {
+                    close += 2; // "" inside a quoted field
+                    continue;
+                }
+                break;
+            }
+            if (close >= end) {
+                problem = "unterminated quote";
+                return -1;
+            }
+            int after = skipSpace(close + 1, end);
+            if (after < end && buffer.get(after) != delimiter) {
+                problem = "text after closing quote";
+                return -1;
+            }
+            fields[2 * column] = i + 1;
+            fields[2 * column + 1] = close;
+            quoted[column] = true;
+            return after;
+        }
+
+        int next = i;
+        while (next < end && buffer.get(next) != delimiter) {
+            next++;
+        }
+        int to = next;
+        while (to > i && isSpace(buffer.get(to - 1))) {
+            to--;
+        }
+        fields[2 * column] = i;
+        fields[2 * column + 1] = to;
+        quoted[column] = false;
+        return next;
+    }
+
+    /**
+     * Parses a field as a coordinate, setting {@link #value}.
+     *
+     * @param column
+     *               the field's column
+     * @param axis
+     *               name of the coordinate, for the problem description
+     * @return {@code true} if the field is an integer from 0 to
+     *         {@link GISDB#MAXCOORD}
+     */
+    private boolean parseCoordinate(int column, String axis) {
+        int from = fields[2 * column];
+        int to = fields[2 * column + 1];
+        int i = from;
+        boolean negative = i < to && buffer.get(i) == '-';
+        if (negative || (i < to && buffer.get(i) == '+')) {
+            i++;
+        }
+        if (i == to) {
+            problem = "not a number: " + axis;
+            return false;
+        }
+        long parsed = 0;
+        for (; i < to; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                problem = "not a number: " + axis;
+                return false;
+            }
+            parsed = Math.min(parsed * 10 + digit, Integer.MAX_VALUE);
+        }
+        if (negative || parsed > GISDB.MAXCOORD) {
+            problem = axis + " out of range";
+            return false;
+        }
+        value = (int)parsed;
+        return true;
+    }
+
+    /**
+     * Decodes a field as UTF-8, turning {@code ""} back into {@code "} in
+     * quoted fields.
+     *
+     * @param column
+     *               the field's column
+     * @return the text
+     */
+    private String decodeField(int column) {
+        int from = fields[2 * column];
+        int to = fields[2 * column + 1];
+        String text = new String(buffer.array(), buffer.arrayOffset() + from,
+            to - from, StandardCharsets.UTF_8);
+        if (quoted[column] && text.indexOf('"') >= 0) {
+            text = text.replace("\"\"", "\"");
+        }
+        return text;
+    }
+
+    /**
+     * Returns the first index at or after {@code from} that is not a space.
+     *
+     * @param from
+     *             where to start
+     * @param to
+     *             where to stop
+     * @return the index, or {@code to}
+     */
+    private int skipSpace(int from, int to) {
+        while (from < to && isSpace(buffer.get(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * Returns whether a byte is a space that is not the delimiter.
+     *
+     * @param b
+     *          the byte
+     * @return {@code true} for a space
+     */
+    private boolean isSpace(byte b) {
+        return (b == ' ' || b == '\t') && b != delimiter;
+    }
+
+    /**
+     * Merges two lists of rejection descriptions by line number, keeping
+     * the first {@link #MAX_REPORTED}.
+     *
+     * @param a
+     *          descriptions in line order
+     * @param b
+     *          more descriptions in line order
+     * @return the merged list
+     */
+    private static List<String> merge(List<String> a, List<String> b) {
+        List<String> merged = new ArrayList<>(a.size() + b.size());
+        int i = 0;
+        int j = 0;
+        while (merged.size() < MAX_REPORTED && (i < a.size()
+            || j < b.size())) {
+            if (j == b.size() || (i < a.size() && lineOf(a.get(i)) < lineOf(b
+                .get(j)))) {
+                merged.add(a.get(i++));
+            } else {
+                merged.add(b.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Returns the line number a rejection description starts with.
+     *
+     * @param rejection
+     *                  a description such as {@code "line 7: ..."}
+     * @return the line number
+     */
+    private static long lineOf(String rejection) {
+        return Long.parseLong(rejection.substring(5, rejection.indexOf(':')));
+    }
+}
@@ -0,0 +1,184 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import student.TestCase;
+
+/**
+ * Tests for {@link CityImporter}.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class CityImporterTest extends TestCase {
+
+    private GISDB db;
+
+    /**
+     * Creates an empty database.
+     */
+    public void setUp() {
+        db = new GISDB();
+    }
+
+    /**
+     * Returns a channel over some text.
+     *
+     * @param text
+     *             the text
+     * @return the channel
+     */
+    private static ReadableByteChannel channel(String text) {
+        return Channels.newChannel(new ByteArrayInputStream(text.getBytes(
+            StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Tests a plain CSV file with a header.
+     *
+     * @throws IOException
+     *                     on failure
+     */
+    public void testCsvWithHeader() throws IOException {
+        CityImporter.Report report = new CityImporter(',').importFrom(channel(
+            "name,x,y\nChicago,10,20\r\n\n  Atlanta , 30 ,40\nZürich,5,6"),
+            db);
+        assertEquals(3, report.getAccepted());
+        assertEquals(0, report.getRejected());
+        assertEquals("Chicago (10, 20)", db.info("Chicago"));
+        assertEquals("Atlanta", db.info(30, 40));
+        assertEquals("Zürich", db.info(5, 6));
+        assertEquals("3 cities imported, 0 lines rejected", report
+            .toString());
+    }
+
+    /**
+     * Tests quoted names holding the delimiter and quotes.
+     *
+     * @throws IOException
+     *                     on failure
+     */
+    public void testQuotedFields() throws IOException {
+        CityImporter.Report report = new CityImporter(',').importFrom(channel(
+            "\"Washington, D.C.\",1,2\n\"The \"\"Big\"\" Apple\",3,4\n"
+                + "\"Open,5,6\n\"Bad\"x,7,8\n"), db);
+        assertEquals(2, report.getAccepted());
+        assertEquals("Washington, D.C.", db.info(1, 2));
+        assertEquals("The \"Big\" Apple", db.info(3, 4));
+        assertEquals(2, report.getRejected());
+        assertEquals("line 3: unterminated quote", report.getRejections()
+            .get(0));
+        assertEquals("line 4: text after closing quote", report
+            .getRejections().get(1));
+    }
+
+    /**
+     * Tests that bad lines are rejected with a reason and line number.
+     *
+     * @throws IOException
+     *                     on failure
+     */
+    public void testRejections() throws IOException {
+        db.insert("Existing", 9, 9);
+        CityImporter.Report report = new CityImporter(',').importFrom(channel(
+            "A,1,1\nB,-1,1\nC,1,32768\nD,1\n,2,2\nE,x,3\nF,9,9\nG,1,1\n"
+                + "H,99999999999,1\nI,4,4"), db);
+        assertEquals(2, report.getAccepted());
+        assertEquals(8, report.getRejected());
+        assertEquals(Arrays.asList("line 2: x out of range",
+            "line 3: y out of range", "line 4: missing column 2",
+            "line 5: empty name", "line 6: not a number: x",
+            "line 7: duplicate coordinates", "line 8: duplicate coordinates",
+            "line 9: x out of range"), report.getRejections());
+        assertEquals("Existing", db.info(9, 9));
+        assertEquals("A", db.info(1, 1));
+        assertEquals("I", db.info(4, 4));
+    }
+
+    /**
+     * Tests that only the first MAX_REPORTED rejections are described.
+     *
+     * @throws IOException
+     *                     on failure
+     */
+    public void testRejectionsAreCapped() throws IOException {
+        StringBuilder text = new StringBuilder("first,1,1\n");
+        for (int i = 0; i < 300; i++) {
+            text.append("bad,-1,0\n").append("dup,1,1\n");
+        }
+        CityImporter.Report report = new CityImporter(',').importFrom(channel(
+            text.toString()), db);
+        assertEquals(1, report.getAccepted());
+        assertEquals(600, report.getRejected());
+        assertEquals(CityImporter.MAX_REPORTED, report.getRejections()
+            .size());
+        assertEquals("line 2: x out of range", report.getRejections().get(0));
+        assertEquals("line 3: duplicate coordinates", report.getRejections()
+            .get(1));
+    }
+
+    /**
+     * Tests chosen columns, tabs, and lines longer than the read buffer.
+     *
+     * @throws IOException
+     *                     on failure
+     */
+    public void testColumnsAndLongLines() throws IOException {
+        String longName = "L" + "o".repeat(CityImporter.DEFAULT_BUFFER_SIZE
+            * 2);
+        CityImporter importer = new CityImporter('\t', 2, 0, 3);
+        CityImporter.Report report = importer.importFrom(channel(
+            "7\tignored\tSeven, Here\t8\textra\n1\t\t" + longName + "\t2\n"),
+            db);
+        assertEquals(2, report.getAccepted());
+        assertEquals("Seven, Here", db.info(7, 8));
+        assertEquals(longName, db.info(1, 2));
+
+        Exception thrown = null;
+        try {
+            new CityImporter(',', 0, 0, 1);
+        } catch (IllegalArgumentException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+    }
+
+    /**
+     * Tests importing a file, and that the delimiter follows the file
+     * name.
+     *
+     * @throws IOException
+     *                     on failure
+     */
+    public void testImportFile() throws IOException {
+        Path file = Files.createTempFile("cities", ".tsv");
+        try {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < 20000; i++) {
+                text.append("City").append(i).append('\t').append(i % 30000)
+                    .append('\t').append(i * 7 % 30000).append('\n');
+            }
+            Files.write(file, text.toString().getBytes(
+                StandardCharsets.UTF_8));
+            CityImporter.Report report = CityImporter.forFile(file)
+                .importFile(file, db);
+            assertEquals(20000, report.getAccepted());
+            assertEquals("City12345", db.info(12345, 12345 * 7 % 30000));
+            int deepest = 0;
+            for (String line : db.debug().split("\n")) {
+                deepest = Math.max(deepest, Integer.parseInt(line
+                    .replaceFirst("^(\\d+).*", "$1")));
+            }
+            assertTrue(deepest <= 15);
+        } finally {
+            Files.delete(file);
+        }
+        assertNotNull(CityImporter.forFile(Paths.get("a.csv")));
+    }
+}
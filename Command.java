@@ -0,0 +1,134 @@
+/**
+ * One parsed line of a command file, matching one call on the {@link GIS}
+ * interface.
+ * <p>
+ * A {@code Command} is a reusable holder: {@link CommandReader} fills the
+ * same object again for every line, so replaying a long file does not
+ * allocate a new command per line. Only the fields used by the current
+ * {@link Type} are meaningful.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class Command {
+
+    /**
+     * The kinds of command, one per {@link GIS} method (plus INVALID for
+     * lines that could not be parsed).
+     */
+    public enum Type {
+        /** {@code insert <name> <x> <y>} */
+        INSERT,
+        /** {@code delete <x> <y>} */
+        DELETE_AT,
+        /** {@code delete <name>} */
+        DELETE_NAME,
+        /** {@code info <x> <y>} */
+        INFO_AT,
+        /** {@code info <name>} */
+        INFO_NAME,
+        /** {@code search <x> <y> <radius>} */
+        SEARCH,
+        /** {@code debug} */
+        DEBUG,
+        /** {@code print} */
+        PRINT,
+        /** {@code clear} */
+        CLEAR,
+        /** A line that is not a valid command. */
+        INVALID
+    }
+
+    /** The kind of command. */
+    private Type type;
+
+    /** City name, or the line text for INVALID. */
+    private String name;
+
+    /** X-coordinate. */
+    private int x;
+
+    /** Y-coordinate. */
+    private int y;
+
+    /** Search radius. */
+    private int radius;
+
+    /** Line number in the command file, starting at 1. */
+    private long line;
+
+    /**
+     * Sets every field at once.
+     *
+     * @param newType
+     *                  the kind of command
+     * @param newName
+     *                  city name (or line text for INVALID), may be
+     *                  {@code null}
+     * @param newX
+     *                  x-coordinate
+     * @param newY
+     *                  y-coordinate
+     * @param newRadius
+     *                  search radius
+     * @param newLine
+     *                  line number
+     */
+    void set(
+        Type newType,
+        String newName,
+        int newX,
+        int newY,
+        int newRadius,
+        long newLine) {
+        type = newType;
+        name = newName;
+        x = newX;
+        y = newY;
+        radius = newRadius;
+        line = newLine;
+    }
+
+    /**
+     * @return the kind of command
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return the city name, or the line text for INVALID
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the x-coordinate
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * @return the y-coordinate
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * @return the search radius
+     */
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * @return the line number in the command file, starting at 1
+     */
+    public long getLine() {
+        return line;
+    }
+}
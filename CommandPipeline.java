@@ -0,0 +1,273 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a command file as a three-stage pipeline, so parsing and writing
+ * output overlap with the database work:
+ * <ol>
+ * <li>a parser thread reads commands from a {@link CommandReader},</li>
+ * <li>an executor thread runs them on the database one at a time, in file
+ * order,</li>
+ * <li>the calling thread writes each output.</li>
+ * </ol>
+ * The stages share one bounded ring of slots, each holding a
+ * {@link Command} and its output. Each stage has a cursor counting the slots
+ * it has finished. A stage only works on slots the stage before it has
+ * finished, and the parser only reuses a slot after its output has been
+ * written, so at most {@code capacity} commands are in flight. Commands run
+ * strictly in order on a single thread, so the output is byte for byte the
+ * same as {@link CommandProcessor#run(CommandReader, Writer)}.
+ * <p>
+ * A stage with nothing to do spins briefly, then yields, then parks for a
+ * short time, so an idle pipeline does not hold a core.
+ * <p>
+ * A pipeline runs one file at a time and is not itself thread-safe.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class CommandPipeline {
+
+    /** Default number of slots in the ring. */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /** Idle rounds spent spinning before yielding. */
+    private static final int SPIN_LIMIT = 100;
+
+    /** Idle rounds spent yielding before parking. */
+    private static final int YIELD_LIMIT = 200;
+
+    /** How long an idle stage parks, in nanoseconds. */
+    private static final long PARK_NANOS = 50_000L;
+
+    /** Runs the commands. */
+    private final CommandProcessor processor;
+
+    /** Command in each slot. */
+    private final Command[] commands;
+
+    /** Output of each slot's command, once run. */
+    private final String[] results;
+
+    /** Slot count minus one (the slot count is a power of two). */
+    private final int mask;
+
+    /** Number of commands parsed into slots. */
+    private final AtomicLong parsed = new AtomicLong();
+
+    /** Number of commands run. */
+    private final AtomicLong executed = new AtomicLong();
+
+    /** Number of outputs written. */
+    private final AtomicLong written = new AtomicLong();
+
+    /** Set once the parser has reached the end of the input. */
+    private volatile boolean parseDone;
+
+    /** Set once the executor has run every parsed command. */
+    private volatile boolean executeDone;
+
+    /** First exception thrown by any stage. */
+    private final AtomicReference<Throwable> failure =
+        new AtomicReference<>();
+
+    /**
+     * Creates a pipeline with the default ring size.
+     *
+     * @param processor
+     *                  runs the commands
+     */
+    public CommandPipeline(CommandProcessor processor) {
+        this(processor, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a pipeline.
+     *
+     * @param processor
+     *                  runs the commands
+     * @param capacity
+     *                  most commands in flight; rounded up to a power of two
+     */
+    public CommandPipeline(CommandProcessor processor, int capacity) {
+        this.processor = processor;
+        int size = Integer.highestOneBit(Math.max(capacity, 1) * 2 - 1);
+        commands = new Command[size];
+        results = new String[size];
+        for (int i = 0; i < size; i++) {
+            commands[i] = new Command();
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Runs every command from a reader, writing each output in order.
+     *
+     * @param reader
+     *               source of commands
+     * @param out
+     *               where to write the outputs (not flushed)
+     * @return the number of commands run
+     * @throws IOException
+     *                     if reading or writing fails
+     */
+    public long run(CommandReader reader, Writer out) throws IOException {
+        parsed.set(0);
+        executed.set(0);
+        written.set(0);
+        parseDone = false;
+        executeDone = false;
+        failure.set(null);
+
+        Thread parser = new Thread(() -> parse(reader), "pipeline-parse");
+        Thread executor = new Thread(this::execute, "pipeline-execute");
+        parser.setDaemon(true);
+        executor.setDaemon(true);
+        parser.start();
+        executor.start();
+        try {
+            write(out);
+        } catch (IOException | RuntimeException | Error e) {
+            failure.compareAndSet(null, e);
+        }
+
+        join(parser);
+        join(executor);
+        Throwable t = failure.get();
+        if (t instanceof IOException) {
+            throw (IOException)t;
+        }
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException)t;
+        }
+        if (t instanceof Error) {
+            throw (Error)t;
+        }
+        return written.get();
+    }
+
+    /**
+     * Parser stage: fills slots from the reader.
+     *
+     * @param reader
+     *               source of commands
+     */
+    private void parse(CommandReader reader) {
+        try {
+            long seq = 0;
+            int idle = 0;
+            while (failure.get() == null) {
+                if (seq - written.get() >= commands.length) {
+                    idle = idle(idle); // ring full
+                    continue;
+                }
+                if (!reader.next(commands[(int)seq & mask])) {
+                    break;
+                }
+                parsed.set(++seq);
+                idle = 0;
+            }
+        } catch (IOException | RuntimeException | Error e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            parseDone = true;
+        }
+    }
+
+    /**
+     * Executor stage: runs parsed commands in order.
+     */
+    private void execute() {
+        try {
+            long seq = 0;
+            int idle = 0;
+            while (failure.get() == null) {
+                if (parsed.get() > seq) {
+                    int slot = (int)seq & mask;
+                    results[slot] = processor.execute(commands[slot]);
+                    executed.set(++seq);
+                    idle = 0;
+                } else if (parseDone) {
+                    if (parsed.get() == seq) {
+                        break;
+                    }
+                } else {
+                    idle = idle(idle);
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            executeDone = true;
+        }
+    }
+
+    /**
+     * Writer stage: writes outputs in order. Runs on the calling thread.
+     *
+     * @param out
+     *            where to write
+     * @throws IOException
+     *                     if writing fails
+     */
+    private void write(Writer out) throws IOException {
+        long seq = 0;
+        int idle = 0;
+        while (failure.get() == null) {
+            if (executed.get() > seq) {
+                int slot = (int)seq & mask;
+                CommandProcessor.write(results[slot], out);
+                results[slot] = null;
+                written.set(++seq);
+                idle = 0;
+            } else if (executeDone) {
+                if (executed.get() == seq) {
+                    break;
+                }
+            } else {
+                idle = idle(idle);
+            }
+        }
+    }
+
+    /**
+     * Waits a little while a stage has nothing to do: spins first, then
+     * yields, then parks.
+     *
+     * @param rounds
+     *               idle rounds so far
+     * @return the new round count
+     */
+    private static int idle(int rounds) {
+        if (rounds < SPIN_LIMIT) {
+            Thread.onSpinWait();
+        } else if (rounds < YIELD_LIMIT) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        return rounds + 1;
+    }
+
+    /**
+     * Waits for a stage thread to finish.
+     *
+     * @param thread
+     *               the thread
+     * @throws IOException
+     *                     if interrupted while waiting
+     */
+    private static void join(Thread thread) throws IOException {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while waiting for " + thread
+                .getName(), e);
+        }
+    }
+}
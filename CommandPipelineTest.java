@@ -0,0 +1,140 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import student.TestCase;
+
+/**
+ * Tests for {@link CommandPipeline}.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class CommandPipelineTest extends TestCase {
+
+    private String commands;
+
+    /**
+     * Builds a random command file.
+     */
+    public void setUp() {
+        Random random = new Random(21);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            int x = random.nextInt(500);
+            int y = random.nextInt(500);
+            switch (random.nextInt(10)) {
+                case 0:
+                    text.append("delete ").append(x).append(' ').append(y);
+                    break;
+                case 1:
+                    text.append("delete N").append(random.nextInt(300));
+                    break;
+                case 2:
+                    text.append("search ").append(x).append(' ').append(y)
+                        .append(" 40");
+                    break;
+                case 3:
+                    text.append("info N").append(random.nextInt(300));
+                    break;
+                case 4:
+                    text.append(i % 500 == 0 ? "debug" : "info 1 1");
+                    break;
+                default:
+                    text.append("insert N").append(random.nextInt(300))
+                        .append(' ').append(x).append(' ').append(y);
+            }
+            text.append('\n');
+        }
+        commands = text.toString();
+    }
+
+    /**
+     * Creates a reader over the command file.
+     *
+     * @return the reader
+     */
+    private CommandReader reader() {
+        return new CommandReader(Channels.newChannel(new ByteArrayInputStream(
+            commands.getBytes(StandardCharsets.UTF_8))), 256);
+    }
+
+    /**
+     * Tests that the pipeline writes exactly what sequential processing
+     * writes, for ring sizes small enough to wrap many times.
+     *
+     * @throws IOException
+     *                     if reading or writing fails
+     */
+    public void testSameOutputAsSequential() throws IOException {
+        StringWriter expected = new StringWriter();
+        assertEquals(5000, new CommandProcessor(new GISDB()).run(reader(),
+            expected));
+
+        for (int capacity : new int[] { 1, 3, 64, 4096 }) {
+            StringWriter actual = new StringWriter();
+            CommandPipeline pipeline = new CommandPipeline(
+                new CommandProcessor(new GISDB()), capacity);
+            assertEquals(5000, pipeline.run(reader(), actual));
+            assertEquals(expected.toString(), actual.toString());
+        }
+    }
+
+    /**
+     * Tests that a failure while writing stops the pipeline and is thrown.
+     */
+    public void testWriteFailure() {
+        Writer broken = new Writer() {
+            @Override
+            public void write(char[] buf, int off, int len)
+                throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public void flush() {
+                // nothing buffered
+            }
+
+            @Override
+            public void close() {
+                // nothing to release
+            }
+        };
+        IOException thrown = null;
+        try {
+            new CommandPipeline(new CommandProcessor(new GISDB()), 8).run(
+                reader(), broken);
+        } catch (IOException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+        assertEquals("disk full", thrown.getMessage());
+    }
+
+    /**
+     * Tests that a failure while running a command is thrown.
+     *
+     * @throws IOException
+     *                     if reading fails
+     */
+    public void testExecuteFailure() throws IOException {
+        CommandProcessor failing = new CommandProcessor(new GISDB()) {
+            @Override
+            public String execute(Command command) {
+                throw new IllegalStateException("boom");
+            }
+        };
+        IllegalStateException thrown = null;
+        try {
+            new CommandPipeline(failing).run(reader(), new StringWriter());
+        } catch (IllegalStateException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+    }
+}
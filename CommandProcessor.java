@@ -0,0 +1,108 @@
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Runs parsed {@link Command}s against a {@link GIS} database and writes what
+ * each one returns.
+ * <p>
+ * Output format: for each command, the text returned by the matching
+ * {@link GIS} method is written, followed by a newline unless it already ends
+ * with one. {@code insert} and {@code clear} write {@code true} or
+ * {@code false}. Commands that return an empty string write nothing. A line
+ * that could not be parsed writes {@code Invalid command at line N: text}.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class CommandProcessor {
+
+    /** The database commands run against. */
+    private final GIS db;
+
+    /**
+     * Creates a processor.
+     *
+     * @param db
+     *           the database commands run against
+     */
+    public CommandProcessor(GIS db) {
+        this.db = db;
+    }
+
+    /**
+     * Runs one command.
+     *
+     * @param command
+     *                the command to run
+     * @return the command's output, before formatting
+     */
+    public String execute(Command command) {
+        switch (command.getType()) {
+            case INSERT:
+                return String.valueOf(db.insert(command.getName(),
+                    command.getX(), command.getY()));
+            case DELETE_AT:
+                return db.delete(command.getX(), command.getY());
+            case DELETE_NAME:
+                return db.delete(command.getName());
+            case INFO_AT:
+                return db.info(command.getX(), command.getY());
+            case INFO_NAME:
+                return db.info(command.getName());
+            case SEARCH:
+                return db.search(command.getX(), command.getY(),
+                    command.getRadius());
+            case DEBUG:
+                return db.debug();
+            case PRINT:
+                return db.print();
+            case CLEAR:
+                return String.valueOf(db.clear());
+            default:
+                return "Invalid command at line " + command.getLine() + ": "
+                    + command.getName();
+        }
+    }
+
+    /**
+     * Writes one command's output in the format described above.
+     *
+     * @param result
+     *               what {@link #execute(Command)} returned
+     * @param out
+     *               where to write
+     * @throws IOException
+     *                     if writing fails
+     */
+    public static void write(String result, Writer out) throws IOException {
+        if (result.isEmpty()) {
+            return;
+        }
+        out.write(result);
+        if (result.charAt(result.length() - 1) != '\n') {
+            out.write('\n');
+        }
+    }
+
+    /**
+     * Runs every command from a reader, in order, writing each output.
+     *
+     * @param reader
+     *               source of commands
+     * @param out
+     *               where to write the outputs (not flushed)
+     * @return the number of commands run
+     * @throws IOException
+     *                     if reading or writing fails
+     */
+    public long run(CommandReader reader, Writer out) throws IOException {
+        Command command = new Command();
+        long count = 0;
+        while (reader.next(command)) {
+            write(execute(command), out);
+            count++;
+        }
+        return count;
+    }
+}
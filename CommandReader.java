@@ -0,0 +1,451 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming parser for command files.
+ * <p>
+ * Each line holds one command, with words separated by spaces or tabs:
+ *
+ * <pre>
+ * insert &lt;name&gt; &lt;x&gt; &lt;y&gt;
+ * delete &lt;x&gt; &lt;y&gt;      or   delete &lt;name&gt;
+ * info &lt;x&gt; &lt;y&gt;        or   info &lt;name&gt;
+ * search &lt;x&gt; &lt;y&gt; &lt;radius&gt;
+ * debug
+ * print
+ * clear
+ * </pre>
+ *
+ * Command words are not case sensitive. A name is everything between the
+ * command word and the numbers, so it may contain spaces. Blank lines and
+ * lines starting with {@code #} are skipped, and both {@code \n} and
+ * {@code \r\n} line endings are accepted.
+ * <p>
+ * Bytes are read from a channel into one reusable buffer and parsed in
+ * place: numbers are read straight from the bytes, and the only object made
+ * per line is the name string, for commands that have one. The caller passes
+ * in the {@link Command} to fill, so one object can be reused for the whole
+ * file.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class CommandReader {
+
+    /** Default size of the read buffer. */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    /** Command words, lower case, as bytes. */
+    private static final byte[] INSERT = ascii("insert");
+    private static final byte[] DELETE = ascii("delete");
+    private static final byte[] INFO = ascii("info");
+    private static final byte[] SEARCH = ascii("search");
+    private static final byte[] DEBUG = ascii("debug");
+    private static final byte[] PRINT = ascii("print");
+    private static final byte[] CLEAR = ascii("clear");
+
+    /**
+     * Bytes not yet parsed are {@code [position, limit)}. Subclasses that
+     * supply bytes differently replace this in {@link #fill()}.
+     */
+    protected ByteBuffer buffer;
+
+    /** Source of bytes, or {@code null} for subclasses. */
+    private final ReadableByteChannel channel;
+
+    /** Offset from the buffer position already checked for a newline. */
+    private int scanned;
+
+    /** Number of lines consumed so far. */
+    private long lineNumber;
+
+    /** Scratch space for decoding names out of non-array buffers. */
+    private byte[] scratch = new byte[64];
+
+    /** Start of the last number token found by {@link #lastInt}. */
+    private int tokenStart;
+
+    /** Value of the last number token found by {@link #lastInt}. */
+    private int tokenValue;
+
+    /**
+     * Creates a reader with the default buffer size.
+     *
+     * @param channel
+     *                where to read commands from
+     */
+    public CommandReader(ReadableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a reader.
+     *
+     * @param channel
+     *                   where to read commands from
+     * @param bufferSize
+     *                   initial buffer size in bytes; the buffer grows if a
+     *                   single line does not fit
+     */
+    public CommandReader(ReadableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        buffer = ByteBuffer.allocate(Math.max(bufferSize, 16));
+        buffer.limit(0);
+    }
+
+    /**
+     * Creates a reader for a subclass that supplies its own bytes by
+     * overriding {@link #fill()}.
+     *
+     * @param initial
+     *                the first bytes to parse
+     */
+    protected CommandReader(ByteBuffer initial) {
+        channel = null;
+        buffer = initial;
+    }
+
+    /**
+     * Makes more bytes available in {@link #buffer}, keeping the unparsed
+     * bytes from its current position onward at the front.
+     *
+     * @return {@code false} if there are no more bytes
+     * @throws IOException
+     *                     if reading fails
+     */
+    protected boolean fill() throws IOException {
+        if (buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+            // One line fills the whole buffer: grow it
+            ByteBuffer bigger = ByteBuffer.allocate(buffer.capacity() * 2);
+            bigger.put(buffer);
+            buffer = bigger;
+        } else {
+            buffer.compact();
+        }
+        int read = channel.read(buffer);
+        buffer.flip();
+        return read > 0;
+    }
+
+    /**
+     * Returns the number of lines consumed so far.
+     *
+     * @return the line count
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Parses the next command.
+     *
+     * @param command
+     *                the object to fill in
+     * @return {@code false} at the end of the input, in which case
+     *         {@code command} is unchanged
+     * @throws IOException
+     *                     if reading fails
+     */
+    public boolean next(Command command) throws IOException {
+        while (true) {
+            int start = buffer.position();
+            int limit = buffer.limit();
+            int end = -1;
+            for (int i = start + scanned; i < limit; i++) {
+                if (buffer.get(i) == '\n') {
+                    end = i;
+                    break;
+                }
+            }
+
+            if (end < 0) {
+                scanned = limit - start;
+                if (fill()) {
+                    continue;
+                }
+                if (!buffer.hasRemaining()) {
+                    return false;
+                }
+                start = buffer.position();
+                end = buffer.limit(); // last line has no newline
+            }
+
+            scanned = 0;
+            lineNumber++;
+            buffer.position(Math.min(end + 1, buffer.limit()));
+            if (parseLine(start, end, command)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Parses one line.
+     *
+     * @param start
+     *                index of the first byte of the line
+     * @param end
+     *                index just past the last byte (the newline, if any)
+     * @param command
+     *                the object to fill in
+     * @return {@code false} if the line is blank or a comment
+     */
+    private boolean parseLine(int start, int end, Command command) {
+        int from = skipSpace(start, end);
+        int to = end;
+        while (to > from && isSpace(buffer.get(to - 1))) {
+            to--;
+        }
+        if (from == to || buffer.get(from) == '#') {
+            return false;
+        }
+
+        int wordEnd = from;
+        while (wordEnd < to && !isSpace(buffer.get(wordEnd))) {
+            wordEnd++;
+        }
+        int rest = skipSpace(wordEnd, to);
+
+        if (matches(from, wordEnd, INSERT)) {
+            if (lastInt(rest, to)) {
+                int y = tokenValue;
+                int nameEnd = tokenStart;
+                if (lastInt(rest, trimEnd(rest, nameEnd))) {
+                    int x = tokenValue;
+                    nameEnd = trimEnd(rest, tokenStart);
+                    if (nameEnd > rest) {
+                        command.set(Command.Type.INSERT,
+                            decode(rest, nameEnd), x, y, 0, lineNumber);
+                        return true;
+                    }
+                }
+            }
+        } else if (matches(from, wordEnd, DELETE)
+            || matches(from, wordEnd, INFO)) {
+            boolean delete = matches(from, wordEnd, DELETE);
+            if (parseCoordinates(rest, to, command, delete
+                ? Command.Type.DELETE_AT
+                : Command.Type.INFO_AT)) {
+                return true;
+            }
+            if (rest < to) {
+                command.set(delete
+                    ? Command.Type.DELETE_NAME
+                    : Command.Type.INFO_NAME, decode(rest, to), 0, 0, 0,
+                    lineNumber);
+                return true;
+            }
+        } else if (matches(from, wordEnd, SEARCH)) {
+            if (lastInt(rest, to)) {
+                int radius = tokenValue;
+                if (parseCoordinates(rest, trimEnd(rest, tokenStart), command,
+                    Command.Type.SEARCH)) {
+                    command.set(Command.Type.SEARCH, null, command.getX(),
+                        command.getY(), radius, lineNumber);
+                    return true;
+                }
+            }
+        } else if (rest == to) {
+            Command.Type type = null;
+            if (matches(from, wordEnd, DEBUG)) {
+                type = Command.Type.DEBUG;
+            } else if (matches(from, wordEnd, PRINT)) {
+                type = Command.Type.PRINT;
+            } else if (matches(from, wordEnd, CLEAR)) {
+                type = Command.Type.CLEAR;
+            }
+            if (type != null) {
+                command.set(type, null, 0, 0, 0, lineNumber);
+                return true;
+            }
+        }
+
+        command.set(Command.Type.INVALID, decode(from, to), 0, 0, 0,
+            lineNumber);
+        return true;
+    }
+
+    /**
+     * Parses {@code [from, to)} as exactly two numbers.
+     *
+     * @param from
+     *                start of the text
+     * @param to
+     *                end of the text (no trailing spaces)
+     * @param command
+     *                filled in on success
+     * @param type
+     *                the command type to set
+     * @return {@code true} if the text was two numbers
+     */
+    private boolean parseCoordinates(
+        int from,
+        int to,
+        Command command,
+        Command.Type type) {
+        if (!lastInt(from, to)) {
+            return false;
+        }
+        int y = tokenValue;
+        int xEnd = trimEnd(from, tokenStart);
+        if (!lastInt(from, xEnd) || tokenStart != from) {
+            return false;
+        }
+        command.set(type, null, tokenValue, y, 0, lineNumber);
+        return true;
+    }
+
+    /**
+     * Parses the last word of {@code [from, to)} as an integer, setting
+     * {@link #tokenStart} and {@link #tokenValue}.
+     *
+     * @param from
+     *             start of the text
+     * @param to
+     *             end of the text (no trailing spaces)
+     * @return {@code true} if the last word is an integer that fits in an
+     *         {@code int}
+     */
+    private boolean lastInt(int from, int to) {
+        int start = to;
+        while (start > from && !isSpace(buffer.get(start - 1))) {
+            start--;
+        }
+        if (start == to) {
+            return false;
+        }
+
+        int i = start;
+        boolean negative = buffer.get(i) == '-';
+        if (negative || buffer.get(i) == '+') {
+            i++;
+        }
+        if (i == to) {
+            return false;
+        }
+        long value = 0;
+        for (; i < to; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return false;
+            }
+            value = value * 10 + digit;
+            if (value > Integer.MAX_VALUE + 1L) {
+                return false;
+            }
+        }
+        if (negative) {
+            value = -value;
+        }
+        if (value > Integer.MAX_VALUE) {
+            return false;
+        }
+        tokenStart = start;
+        tokenValue = (int)value;
+        return true;
+    }
+
+    /**
+     * Returns whether the bytes {@code [from, to)} spell a command word,
+     * ignoring case.
+     *
+     * @param from
+     *             start of the word
+     * @param to
+     *             end of the word
+     * @param word
+     *             the command word, lower case
+     * @return {@code true} on a match
+     */
+    private boolean matches(int from, int to, byte[] word) {
+        if (to - from != word.length) {
+            return false;
+        }
+        for (int i = 0; i < word.length; i++) {
+            if ((buffer.get(from + i) | 0x20) != word[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes {@code [from, to)} as UTF-8.
+     *
+     * @param from
+     *             first byte
+     * @param to
+     *             end byte
+     * @return the text
+     */
+    private String decode(int from, int to) {
+        int length = to - from;
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + from,
+                length, StandardCharsets.UTF_8);
+        }
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(from, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the first index at or after {@code from} that is not a space.
+     *
+     * @param from
+     *             where to start
+     * @param to
+     *             where to stop
+     * @return the index, or {@code to}
+     */
+    private int skipSpace(int from, int to) {
+        while (from < to && isSpace(buffer.get(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * Returns {@code to} moved back over any spaces, but not before
+     * {@code from}.
+     *
+     * @param from
+     *             lower bound
+     * @param to
+     *             where to start
+     * @return the trimmed end
+     */
+    private int trimEnd(int from, int to) {
+        while (to > from && isSpace(buffer.get(to - 1))) {
+            to--;
+        }
+        return to;
+    }
+
+    /**
+     * Returns whether a byte separates words.
+     *
+     * @param b
+     *          the byte
+     * @return {@code true} for space, tab and carriage return
+     */
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    /**
+     * Encodes an ASCII word.
+     *
+     * @param word
+     *             the word
+     * @return its bytes
+     */
+    private static byte[] ascii(String word) {
+        return word.getBytes(StandardCharsets.US_ASCII);
+    }
+}
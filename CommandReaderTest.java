@@ -0,0 +1,165 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import student.TestCase;
+
+/**
+ * Tests for {@link CommandReader}.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class CommandReaderTest extends TestCase {
+
+    private Command command;
+
+    /**
+     * Creates the reusable command.
+     */
+    public void setUp() {
+        command = new Command();
+    }
+
+    /**
+     * Creates a reader over some text.
+     *
+     * @param text
+     *                   the command file contents
+     * @param bufferSize
+     *                   read buffer size
+     * @return the reader
+     */
+    private CommandReader reader(String text, int bufferSize) {
+        return new CommandReader(Channels.newChannel(new ByteArrayInputStream(
+            text.getBytes(StandardCharsets.UTF_8))), bufferSize);
+    }
+
+    /**
+     * Tests every command form.
+     *
+     * @throws IOException
+     *                     if reading fails
+     */
+    public void testAllCommands() throws IOException {
+        CommandReader in = reader("insert Chicago 100 150\n"
+            + "delete 5 6\ndelete Chicago\ninfo 7 8\ninfo Chicago\n"
+            + "search -5 10 20\ndebug\nprint\nclear", 1024);
+
+        assertTrue(in.next(command));
+        assertEquals(Command.Type.INSERT, command.getType());
+        assertEquals("Chicago", command.getName());
+        assertEquals(100, command.getX());
+        assertEquals(150, command.getY());
+        assertEquals(1, command.getLine());
+
+        assertTrue(in.next(command));
+        assertEquals(Command.Type.DELETE_AT, command.getType());
+        assertEquals(5, command.getX());
+        assertEquals(6, command.getY());
+        assertTrue(in.next(command));
+        assertEquals(Command.Type.DELETE_NAME, command.getType());
+        assertEquals("Chicago", command.getName());
+        assertTrue(in.next(command));
+        assertEquals(Command.Type.INFO_AT, command.getType());
+        assertTrue(in.next(command));
+        assertEquals(Command.Type.INFO_NAME, command.getType());
+
+        assertTrue(in.next(command));
+        assertEquals(Command.Type.SEARCH, command.getType());
+        assertEquals(-5, command.getX());
+        assertEquals(10, command.getY());
+        assertEquals(20, command.getRadius());
+
+        assertTrue(in.next(command));
+        assertEquals(Command.Type.DEBUG, command.getType());
+        assertTrue(in.next(command));
+        assertEquals(Command.Type.PRINT, command.getType());
+        assertTrue(in.next(command));
+        assertEquals(Command.Type.CLEAR, command.getType());
+        assertEquals(9, command.getLine());
+        assertFalse(in.next(command));
+        assertFalse(in.next(command));
+    }
+
+    /**
+     * Tests names with spaces, case-insensitive command words, CRLF line
+     * ends, blank lines and comments.
+     *
+     * @throws IOException
+     *                     if reading fails
+     */
+    public void testSpacingAndComments() throws IOException {
+        CommandReader in = reader("\n  # a comment\r\n"
+            + "  INSERT \tNew York  10\t20  \r\n\r\nInfo New York\r\n"
+            + "delete 12 Monkeys\n", 1024);
+        assertTrue(in.next(command));
+        assertEquals(Command.Type.INSERT, command.getType());
+        assertEquals("New York", command.getName());
+        assertEquals(10, command.getX());
+        assertEquals(20, command.getY());
+        assertEquals(3, command.getLine());
+        assertTrue(in.next(command));
+        assertEquals(Command.Type.INFO_NAME, command.getType());
+        assertEquals("New York", command.getName());
+        assertTrue(in.next(command));
+        assertEquals(Command.Type.DELETE_NAME, command.getType());
+        assertEquals("12 Monkeys", command.getName());
+        assertFalse(in.next(command));
+        assertEquals(6, in.getLineNumber());
+    }
+
+    /**
+     * Tests that malformed lines come back as INVALID with their text.
+     *
+     * @throws IOException
+     *                     if reading fails
+     */
+    public void testInvalidLines() throws IOException {
+        String[] bad = { "insert 5 6", "insert A 1", "insert A 1 99999999999",
+            "search 1 2", "search a 1 2", "debug now", "fly 1 2", "delete",
+            "search 1 2 -", "info 1 2 3 x" };
+        StringBuilder text = new StringBuilder();
+        for (String line : bad) {
+            text.append(line).append('\n');
+        }
+        CommandReader in = reader(text.toString(), 1024);
+        for (String line : bad) {
+            assertTrue(in.next(command));
+            if (line.startsWith("info")) {
+                assertEquals(Command.Type.INFO_NAME, command.getType());
+                assertEquals("1 2 3 x", command.getName());
+            } else {
+                assertEquals(line, Command.Type.INVALID, command.getType());
+                assertEquals(line, command.getName());
+            }
+        }
+        assertFalse(in.next(command));
+    }
+
+    /**
+     * Tests that lines crossing buffer refills, and lines longer than the
+     * buffer, are parsed correctly.
+     *
+     * @throws IOException
+     *                     if reading fails
+     */
+    public void testSmallBuffer() throws IOException {
+        StringBuilder text = new StringBuilder();
+        String longName = "X".repeat(100);
+        for (int i = 0; i < 50; i++) {
+            text.append("insert ").append(i % 7 == 0 ? longName : "C" + i)
+                .append(' ').append(i).append(' ').append(-i).append('\n');
+        }
+        CommandReader in = reader(text.toString(), 16);
+        for (int i = 0; i < 50; i++) {
+            assertTrue(in.next(command));
+            assertEquals(Command.Type.INSERT, command.getType());
+            assertEquals(i % 7 == 0 ? longName : "C" + i, command.getName());
+            assertEquals(i, command.getX());
+            assertEquals(-i, command.getY());
+        }
+        assertFalse(in.next(command));
+    }
+}
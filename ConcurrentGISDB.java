@@ -0,0 +1,358 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// -------------------------------------------------------------------------
+/**
+ * Thread-safe version of {@link GISDB}. Queries ({@code info}, {@code search},
+ * {@code debug} and {@code print}) share a read lock, so any number of them
+ * run at the same time, while {@code insert}, both {@code delete}s and
+ * {@code clear} hold the write lock. Every write updates the BST and the
+ * k-d tree inside one write lock, so a reader never sees a city in one index
+ * but not the other.
+ * <p>
+ * The lock is non-fair, which favors throughput for read-heavy workloads. A
+ * long stream of readers may delay a waiting writer, but cannot starve it,
+ * because new readers queue behind a writer that is already waiting.
+ * <p>
+ * Metrics and the search and name caches are set under the write lock, and
+ * are thread-safe, so the queries sharing the read lock all use them.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class ConcurrentGISDB implements GIS {
+
+    /** The database doing the actual work. Only touched under the lock. */
+    private final GISDB db;
+
+    /** Shared by the read-only operations. */
+    private final Lock readLock;
+
+    /** Held by the operations that change either index. */
+    private final Lock writeLock;
+
+    // ----------------------------------------------------------
+    /**
+     * Create a new, empty ConcurrentGISDB object.
+     */
+    ConcurrentGISDB() {
+        db = new GISDB();
+        ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        readLock = lock.readLock();
+        writeLock = lock.writeLock();
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Reinitialize the database
+     *
+     * @return True if the database has been cleared
+     */
+    public boolean clear() {
+        writeLock.lock();
+        try {
+            return db.clear();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * A city at coordinate (x, y) with name name is entered into the database.
+     *
+     * @param name
+     *             City name.
+     * @param x
+     *             City x-coordinate.
+     * @param y
+     *             City y-coordinate.
+     * @return True iff the city is successfully entered into the database
+     */
+    public boolean insert(String name, int x, int y) {
+        writeLock.lock();
+        try {
+            return db.insert(name, x, y);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * The city with these coordinates is deleted from the database (if it
+     * exists).
+     *
+     * @param x
+     *          City x-coordinate.
+     * @param y
+     *          City y-coordinate.
+     * @return A string with the number of nodes visited during the deletion
+     *         followed by the name of the city (this is blank if nothing was
+     *         deleted).
+     */
+    public String delete(int x, int y) {
+        writeLock.lock();
+        try {
+            return db.delete(x, y);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * All cities with this name are deleted from the database (if any exist).
+     *
+     * @param name
+     *             City name.
+     * @return A string with the coordinates of each city that is deleted.
+     */
+    public String delete(String name) {
+        writeLock.lock();
+        try {
+            return db.delete(name);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Applies a batch of writes under a single acquisition of the write lock.
+     * See {@link GISDB#applyBatch(List)}.
+     *
+     * @param ops
+     *            the writes, in the order they should take effect
+     * @return one result code per write, in the same order
+     */
+    public int[] applyBatch(List<GISDB.Op> ops) {
+        writeLock.lock();
+        try {
+            return db.applyBatch(ops);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * See {@link GISDB#setMetrics(GISMetrics)}. Recording is thread-safe,
+     * so queries running together under the read lock all record.
+     *
+     * @param metrics
+     *                where to record operations, or null for nowhere
+     */
+    public void setMetrics(GISMetrics metrics) {
+        writeLock.lock();
+        try {
+            db.setMetrics(metrics);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * @return where operations are recorded, null if nowhere
+     */
+    public GISMetrics getMetrics() {
+        readLock.lock();
+        try {
+            return db.getMetrics();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * See {@link GISDB#setSearchCache(int)}. The cache is synchronized, so
+     * searches running together under the read lock share it.
+     *
+     * @param capacity
+     *                 the most searches to keep, 0 for no cache
+     */
+    public void setSearchCache(int capacity) {
+        writeLock.lock();
+        try {
+            db.setSearchCache(capacity);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * @return the search cache, null if searches are not cached
+     */
+    public SearchCache getSearchCache() {
+        readLock.lock();
+        try {
+            return db.getSearchCache();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * See {@link GISDB#setNameCache(int)}. The cache is synchronized, so
+     * name lookups running together under the read lock share it.
+     *
+     * @param capacity
+     *                 the most names to keep, 0 for no cache
+     */
+    public void setNameCache(int capacity) {
+        writeLock.lock();
+        try {
+            db.setNameCache(capacity);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * @return the name cache, null if names are not cached
+     */
+    public NameCache getNameCache() {
+        readLock.lock();
+        try {
+            return db.getNameCache();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * See {@link GISDB#saveSnapshot(Path)}. Queries keep running while the
+     * snapshot is written; writes wait until it is done.
+     *
+     * @param path
+     *             The snapshot file, replaced if it exists.
+     * @throws IOException
+     *                     if the file cannot be written
+     */
+    public void saveSnapshot(Path path) throws IOException {
+        readLock.lock();
+        try {
+            db.saveSnapshot(path);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * See {@link GISDB#loadSnapshot(Path)}.
+     *
+     * @param path
+     *             The snapshot file.
+     * @throws IOException
+     *                     if the file cannot be read or is not a valid
+     *                     snapshot
+     */
+    public void loadSnapshot(Path path) throws IOException {
+        writeLock.lock();
+        try {
+            db.loadSnapshot(path);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Display the name of the city at coordinate (x, y) if it exists.
+     *
+     * @param x
+     *          X coordinate.
+     * @param y
+     *          Y coordinate.
+     * @return The city name if there is such a city, empty otherwise
+     */
+    public String info(int x, int y) {
+        readLock.lock();
+        try {
+            return db.info(x, y);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Display the coordinates of all cities with this name, if any exist.
+     *
+     * @param name
+     *             The city name.
+     * @return String representing the list of cities and coordinates, empty if
+     *         there are none.
+     */
+    public String info(String name) {
+        readLock.lock();
+        try {
+            return db.info(name);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * All cities within radius distance from location (x, y) are listed.
+     *
+     * @param x
+     *               Search circle center: X coordinate. May be negative.
+     * @param y
+     *               Search circle center: Y coordinate. May be negative.
+     * @param radius
+     *               Search radius, must be non-negative.
+     * @return String listing the cities found (if any), followed by the count
+     *         of the number of k-d tree nodes looked at during the search.
+     */
+    public String search(int x, int y, int radius) {
+        readLock.lock();
+        try {
+            return db.search(x, y, radius);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Print a listing of the k-d tree, one city per line.
+     *
+     * @return String listing the cities as specified.
+     */
+    public String debug() {
+        readLock.lock();
+        try {
+            return db.debug();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Print a listing of the BST in alphabetical order, one city per line.
+     *
+     * @return String listing the cities as specified.
+     */
+    public String print() {
+        readLock.lock();
+        try {
+            return db.print();
+        } finally {
+            readLock.unlock();
+        }
+    }
+}
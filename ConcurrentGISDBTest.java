@@ -0,0 +1,165 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import student.TestCase;
+
+/**
+ * Tests for {@link ConcurrentGISDB}: it must give the same answers as
+ * {@link GISDB} and keep both indexes consistent under concurrent use.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class ConcurrentGISDBTest extends TestCase {
+
+    private GIS it;
+    private GIS reference;
+
+    /**
+     * Creates a fresh concurrent database and a plain one to compare with.
+     */
+    public void setUp() {
+        it = new ConcurrentGISDB();
+        reference = new GISDB();
+    }
+
+    /**
+     * Tests that every operation returns exactly what GISDB returns.
+     */
+    public void testSameResultsAsGISDB() {
+        String[] names = { "Chicago", "Atlanta", "Tacoma", "Baltimore" };
+        for (int i = 0; i < 40; i++) {
+            String name = names[i % names.length];
+            int x = (i * 37) % 100;
+            int y = (i * 61) % 100;
+            assertEquals(reference.insert(name, x, y), it.insert(name, x, y));
+        }
+        assertFalse(it.insert("Bad", -1, 5));
+        assertEquals(reference.debug(), it.debug());
+        assertEquals(reference.print(), it.print());
+        assertEquals(reference.search(50, 50, 30), it.search(50, 50, 30));
+        assertEquals(reference.info(37, 61), it.info(37, 61));
+        assertEquals(reference.info("Tacoma"), it.info("Tacoma"));
+        assertEquals(reference.delete(37, 61), it.delete(37, 61));
+        assertEquals(reference.delete("Atlanta"), it.delete("Atlanta"));
+        assertEquals(reference.print(), it.print());
+        assertEquals(reference.debug(), it.debug());
+        assertTrue(it.clear());
+        assertEquals("", it.print());
+        assertEquals("", it.debug());
+    }
+
+    /**
+     * Tests that concurrent writers and readers leave both indexes holding
+     * exactly the cities that were inserted and not deleted.
+     *
+     * @throws InterruptedException
+     *                              if the test is interrupted
+     */
+    public void testConcurrentWritersAndReaders()
+        throws InterruptedException {
+        final int writers = 4;
+        final int perWriter = 500;
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int w = 0; w < writers; w++) {
+            final int row = w;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perWriter; i++) {
+                    assertTrue(it.insert("W" + row, i, row));
+                    assertTrue(it.insert("Gone", i, row + 100));
+                }
+                for (int i = 0; i < perWriter; i++) {
+                    it.delete(i, row + 100);
+                }
+            }));
+        }
+        for (int r = 0; r < 4; r++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 200; i++) {
+                    String found = it.search(250, 2, 10);
+                    assertTrue(found.length() > 0);
+                    it.info("W1");
+                    it.info(i, 1);
+                }
+            }));
+        }
+        for (Thread t : threads) {
+            t.setUncaughtExceptionHandler((thread, e) -> failure.set(e));
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertNull(failure.get());
+
+        assertEquals("", it.info("Gone"));
+        for (int w = 0; w < writers; w++) {
+            assertEquals(perWriter, it.info("W" + w).split("\n").length);
+            for (int i = 0; i < perWriter; i++) {
+                assertEquals("W" + w, it.info(i, w));
+            }
+        }
+        assertEquals(writers * perWriter, it.print().split("\n").length);
+        assertEquals(writers * perWriter, it.debug().split("\n").length);
+    }
+
+    /**
+     * Tests metrics and both caches on a database shared by concurrent
+     * readers and writers: every call is recorded, and cached answers
+     * match what the trees give once the caches are dropped.
+     *
+     * @throws InterruptedException
+     *                              if the test is interrupted
+     */
+    public void testMetricsAndCaches() throws InterruptedException {
+        ConcurrentGISDB db = new ConcurrentGISDB();
+        GISMetrics metrics = new GISMetrics();
+        db.setMetrics(metrics);
+        db.setSearchCache(8);
+        db.setNameCache(8);
+        assertSame(metrics, db.getMetrics());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final int row = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 300; i++) {
+                    db.insert("N" + (i % 5), i, row);
+                    db.search(150, 2, 20);
+                    db.info("N" + (i % 5));
+                    if (i % 3 == 0) {
+                        db.delete(i / 2, row);
+                    }
+                }
+            }));
+        }
+        for (Thread t : threads) {
+            t.setUncaughtExceptionHandler((thread, e) -> failure.set(e));
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertNull(failure.get());
+
+        GISMetrics.Snapshot counts = metrics.snapshot();
+        assertEquals(1200, counts.getCount(GISMetrics.Operation.INSERT));
+        assertEquals(1200, counts.getCount(GISMetrics.Operation.SEARCH));
+        assertEquals(1200, counts.getCount(GISMetrics.Operation.INFO_NAME));
+        assertEquals(400, counts.getCount(GISMetrics.Operation.DELETE_AT));
+        assertTrue(db.getSearchCache().getHits() > 0);
+        assertTrue(db.getNameCache().getHits() > 0);
+
+        String search = db.search(150, 2, 20);
+        String info = db.info("N3");
+        db.setSearchCache(0);
+        db.setNameCache(0);
+        assertNull(db.getSearchCache());
+        assertNull(db.getNameCache());
+        assertEquals(search, db.search(150, 2, 20));
+        assertEquals(info, db.info("N3"));
+    }
+}
@@ -0,0 +1,197 @@
+import java.util.Arrays;
+
+/**
+ * City counts per tile at several zoom levels of the coordinate space, for
+ * heatmaps. Level {@code k} divides the 32768 by 32768 space into
+ * {@code 2^k} by {@code 2^k} square tiles, so level 0 is one tile holding
+ * every city and each tile of level {@code k} is split into four at level
+ * {@code k + 1}. Each level is a flat array, so a tile's count is one array
+ * read.
+ * <p>
+ * {@link GISDB} keeps its pyramid up to date on every insert and delete at
+ * a cost of one increment per level. Counts for rectangles of whole tiles
+ * use the coarsest tiles that fit, so they read a number of tiles that
+ * grows with the rectangle's perimeter, not its area.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class DensityPyramid {
+
+    /** Most levels allowed: the finest has 2^10 x 2^10 tiles of 32. */
+    public static final int MAX_LEVELS = 11;
+
+    /** log2 of the side of the coordinate space. */
+    private static final int SPACE_BITS = 15;
+
+    /** Tile counts of each level, row by row. */
+    private final int[][] counts;
+
+    /**
+     * Creates an empty pyramid.
+     *
+     * @param levels
+     *               number of levels, 1 to {@link #MAX_LEVELS}
+     */
+    public DensityPyramid(int levels) {
+        if (levels < 1 || levels > MAX_LEVELS) {
+            throw new IllegalArgumentException("levels must be 1 to "
+                + MAX_LEVELS);
+        }
+        counts = new int[levels][];
+        for (int k = 0; k < levels; k++) {
+            counts[k] = new int[1 << (2 * k)];
+        }
+    }
+
+    /**
+     * @return the number of levels
+     */
+    public int getLevels() {
+        return counts.length;
+    }
+
+    /**
+     * Returns the side of a tile at a level.
+     *
+     * @param level
+     *              the level
+     * @return the tile side, in coordinate units
+     */
+    public int getTileSize(int level) {
+        return 1 << (SPACE_BITS - level);
+    }
+
+    /**
+     * Adds or removes a city.
+     *
+     * @param x
+     *              its x-coordinate, 0 to {@link GISDB#MAXCOORD}
+     * @param y
+     *              its y-coordinate, 0 to {@link GISDB#MAXCOORD}
+     * @param delta
+     *              1 for an insert, -1 for a delete
+     */
+    void add(int x, int y, int delta) {
+        for (int k = 0; k < counts.length; k++) {
+            int shift = SPACE_BITS - k;
+            counts[k][((y >> shift) << k) + (x >> shift)] += delta;
+        }
+    }
+
+    /**
+     * Forgets every city.
+     */
+    void clear() {
+        for (int[] level : counts) {
+            Arrays.fill(level, 0);
+        }
+    }
+
+    /**
+     * Returns the number of cities in a tile.
+     *
+     * @param level
+     *              the level
+     * @param tileX
+     *              the tile's column, 0 to 2^level - 1
+     * @param tileY
+     *              the tile's row, 0 to 2^level - 1
+     * @return the count
+     */
+    public int getCount(int level, int tileX, int tileY) {
+        return counts[level][(tileY << level) + tileX];
+    }
+
+    /**
+     * Copies the counts of a whole level, for drawing a heatmap.
+     *
+     * @param level
+     *              the level
+     * @return {@code 2^level * 2^level} counts, row by row: tile
+     *         {@code (tileX, tileY)} is at {@code tileY * 2^level + tileX}
+     */
+    public int[] copyLevel(int level) {
+        return counts[level].clone();
+    }
+
+    /**
+     * Returns the number of cities in a rectangle of tiles at one level.
+     * Tile ranges are clipped to the level.
+     *
+     * @param level
+     *              the level
+     * @param minX
+     *              first column
+     * @param minY
+     *              first row
+     * @param maxX
+     *              last column, inclusive
+     * @param maxY
+     *              last row, inclusive
+     * @return the count, 0 for an empty rectangle
+     */
+    public long countTiles(int level, int minX, int minY, int maxX, int maxY) {
+        int last = (1 << level) - 1;
+        minX = Math.max(minX, 0);
+        minY = Math.max(minY, 0);
+        maxX = Math.min(maxX, last);
+        maxY = Math.min(maxY, last);
+        if (minX > maxX || minY > maxY) {
+            return 0;
+        }
+        return countRec(0, 0, 0, level, minX, minY, maxX, maxY);
+    }
+
+    /**
+     * Recursive helper for {@link #countTiles}: counts the part of the
+     * rectangle inside one tile, using the tile's own count if it is
+     * entirely inside.
+     *
+     * @param k
+     *              the tile's level
+     * @param tx
+     *              the tile's column
+     * @param ty
+     *              the tile's row
+     * @param level
+     *              the level of the rectangle
+     * @param minX
+     *              first column of the rectangle
+     * @param minY
+     *              first row of the rectangle
+     * @param maxX
+     *              last column of the rectangle
+     * @param maxY
+     *              last row of the rectangle
+     * @return the count
+     */
+    private long countRec(
+        int k,
+        int tx,
+        int ty,
+        int level,
+        int minX,
+        int minY,
+        int maxX,
+        int maxY) {
+        int shift = level - k;
+        int loX = tx << shift;
+        int loY = ty << shift;
+        int hiX = loX + (1 << shift) - 1;
+        int hiY = loY + (1 << shift) - 1;
+        if (hiX < minX || loX > maxX || hiY < minY || loY > maxY) {
+            return 0;
+        }
+        if (minX <= loX && hiX <= maxX && minY <= loY && hiY <= maxY) {
+            return counts[k][(ty << k) + tx];
+        }
+        long sum = 0;
+        for (int i = 0; i < 4; i++) {
+            sum += countRec(k + 1, 2 * tx + (i & 1), 2 * ty + (i >> 1),
+                level, minX, minY, maxX, maxY);
+        }
+        return sum;
+    }
+}
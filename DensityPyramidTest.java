@@ -0,0 +1,128 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import student.TestCase;
+
+/**
+ * Tests for {@link DensityPyramid} and the counts {@link GISDB} keeps in
+ * one.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class DensityPyramidTest extends TestCase {
+
+    /**
+     * Tests tile counts at every level.
+     */
+    public void testTiles() {
+        DensityPyramid pyramid = new DensityPyramid(3);
+        assertEquals(3, pyramid.getLevels());
+        assertEquals(32768, pyramid.getTileSize(0));
+        assertEquals(8192, pyramid.getTileSize(2));
+        pyramid.add(0, 0, 1);
+        pyramid.add(32767, 32767, 1);
+        pyramid.add(8192, 100, 1);
+        assertEquals(3, pyramid.getCount(0, 0, 0));
+        assertEquals(2, pyramid.getCount(1, 0, 0));
+        assertEquals(1, pyramid.getCount(1, 1, 1));
+        assertEquals(1, pyramid.getCount(2, 1, 0));
+        assertEquals(1, pyramid.getCount(2, 3, 3));
+        int[] level = pyramid.copyLevel(2);
+        assertEquals(16, level.length);
+        assertEquals(1, level[1]);
+        assertEquals(1, level[15]);
+        level[1] = 99; // a copy
+        assertEquals(1, pyramid.getCount(2, 1, 0));
+
+        assertEquals(2, pyramid.countTiles(2, 0, 0, 1, 3));
+        assertEquals(3, pyramid.countTiles(2, -5, -5, 50, 50));
+        assertEquals(0, pyramid.countTiles(2, 2, 0, 1, 0));
+        pyramid.add(0, 0, -1);
+        assertEquals(1, pyramid.countTiles(1, 0, 0, 0, 0));
+        pyramid.clear();
+        assertEquals(0, pyramid.getCount(0, 0, 0));
+
+        Exception thrown = null;
+        try {
+            new DensityPyramid(DensityPyramid.MAX_LEVELS + 1);
+        } catch (IllegalArgumentException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+    }
+
+    /**
+     * Tests that the pyramid follows every kind of write and that
+     * rectangle counts match a brute-force count.
+     */
+    public void testDatabase() {
+        GISDB db = new GISDB();
+        Random random = new Random(8);
+        List<City> load = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            load.add(new City("L" + (i % 9), random.nextInt(32768), random
+                .nextInt(32768)));
+        }
+        db.bulkLoad(load);
+        db.setDensityPyramid(6);
+        for (int i = 0; i < 3000; i++) {
+            int x = random.nextInt(32768);
+            int y = random.nextInt(32768);
+            int r = random.nextInt(10);
+            if (r < 6) {
+                db.insert("C" + (i % 13), x, y);
+            } else if (r < 8) {
+                db.delete(x, y);
+            } else if (r == 8 && i % 20 == 0) {
+                db.delete("C" + (i % 13));
+            } else if (i % 50 == 0) {
+                List<GISDB.Op> ops = new ArrayList<>();
+                ops.add(GISDB.Op.insert("B", x, y));
+                ops.add(GISDB.Op.insert("B", y, x));
+                ops.add(GISDB.Op.delete(y, x));
+                db.applyBatch(ops);
+            }
+        }
+        List<City> more = new ArrayList<>();
+        more.add(new City("Extra", 5, 5));
+        db.bulkLoad(more);
+
+        List<City> all = new ArrayList<>();
+        for (String line : db.print().split("\n")) {
+            String text = line.trim().replaceFirst("^\\d+\\s*", "");
+            int open = text.lastIndexOf('(');
+            int comma = text.indexOf(',', open);
+            all.add(new City("", Integer.parseInt(text.substring(open + 1,
+                comma)), Integer.parseInt(text.substring(comma + 2, text
+                    .length() - 1))));
+        }
+        DensityPyramid pyramid = db.getDensityPyramid();
+        assertEquals(all.size(), pyramid.getCount(0, 0, 0));
+
+        for (int q = 0; q < 200; q++) {
+            int minX = random.nextInt(34000) - 600;
+            int minY = random.nextInt(34000) - 600;
+            int maxX = minX + random.nextInt(20000);
+            int maxY = minY + random.nextInt(20000);
+            long expected = 0;
+            for (City c : all) {
+                if (c.getX() >= minX && c.getX() <= maxX && c.getY() >= minY
+                    && c.getY() <= maxY) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, db.countCities(minX, minY, maxX, maxY));
+        }
+        assertEquals(all.size(), db.countCities(0, 0, 32767, 32767));
+        assertEquals(0, db.countCities(10, 10, 5, 5));
+
+        db.setDensityPyramid(0);
+        assertNull(db.getDensityPyramid());
+        assertEquals(all.size(), db.countCities(-1, -1, 40000, 40000));
+        db.setDensityPyramid(2);
+        db.clear();
+        assertEquals(0, db.getDensityPyramid().getCount(0, 0, 0));
+    }
+}
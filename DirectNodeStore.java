@@ -0,0 +1,59 @@
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link NodeStore} in direct (off-heap) memory. The garbage collector
+ * sees one buffer object however many records it holds, so collections do
+ * not slow down as the store grows.
+ * <p>
+ * When the store runs out of space, its contents are copied into a new
+ * buffer twice the size. The memory is released when the store is no
+ * longer reachable; the maximum total size is set by the JVM's
+ * {@code -XX:MaxDirectMemorySize} option.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class DirectNodeStore extends NodeStore {
+
+    /** Default initial size. */
+    public static final int DEFAULT_CAPACITY = 1 << 20;
+
+    /**
+     * Creates an empty store with the default initial size.
+     */
+    public DirectNodeStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty store.
+     *
+     * @param initialCapacity
+     *                        initial size in bytes
+     */
+    public DirectNodeStore(int initialCapacity) {
+        format(ByteBuffer.allocateDirect(Math.max(initialCapacity,
+            HEADER_SIZE)));
+    }
+
+    /**
+     * Copies the records into a new buffer at least twice as big.
+     *
+     * @param current
+     *                    the buffer in use
+     * @param minCapacity
+     *                    the capacity needed
+     * @return the new buffer
+     */
+    @Override
+    protected ByteBuffer grow(ByteBuffer current, int minCapacity) {
+        long capacity = Math.max(2L * current.capacity(), minCapacity);
+        ByteBuffer bigger = ByteBuffer.allocateDirect((int)Math.min(capacity,
+            Integer.MAX_VALUE));
+        ByteBuffer all = current.duplicate();
+        all.clear();
+        bigger.put(all);
+        return bigger;
+    }
+}
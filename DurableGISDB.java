@@ -0,0 +1,543 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// -------------------------------------------------------------------------
+/**
+ * A thread-safe {@link GIS} database that survives crashes. Every write that
+ * changes the database is recorded in a {@link WriteAheadLog} and, unless
+ * the database has a sync delay, is on disk before the write returns.
+ * {@link #checkpoint()} saves a snapshot (see
+ * {@link GISDB#saveSnapshot(Path)}) and empties the log, so restarting only
+ * has to load the snapshot and replay the writes made since.
+ * <p>
+ * Locking works like {@link ConcurrentGISDB}: queries share a read lock, and
+ * writes hold the write lock while they change the trees and log the
+ * change, so the log order is the order the writes took effect. Waiting for
+ * the disk happens after the write lock is released, so writers from many
+ * threads share each disk flush (group commit) instead of queueing for one
+ * flush each. A query may see a write whose log record is not yet on disk;
+ * the write's caller has not been told it succeeded until it is.
+ * {@link #applyBatch(List)} logs a whole batch and waits for one flush, so
+ * a single thread loading many writes does not pay a flush for each.
+ * <p>
+ * A database opened with a sync delay (see
+ * {@link #open(Path, Path, long)}) trades that guarantee for speed: writes
+ * return as soon as they are logged in memory, and a background thread
+ * flushes the log every delay. A crash loses at most the writes made in
+ * the last delay (plus the time the flush takes), and the database
+ * restarts as of a prefix of the writes, in order. {@link #sync()} makes
+ * every write so far durable on demand.
+ * <p>
+ * Writes that change nothing (a rejected insert, a delete that finds no
+ * city) are not logged. If the log cannot be written, the write throws an
+ * {@link UncheckedIOException}, and the change may be lost on restart.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class DurableGISDB implements GIS, Closeable {
+
+    /** The database doing the actual work. Only touched under the lock. */
+    private final GISDB db;
+
+    /** Records every change to {@link #db}. */
+    private final WriteAheadLog log;
+
+    /** Where checkpoints are saved. */
+    private final Path snapshotPath;
+
+    /** Shared by queries and checkpoints. */
+    private final Lock readLock;
+
+    /** Held by the operations that change either index. */
+    private final Lock writeLock;
+
+    /** Keeps checkpoints from overlapping each other. */
+    private final Lock checkpointLock = new ReentrantLock();
+
+    /** Most milliseconds between a write and its flush; 0 to wait for it. */
+    private final long syncMillis;
+
+    /** Flushes the log every {@link #syncMillis}, if that is not 0. */
+    private final Thread flusher;
+
+    /**
+     * Wakes {@link #flusher} early when the database closes. It is not
+     * interrupted, as that would close the log file under a flush.
+     */
+    private final Object closing = new Object();
+
+    /** Cleared when the database closes. Guarded by {@link #closing}. */
+    private boolean running = true;
+
+    /** Set if a background flush fails; every later write throws it. */
+    private volatile IOException syncFailure;
+
+    // ----------------------------------------------------------
+    /**
+     * Create a database over an already replayed log.
+     *
+     * @param db
+     *                     the recovered database
+     * @param log
+     *                     the open log
+     * @param snapshotPath
+     *                     where checkpoints are saved
+     * @param syncMillis
+     *                     most milliseconds between a write and its flush,
+     *                     or 0 to wait for the flush in every write
+     */
+    private DurableGISDB(
+        GISDB db,
+        WriteAheadLog log,
+        Path snapshotPath,
+        long syncMillis) {
+        this.db = db;
+        this.log = log;
+        this.snapshotPath = snapshotPath;
+        this.syncMillis = syncMillis;
+        ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        readLock = lock.readLock();
+        writeLock = lock.writeLock();
+        if (syncMillis > 0) {
+            flusher = new Thread(this::flushLoop, "wal-flush");
+            flusher.setDaemon(true);
+            flusher.start();
+        } else {
+            flusher = null;
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Opens a database: loads the snapshot if there is one, then replays the
+     * log writes it does not include. Missing files are created as needed,
+     * so the first open gives an empty database.
+     *
+     * @param snapshotPath
+     *                     the snapshot file
+     * @param logPath
+     *                     the log file
+     * @return the recovered database
+     * @throws IOException
+     *                     if either file cannot be read, or the log cannot
+     *                     be written
+     */
+    public static DurableGISDB open(Path snapshotPath, Path logPath)
+        throws IOException {
+        return open(snapshotPath, logPath, 0);
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Opens a database like {@link #open(Path, Path)}, with a bound on how
+     * long a write may wait to reach the disk. With a delay, writes do not
+     * wait for the disk at all: a background thread flushes the log every
+     * {@code syncMillis}, so a crash loses at most the writes of the last
+     * {@code syncMillis} (plus the time the flush takes).
+     *
+     * @param snapshotPath
+     *                     the snapshot file
+     * @param logPath
+     *                     the log file
+     * @param syncMillis
+     *                     most milliseconds between a write and its flush,
+     *                     or 0 to make every write wait for its flush
+     * @return the recovered database
+     * @throws IOException
+     *                     if either file cannot be read, or the log cannot
+     *                     be written
+     */
+    public static DurableGISDB open(
+        Path snapshotPath,
+        Path logPath,
+        long syncMillis)
+        throws IOException {
+        if (syncMillis < 0) {
+            throw new IllegalArgumentException(
+                "syncMillis cannot be negative");
+        }
+        GISDB db = new GISDB();
+        long applied = Files.exists(snapshotPath)
+            ? db.readSnapshot(snapshotPath)
+            : 0;
+        WriteAheadLog log = WriteAheadLog.open(logPath, db, applied);
+        return new DurableGISDB(db, log, snapshotPath, syncMillis);
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Saves a snapshot of the database and empties the log. Queries keep
+     * running during a checkpoint; writes wait until it is done.
+     *
+     * @throws IOException
+     *                     if the snapshot or the log cannot be written
+     */
+    public void checkpoint() throws IOException {
+        checkpointLock.lock();
+        try {
+            readLock.lock();
+            try {
+                long last = log.getLastSequence();
+                log.sync(last);
+                db.saveSnapshot(snapshotPath, last);
+                // A crash before this point just replays records the
+                // snapshot already has, and those are skipped by sequence
+                log.truncate();
+            } finally {
+                readLock.unlock();
+            }
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Returns the log, for its statistics.
+     *
+     * @return the write-ahead log
+     */
+    public WriteAheadLog getLog() {
+        return log;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Waits until every write made so far is on disk. Only needed with a
+     * sync delay; otherwise each write already waited for its own.
+     *
+     * @throws IOException
+     *                     if the log cannot be written
+     */
+    public void sync() throws IOException {
+        log.sync(log.getLastSequence());
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Waits for a log record to reach the disk, unless there is a sync
+     * delay, in which case the background thread flushes it.
+     *
+     * @param sequence
+     *                 the record's sequence number
+     */
+    private void commit(long sequence) {
+        if (syncMillis > 0) {
+            IOException failed = syncFailure;
+            if (failed != null) {
+                throw new UncheckedIOException(failed);
+            }
+            return;
+        }
+        try {
+            log.sync(sequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Body of the background flush thread: flushes everything logged every
+     * {@link #syncMillis} until the database closes or a flush fails.
+     */
+    private void flushLoop() {
+        try {
+            while (true) {
+                synchronized (closing) {
+                    if (running) {
+                        closing.wait(syncMillis);
+                    }
+                    if (!running) {
+                        return;
+                    }
+                }
+                sync();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            syncFailure = e;
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Reinitialize the database
+     *
+     * @return True if the database has been cleared
+     */
+    public boolean clear() {
+        long sequence;
+        writeLock.lock();
+        try {
+            db.clear();
+            sequence = log.logClear();
+        } finally {
+            writeLock.unlock();
+        }
+        commit(sequence);
+        return true;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * A city at coordinate (x, y) with name name is entered into the database.
+     *
+     * @param name
+     *             City name.
+     * @param x
+     *             City x-coordinate.
+     * @param y
+     *             City y-coordinate.
+     * @return True iff the city is successfully entered into the database
+     */
+    public boolean insert(String name, int x, int y) {
+        long sequence;
+        writeLock.lock();
+        try {
+            if (!db.insert(name, x, y)) {
+                return false;
+            }
+            sequence = log.logInsert(name, x, y);
+        } finally {
+            writeLock.unlock();
+        }
+        commit(sequence);
+        return true;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * The city with these coordinates is deleted from the database (if it
+     * exists).
+     *
+     * @param x
+     *          City x-coordinate.
+     * @param y
+     *          City y-coordinate.
+     * @return A string with the number of nodes visited during the deletion
+     *         followed by the name of the city (this is blank if nothing was
+     *         deleted).
+     */
+    public String delete(int x, int y) {
+        String result;
+        long sequence;
+        writeLock.lock();
+        try {
+            result = db.delete(x, y);
+            if (result.isEmpty()) {
+                return result;
+            }
+            sequence = log.logDelete(x, y);
+        } finally {
+            writeLock.unlock();
+        }
+        commit(sequence);
+        return result;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * The city with this name is deleted from the database (if it exists).
+     *
+     * @param name
+     *             City name.
+     * @return A string with the coordinates of each city that is deleted.
+     */
+    public String delete(String name) {
+        String result;
+        long sequence;
+        writeLock.lock();
+        try {
+            result = db.delete(name);
+            if (result.isEmpty()) {
+                return result;
+            }
+            sequence = log.logDelete(name);
+        } finally {
+            writeLock.unlock();
+        }
+        commit(sequence);
+        return result;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Applies a batch of writes (see {@link GISDB#applyBatch(List)}) under
+     * one write lock, logs the writes that changed something, in order, and
+     * waits for a single flush. Replaying the logged writes one at a time
+     * gives the same cities, as each skipped write changed nothing.
+     *
+     * @param ops
+     *            the writes, in the order they should take effect
+     * @return one result code per write, in the same order
+     */
+    public int[] applyBatch(List<GISDB.Op> ops) {
+        int[] results;
+        long sequence = 0;
+        writeLock.lock();
+        try {
+            results = db.applyBatch(ops);
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] != 0) {
+                    sequence = logOp(ops.get(i));
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        if (sequence != 0) {
+            commit(sequence);
+        }
+        return results;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Logs one write of a batch.
+     *
+     * @param op
+     *           the write
+     * @return its record's sequence number
+     */
+    private long logOp(GISDB.Op op) {
+        switch (op.getKind()) {
+            case INSERT:
+                return log.logInsert(op.getName(), op.getX(), op.getY());
+            case DELETE_AT:
+                return log.logDelete(op.getX(), op.getY());
+            default:
+                return log.logDelete(op.getName());
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Display the name of the city at coordinate (x, y) if it exists.
+     *
+     * @param x
+     *          X coordinate.
+     * @param y
+     *          Y coordinate.
+     * @return The city name if there is such a city, empty otherwise
+     */
+    public String info(int x, int y) {
+        readLock.lock();
+        try {
+            return db.info(x, y);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Display the coordinates of all cities with this name, if any exist.
+     *
+     * @param name
+     *             The city name.
+     * @return String representing the list of cities and coordinates, empty if
+     *         there are none.
+     */
+    public String info(String name) {
+        readLock.lock();
+        try {
+            return db.info(name);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * All cities within radius distance from location (x, y) are listed.
+     *
+     * @param x
+     *               Search circle center: X coordinate.
+     * @param y
+     *               Search circle center: Y coordinate.
+     * @param radius
+     *               Search radius, must be non-negative.
+     * @return String listing the cities found (if any), followed by the count
+     *         of the number of k-d tree nodes looked at.
+     */
+    public String search(int x, int y, int radius) {
+        readLock.lock();
+        try {
+            return db.search(x, y, radius);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Print a listing of the database as an inorder traversal of the k-d
+     * tree.
+     *
+     * @return String listing the cities as specified.
+     */
+    public String debug() {
+        readLock.lock();
+        try {
+            return db.debug();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Print a listing of the BST in alphabetical order on the names.
+     *
+     * @return String listing the cities as specified.
+     */
+    public String print() {
+        readLock.lock();
+        try {
+            return db.print();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Stops the background flushes, if any, makes every logged write
+     * durable and closes the log. The database must not be written after
+     * this.
+     *
+     * @throws IOException
+     *                     if the log cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (flusher != null) {
+            synchronized (closing) {
+                running = false;
+                closing.notifyAll();
+            }
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        writeLock.lock();
+        try {
+            log.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
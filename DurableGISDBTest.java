@@ -0,0 +1,257 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import student.TestCase;
+
+/**
+ * Tests for {@link DurableGISDB}: writes must survive a restart, with or
+ * without a checkpoint in between.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class DurableGISDBTest extends TestCase {
+
+    private Path dir;
+    private Path snapshot;
+    private Path log;
+
+    /**
+     * Creates a directory for the snapshot and log.
+     *
+     * @throws IOException
+     *                     if it cannot be created
+     */
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("durable");
+        snapshot = dir.resolve("gis.snapshot");
+        log = dir.resolve("gis.wal");
+    }
+
+    /**
+     * Removes the directory.
+     *
+     * @throws IOException
+     *                     if it cannot be deleted
+     */
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(snapshot);
+        Files.deleteIfExists(log);
+        Files.deleteIfExists(dir);
+    }
+
+    /**
+     * Tests that the database answers like GISDB and that writes are
+     * replayed from the log after a restart.
+     *
+     * @throws IOException
+     *                     if the files cannot be used
+     */
+    public void testRestartFromLog() throws IOException {
+        GISDB reference = new GISDB();
+        try (DurableGISDB db = DurableGISDB.open(snapshot, log)) {
+            for (int i = 0; i < 50; i++) {
+                String name = "City" + (i % 7);
+                assertEquals(reference.insert(name, i * 3, i * 5), db.insert(
+                    name, i * 3, i * 5));
+            }
+            assertFalse(db.insert("Dup", 0, 0));
+            assertEquals(reference.delete(9, 15), db.delete(9, 15));
+            assertEquals("", db.delete(1, 1));
+            assertEquals(reference.delete("City2"), db.delete("City2"));
+            assertEquals(reference.search(40, 40, 30), db.search(40, 40, 30));
+            assertEquals(52, db.getLog().getLastSequence());
+        }
+
+        try (DurableGISDB db = DurableGISDB.open(snapshot, log)) {
+            assertEquals(reference.debug(), db.debug());
+            assertEquals(reference.print(), db.print());
+            assertEquals(reference.info("City3"), db.info("City3"));
+            assertEquals(reference.info(3, 5), db.info(3, 5));
+        }
+    }
+
+    /**
+     * Tests restarting from a checkpoint plus the writes made after it, and
+     * a clear in the log.
+     *
+     * @throws IOException
+     *                     if the files cannot be used
+     */
+    public void testCheckpoint() throws IOException {
+        GISDB reference = new GISDB();
+        try (DurableGISDB db = DurableGISDB.open(snapshot, log)) {
+            for (int i = 0; i < 30; i++) {
+                db.insert("Before", i, i);
+                reference.insert("Before", i, i);
+            }
+            db.checkpoint();
+            assertEquals(WriteAheadLog.HEADER_SIZE, Files.size(log));
+            db.delete(4, 4);
+            reference.delete(4, 4);
+            db.insert("After", 100, 100);
+            reference.insert("After", 100, 100);
+        }
+        try (DurableGISDB db = DurableGISDB.open(snapshot, log)) {
+            assertEquals(reference.debug(), db.debug());
+            assertEquals(reference.print(), db.print());
+            assertTrue(db.clear());
+            db.insert("Fresh", 1, 2);
+        }
+        try (DurableGISDB db = DurableGISDB.open(snapshot, log)) {
+            assertEquals("0Fresh (1, 2)\n", db.debug());
+        }
+    }
+
+    /**
+     * Tests that a crash between saving a checkpoint and emptying the log
+     * does not apply the logged writes twice.
+     *
+     * @throws IOException
+     *                     if the files cannot be used
+     */
+    public void testCrashDuringCheckpoint() throws IOException {
+        try (DurableGISDB db = DurableGISDB.open(snapshot, log)) {
+            db.insert("A", 1, 1);
+            db.delete("A");
+            db.insert("A", 2, 2);
+        }
+        byte[] fullLog = Files.readAllBytes(log);
+        try (DurableGISDB db = DurableGISDB.open(snapshot, log)) {
+            db.checkpoint();
+        }
+        Files.write(log, fullLog); // as if truncation never happened
+        try (DurableGISDB db = DurableGISDB.open(snapshot, log)) {
+            assertEquals("A (2, 2)", db.info("A"));
+            assertEquals(4, db.getLog().logClear());
+        }
+    }
+
+    /**
+     * Tests that writes from many threads all survive a restart.
+     *
+     * @throws Exception
+     *                   if a thread fails
+     */
+    public void testConcurrentWriters() throws Exception {
+        final int threads = 6;
+        final int perThread = 150;
+        try (DurableGISDB db = DurableGISDB.open(snapshot, log)) {
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int row = t;
+                workers.add(new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        db.insert("T" + row, i, row);
+                        db.info(i, row);
+                    }
+                }));
+            }
+            for (Thread w : workers) {
+                w.start();
+            }
+            for (Thread w : workers) {
+                w.join();
+            }
+            assertEquals(threads * perThread, db.getLog().getLastSequence());
+        }
+        try (DurableGISDB db = DurableGISDB.open(snapshot, log)) {
+            for (int t = 0; t < threads; t++) {
+                assertEquals(perThread, db.info("T" + t).split("\n").length);
+            }
+        }
+    }
+
+    /**
+     * Tests that a batch is logged with one flush and replays to the same
+     * cities after a restart.
+     *
+     * @throws IOException
+     *                     if the files cannot be used
+     */
+    public void testApplyBatch() throws IOException {
+        GISDB reference = new GISDB();
+        List<GISDB.Op> ops = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            ops.add(GISDB.Op.insert("B" + (i % 9), i % 50, i / 50));
+            if (i % 7 == 0) {
+                ops.add(GISDB.Op.delete(i % 30, 0));
+            }
+        }
+        ops.add(GISDB.Op.delete("B4"));
+        ops.add(GISDB.Op.delete(1000, 1000));
+        try (DurableGISDB db = DurableGISDB.open(snapshot, log)) {
+            long syncs = db.getLog().getSyncCount();
+            int[] results = db.applyBatch(ops);
+            assertEquals(Arrays.toString(reference.applyBatch(ops)), Arrays
+                .toString(results));
+            assertEquals(syncs + 1, db.getLog().getSyncCount());
+            db.applyBatch(Arrays.asList(GISDB.Op.delete(1000, 1000)));
+            assertEquals(syncs + 1, db.getLog().getSyncCount());
+        }
+        // The trees are shaped differently, but hold the same cities
+        try (DurableGISDB db = DurableGISDB.open(snapshot, log)) {
+            assertEquals(cities(reference.print()), cities(db.print()));
+        }
+    }
+
+    /**
+     * Returns the sorted city lines of a listing, without levels.
+     *
+     * @param listing
+     *                print() output
+     * @return the cities, sorted
+     */
+    private static List<String> cities(String listing) {
+        List<String> lines = new ArrayList<>();
+        for (String line : listing.split("\n")) {
+            lines.add(line.replaceFirst("^\\d+\\s*", ""));
+        }
+        Collections.sort(lines);
+        return lines;
+    }
+
+    /**
+     * Tests that with a sync delay writes do not wait for the disk, the
+     * background thread flushes them in groups, and they survive a
+     * restart.
+     *
+     * @throws Exception
+     *                   if the files cannot be used
+     */
+    public void testSyncDelay() throws Exception {
+        try (DurableGISDB db = DurableGISDB.open(snapshot, log, 20)) {
+            for (int i = 0; i < 500; i++) {
+                assertTrue(db.insert("D" + (i % 5), i, i));
+            }
+            assertTrue(db.getLog().getSyncCount() < 500);
+            db.sync();
+            long flushed = db.getLog().getSyncCount();
+            db.insert("Late", 7, 3);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (db.getLog().getSyncCount() == flushed
+                && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(flushed + 1, db.getLog().getSyncCount());
+            db.insert("Closing", 8, 3);
+        }
+        try (DurableGISDB db = DurableGISDB.open(snapshot, log)) {
+            assertEquals(100, db.info("D3").split("\n").length);
+            assertEquals("Late", db.info(7, 3));
+            assertEquals("Closing", db.info(8, 3));
+        }
+        Exception thrown = null;
+        try {
+            DurableGISDB.open(snapshot, log, -1);
+        } catch (IllegalArgumentException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+    }
+}
@@ -0,0 +1,717 @@
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark suite for every {@link GISDB} operation, the baseline that
+ * performance changes are measured against. Each operation is timed on
+ * databases of several sizes (1 thousand to 10 million cities) and four
+ * city distributions (see {@link Distribution}).
+ * <p>
+ * A run is organised like a JMH benchmark. For each size and distribution
+ * there is one trial: the cities are generated from a fixed seed and
+ * loaded. Uniform and clustered sets are bulk loaded (see
+ * {@link GISDB#bulkLoad(List)}), which gives balanced trees. Sorted sets
+ * are inserted one at a time in their order, so they measure the
+ * degenerate trees that sorted input builds. Those trees have about one
+ * level per city, more than the recursive tree operations can descend on a
+ * default stack for large sets, so sorted trials larger than
+ * {@link #MAX_SORTED_SIZE} are skipped with a note. Then each operation
+ * gets warmup iterations, whose times are thrown away so the JIT compiler
+ * can settle, and measurement iterations. An iteration repeats batches of
+ * calls for a fixed time, and only the calls are timed; one call made up
+ * front keeps slow operations to a few calls per batch. Every result
+ * string is folded into a field the JIT cannot prove unused, so no call is
+ * optimised away.
+ * <p>
+ * Writes are timed in batches and undone after each batch, outside the
+ * timed region, so the database stays the same size:
+ * <ul>
+ * <li>INSERT adds cities from the same distribution at free coordinates,
+ * which are deleted again afterwards.</li>
+ * <li>DELETE_AT and DELETE_NAME remove cities that are then inserted
+ * again.</li>
+ * </ul>
+ * Reinsertion moves cities lower in the trees than a bulk load would put
+ * them, so write timings drift slightly with the number of iterations.
+ * <p>
+ * Run it with {@code java GISBenchmark} and any of these options, lists
+ * separated by commas:
+ *
+ * <pre>
+ * -size 1000,1000000         database sizes
+ * -dist UNIFORM,SORTED_BY_X  distributions
+ * -op INSERT,SEARCH_100      operations
+ * -warmup 3 -iterations 5    iteration counts
+ * -time 1000                 milliseconds per iteration
+ * -batch 1000                most calls per timed batch
+ * </pre>
+ *
+ * Large sizes need a large heap, such as {@code -Xmx8g} for 10 million.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class GISBenchmark {
+
+    /** How the cities of a dataset are laid out. */
+    public enum Distribution {
+        /** Coordinates uniform over the whole space, names in random order. */
+        UNIFORM,
+        /** Coordinates in a few dense Gaussian clusters. */
+        CLUSTERED,
+        /**
+         * Uniform coordinates, cities inserted in name order, so the BST is
+         * a chain.
+         */
+        SORTED_BY_NAME,
+        /**
+         * Uniform coordinates, cities inserted in x and then y order, so
+         * the k-d tree's x levels never branch.
+         */
+        SORTED_BY_X;
+
+        /**
+         * @return whether the cities are inserted in sorted order rather
+         *         than bulk loaded
+         */
+        boolean isSorted() {
+            return this == SORTED_BY_NAME || this == SORTED_BY_X;
+        }
+    }
+
+    /** The operations timed. */
+    public enum Operation {
+        /** {@link GISDB#insert(String, int, int)} of a new city. */
+        INSERT,
+        /** {@link GISDB#delete(int, int)} of an existing city. */
+        DELETE_AT,
+        /** {@link GISDB#delete(String)} of an existing name. */
+        DELETE_NAME,
+        /** {@link GISDB#info(int, int)} of an existing city. */
+        INFO_AT,
+        /** {@link GISDB#info(String)} of an existing name. */
+        INFO_NAME,
+        /** {@link GISDB#search(int, int, int)} with radius 10. */
+        SEARCH_10,
+        /** {@link GISDB#search(int, int, int)} with radius 100. */
+        SEARCH_100,
+        /** {@link GISDB#search(int, int, int)} with radius 1000. */
+        SEARCH_1000,
+        /** {@link GISDB#debug()}. */
+        DEBUG,
+        /** {@link GISDB#print()}. */
+        PRINT;
+
+        /**
+         * @return whether the operation changes the database
+         */
+        boolean isWrite() {
+            return this == INSERT || this == DELETE_AT || this == DELETE_NAME;
+        }
+    }
+
+    /**
+     * The time per call of one operation in one trial.
+     */
+    public static final class Result {
+        private final Operation operation;
+        private final Distribution distribution;
+        private final int size;
+        private final double nanosPerOp;
+        private final double errorNanos;
+        private final long calls;
+
+        /**
+         * Creates a result.
+         *
+         * @param operation
+         *                     the operation
+         * @param distribution
+         *                     the dataset distribution
+         * @param size
+         *                     cities in the database
+         * @param iterations
+         *                     nanoseconds per call in each measurement
+         *                     iteration
+         * @param calls
+         *                     calls measured in all
+         */
+        Result(Operation operation, Distribution distribution, int size,
+            double[] iterations, long calls) {
+            this.operation = operation;
+            this.distribution = distribution;
+            this.size = size;
+            this.calls = calls;
+            double sum = 0;
+            for (double t : iterations) {
+                sum += t;
+            }
+            nanosPerOp = sum / iterations.length;
+            double squares = 0;
+            for (double t : iterations) {
+                squares += (t - nanosPerOp) * (t - nanosPerOp);
+            }
+            errorNanos = (iterations.length < 2)
+                ? 0
+                : Math.sqrt(squares / (iterations.length - 1));
+        }
+
+        /**
+         * @return the operation
+         */
+        public Operation getOperation() {
+            return operation;
+        }
+
+        /**
+         * @return the dataset distribution
+         */
+        public Distribution getDistribution() {
+            return distribution;
+        }
+
+        /**
+         * @return the number of cities in the database
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * @return the mean time per call over the measurement iterations
+         */
+        public double getNanosPerOp() {
+            return nanosPerOp;
+        }
+
+        /**
+         * @return the standard deviation of the per-iteration means
+         */
+        public double getErrorNanos() {
+            return errorNanos;
+        }
+
+        /**
+         * @return the number of calls measured
+         */
+        public long getCalls() {
+            return calls;
+        }
+
+        /**
+         * @return one row of the results table
+         */
+        @Override
+        public String toString() {
+            return String.format("%-12s %-15s %9d %14.1f +- %9.1f ns/op",
+                operation, distribution, size, nanosPerOp, errorNanos);
+        }
+    }
+
+    /** Seed for every generated dataset. */
+    static final long SEED = 42;
+
+    /** Number of cluster centres in a {@link Distribution#CLUSTERED} set. */
+    private static final int CLUSTERS = 64;
+
+    /** Standard deviation of a cluster, in coordinate units. */
+    private static final double SPREAD = 600;
+
+    /** Number of query targets, a power of two. */
+    private static final int PROBES = 4096;
+
+    /**
+     * Largest sorted dataset run. Its trees have about one level per city,
+     * and the recursive tree operations need a call frame per level, so
+     * larger sets overflow a default thread stack.
+     */
+    public static final int MAX_SORTED_SIZE = 5000;
+
+    /** Default sizes: 1 thousand to 10 million. */
+    private static final int[] DEFAULT_SIZES = { 1000, 10000, 100000,
+        1000000, 10000000 };
+
+    /** Default iteration counts, length and batch size. */
+    public static final int DEFAULT_WARMUP = 3;
+    public static final int DEFAULT_ITERATIONS = 5;
+    public static final long DEFAULT_ITERATION_MILLIS = 1000;
+    public static final int DEFAULT_BATCH = 1000;
+
+    /** Results are folded in here so the JIT cannot drop the calls. */
+    private static volatile long sink;
+
+    private final int warmup;
+    private final int iterations;
+    private final long iterationNanos;
+    private final int batch;
+
+    /**
+     * Creates a benchmark with the default settings.
+     */
+    public GISBenchmark() {
+        this(DEFAULT_WARMUP, DEFAULT_ITERATIONS, DEFAULT_ITERATION_MILLIS,
+            DEFAULT_BATCH);
+    }
+
+    /**
+     * Creates a benchmark.
+     *
+     * @param warmup
+     *                        warmup iterations per operation
+     * @param iterations
+     *                        measurement iterations per operation, at least 1
+     * @param iterationMillis
+     *                        length of an iteration
+     * @param batch
+     *                        calls per timed batch, at least 1
+     */
+    public GISBenchmark(int warmup, int iterations, long iterationMillis,
+        int batch) {
+        if (warmup < 0 || iterations < 1 || iterationMillis < 0
+            || batch < 1) {
+            throw new IllegalArgumentException("bad benchmark settings");
+        }
+        this.warmup = warmup;
+        this.iterations = iterations;
+        this.iterationNanos = iterationMillis * 1_000_000;
+        this.batch = batch;
+    }
+
+    /**
+     * Runs the benchmarks given on the command line (see the class comment)
+     * and prints one row per result.
+     *
+     * @param args
+     *             the options
+     */
+    public static void main(String[] args) {
+        int[] sizes = DEFAULT_SIZES;
+        List<Distribution> distributions = Arrays.asList(Distribution
+            .values());
+        List<Operation> operations = Arrays.asList(Operation.values());
+        int warmup = DEFAULT_WARMUP;
+        int iterations = DEFAULT_ITERATIONS;
+        long millis = DEFAULT_ITERATION_MILLIS;
+        int batch = DEFAULT_BATCH;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException(args[i]);
+                }
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "-size":
+                        sizes = Arrays.stream(value.split(",")).mapToInt(
+                            Integer::parseInt).toArray();
+                        break;
+                    case "-dist":
+                        distributions = new ArrayList<>();
+                        for (String d : value.split(",")) {
+                            distributions.add(Distribution.valueOf(d));
+                        }
+                        break;
+                    case "-op":
+                        operations = new ArrayList<>();
+                        for (String op : value.split(",")) {
+                            operations.add(Operation.valueOf(op));
+                        }
+                        break;
+                    case "-warmup":
+                        warmup = Integer.parseInt(value);
+                        break;
+                    case "-iterations":
+                        iterations = Integer.parseInt(value);
+                        break;
+                    case "-time":
+                        millis = Long.parseLong(value);
+                        break;
+                    case "-batch":
+                        batch = Integer.parseInt(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException(args[i]);
+                }
+            }
+            GISBenchmark benchmark = new GISBenchmark(warmup, iterations,
+                millis, batch);
+            for (int size : sizes) {
+                for (Distribution d : distributions) {
+                    benchmark.run(size, d, operations, System.out);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Usage: java GISBenchmark [-size n,...] "
+                + "[-dist d,...] [-op o,...] [-warmup n] [-iterations n] "
+                + "[-time ms] [-batch n]");
+        }
+    }
+
+    /**
+     * Runs one trial: builds a database and times each operation on it.
+     *
+     * @param size
+     *                     number of cities to generate
+     * @param distribution
+     *                     how to lay them out
+     * @param operations
+     *                     the operations to time
+     * @param out
+     *                     receives each result as it is ready, or
+     *                     {@code null}
+     * @return the results, in the order of {@code operations}; none if a
+     *         sorted dataset is larger than {@link #MAX_SORTED_SIZE}
+     */
+    public List<Result> run(int size, Distribution distribution,
+        List<Operation> operations, PrintStream out) {
+        List<Result> results = new ArrayList<>();
+        if (distribution.isSorted() && size > MAX_SORTED_SIZE) {
+            if (out != null) {
+                out.println("# " + distribution + " skipped at " + size
+                    + " cities: sorted sets are inserted one at a time, "
+                    + "up to " + MAX_SORTED_SIZE);
+            }
+            return results;
+        }
+        City[] cities = generate(size, distribution, SEED);
+        GISDB db = new GISDB();
+        boolean[] loaded = load(db, cities, distribution);
+        City[] present = new City[cities.length];
+        int count = 0;
+        for (int i = 0; i < cities.length; i++) {
+            if (loaded[i]) {
+                present[count++] = cities[i];
+            }
+        }
+        present = Arrays.copyOf(present, count);
+
+        Trial trial = new Trial(db, present, distribution);
+        for (Operation op : operations) {
+            Result result = measure(trial, op, count, distribution);
+            results.add(result);
+            if (out != null) {
+                out.println(result);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Loads a dataset: bulk loads it, or inserts it one city at a time if
+     * it is sorted.
+     *
+     * @param db
+     *                     an empty database
+     * @param cities
+     *                     the cities, in dataset order
+     * @param distribution
+     *                     their distribution
+     * @return for each city, whether it was loaded
+     */
+    static boolean[] load(GISDB db, City[] cities, Distribution distribution) {
+        if (!distribution.isSorted()) {
+            return db.bulkLoad(Arrays.asList(cities));
+        }
+        boolean[] loaded = new boolean[cities.length];
+        for (int i = 0; i < cities.length; i++) {
+            City c = cities[i];
+            loaded[i] = db.insert(c.getName(), c.getX(), c.getY());
+        }
+        return loaded;
+    }
+
+    /**
+     * Times one operation.
+     *
+     * @param trial
+     *                     the database and its targets
+     * @param op
+     *                     the operation
+     * @param size
+     *                     cities in the database
+     * @param distribution
+     *                     the dataset distribution
+     * @return the result
+     */
+    private Result measure(Trial trial, Operation op, int size,
+        Distribution distribution) {
+        // A single call sizes the batches to about a tenth of an iteration,
+        // so an operation that takes milliseconds is not run a thousand
+        // times per batch
+        long once = Math.max(1, iteration(trial, op, 1, 0)[0]);
+        int calls = (int)Math.max(1, Math.min(trial.batchSize(op, batch),
+            iterationNanos / 10 / once));
+        for (int i = 0; i < warmup; i++) {
+            iteration(trial, op, calls, iterationNanos);
+        }
+        double[] perOp = new double[iterations];
+        long total = 0;
+        for (int i = 0; i < iterations; i++) {
+            long[] timing = iteration(trial, op, calls, iterationNanos);
+            perOp[i] = (double)timing[0] / timing[1];
+            total += timing[1];
+        }
+        return new Result(op, distribution, size, perOp, total);
+    }
+
+    /**
+     * Runs batches of one operation until enough time has been timed, and
+     * at least one batch.
+     *
+     * @param trial
+     *                 the database and its targets
+     * @param op
+     *                 the operation
+     * @param calls
+     *                 calls per batch
+     * @param minNanos
+     *                 time to run for
+     * @return the timed nanoseconds and the number of calls
+     */
+    private long[] iteration(Trial trial, Operation op, int calls,
+        long minNanos) {
+        long nanos = 0;
+        long done = 0;
+        long folded = 0;
+        do {
+            int n = op.isWrite() ? trial.prepare(op, calls) : calls;
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                folded += trial.call(op, i);
+            }
+            nanos += System.nanoTime() - start;
+            done += n;
+            if (op.isWrite()) {
+                trial.undo(op, n);
+            }
+        } while (nanos < minNanos || done == 0);
+        sink += folded;
+        return new long[] { nanos, done };
+    }
+
+    /**
+     * Generates a dataset. Cities may share coordinates, like a raw
+     * gazetteer dump; loading keeps the first city at each point. Names
+     * come from a pool of half as many names as cities, so most names
+     * belong to a few cities.
+     *
+     * @param size
+     *                     number of cities
+     * @param distribution
+     *                     how to lay them out
+     * @param seed
+     *                     random seed
+     * @return the cities, in dataset order
+     */
+    static City[] generate(int size, Distribution distribution, long seed) {
+        Random random = new Random(seed);
+        String[] names = new String[Math.max(1, size / 2)];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = WorkloadGenerator.randomName(random);
+        }
+        int[] centreX = new int[CLUSTERS];
+        int[] centreY = new int[CLUSTERS];
+        for (int c = 0; c < CLUSTERS; c++) {
+            centreX[c] = random.nextInt(GISDB.MAXCOORD + 1);
+            centreY[c] = random.nextInt(GISDB.MAXCOORD + 1);
+        }
+
+        City[] cities = new City[size];
+        for (int i = 0; i < size; i++) {
+            int x;
+            int y;
+            if (distribution == Distribution.CLUSTERED) {
+                int c = random.nextInt(CLUSTERS);
+                long point = WorkloadGenerator.clusteredPoint(random,
+                    centreX[c], centreY[c], SPREAD);
+                x = (int)(point >>> 16);
+                y = (int)(point & 0xffff);
+            } else {
+                x = random.nextInt(GISDB.MAXCOORD + 1);
+                y = random.nextInt(GISDB.MAXCOORD + 1);
+            }
+            cities[i] = new City(names[random.nextInt(names.length)], x, y);
+        }
+        if (distribution == Distribution.SORTED_BY_NAME) {
+            Arrays.sort(cities);
+        } else if (distribution == Distribution.SORTED_BY_X) {
+            Arrays.sort(cities, Comparator.comparingInt(City::getX)
+                .thenComparingInt(City::getY));
+        }
+        return cities;
+    }
+
+    /**
+     * One loaded database and the arguments each operation is called with.
+     */
+    private static final class Trial {
+        private final GISDB db;
+        private final City[] present;
+        private final Random random = new Random(SEED + 1);
+
+        /** Query targets: existing cities, in random order. */
+        private final City[] probes = new City[PROBES];
+
+        /** New cities at free coordinates, in dataset order. */
+        private final City[] fresh;
+
+        /** Cities or names being deleted in the current batch. */
+        private City[] victims = new City[0];
+        private final List<City> removed = new ArrayList<>();
+
+        /** Position in {@link #probes}. */
+        private int next;
+
+        /**
+         * Creates a trial.
+         *
+         * @param db
+         *                     the loaded database
+         * @param present
+         *                     the cities in it, in dataset order
+         * @param distribution
+         *                     the dataset distribution
+         */
+        Trial(GISDB db, City[] present, Distribution distribution) {
+            this.db = db;
+            this.present = present;
+            for (int i = 0; i < PROBES; i++) {
+                probes[i] = (present.length == 0)
+                    ? new City("None", 0, 0)
+                    : present[random.nextInt(present.length)];
+            }
+
+            List<City> free = new ArrayList<>();
+            HashSet<Long> taken = new HashSet<>();
+            int want = Math.min(DEFAULT_BATCH * 16, Math.max(16,
+                present.length));
+            for (City c : generate(want * 2, distribution, SEED + 2)) {
+                long key = ((long)c.getX() << 16) | c.getY();
+                if (free.size() < want && db.info(c.getX(), c.getY())
+                    .isEmpty() && taken.add(key)) {
+                    free.add(c);
+                }
+            }
+            fresh = free.toArray(new City[0]);
+        }
+
+        /**
+         * Returns how many calls to time together.
+         *
+         * @param op
+         *              the operation
+         * @param batch
+         *              the requested batch size
+         * @return the batch size to use
+         */
+        int batchSize(Operation op, int batch) {
+            if (op == Operation.INSERT) {
+                return Math.max(1, Math.min(batch, fresh.length));
+            }
+            return Math.max(1, Math.min(batch, present.length));
+        }
+
+        /**
+         * Chooses the targets of a write batch.
+         *
+         * @param op
+         *              the operation
+         * @param calls
+         *              calls wanted in the batch
+         * @return the number of calls to make, at most {@code calls}
+         */
+        int prepare(Operation op, int calls) {
+            if (op == Operation.INSERT) {
+                return Math.min(calls, fresh.length);
+            }
+            // Distinct existing cities (with distinct names, for
+            // DELETE_NAME), kept in dataset order
+            int[] picks = random.ints(0, present.length).distinct().limit(
+                calls).sorted().toArray();
+            List<City> chosen = new ArrayList<>();
+            HashSet<String> names = new HashSet<>();
+            for (int pick : picks) {
+                City c = present[pick];
+                if (op == Operation.DELETE_AT || names.add(c.getName())) {
+                    chosen.add(c);
+                }
+            }
+            victims = chosen.toArray(new City[0]);
+            removed.clear();
+            if (op == Operation.DELETE_NAME) {
+                for (City c : present) {
+                    if (names.contains(c.getName())) {
+                        removed.add(c);
+                    }
+                }
+            } else {
+                removed.addAll(chosen);
+            }
+            return victims.length;
+        }
+
+        /**
+         * Makes one call.
+         *
+         * @param op
+         *              the operation
+         * @param index
+         *              the call's position in its batch
+         * @return a number derived from the result
+         */
+        long call(Operation op, int index) {
+            City probe = probes[next++ & (PROBES - 1)];
+            switch (op) {
+                case INSERT:
+                    City c = fresh[index];
+                    return db.insert(c.getName(), c.getX(), c.getY()) ? 1 : 0;
+                case DELETE_AT:
+                    return db.delete(victims[index].getX(), victims[index]
+                        .getY()).length();
+                case DELETE_NAME:
+                    return db.delete(victims[index].getName()).length();
+                case INFO_AT:
+                    return db.info(probe.getX(), probe.getY()).length();
+                case INFO_NAME:
+                    return db.info(probe.getName()).length();
+                case SEARCH_10:
+                    return db.search(probe.getX(), probe.getY(), 10).length();
+                case SEARCH_100:
+                    return db.search(probe.getX(), probe.getY(), 100)
+                        .length();
+                case SEARCH_1000:
+                    return db.search(probe.getX(), probe.getY(), 1000)
+                        .length();
+                case DEBUG:
+                    return db.debug().length();
+                default:
+                    return db.print().length();
+            }
+        }
+
+        /**
+         * Puts the database back the way it was before a write batch.
+         *
+         * @param op
+         *              the operation
+         * @param calls
+         *              calls in the batch
+         */
+        void undo(Operation op, int calls) {
+            if (op == Operation.INSERT) {
+                for (int i = 0; i < calls; i++) {
+                    db.delete(fresh[i].getX(), fresh[i].getY());
+                }
+                return;
+            }
+            for (City c : removed) {
+                db.insert(c.getName(), c.getX(), c.getY());
+            }
+        }
+    }
+}
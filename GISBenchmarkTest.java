@@ -0,0 +1,158 @@
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+import student.TestCase;
+
+/**
+ * Tests for {@link GISBenchmark}: the datasets it generates and a tiny run
+ * of every operation.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class GISBenchmarkTest extends TestCase {
+
+    /**
+     * Tests that datasets are repeatable, in range and in the promised
+     * order.
+     */
+    public void testGenerate() {
+        for (GISBenchmark.Distribution d : GISBenchmark.Distribution
+            .values()) {
+            City[] cities = GISBenchmark.generate(2000, d, 7);
+            City[] again = GISBenchmark.generate(2000, d, 7);
+            assertEquals(2000, cities.length);
+            for (int i = 0; i < cities.length; i++) {
+                assertEquals(cities[i].toString(), again[i].toString());
+                assertTrue(cities[i].getX() >= 0
+                    && cities[i].getX() <= GISDB.MAXCOORD);
+                assertTrue(cities[i].getY() >= 0
+                    && cities[i].getY() <= GISDB.MAXCOORD);
+                if (i > 0 && d == GISBenchmark.Distribution.SORTED_BY_NAME) {
+                    assertTrue(cities[i - 1].compareTo(cities[i]) <= 0);
+                }
+                if (i > 0 && d == GISBenchmark.Distribution.SORTED_BY_X) {
+                    assertTrue(cities[i - 1].getX() <= cities[i].getX());
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that clustered cities really are denser than uniform ones.
+     */
+    public void testClustered() {
+        City[] clustered = GISBenchmark.generate(5000,
+            GISBenchmark.Distribution.CLUSTERED, 1);
+        City[] uniform = GISBenchmark.generate(5000,
+            GISBenchmark.Distribution.UNIFORM, 1);
+        GISDB clusteredDb = load(clustered);
+        GISDB uniformDb = load(uniform);
+        int near = 0;
+        int nearUniform = 0;
+        for (int i = 0; i < 20; i++) {
+            int x = clustered[i].getX();
+            int y = clustered[i].getY();
+            near += clusteredDb.search(x, y, 300).split("\n").length;
+            nearUniform += uniformDb.search(x, y, 300).split("\n").length;
+        }
+        assertTrue(near > 2 * nearUniform);
+    }
+
+    /**
+     * Tests that sorted datasets are inserted in order, building the
+     * degenerate trees they are meant to measure, while the same cities
+     * bulk loaded give balanced trees.
+     */
+    public void testSortedLoadsDegenerate() {
+        City[] byName = GISBenchmark.generate(2000,
+            GISBenchmark.Distribution.SORTED_BY_NAME, 3);
+        GISDB sorted = new GISDB();
+        GISBenchmark.load(sorted, byName,
+            GISBenchmark.Distribution.SORTED_BY_NAME);
+        assertTrue(sorted.getBSTHealth().isRebuildRecommended());
+        assertFalse(load(byName).getBSTHealth().isRebuildRecommended());
+
+        City[] byX = GISBenchmark.generate(2000,
+            GISBenchmark.Distribution.SORTED_BY_X, 3);
+        GISDB sortedX = new GISDB();
+        boolean[] loaded = GISBenchmark.load(sortedX, byX,
+            GISBenchmark.Distribution.SORTED_BY_X);
+        assertTrue(sortedX.getKDTreeHealth().isRebuildRecommended());
+        assertFalse(load(byX).getKDTreeHealth().isRebuildRecommended());
+        for (int i = 0; i < byX.length; i++) {
+            assertEquals(loaded[i], sortedX.info(byX[i].getX(), byX[i].getY())
+                .equals(byX[i].getName()));
+        }
+    }
+
+    /**
+     * Tests that sorted trials above the size cap are skipped with a note.
+     */
+    public void testSortedSizeCap() {
+        GISBenchmark benchmark = new GISBenchmark(0, 1, 0, 10);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        List<GISBenchmark.Result> results = benchmark.run(
+            GISBenchmark.MAX_SORTED_SIZE + 1,
+            GISBenchmark.Distribution.SORTED_BY_NAME, Arrays.asList(
+                GISBenchmark.Operation.INFO_AT), new PrintStream(bytes));
+        assertTrue(results.isEmpty());
+        assertTrue(bytes.toString().startsWith(
+            "# SORTED_BY_NAME skipped at 5001 cities"));
+    }
+
+    /**
+     * Loads cities into a new database.
+     *
+     * @param cities
+     *               the cities
+     * @return the database
+     */
+    private static GISDB load(City[] cities) {
+        GISDB db = new GISDB();
+        db.bulkLoad(Arrays.asList(cities));
+        return db;
+    }
+
+    /**
+     * Tests a short run of every operation.
+     */
+    public void testRunEveryOperation() {
+        GISBenchmark benchmark = new GISBenchmark(1, 2, 0, 50);
+        List<GISBenchmark.Result> results = benchmark.run(500,
+            GISBenchmark.Distribution.SORTED_BY_X, Arrays.asList(
+                GISBenchmark.Operation.values()), null);
+        assertEquals(GISBenchmark.Operation.values().length, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            GISBenchmark.Result r = results.get(i);
+            assertEquals(GISBenchmark.Operation.values()[i], r.getOperation());
+            assertEquals(GISBenchmark.Distribution.SORTED_BY_X, r
+                .getDistribution());
+            assertTrue(r.getSize() > 490 && r.getSize() <= 500);
+            assertTrue(r.getCalls() >= 2);
+            assertTrue(r.getNanosPerOp() > 0);
+            assertTrue(r.getErrorNanos() >= 0);
+            assertTrue(r.toString().startsWith(r.getOperation().toString()));
+        }
+    }
+
+    /**
+     * Tests that bad settings and options are refused.
+     */
+    public void testBadSettings() {
+        Exception thrown = null;
+        try {
+            new GISBenchmark(0, 0, 10, 10);
+        } catch (IllegalArgumentException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+        GISBenchmark.main(new String[] { "-op", "NOPE" });
+        GISBenchmark.main(new String[] { "-size", "200", "-dist", "UNIFORM",
+            "-op", "INFO_AT,SEARCH_10", "-warmup", "0", "-iterations", "1",
+            "-time", "0", "-batch", "10" });
+        GISBenchmark.main(new String[] { "-time" });
+    }
+}
@@ -1,3 +1,12 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
 // -------------------------------------------------------------------------
 /**
  * Implementation of the GIS interface. This is what calls the BST and the
@@ -20,8 +29,128 @@ public class GISDB implements GIS {
      */
     public static final int DIMENSION = 2;
 
+    // ----------------------------------------------------------
+    /**
+     * One write in a batch passed to {@link GISDB#applyBatch(List)}.
+     */
+    public static final class Op {
+
+        /**
+         * The kinds of write a batch can hold.
+         */
+        public enum Kind {
+            /** {@link GISDB#insert(String, int, int)} */
+            INSERT,
+            /** {@link GISDB#delete(int, int)} */
+            DELETE_AT,
+            /** {@link GISDB#delete(String)} */
+            DELETE_NAME
+        }
+
+        private final Kind kind;
+        private final String name;
+        private final int x;
+        private final int y;
+
+        /**
+         * Creates an operation.
+         *
+         * @param kind
+         *             the kind of write
+         * @param name
+         *             city name, or {@code null} for DELETE_AT
+         * @param x
+         *             x-coordinate (unused for DELETE_NAME)
+         * @param y
+         *             y-coordinate (unused for DELETE_NAME)
+         */
+        private Op(Kind kind, String name, int x, int y) {
+            if (name == null && kind != Kind.DELETE_AT) {
+                throw new IllegalArgumentException("name cannot be null");
+            }
+            this.kind = kind;
+            this.name = name;
+            this.x = x;
+            this.y = y;
+        }
+
+        /**
+         * Creates an insert of a city.
+         *
+         * @param name
+         *             City name.
+         * @param x
+         *             City x-coordinate.
+         * @param y
+         *             City y-coordinate.
+         * @return the operation
+         */
+        public static Op insert(String name, int x, int y) {
+            return new Op(Kind.INSERT, name, x, y);
+        }
+
+        /**
+         * Creates a delete of the city at some coordinates.
+         *
+         * @param x
+         *          City x-coordinate.
+         * @param y
+         *          City y-coordinate.
+         * @return the operation
+         */
+        public static Op delete(int x, int y) {
+            return new Op(Kind.DELETE_AT, null, x, y);
+        }
+
+        /**
+         * Creates a delete of every city with a name.
+         *
+         * @param name
+         *             City name.
+         * @return the operation
+         */
+        public static Op delete(String name) {
+            return new Op(Kind.DELETE_NAME, name, 0, 0);
+        }
+
+        /**
+         * @return the kind of write
+         */
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * @return the city name, or {@code null} for DELETE_AT
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the x-coordinate
+         */
+        public int getX() {
+            return x;
+        }
+
+        /**
+         * @return the y-coordinate
+         */
+        public int getY() {
+            return y;
+        }
+    }
+
     private BST<City> cityBinarySearchTree = new BST<>();
     private KDTree cityKDTree = new KDTree();
+    // Volatile, as queries read them under a shared lock in
+    // ConcurrentGISDB while a setter may run under its write lock
+    private volatile GISMetrics metrics;
+    private volatile SearchCache searchCache;
+    private volatile NameCache nameCache;
+    private DensityPyramid density;
+    private double maxDeadFraction;
 
     // ----------------------------------------------------------
     /**
@@ -32,6 +161,401 @@ public class GISDB implements GIS {
         cityKDTree = new KDTree();
     }
 
+    // ----------------------------------------------------------
+    /**
+     * Starts or stops measuring this database's operations. Without
+     * metrics, the default, operations are not timed at all, and the
+     * {@link QueryStats} each one fills in are dropped rather than added up.
+     *
+     * @param metrics
+     *                where to record operations, or null for nowhere
+     */
+    public void setMetrics(GISMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * @return where operations are recorded, null if nowhere
+     */
+    public GISMetrics getMetrics() {
+        return metrics;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Starts or stops caching search results. Cached results stay exactly
+     * what the k-d tree would return; see {@link SearchCache}.
+     *
+     * @param capacity
+     *                 the most searches to keep, 0 for no cache
+     */
+    public void setSearchCache(int capacity) {
+        searchCache = (capacity == 0) ? null : new SearchCache(capacity);
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * @return the search cache, null if searches are not cached
+     */
+    public SearchCache getSearchCache() {
+        return searchCache;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Evicts the cached searches that an insert or delete at a point could
+     * change. Call it before changing the k-d tree.
+     *
+     * @param x
+     *          x-coordinate of the point
+     * @param y
+     *          y-coordinate of the point
+     */
+    private void invalidateSearches(int x, int y) {
+        SearchCache cache = searchCache;
+        if (cache != null && cache.size() > 0) {
+            int[] cell = new int[4];
+            cityKDTree.cell(x, y, cell);
+            cache.invalidate(cell);
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Evicts every cached search, for changes that rebuild the k-d tree.
+     */
+    private void invalidateSearches() {
+        SearchCache cache = searchCache;
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Turns lazy deletes in the k-d tree on or off (see
+     * {@link KDTree#setLazyDelete(double)}): a delete then only finds the
+     * city and marks its node dead, and the tree is rebuilt once the dead
+     * nodes pass the given fraction. Deletes report the nodes visited to
+     * find the city, and until a rebuild {@link #debug()} shows the live
+     * cities at the levels they had before the deletes, so both differ from
+     * what eager deletes give.
+     *
+     * @param maxDeadFraction
+     *                        the most dead nodes allowed, as a fraction of
+     *                        the nodes (below 1); 0 for eager deletes
+     */
+    public void setLazyDeletes(double maxDeadFraction) {
+        long compactions = cityKDTree.getCompactionCount();
+        cityKDTree.setLazyDelete(maxDeadFraction);
+        this.maxDeadFraction = maxDeadFraction;
+        if (cityKDTree.getCompactionCount() != compactions) {
+            invalidateSearches();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * @return the most dead k-d tree nodes allowed, as a fraction of the
+     *         nodes; 0 if deletes are eager
+     */
+    public double getLazyDeletes() {
+        return maxDeadFraction;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * @return a new, empty k-d tree with this database's delete mode
+     */
+    private KDTree newKDTree() {
+        KDTree tree = new KDTree();
+        tree.setLazyDelete(maxDeadFraction);
+        return tree;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Deletes a city from the k-d tree, evicting the cached searches it
+     * changes: those near the city, or all of them if the delete compacted
+     * the tree.
+     *
+     * @param x
+     *              x-coordinate of the city
+     * @param y
+     *              y-coordinate of the city
+     * @param stats
+     *              receives the work done in the tree
+     * @return what {@link KDTree#delete(int, int, QueryStats)} returned
+     */
+    private String deleteFromKDTree(int x, int y, QueryStats stats) {
+        invalidateSearches(x, y);
+        long compactions = cityKDTree.getCompactionCount();
+        String output = cityKDTree.delete(x, y, stats);
+        if (cityKDTree.getCompactionCount() != compactions) {
+            invalidateSearches();
+        }
+        return output;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Starts or stops caching {@link #info(String)} results. Cached results
+     * stay exactly what the BST would return; see {@link NameCache}.
+     *
+     * @param capacity
+     *                 the most names to keep, 0 for no cache
+     */
+    public void setNameCache(int capacity) {
+        nameCache = (capacity == 0) ? null : new NameCache(capacity);
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * @return the name cache, null if names are not cached
+     */
+    public NameCache getNameCache() {
+        return nameCache;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Lists the cities with a name, from the name cache if possible.
+     *
+     * @param name
+     *              the name
+     * @param stats
+     *              receives the work done in the BST, if any
+     * @return the cities in BST preorder, as {@link BST#findAll(Object)}
+     *         lists them
+     */
+    private String findNamed(String name, QueryStats stats) {
+        NameCache cache = nameCache;
+        String found = (cache == null) ? null : cache.get(name);
+        if (found == null) {
+            // Temporary City object with given name, coordinates don't
+            // matter for comparison
+            found = cityBinarySearchTree.findAll(new City(name, 0, 0), stats);
+            if (cache != null) {
+                cache.put(name, found);
+            }
+        }
+        return found;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * @return a list for the BST to report the cities a delete moves, or
+     *         null if names are not cached
+     */
+    private List<City> movedList() {
+        return (nameCache == null) ? null : new ArrayList<City>();
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Evicts the cached results a write changed: those of a name whose
+     * cities were inserted or deleted, and of the cities the BST moved.
+     *
+     * @param name
+     *              the name written
+     * @param moved
+     *              the cities moved, or null
+     */
+    private void invalidateNames(String name, List<City> moved) {
+        NameCache cache = nameCache;
+        if (cache != null) {
+            cache.invalidate(name);
+            if (moved != null) {
+                for (City c : moved) {
+                    cache.invalidate(c.getName());
+                }
+            }
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Evicts every cached search and name, for changes that rebuild the
+     * trees.
+     */
+    private void invalidateAll() {
+        invalidateSearches();
+        NameCache cache = nameCache;
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Starts or stops keeping a {@link DensityPyramid} of city counts per
+     * tile, filled from the cities already in the database and kept up to
+     * date by every write.
+     *
+     * @param levels
+     *               number of zoom levels, 0 for no pyramid
+     */
+    public void setDensityPyramid(int levels) {
+        if (levels == 0) {
+            density = null;
+            return;
+        }
+        DensityPyramid pyramid = new DensityPyramid(levels);
+        fillDensity(pyramid);
+        density = pyramid;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * @return the density pyramid, null if none is kept
+     */
+    public DensityPyramid getDensityPyramid() {
+        return density;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Counts the cities in a rectangle. With a density pyramid, the whole
+     * tiles of its finest level inside the rectangle are counted from the
+     * pyramid, and only the strips along the edges in the k-d tree.
+     *
+     * @param minX
+     *             smallest x-coordinate
+     * @param minY
+     *             smallest y-coordinate
+     * @param maxX
+     *             largest x-coordinate, inclusive
+     * @param maxY
+     *             largest y-coordinate, inclusive
+     * @return the number of cities
+     */
+    public long countCities(int minX, int minY, int maxX, int maxY) {
+        minX = Math.max(minX, 0);
+        minY = Math.max(minY, 0);
+        maxX = Math.min(maxX, MAXCOORD);
+        maxY = Math.min(maxY, MAXCOORD);
+        if (minX > maxX || minY > maxY) {
+            return 0;
+        }
+        DensityPyramid pyramid = density;
+        if (pyramid == null) {
+            return cityKDTree.count(minX, maxX, minY, maxY);
+        }
+        int level = pyramid.getLevels() - 1;
+        int size = pyramid.getTileSize(level);
+        // Whole tiles: columns tileX0..tileX1, rows tileY0..tileY1
+        int tileX0 = (minX + size - 1) / size;
+        int tileY0 = (minY + size - 1) / size;
+        int tileX1 = (maxX + 1) / size - 1;
+        int tileY1 = (maxY + 1) / size - 1;
+        if (tileX0 > tileX1 || tileY0 > tileY1) {
+            return cityKDTree.count(minX, maxX, minY, maxY);
+        }
+        int innerX0 = tileX0 * size;
+        int innerY0 = tileY0 * size;
+        int innerX1 = (tileX1 + 1) * size - 1;
+        int innerY1 = (tileY1 + 1) * size - 1;
+        long total = pyramid.countTiles(level, tileX0, tileY0, tileX1,
+            tileY1);
+        if (minX < innerX0) {
+            total += cityKDTree.count(minX, innerX0 - 1, minY, maxY);
+        }
+        if (innerX1 < maxX) {
+            total += cityKDTree.count(innerX1 + 1, maxX, minY, maxY);
+        }
+        if (minY < innerY0) {
+            total += cityKDTree.count(innerX0, innerX1, minY, innerY0 - 1);
+        }
+        if (innerY1 < maxY) {
+            total += cityKDTree.count(innerX0, innerX1, innerY1 + 1, maxY);
+        }
+        return total;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Adds every city in the k-d tree to a pyramid.
+     *
+     * @param pyramid
+     *                an empty pyramid
+     */
+    private void fillDensity(DensityPyramid pyramid) {
+        List<City> all = new ArrayList<>();
+        cityKDTree.preorder(all, new BitSet());
+        for (City c : all) {
+            pyramid.add(c.getX(), c.getY(), 1);
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Updates the density pyramid, if any, for an inserted or deleted city.
+     *
+     * @param x
+     *              x-coordinate of the city
+     * @param y
+     *              y-coordinate of the city
+     * @param delta
+     *              1 for an insert, -1 for a delete
+     */
+    private void countCity(int x, int y, int delta) {
+        DensityPyramid pyramid = density;
+        if (pyramid != null) {
+            pyramid.add(x, y, delta);
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Starts timing an operation.
+     *
+     * @return the start time, 0 if the operation is not measured
+     */
+    private long startTimer() {
+        GISMetrics m = metrics;
+        return (m == null) ? 0 : m.start();
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Finishes timing an operation.
+     *
+     * @param op
+     *              the operation
+     * @param start
+     *              what {@link #startTimer()} returned
+     * @param stats
+     *              the work it did in the trees, or null
+     */
+    private void stopTimer(
+        GISMetrics.Operation op,
+        long start,
+        QueryStats stats) {
+        GISMetrics m = metrics;
+        if (start != 0 && m != null) {
+            m.stop(op, start, stats);
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Counts the lines of an operation's output.
+     *
+     * @param output
+     *               the output, with or without a final line break
+     * @return the number of lines, 0 if it is empty
+     */
+    private static int lines(String output) {
+        int count = (output.isEmpty() || output.endsWith("\n")) ? 0 : 1;
+        for (int i = 0; i < output.length(); i++) {
+            if (output.charAt(i) == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+
     // ----------------------------------------------------------
     /**
      * Reinitialize the database
@@ -39,8 +563,12 @@ public class GISDB implements GIS {
      * @return True if the database has been cleared
      */
     public boolean clear() {
+        invalidateAll();
+        if (density != null) {
+            density.clear();
+        }
         cityBinarySearchTree = new BST<City>();
-        cityKDTree = new KDTree();
+        cityKDTree = newKDTree();
         return true;
     }
 
@@ -61,21 +589,48 @@ public class GISDB implements GIS {
      * @return True iff the city is successfully entered into the database
      */
     public boolean insert(String name, int x, int y) {
+        GISOperationEvent event = GISOperationEvent.start();
+        long start = startTimer();
+        QueryStats stats = new QueryStats();
+        boolean inserted = insertCity(name, x, y, stats);
+        stopTimer(GISMetrics.Operation.INSERT, start, stats);
+        if (event.finish()) {
+            event.record(GISMetrics.Operation.INSERT, name + " " + x + " "
+                + y, stats, inserted ? 1 : 0);
+        }
+        return inserted;
+    }
+
+    /**
+     * Does the work of {@link #insert(String, int, int)}.
+     *
+     * @param name
+     *              City name.
+     * @param x
+     *              City x-coordinate.
+     * @param y
+     *              City y-coordinate.
+     * @param stats
+     *              receives the work done in the trees
+     * @return True iff the city is entered into the database
+     */
+    private boolean insertCity(String name, int x, int y, QueryStats stats) {
         if (x < 0 || x > MAXCOORD) {
             return false;
         }
         if (y < 0 || y > MAXCOORD) {
             return false;
         }
-        // Insert into both KDTREE and BST, make sure we search for the node in
-        // both before inserting, ifwe find a city with identical coords, not
-        // allowed.
-        if (cityKDTree.find(x, y) != null) {
+        // Insert into both KDTREE and BST. KDTree.insert already rejects a
+        // city with identical coords, so that is the only lookup we need.
+        City cityToAdd = new City(name, x, y);
+        invalidateSearches(x, y);
+        if (!cityKDTree.insert(cityToAdd, stats)) {
             return false;
         }
-        City cityToAdd = new City(name, x, y);
-        cityKDTree.insert(cityToAdd);
-        cityBinarySearchTree.insert(cityToAdd);
+        cityBinarySearchTree.insert(cityToAdd, stats);
+        invalidateNames(name, null);
+        countCity(x, y, 1);
         return true;
     }
 
@@ -96,19 +651,46 @@ public class GISDB implements GIS {
      *         deleted).
      */
     public String delete(int x, int y) {
+        GISOperationEvent event = GISOperationEvent.start();
+        long start = startTimer();
+        QueryStats stats = new QueryStats();
+        String deleted = deleteAt(x, y, stats);
+        stopTimer(GISMetrics.Operation.DELETE_AT, start, stats);
+        if (event.finish()) {
+            event.record(GISMetrics.Operation.DELETE_AT, x + " " + y, stats,
+                (deleted.indexOf('\n') < 0) ? 0 : 1);
+        }
+        return deleted;
+    }
+
+    /**
+     * Does the work of {@link #delete(int, int)}.
+     *
+     * @param x
+     *              City x-coordinate.
+     * @param y
+     *              City y-coordinate.
+     * @param stats
+     *              receives the work done in the trees
+     * @return the visit count and name, empty if nothing was deleted
+     */
+    private String deleteAt(int x, int y, QueryStats stats) {
 
         // Delete from KDTree
-        String kdOutput = cityKDTree.delete(x, y);
+        String kdOutput = deleteFromKDTree(x, y, stats);
 
         // Extract the city name from KDTree output
         String[] parts = kdOutput.trim().split("\n", 2);
         if (parts.length < 2)
             return ""; // safety
         String cityName = parts[1];
+        countCity(x, y, -1);
 
         // Delete the same city from BST
         City cityToRemove = new City(cityName, x, y);
-        cityBinarySearchTree.deleteOne(cityToRemove); // generic BST deletion
+        List<City> moved = movedList();
+        cityBinarySearchTree.deleteOne(cityToRemove, stats, moved);
+        invalidateNames(cityName, moved);
 
         return kdOutput;
     }
@@ -130,8 +712,30 @@ public class GISDB implements GIS {
      *         match.
      */
     public String delete(String name) {
+        GISOperationEvent event = GISOperationEvent.start();
+        long start = startTimer();
+        QueryStats stats = new QueryStats();
+        String deleted = deleteNamed(name, stats);
+        stopTimer(GISMetrics.Operation.DELETE_NAME, start, stats);
+        if (event.finish()) {
+            event.record(GISMetrics.Operation.DELETE_NAME, name, stats, lines(
+                deleted));
+        }
+        return deleted;
+    }
+
+    /**
+     * Does the work of {@link #delete(String)}.
+     *
+     * @param name
+     *              City name.
+     * @param stats
+     *              receives the work done in the trees
+     * @return the coordinates of each city deleted, empty if none
+     */
+    private String deleteNamed(String name, QueryStats stats) {
         // Step 1: Get all matching cities from BST
-        String allMatches = cityBinarySearchTree.findAll(new City(name, 0, 0));
+        String allMatches = findNamed(name, stats);
         if (allMatches.isEmpty()) {
             return "";
         }
@@ -146,15 +750,329 @@ public class GISDB implements GIS {
             int x = Integer.parseInt(line.substring(start + 1, comma).trim());
             int y = Integer.parseInt(line.substring(comma + 1, end).trim());
 
-            cityKDTree.delete(x, y);
+            deleteFromKDTree(x, y, stats);
+            countCity(x, y, -1);
         }
 
         // Step 3: Delete all from BST
-        cityBinarySearchTree.deleteAll(new City(name, 0, 0));
+        List<City> moved = movedList();
+        cityBinarySearchTree.deleteAll(new City(name, 0, 0), stats, moved);
+        invalidateNames(name, moved);
 
         return allMatches;
     }
 
+    // ----------------------------------------------------------
+    /**
+     * Applies a batch of writes. Each write gets the same outcome it would
+     * get if the writes were applied one at a time in list order, and the
+     * database ends up holding the same cities. The shape of the trees may
+     * differ, because the work is done in two passes:
+     * <ol>
+     * <li>The writes are replayed against a map of the coordinates they
+     * touch. Each coordinate is looked up in the k-d tree at most once, and
+     * each name is looked up in the BST at most once.</li>
+     * <li>Only the net changes are applied: cities that were present before
+     * the batch and are gone (or replaced) afterwards are deleted, then
+     * cities added by the batch that survive to its end are inserted, in the
+     * order they were added. A city inserted and deleted inside the batch
+     * never touches either tree.</li>
+     * </ol>
+     * <p>
+     * The result codes are: INSERT 1 if inserted, 0 if rejected; DELETE_AT 1
+     * if a city was deleted, 0 otherwise; DELETE_NAME the number of cities
+     * deleted.
+     *
+     * @param ops
+     *            the writes, in the order they should take effect
+     * @return one result code per write, in the same order
+     */
+    public int[] applyBatch(List<Op> ops) {
+        int[] results = new int[ops.size()];
+        // Touched coordinate -> city there before the batch (null if none)
+        HashMap<Long, City> before = new HashMap<>();
+        // Touched coordinate -> city there so far (null if none)
+        HashMap<Long, City> after = new HashMap<>();
+        // Cities the batch inserted, in order, and the same grouped by name
+        List<City> added = new ArrayList<>();
+        HashMap<String, List<City>> addedByName = new HashMap<>();
+        // Name -> cities with that name in the BST before the batch
+        HashMap<String, List<City>> treeMatches = new HashMap<>();
+
+        for (int i = 0; i < results.length; i++) {
+            Op op = ops.get(i);
+            switch (op.getKind()) {
+                case INSERT:
+                    if (!inBounds(op.getX(), op.getY())
+                        || cityAt(op.getX(), op.getY(), before,
+                            after) != null) {
+                        break;
+                    }
+                    City city = new City(op.getName(), op.getX(), op.getY());
+                    after.put(key(op.getX(), op.getY()), city);
+                    added.add(city);
+                    addedByName.computeIfAbsent(op.getName(),
+                        k -> new ArrayList<>()).add(city);
+                    results[i] = 1;
+                    break;
+
+                case DELETE_AT:
+                    if (inBounds(op.getX(), op.getY()) && cityAt(op.getX(),
+                        op.getY(), before, after) != null) {
+                        after.put(key(op.getX(), op.getY()), null);
+                        results[i] = 1;
+                    }
+                    break;
+
+                default: // DELETE_NAME
+                    List<City> matches = treeMatches.computeIfAbsent(
+                        op.getName(), k -> {
+                            List<City> list = new ArrayList<>();
+                            cityBinarySearchTree.findAll(new City(k, 0, 0),
+                                list);
+                            return list;
+                        });
+                    List<City> batchMatches = addedByName.remove(op
+                        .getName());
+                    int deleted = 0;
+                    for (City c : matches) {
+                        if (cityAt(c.getX(), c.getY(), before, after) == c) {
+                            after.put(key(c.getX(), c.getY()), null);
+                            deleted++;
+                        }
+                    }
+                    if (batchMatches != null) {
+                        for (City c : batchMatches) {
+                            if (after.get(key(c.getX(), c.getY())) == c) {
+                                after.put(key(c.getX(), c.getY()), null);
+                                deleted++;
+                            }
+                        }
+                    }
+                    results[i] = deleted;
+            }
+        }
+
+        // Net effect: drop what is gone, then add what survived
+        for (Map.Entry<Long, City> entry : before.entrySet()) {
+            City old = entry.getValue();
+            if (old != null && after.get(entry.getKey()) != old) {
+                deleteFromKDTree(old.getX(), old.getY(), new QueryStats());
+                countCity(old.getX(), old.getY(), -1);
+                List<City> moved = movedList();
+                cityBinarySearchTree.deleteOne(old, new QueryStats(), moved);
+                invalidateNames(old.getName(), moved);
+            }
+        }
+        for (City c : added) {
+            if (after.get(key(c.getX(), c.getY())) == c) {
+                invalidateSearches(c.getX(), c.getY());
+                cityKDTree.insert(c);
+                countCity(c.getX(), c.getY(), 1);
+                cityBinarySearchTree.insert(c);
+                invalidateNames(c.getName(), null);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns the city at some coordinates as of the batch operations seen so
+     * far, looking it up in the k-d tree the first time the coordinates are
+     * touched.
+     *
+     * @param x
+     *               x-coordinate
+     * @param y
+     *               y-coordinate
+     * @param before
+     *               cities at each touched coordinate before the batch
+     * @param after
+     *               cities at each touched coordinate so far
+     * @return the city, or {@code null} if there is none
+     */
+    private City cityAt(
+        int x,
+        int y,
+        HashMap<Long, City> before,
+        HashMap<Long, City> after) {
+        Long key = key(x, y);
+        if (after.containsKey(key)) {
+            return after.get(key);
+        }
+        City found = cityKDTree.find(x, y);
+        before.put(key, found);
+        after.put(key, found);
+        return found;
+    }
+
+    /**
+     * Packs a coordinate pair into one map key.
+     *
+     * @param x
+     *          x-coordinate
+     * @param y
+     *          y-coordinate
+     * @return the key
+     */
+    private static Long key(int x, int y) {
+        return ((long)x << 32) | (y & 0xffffffffL);
+    }
+
+    /**
+     * Returns whether both coordinates are in the range 0 to MAXCOORD.
+     *
+     * @param x
+     *          x-coordinate
+     * @param y
+     *          y-coordinate
+     * @return {@code true} if the point can be stored
+     */
+    private static boolean inBounds(int x, int y) {
+        return x >= 0 && x <= MAXCOORD && y >= 0 && y <= MAXCOORD;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Inserts many cities at once by rebuilding both trees balanced (see
+     * {@link KDTree#bulkLoad(City[])} and {@link BST#bulkLoad(List)}). Each
+     * city is accepted or rejected exactly as {@link #insert(String, int,
+     * int)} would if the cities were inserted one at a time in list order,
+     * and the database ends up holding the same cities; only the shape of
+     * the trees differs. A null entry is rejected. Rebuilding costs time in
+     * proportion to the whole database, so this pays off for large batches,
+     * such as an import.
+     *
+     * @param cities
+     *               the cities to insert
+     * @return for each city, whether it was inserted
+     */
+    public boolean[] bulkLoad(List<City> cities) {
+        boolean[] inserted = new boolean[cities.size()];
+        ArrayList<City> candidates = new ArrayList<>(cities.size());
+        for (City c : cities) {
+            if (c != null && inBounds(c.getX(), c.getY())) {
+                candidates.add(c);
+            }
+        }
+        // Keeps the city already present, or else the first in the list
+        invalidateAll();
+        cityKDTree.bulkLoad(candidates.toArray(new City[0]));
+
+        // The same city may be listed twice; only its first entry counts
+        ArrayList<City> accepted = new ArrayList<>(candidates.size());
+        HashSet<Long> taken = new HashSet<>();
+        for (int i = 0; i < inserted.length; i++) {
+            City c = cities.get(i);
+            if (c != null && inBounds(c.getX(), c.getY()) && cityKDTree.find(c
+                .getX(), c.getY()) == c && taken.add(key(c.getX(), c
+                    .getY()))) {
+                inserted[i] = true;
+                accepted.add(c);
+            }
+        }
+        cityBinarySearchTree.bulkLoad(accepted);
+        for (City c : accepted) {
+            countCity(c.getX(), c.getY(), 1);
+        }
+        return inserted;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Saves the database to a binary snapshot file (see {@link GISSnapshot}
+     * for the format). The file records the exact shape of both trees, so
+     * {@link #loadSnapshot(Path)} restores the same trees without running a
+     * single insert.
+     *
+     * @param path
+     *             The snapshot file, replaced if it exists.
+     * @throws IOException
+     *                     if the file cannot be written
+     */
+    public void saveSnapshot(Path path) throws IOException {
+        saveSnapshot(path, 0);
+    }
+
+    /**
+     * Saves a snapshot tagged with the last write-ahead log record it
+     * includes.
+     *
+     * @param path
+     *                    The snapshot file, replaced if it exists.
+     * @param logSequence
+     *                    The last log record applied to the database.
+     * @throws IOException
+     *                     if the file cannot be written
+     */
+    void saveSnapshot(Path path, long logSequence) throws IOException {
+        GISSnapshot.write(cityKDTree, cityBinarySearchTree, path,
+            logSequence);
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Replaces the contents of the database with a snapshot written by
+     * {@link #saveSnapshot(Path)}. If the file cannot be read, the database
+     * is left unchanged.
+     *
+     * @param path
+     *             The snapshot file.
+     * @throws IOException
+     *                     if the file cannot be read or is not a valid
+     *                     snapshot
+     */
+    public void loadSnapshot(Path path) throws IOException {
+        readSnapshot(path);
+    }
+
+    /**
+     * Loads a snapshot like {@link #loadSnapshot(Path)} and returns the log
+     * sequence it was tagged with.
+     *
+     * @param path
+     *             The snapshot file.
+     * @return the last write-ahead log record the snapshot includes
+     * @throws IOException
+     *                     if the file cannot be read or is not a valid
+     *                     snapshot
+     */
+    long readSnapshot(Path path) throws IOException {
+        KDTree loadedCities = newKDTree();
+        BST<City> loadedNames = new BST<City>();
+        long logSequence = GISSnapshot.read(path, loadedCities, loadedNames);
+        invalidateAll();
+        cityKDTree = loadedCities;
+        cityBinarySearchTree = loadedNames;
+        if (density != null) {
+            density.clear();
+            fillDensity(density);
+        }
+        return logSequence;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Reports the shape of the k-d tree, to check whether it needs a
+     * rebuild.
+     *
+     * @return the report
+     */
+    public TreeHealth getKDTreeHealth() {
+        return cityKDTree.health();
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Reports the shape of the name BST, to check whether it needs a
+     * rebuild.
+     *
+     * @return the report
+     */
+    public TreeHealth getBSTHealth() {
+        return cityBinarySearchTree.health();
+    }
+
     // ----------------------------------------------------------
     /**
      * Display the name of the city at coordinate (x, y) if it exists.
@@ -166,11 +1084,16 @@ public class GISDB implements GIS {
      * @return The city name if there is such a city, empty otherwise
      */
     public String info(int x, int y) {
-        if (cityKDTree.find(x, y) == null) {
-            return "";
-        } else {
-            return cityKDTree.find(x, y).getName();
+        GISOperationEvent event = GISOperationEvent.start();
+        long start = startTimer();
+        QueryStats stats = new QueryStats();
+        City city = cityKDTree.find(x, y, stats);
+        stopTimer(GISMetrics.Operation.INFO_AT, start, stats);
+        if (event.finish()) {
+            event.record(GISMetrics.Operation.INFO_AT, x + " " + y, stats,
+                (city == null) ? 0 : 1);
         }
+        return (city == null) ? "" : city.getName();
     }
 
     // ----------------------------------------------------------
@@ -187,10 +1110,16 @@ public class GISDB implements GIS {
             return "";
         }
 
-        // Temporary City object with given name, coordinates don't matter for
-        // comparison
-        City dummy = new City(name, 0, 0);
-        return cityBinarySearchTree.findAll(dummy);
+        GISOperationEvent event = GISOperationEvent.start();
+        long start = startTimer();
+        QueryStats stats = new QueryStats();
+        String found = findNamed(name, stats);
+        stopTimer(GISMetrics.Operation.INFO_NAME, start, stats);
+        if (event.finish()) {
+            event.record(GISMetrics.Operation.INFO_NAME, name, stats, lines(
+                found));
+        }
+        return found;
     }
 
     // ----------------------------------------------------------
@@ -217,7 +1146,23 @@ public class GISDB implements GIS {
      *         number of nodes visited is zero.
      */
     public String search(int x, int y, int radius) {
-        return cityKDTree.search(x, y, radius);
+        GISOperationEvent event = GISOperationEvent.start();
+        long start = startTimer();
+        QueryStats stats = new QueryStats();
+        SearchCache cache = searchCache;
+        String found = (cache == null) ? null : cache.get(x, y, radius);
+        if (found == null) {
+            found = cityKDTree.search(x, y, radius, stats);
+            if (cache != null) {
+                cache.put(x, y, radius, found);
+            }
+        }
+        stopTimer(GISMetrics.Operation.SEARCH, start, stats);
+        if (event.finish()) {
+            event.record(GISMetrics.Operation.SEARCH, x + " " + y + " "
+                + radius, stats, Math.max(0, lines(found) - 1));
+        }
+        return found;
     }
 
     // ----------------------------------------------------------
@@ -233,7 +1178,14 @@ public class GISDB implements GIS {
      * @return String listing the cities as specified.
      */
     public String debug() {
-        return cityKDTree.printTree();
+        GISOperationEvent event = GISOperationEvent.start();
+        long start = startTimer();
+        String tree = cityKDTree.printTree();
+        stopTimer(GISMetrics.Operation.DEBUG, start, null);
+        if (event.finish()) {
+            event.record(GISMetrics.Operation.DEBUG, "", null, lines(tree));
+        }
+        return tree;
     }
 
     // ----------------------------------------------------------
@@ -248,6 +1200,13 @@ public class GISDB implements GIS {
      * @return String listing the cities as specified.
      */
     public String print() {
-        return cityBinarySearchTree.printTree();
+        GISOperationEvent event = GISOperationEvent.start();
+        long start = startTimer();
+        String tree = cityBinarySearchTree.printTree();
+        stopTimer(GISMetrics.Operation.PRINT, start, null);
+        if (event.finish()) {
+            event.record(GISMetrics.Operation.PRINT, "", null, lines(tree));
+        }
+        return tree;
     }
 }
@@ -0,0 +1,433 @@
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// -------------------------------------------------------------------------
+/**
+ * Counts the calls of each {@link GISDB} operation, records how long they
+ * took, in the buckets of a {@link LatencyHistogram}, and adds up the
+ * {@link QueryStats} of the work they did in the trees. Give one to a
+ * database with {@link GISDB#setMetrics(GISMetrics)} or
+ * {@link ConcurrentGISDB#setMetrics(GISMetrics)}; read it with
+ * {@link #snapshot()} or, after {@link #register(String)}, over JMX.
+ * <p>
+ * Recording is safe from any number of threads at once: each bucket is an
+ * atomic counter, and the sum, minimum and maximum are striped adders, so
+ * readers under {@link ConcurrentGISDB}'s shared lock do not serialize on
+ * it. When the metrics are disabled, or a database has none, the clock is
+ * not read and nothing is recorded. The trees still fill in a
+ * {@link QueryStats} for every operation, since the visit counts in the
+ * search and delete output come from it, so that small cost remains.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class GISMetrics implements GISMetricsMXBean {
+
+    // ----------------------------------------------------------
+    /**
+     * The operations that are measured.
+     */
+    public enum Operation {
+        /** {@link GISDB#insert(String, int, int)} */
+        INSERT,
+        /** {@link GISDB#delete(int, int)} */
+        DELETE_AT,
+        /** {@link GISDB#delete(String)} */
+        DELETE_NAME,
+        /** {@link GISDB#info(int, int)} */
+        INFO_AT,
+        /** {@link GISDB#info(String)} */
+        INFO_NAME,
+        /** {@link GISDB#search(int, int, int)} */
+        SEARCH,
+        /** {@link GISDB#debug()} */
+        DEBUG,
+        /** {@link GISDB#print()} */
+        PRINT
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * The counts and latencies of every operation at one moment.
+     */
+    public static final class Snapshot {
+        private final EnumMap<Operation, LatencyHistogram> latencies;
+        private final EnumMap<Operation, QueryStats> work;
+
+        /**
+         * Creates a snapshot.
+         *
+         * @param latencies
+         *                  a histogram for every operation
+         * @param work
+         *                  the total tree work of every operation
+         */
+        private Snapshot(
+            EnumMap<Operation, LatencyHistogram> latencies,
+            EnumMap<Operation, QueryStats> work) {
+            this.latencies = latencies;
+            this.work = work;
+        }
+
+        /**
+         * Returns how many times an operation was called.
+         *
+         * @param op
+         *           the operation
+         * @return the number of calls
+         */
+        public long getCount(Operation op) {
+            return latencies.get(op).getCount();
+        }
+
+        /**
+         * Returns the latencies of an operation.
+         *
+         * @param op
+         *           the operation
+         * @return its histogram, in nanoseconds
+         */
+        public LatencyHistogram getLatency(Operation op) {
+            return latencies.get(op);
+        }
+
+        /**
+         * Returns the total work an operation did in the trees. Debug and
+         * print report none.
+         *
+         * @param op
+         *           the operation
+         * @return the totals of all its calls
+         */
+        public QueryStats getQueryStats(Operation op) {
+            return work.get(op);
+        }
+
+        /**
+         * @return one line per operation that was called
+         */
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (Map.Entry<Operation, LatencyHistogram> e : latencies
+                .entrySet()) {
+                if (e.getValue().getCount() > 0) {
+                    sb.append(String.format("%-12s %s%n%12s %s%n", e.getKey(),
+                        e.getValue(), "", work.get(e.getKey())));
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * The concurrent counters of one operation.
+     */
+    private static final class Recorder {
+        private final AtomicLongArray counts = new AtomicLongArray(
+            LatencyHistogram.BUCKETS);
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator min = new LongAccumulator(Math::min,
+            Long.MAX_VALUE);
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+        private final LongAdder operations = new LongAdder();
+        private final LongAdder visited = new LongAdder();
+        private final LongAdder pruned = new LongAdder();
+        private final LongAdder matches = new LongAdder();
+        private final LongAdder comparisons = new LongAdder();
+        private final LongAccumulator maxDepth = new LongAccumulator(
+            Math::max, 0);
+
+        /**
+         * Records one call.
+         *
+         * @param nanos
+         *              how long it took
+         */
+        void record(long nanos) {
+            long v = Math.max(0, nanos);
+            counts.incrementAndGet(LatencyHistogram.index(v));
+            sum.add(v);
+            min.accumulate(v);
+            max.accumulate(v);
+        }
+
+        /**
+         * Adds the tree work of one call.
+         *
+         * @param stats
+         *              the work
+         */
+        void record(QueryStats stats) {
+            operations.add(stats.getOperations());
+            visited.add(stats.getVisited());
+            pruned.add(stats.getPruned());
+            matches.add(stats.getMatches());
+            comparisons.add(stats.getComparisons());
+            maxDepth.accumulate(stats.getMaxDepth());
+        }
+
+        /**
+         * @return the total tree work recorded so far
+         */
+        QueryStats toQueryStats() {
+            return new QueryStats(operations.sum(), visited.sum(), pruned
+                .sum(), matches.sum(), comparisons.sum(), (int)maxDepth
+                    .get());
+        }
+
+        /**
+         * @return a histogram of the calls recorded so far
+         */
+        LatencyHistogram toHistogram() {
+            long[] copy = new long[LatencyHistogram.BUCKETS];
+            for (int i = 0; i < copy.length; i++) {
+                copy[i] = counts.get(i);
+            }
+            return new LatencyHistogram(copy, sum.sum(), min.get(), max
+                .get());
+        }
+
+        /**
+         * Forgets every call.
+         */
+        void reset() {
+            for (int i = 0; i < counts.length(); i++) {
+                counts.set(i, 0);
+            }
+            sum.reset();
+            min.reset();
+            max.reset();
+            operations.reset();
+            visited.reset();
+            pruned.reset();
+            matches.reset();
+            comparisons.reset();
+            maxDepth.reset();
+        }
+    }
+
+    private final EnumMap<Operation, Recorder> recorders = new EnumMap<>(
+        Operation.class);
+    private volatile boolean enabled = true;
+    private ObjectName registeredAs;
+
+    // ----------------------------------------------------------
+    /**
+     * Creates enabled metrics with nothing recorded.
+     */
+    public GISMetrics() {
+        for (Operation op : Operation.values()) {
+            recorders.put(op, new Recorder());
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Returns the start time of an operation, or 0 if it is not measured.
+     *
+     * @return {@link System#nanoTime()} if enabled, otherwise 0
+     */
+    long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Records an operation that began at a time {@link #start()} returned.
+     * Nothing is recorded if it returned 0.
+     *
+     * @param op
+     *              the operation
+     * @param start
+     *              when it began
+     * @param stats
+     *              the work it did in the trees, or null
+     */
+    void stop(Operation op, long start, QueryStats stats) {
+        if (start != 0) {
+            Recorder r = recorders.get(op);
+            r.record(System.nanoTime() - start);
+            if (stats != null) {
+                r.record(stats);
+            }
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Records one call of an operation.
+     *
+     * @param op
+     *              the operation
+     * @param nanos
+     *              how long it took
+     */
+    public void record(Operation op, long nanos) {
+        recorders.get(op).record(nanos);
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Copies the counts and latencies recorded so far. Calls that finish
+     * while the copy is made may be partly included.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        EnumMap<Operation, LatencyHistogram> latencies = new EnumMap<>(
+            Operation.class);
+        EnumMap<Operation, QueryStats> work = new EnumMap<>(Operation.class);
+        for (Map.Entry<Operation, Recorder> e : recorders.entrySet()) {
+            latencies.put(e.getKey(), e.getValue().toHistogram());
+            work.put(e.getKey(), e.getValue().toQueryStats());
+        }
+        return new Snapshot(latencies, work);
+    }
+
+    // ----------------------------------------------------------
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // ----------------------------------------------------------
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    // ----------------------------------------------------------
+    @Override
+    public Map<String, Long> getCounts() {
+        return perOperation(LatencyHistogram::getCount);
+    }
+
+    // ----------------------------------------------------------
+    @Override
+    public Map<String, Double> getMeanNanos() {
+        Map<String, Double> result = new LinkedHashMap<>();
+        Snapshot snapshot = snapshot();
+        for (Operation op : Operation.values()) {
+            result.put(op.name(), snapshot.getLatency(op).getMean());
+        }
+        return result;
+    }
+
+    // ----------------------------------------------------------
+    @Override
+    public Map<String, Double> getMeanNodesVisited() {
+        Map<String, Double> result = new LinkedHashMap<>();
+        Snapshot snapshot = snapshot();
+        for (Operation op : Operation.values()) {
+            result.put(op.name(), snapshot.getQueryStats(op).getMeanVisited());
+        }
+        return result;
+    }
+
+    // ----------------------------------------------------------
+    @Override
+    public Map<String, Double> getPruneRatio() {
+        Map<String, Double> result = new LinkedHashMap<>();
+        Snapshot snapshot = snapshot();
+        for (Operation op : Operation.values()) {
+            result.put(op.name(), snapshot.getQueryStats(op).getPruneRatio());
+        }
+        return result;
+    }
+
+    // ----------------------------------------------------------
+    @Override
+    public Map<String, Long> getP50Nanos() {
+        return perOperation(h -> h.getPercentile(50));
+    }
+
+    // ----------------------------------------------------------
+    @Override
+    public Map<String, Long> getP99Nanos() {
+        return perOperation(h -> h.getPercentile(99));
+    }
+
+    // ----------------------------------------------------------
+    @Override
+    public Map<String, Long> getMaxNanos() {
+        return perOperation(LatencyHistogram::getMax);
+    }
+
+    // ----------------------------------------------------------
+    @Override
+    public void reset() {
+        for (Recorder r : recorders.values()) {
+            r.reset();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Applies a statistic to every operation's histogram.
+     *
+     * @param statistic
+     *                  the statistic
+     * @return its value per operation name
+     */
+    private Map<String, Long> perOperation(
+        ToLongFunction<LatencyHistogram> statistic) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        Snapshot snapshot = snapshot();
+        for (Operation op : Operation.values()) {
+            result.put(op.name(), statistic.applyAsLong(snapshot.getLatency(
+                op)));
+        }
+        return result;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Publishes these metrics in the platform MBean server as
+     * {@code GISDB:type=GISMetrics,name=<name>}, replacing an earlier
+     * registration of these metrics.
+     *
+     * @param name
+     *             distinguishes databases in the same JVM
+     * @return the name registered
+     * @throws JMException
+     *                     if the name is taken or invalid
+     */
+    public synchronized ObjectName register(String name) throws JMException {
+        unregister();
+        ObjectName objectName = new ObjectName("GISDB:type=GISMetrics,name="
+            + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+            objectName);
+        registeredAs = objectName;
+        return objectName;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Removes these metrics from the platform MBean server, if registered.
+     *
+     * @throws JMException
+     *                     if the server refuses
+     */
+    public synchronized void unregister() throws JMException {
+        if (registeredAs != null) {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(registeredAs)) {
+                server.unregisterMBean(registeredAs);
+            }
+            registeredAs = null;
+        }
+    }
+}
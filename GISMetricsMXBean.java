@@ -0,0 +1,79 @@
+import java.util.Map;
+
+// -------------------------------------------------------------------------
+/**
+ * Management interface of {@link GISMetrics}, so the counters and latencies
+ * of a running database can be read from JConsole or any JMX client. Each
+ * map is keyed by {@link GISMetrics.Operation} name; latencies are in
+ * nanoseconds.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public interface GISMetricsMXBean {
+
+    // ----------------------------------------------------------
+    /**
+     * @return whether operations are being recorded
+     */
+    public boolean isEnabled();
+
+    // ----------------------------------------------------------
+    /**
+     * Starts or stops recording.
+     *
+     * @param enabled
+     *                true to record operations
+     */
+    public void setEnabled(boolean enabled);
+
+    // ----------------------------------------------------------
+    /**
+     * @return the number of calls of each operation
+     */
+    public Map<String, Long> getCounts();
+
+    // ----------------------------------------------------------
+    /**
+     * @return the mean latency of each operation
+     */
+    public Map<String, Double> getMeanNanos();
+
+    // ----------------------------------------------------------
+    /**
+     * @return the median latency of each operation
+     */
+    public Map<String, Long> getP50Nanos();
+
+    // ----------------------------------------------------------
+    /**
+     * @return the 99th percentile latency of each operation
+     */
+    public Map<String, Long> getP99Nanos();
+
+    // ----------------------------------------------------------
+    /**
+     * @return the largest latency of each operation
+     */
+    public Map<String, Long> getMaxNanos();
+
+    // ----------------------------------------------------------
+    /**
+     * @return the mean number of tree nodes each operation visited
+     */
+    public Map<String, Double> getMeanNodesVisited();
+
+    // ----------------------------------------------------------
+    /**
+     * @return the share of subtrees each operation could skip; see
+     *         {@link QueryStats#getPruneRatio()}
+     */
+    public Map<String, Double> getPruneRatio();
+
+    // ----------------------------------------------------------
+    /**
+     * Forgets everything recorded so far.
+     */
+    public void reset();
+}
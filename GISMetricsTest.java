@@ -0,0 +1,162 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import student.TestCase;
+
+/**
+ * Tests for {@link GISMetrics} and the measurements {@link GISDB} records
+ * in it.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class GISMetricsTest extends TestCase {
+
+    private GISDB db;
+    private GISMetrics metrics;
+
+    /**
+     * Creates a measured database.
+     */
+    public void setUp() {
+        db = new GISDB();
+        metrics = new GISMetrics();
+        db.setMetrics(metrics);
+    }
+
+    /**
+     * Tests that every operation is counted once per call.
+     */
+    public void testCounts() {
+        assertTrue(db.insert("Denver", 100, 200));
+        assertTrue(db.insert("Boston", 300, 400));
+        assertFalse(db.insert("Bad", -1, 0));
+        db.info(100, 200);
+        db.info("Boston");
+        db.info("Nowhere");
+        db.search(0, 0, 1000);
+        db.debug();
+        db.print();
+        db.delete(100, 200);
+        db.delete("Boston");
+        db.applyBatch(new ArrayList<GISDB.Op>()); // not measured
+
+        GISMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(3, snapshot.getCount(GISMetrics.Operation.INSERT));
+        assertEquals(1, snapshot.getCount(GISMetrics.Operation.INFO_AT));
+        assertEquals(2, snapshot.getCount(GISMetrics.Operation.INFO_NAME));
+        assertEquals(1, snapshot.getCount(GISMetrics.Operation.SEARCH));
+        assertEquals(1, snapshot.getCount(GISMetrics.Operation.DEBUG));
+        assertEquals(1, snapshot.getCount(GISMetrics.Operation.PRINT));
+        assertEquals(1, snapshot.getCount(GISMetrics.Operation.DELETE_AT));
+        assertEquals(1, snapshot.getCount(GISMetrics.Operation.DELETE_NAME));
+        LatencyHistogram insert = snapshot.getLatency(
+            GISMetrics.Operation.INSERT);
+        assertTrue(insert.getMax() > 0);
+        assertTrue(insert.getMin() <= insert.getPercentile(50));
+        assertTrue(snapshot.toString().startsWith("INSERT "));
+        assertEquals(16, snapshot.toString().split("\n").length);
+
+        QueryStats info = snapshot.getQueryStats(
+            GISMetrics.Operation.INFO_NAME);
+        assertEquals(2, info.getOperations());
+        assertEquals(1, info.getMatches());
+        assertEquals(4, info.getVisited()); // two full traversals
+        assertEquals(0.0, info.getPruneRatio(), 0.0);
+        QueryStats insertWork = snapshot.getQueryStats(
+            GISMetrics.Operation.INSERT);
+        assertEquals(4, insertWork.getMatches()); // two cities, two trees
+        assertEquals(0, snapshot.getQueryStats(GISMetrics.Operation.DEBUG)
+            .getOperations());
+
+        metrics.reset();
+        assertEquals(0, metrics.snapshot().getCount(
+            GISMetrics.Operation.INSERT));
+        assertEquals(0, metrics.snapshot().getLatency(
+            GISMetrics.Operation.INSERT).getMax());
+    }
+
+    /**
+     * Tests that nothing is recorded when disabled or detached, and that
+     * the results do not change.
+     */
+    public void testDisabled() {
+        metrics.setEnabled(false);
+        assertFalse(metrics.isEnabled());
+        db.insert("Denver", 100, 200);
+        assertEquals("Denver", db.info(100, 200));
+        assertEquals(0, metrics.snapshot().getCount(
+            GISMetrics.Operation.INSERT));
+
+        db.setMetrics(null);
+        assertNull(db.getMetrics());
+        assertEquals("", db.info(1, 1));
+        metrics.setEnabled(true);
+        assertEquals(0, metrics.snapshot().getCount(
+            GISMetrics.Operation.INFO_AT));
+    }
+
+    /**
+     * Tests recording from many threads at once.
+     *
+     * @throws InterruptedException
+     *                              if interrupted
+     */
+    public void testConcurrentRecording() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 1; i <= 10000; i++) {
+                    metrics.record(GISMetrics.Operation.SEARCH, i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        LatencyHistogram h = metrics.snapshot().getLatency(
+            GISMetrics.Operation.SEARCH);
+        assertEquals(40000, h.getCount());
+        assertEquals(1, h.getMin());
+        assertEquals(10000, h.getMax());
+        assertEquals(5000.5, h.getMean(), 1e-9);
+    }
+
+    /**
+     * Tests reading the metrics over JMX.
+     *
+     * @throws JMException
+     *                     if registration fails
+     */
+    public void testJmx() throws JMException {
+        db.insert("Denver", 100, 200);
+        ObjectName name = metrics.register("test");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            assertTrue(server.isRegistered(name));
+            assertEquals(Boolean.TRUE, server.getAttribute(name, "Enabled"));
+            assertNotNull(server.getAttribute(name, "Counts"));
+            assertEquals(Long.valueOf(1), metrics.getCounts().get("INSERT"));
+            assertEquals(Long.valueOf(0), metrics.getP99Nanos().get("PRINT"));
+            assertTrue(metrics.getP50Nanos().get("INSERT") > 0);
+            assertTrue(metrics.getMaxNanos().get("INSERT") > 0);
+            assertTrue(metrics.getMeanNanos().get("INSERT") > 0);
+            assertEquals(0.0, metrics.getMeanNodesVisited().get("INSERT"),
+                0.0); // the first city visits nothing
+            assertEquals(0.0, metrics.getPruneRatio().get("SEARCH"), 0.0);
+            server.invoke(name, "reset", null, null);
+            assertEquals(Long.valueOf(0), metrics.getCounts().get("INSERT"));
+            assertEquals(name, metrics.register("test"));
+        } finally {
+            metrics.unregister();
+        }
+        assertFalse(server.isRegistered(name));
+        metrics.unregister();
+    }
+}
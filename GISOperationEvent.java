@@ -0,0 +1,102 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// -------------------------------------------------------------------------
+/**
+ * A Java Flight Recorder event for a slow {@link GISDB} operation, so slow
+ * searches and deletes show up in a recording next to GC pauses and lock
+ * contention. Operations that take at least the threshold, 10 ms unless
+ * the recording says otherwise, are recorded with their arguments, the
+ * tree nodes they visited and how many cities they returned or changed.
+ * <p>
+ * The threshold is a normal JFR setting, for example
+ *
+ * <pre>
+ * java -XX:StartFlightRecording:filename=gis.jfr,gisdb.SlowOperation#threshold=1ms ...
+ * </pre>
+ *
+ * or {@code recording.enable(GISOperationEvent.class).withThreshold(...)}.
+ * When no recording has the event enabled, {@link #start()}, {@link #end()}
+ * and {@link #shouldCommit()} do nothing and the arguments are never
+ * formatted.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+@Name("gisdb.SlowOperation")
+@Label("Slow GIS Operation")
+@Category("GISDB")
+@Description("A GISDB operation that took longer than the threshold")
+@Threshold("10 ms")
+@StackTrace(false)
+public class GISOperationEvent extends Event {
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Arguments")
+    private String arguments;
+
+    @Label("Nodes Visited")
+    private long nodesVisited;
+
+    @Label("Results")
+    @Description("Cities found, inserted or deleted")
+    private long results;
+
+    // ----------------------------------------------------------
+    /**
+     * Creates an event and starts its clock.
+     *
+     * @return the event
+     */
+    static GISOperationEvent start() {
+        GISOperationEvent event = new GISOperationEvent();
+        event.begin();
+        return event;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Stops the clock.
+     *
+     * @return whether the event is enabled and over its threshold, so
+     *         {@link #record} should be called
+     */
+    boolean finish() {
+        end();
+        return shouldCommit();
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Fills in the event and writes it to the recordings.
+     *
+     * @param op
+     *                    the operation
+     * @param args
+     *                    its arguments, separated by spaces
+     * @param stats
+     *                    the work it did in the trees, or null for the
+     *                    listings, which visit one node per line
+     * @param resultCount
+     *                    cities found, inserted or deleted
+     */
+    void record(
+        GISMetrics.Operation op,
+        String args,
+        QueryStats stats,
+        long resultCount) {
+        operation = op.name();
+        arguments = args;
+        nodesVisited = (stats == null) ? resultCount : stats.getVisited();
+        results = resultCount;
+        commit();
+    }
+}
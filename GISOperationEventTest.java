@@ -0,0 +1,100 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import student.TestCase;
+
+/**
+ * Tests for {@link GISOperationEvent}: the events GISDB emits into a flight
+ * recording.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class GISOperationEventTest extends TestCase {
+
+    /**
+     * Runs some operations under a recording and returns the events.
+     *
+     * @param threshold
+     *                  the event threshold
+     * @return the events, by operation
+     * @throws IOException
+     *                     if the recording cannot be written
+     */
+    private static Map<String, RecordedEvent> record(Duration threshold)
+        throws IOException {
+        GISDB db = new GISDB();
+        db.insert("Denver", 100, 200);
+        Path file = Files.createTempFile("gis", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(GISOperationEvent.class).withThreshold(
+                threshold);
+            recording.start();
+            db.insert("Boston", 300, 400);
+            db.insert("Boston", 300, 400);
+            db.search(100, 200, 500);
+            db.info("Boston");
+            db.info(1, 1);
+            db.debug();
+            db.print();
+            db.delete(100, 200);
+            db.delete("Boston");
+            recording.stop();
+            recording.dump(file);
+            Map<String, RecordedEvent> events = new HashMap<>();
+            List<RecordedEvent> all = RecordingFile.readAllEvents(file);
+            for (RecordedEvent e : all) {
+                if (e.getEventType().getName().equals("gisdb.SlowOperation")) {
+                    events.put(e.getString("operation"), e);
+                }
+            }
+            return events;
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Tests that every operation is recorded with a zero threshold.
+     *
+     * @throws IOException
+     *                     if the recording cannot be written
+     */
+    public void testEventsRecorded() throws IOException {
+        Map<String, RecordedEvent> events = record(Duration.ZERO);
+        assertEquals(8, events.size());
+        RecordedEvent search = events.get("SEARCH");
+        assertEquals("100 200 500", search.getString("arguments"));
+        assertEquals(2, search.getLong("results"));
+        assertEquals(2, search.getLong("nodesVisited"));
+        assertEquals("Boston 300 400", events.get("INSERT").getString(
+            "arguments"));
+        assertEquals(0, events.get("INFO_AT").getLong("results"));
+        assertEquals(1, events.get("INFO_NAME").getLong("results"));
+        assertEquals(2, events.get("DEBUG").getLong("results"));
+        assertEquals(1, events.get("DELETE_AT").getLong("results"));
+        assertEquals("Boston", events.get("DELETE_NAME").getString(
+            "arguments"));
+        assertEquals(1, events.get("DELETE_NAME").getLong("results"));
+        assertFalse(events.get("PRINT").getDuration().isNegative());
+    }
+
+    /**
+     * Tests that fast operations stay out of the recording under a high
+     * threshold.
+     *
+     * @throws IOException
+     *                     if the recording cannot be written
+     */
+    public void testThreshold() throws IOException {
+        assertTrue(record(Duration.ofHours(1)).isEmpty());
+    }
+}
@@ -1,9 +1,19 @@
 
 /**
- * {Project Description Here}
+ * GIS database driver: replays a file of commands against a {@link GISDB}.
  */
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 /**
  * The class containing the main method.
@@ -40,15 +50,108 @@ import java.io.IOException;
 // letter of this restriction.
 
 public class GISProj {
+
+    /** Size of the output buffer, in chars. */
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
     /**
-     * This is nothing but a placeholder for test cases that call the interface
-     * methods.
+     * Runs a command file (see {@link CommandReader} for the format) against
+     * a new, empty database and writes each command's output (see
+     * {@link CommandProcessor}).
      *
      * @param args
-     *             Command line parameters: There are none
+     *             Command line parameters: optional flags, the command file,
+     *             then optionally the output file (standard output if
+     *             omitted). The flag {@code -mmap} memory-maps the command
+     *             file instead of reading it through a buffer, and
+     *             {@code -pipeline} parses, runs and writes commands on
+     *             separate threads (see {@link CommandPipeline}).
      * @throws IOException
+     *                     if the command file cannot be read or the output
+     *                     cannot be written
      */
     public static void main(String[] args) throws IOException {
-        // There is nothing that we need to do here
+        boolean mapped = false;
+        boolean pipelined = false;
+        int first = 0;
+        while (first < args.length && args[first].startsWith("-")) {
+            if (args[first].equals("-mmap")) {
+                mapped = true;
+            } else if (args[first].equals("-pipeline")) {
+                pipelined = true;
+            } else {
+                first = args.length; // unknown flag: show usage
+                break;
+            }
+            first++;
+        }
+        int files = args.length - first;
+        if (files < 1 || files > 2) {
+            System.err.println("Usage: java GISProj [-mmap] [-pipeline] "
+                + "<command-file> [output-file]");
+            return;
+        }
+        Path input = Paths.get(args[first]);
+        OutputStream stream = (files == 2)
+            ? Files.newOutputStream(Paths.get(args[first + 1]))
+            : System.out;
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(stream,
+            StandardCharsets.UTF_8), OUTPUT_BUFFER_SIZE)) {
+            run(input, out, mapped, pipelined);
+        }
+    }
+
+    /**
+     * Runs a command file against a new, empty database, reading it through
+     * a buffer.
+     *
+     * @param input
+     *              the command file
+     * @param out
+     *              where to write command outputs (flushed before returning)
+     * @return the number of commands run
+     * @throws IOException
+     *                     if reading or writing fails
+     */
+    public static long run(Path input, Writer out) throws IOException {
+        return run(input, out, false, false);
+    }
+
+    /**
+     * Runs a command file against a new, empty database.
+     *
+     * @param input
+     *                  the command file
+     * @param out
+     *                  where to write command outputs (flushed before
+     *                  returning)
+     * @param mapped
+     *                  {@code true} to memory-map the command file, see
+     *                  {@link MappedCommandReader}
+     * @param pipelined
+     *                  {@code true} to parse, run and write on separate
+     *                  threads, see {@link CommandPipeline}
+     * @return the number of commands run
+     * @throws IOException
+     *                     if reading or writing fails
+     */
+    public static long run(
+        Path input,
+        Writer out,
+        boolean mapped,
+        boolean pipelined)
+        throws IOException {
+        CommandProcessor processor = new CommandProcessor(new GISDB());
+        try (FileChannel channel = FileChannel.open(input,
+            StandardOpenOption.READ)) {
+            CommandReader reader = mapped
+                ? new MappedCommandReader(channel)
+                : new CommandReader(channel);
+            long count = pipelined
+                ? new CommandPipeline(processor).run(reader, out)
+                : processor.run(reader, out);
+            out.flush();
+            return count;
+        }
     }
 }
@@ -0,0 +1,146 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import student.TestCase;
+
+/**
+ * Tests for replaying command files through {@link GISProj}.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class GISProjTest extends TestCase {
+
+    private Path input;
+
+    /**
+     * Creates a command file to replay.
+     *
+     * @throws IOException
+     *                     if the file cannot be written
+     */
+    public void setUp() throws IOException {
+        input = Files.createTempFile("commands", ".txt");
+        Files.write(input, ("insert Chicago 100 150\n"
+            + "insert Atlanta 10 500\n"
+            + "insert Dup 100 150\n"
+            + "info 100 150\n"
+            + "info Atlanta\n"
+            + "search 100 150 50\n"
+            + "debug\n"
+            + "print\n"
+            + "delete 10 500\n"
+            + "info 5 5\n"
+            + "bogus\n"
+            + "delete Chicago\n"
+            + "clear\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Deletes the command file.
+     *
+     * @throws IOException
+     *                     if the file cannot be deleted
+     */
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(input);
+    }
+
+    /**
+     * Returns the output the command file should produce.
+     *
+     * @return the expected output
+     */
+    private String expected() {
+        return "true\ntrue\nfalse\nChicago\nAtlanta (10, 500)\n"
+            + "Chicago (100, 150)\n2\n"
+            + "1  Atlanta (10, 500)\n0Chicago (100, 150)\n"
+            + "1  Atlanta (10, 500)\n0Chicago (100, 150)\n"
+            + "2\nAtlanta\n"
+            + "Invalid command at line 11: bogus\n"
+            + "Chicago (100, 150)\ntrue\n";
+    }
+
+    /**
+     * Tests that every command's output is written in order.
+     *
+     * @throws IOException
+     *                     if reading or writing fails
+     */
+    public void testRun() throws IOException {
+        StringWriter out = new StringWriter();
+        assertEquals(13, GISProj.run(input, out));
+        assertEquals(expected(), out.toString());
+    }
+
+    /**
+     * Tests main writing to an output file, and the usage message.
+     *
+     * @throws IOException
+     *                     if reading or writing fails
+     */
+    public void testMain() throws IOException {
+        File output = File.createTempFile("output", ".txt");
+        try {
+            GISProj.main(new String[] { input.toString(),
+                output.toString() });
+            assertEquals(expected(), new String(Files.readAllBytes(output
+                .toPath()), StandardCharsets.UTF_8));
+        } finally {
+            output.delete();
+        }
+        GISProj.main(new String[0]);
+        GISProj.main(new String[] { "-bogus", input.toString() });
+    }
+
+    /**
+     * Tests that the memory-mapped replay gives the same output.
+     *
+     * @throws IOException
+     *                     if reading or writing fails
+     */
+    public void testRunMapped() throws IOException {
+        StringWriter out = new StringWriter();
+        assertEquals(13, GISProj.run(input, out, true, false));
+        assertEquals(expected(), out.toString());
+
+        File output = File.createTempFile("output", ".txt");
+        try {
+            GISProj.main(new String[] { "-mmap", input.toString(),
+                output.toString() });
+            assertEquals(expected(), new String(Files.readAllBytes(output
+                .toPath()), StandardCharsets.UTF_8));
+        } finally {
+            output.delete();
+        }
+    }
+
+    /**
+     * Tests that the pipelined replay gives the same output, with either
+     * reader.
+     *
+     * @throws IOException
+     *                     if reading or writing fails
+     */
+    public void testRunPipelined() throws IOException {
+        for (boolean mapped : new boolean[] { false, true }) {
+            StringWriter out = new StringWriter();
+            assertEquals(13, GISProj.run(input, out, mapped, true));
+            assertEquals(expected(), out.toString());
+        }
+
+        File output = File.createTempFile("output", ".txt");
+        try {
+            GISProj.main(new String[] { "-pipeline", "-mmap",
+                input.toString(), output.toString() });
+            assertEquals(expected(), new String(Files.readAllBytes(output
+                .toPath()), StandardCharsets.UTF_8));
+        } finally {
+            output.delete();
+        }
+    }
+}
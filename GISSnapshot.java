@@ -0,0 +1,403 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Binary snapshot of the two trees behind a {@link GISDB}.
+ * <p>
+ * A snapshot stores the trees' exact shapes, so loading one rebuilds the
+ * same trees without comparing a single coordinate or name. The file is,
+ * in order (all numbers big-endian):
+ *
+ * <pre>
+ * int     magic ("GISS")
+ * int     format version
+ * long    log sequence (version 2 only, see below)
+ * int     name count, then per name: int byte length, UTF-8 bytes
+ * int     city count, then per city in k-d tree preorder:
+ *             int name index, short x, short y
+ * int     word count, then the k-d tree shape bits as longs
+ * int     BST node count, then per node in BST preorder:
+ *             int index of its city in the k-d tree preorder
+ * int     word count, then the BST shape bits as longs
+ * </pre>
+ *
+ * The shape bits for the {@code i}th node in preorder are bit {@code 2i}
+ * (has a left child) and bit {@code 2i + 1} (has a right child). Each
+ * distinct name is stored once, and both trees share the same {@link City}
+ * objects after loading, just as they do after inserts.
+ * <p>
+ * The log sequence is the number of the last {@link WriteAheadLog} record
+ * the snapshot includes, so replaying a log on top of it can skip the
+ * records that are already applied. It is 0 for snapshots taken without a
+ * log and for version 1 files, which do not store it.
+ * <p>
+ * A snapshot is written to a temporary file next to the target, forced to
+ * disk, then moved over the target, so a crash while saving leaves the old
+ * snapshot intact.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+final class GISSnapshot {
+
+    /** First four bytes of every snapshot: "GISS". */
+    static final int MAGIC = 0x47495353;
+
+    /** Current format version. */
+    static final int VERSION = 2;
+
+    /** Size of the I/O buffer. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Not instantiable.
+     */
+    private GISSnapshot() {
+    }
+
+    /**
+     * Writes both trees to a snapshot file, replacing it if it exists.
+     *
+     * @param cities
+     *               the k-d tree
+     * @param names
+     *               the BST holding the same cities
+     * @param path
+     *               the snapshot file
+     * @param logSequence
+     *               the last log record the trees include
+     * @throws IOException
+     *                     if writing fails
+     * @throws IllegalStateException
+     *                     if the BST holds a city that is not in the k-d tree
+     */
+    static void write(
+        KDTree cities,
+        BST<City> names,
+        Path path,
+        long logSequence)
+        throws IOException {
+        List<City> kdNodes = new ArrayList<>();
+        BitSet kdShape = new BitSet();
+        cities.preorder(kdNodes, kdShape);
+        List<City> bstNodes = new ArrayList<>();
+        BitSet bstShape = new BitSet();
+        names.preorder(bstNodes, bstShape);
+
+        // Name dictionary and each city's position in the k-d preorder
+        HashMap<String, Integer> nameIndex = new HashMap<>();
+        List<byte[]> dictionary = new ArrayList<>();
+        IdentityHashMap<City, Integer> ordinal = new IdentityHashMap<>();
+        int[] cityName = new int[kdNodes.size()];
+        for (int i = 0; i < kdNodes.size(); i++) {
+            City c = kdNodes.get(i);
+            Integer index = nameIndex.get(c.getName());
+            if (index == null) {
+                index = dictionary.size();
+                nameIndex.put(c.getName(), index);
+                dictionary.add(c.getName().getBytes(StandardCharsets.UTF_8));
+            }
+            cityName[i] = index;
+            ordinal.put(c, i);
+        }
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.need(16).putInt(MAGIC).putInt(VERSION).putLong(logSequence);
+
+            out.need(4).putInt(dictionary.size());
+            for (byte[] name : dictionary) {
+                out.need(4).putInt(name.length);
+                out.put(name);
+            }
+
+            out.need(4).putInt(kdNodes.size());
+            for (int i = 0; i < kdNodes.size(); i++) {
+                City c = kdNodes.get(i);
+                out.need(8).putInt(cityName[i]).putShort((short)c.getX())
+                    .putShort((short)c.getY());
+            }
+            out.putBits(kdShape);
+
+            out.need(4).putInt(bstNodes.size());
+            for (City c : bstNodes) {
+                Integer i = ordinal.get(c);
+                if (i == null) {
+                    throw new IllegalStateException(c
+                        + " is in the BST but not the k-d tree");
+                }
+                out.need(4).putInt(i);
+            }
+            out.putBits(bstShape);
+
+            out.flush();
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a snapshot file into two empty trees.
+     *
+     * @param path
+     *               the snapshot file
+     * @param cities
+     *               the k-d tree to fill
+     * @param names
+     *               the BST to fill
+     * @return the last log record the snapshot includes
+     * @throws IOException
+     *                     if reading fails or the file is not a valid
+     *                     snapshot
+     */
+    static long read(Path path, KDTree cities, BST<City> names)
+        throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.READ)) {
+            Input in = new Input(channel);
+            if (in.need(4).getInt() != MAGIC) {
+                throw new IOException(path + " is not a GIS snapshot");
+            }
+            int version = in.need(4).getInt();
+            if (version != 1 && version != VERSION) {
+                throw new IOException("unsupported snapshot version "
+                    + version);
+            }
+            long logSequence = (version == 1) ? 0 : in.need(8).getLong();
+
+            String[] dictionary = new String[in.count(4)];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = in.string();
+            }
+
+            int cityCount = in.count(8);
+            List<City> kdNodes = new ArrayList<>(cityCount);
+            for (int i = 0; i < cityCount; i++) {
+                ByteBuffer b = in.need(8);
+                int name = b.getInt();
+                if (name < 0 || name >= dictionary.length) {
+                    throw new IOException("bad name index " + name);
+                }
+                kdNodes.add(new City(dictionary[name], b.getShort(), b
+                    .getShort()));
+            }
+            BitSet kdShape = in.bits();
+
+            int bstCount = in.count(4);
+            List<City> bstNodes = new ArrayList<>(bstCount);
+            for (int i = 0; i < bstCount; i++) {
+                int ordinal = in.need(4).getInt();
+                if (ordinal < 0 || ordinal >= cityCount) {
+                    throw new IOException("bad city index " + ordinal);
+                }
+                bstNodes.add(kdNodes.get(ordinal));
+            }
+            BitSet bstShape = in.bits();
+
+            try {
+                cities.loadPreorder(kdNodes, kdShape);
+                names.loadPreorder(bstNodes, bstShape);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("corrupt snapshot: " + e.getMessage(),
+                    e);
+            }
+            return logSequence;
+        }
+    }
+
+    /**
+     * Buffered writes to a channel.
+     */
+    private static class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        /**
+         * @param channel
+         *                where to write
+         */
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Makes room for some bytes, flushing if needed.
+         *
+         * @param bytes
+         *              bytes about to be written (at most the buffer size)
+         * @return the buffer to put them in
+         * @throws IOException
+         *                     if flushing fails
+         */
+        ByteBuffer need(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+            return buffer;
+        }
+
+        /**
+         * Writes an array of any length.
+         *
+         * @param bytes
+         *              the bytes
+         * @throws IOException
+         *                     if writing fails
+         */
+        void put(byte[] bytes) throws IOException {
+            int off = 0;
+            while (off < bytes.length) {
+                int n = Math.min(bytes.length - off, need(1).remaining());
+                buffer.put(bytes, off, n);
+                off += n;
+            }
+        }
+
+        /**
+         * Writes a bit set as a word count followed by the words.
+         *
+         * @param bits
+         *             the bits
+         * @throws IOException
+         *                     if writing fails
+         */
+        void putBits(BitSet bits) throws IOException {
+            long[] words = bits.toLongArray();
+            need(4).putInt(words.length);
+            for (long word : words) {
+                need(8).putLong(word);
+            }
+        }
+
+        /**
+         * Writes out everything buffered.
+         *
+         * @throws IOException
+         *                     if writing fails
+         */
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Buffered reads from a channel.
+     */
+    private static class Input {
+        private final FileChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        /**
+         * @param channel
+         *                where to read
+         */
+        Input(FileChannel channel) {
+            this.channel = channel;
+            buffer.limit(0);
+        }
+
+        /**
+         * Makes sure some bytes are buffered, reading more if needed.
+         *
+         * @param bytes
+         *              bytes about to be read
+         * @return the buffer to get them from
+         * @throws IOException
+         *                     if reading fails or the file ends first
+         */
+        ByteBuffer need(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return buffer;
+            }
+            if (bytes > buffer.capacity()) {
+                ByteBuffer bigger = ByteBuffer.allocate(bytes);
+                bigger.put(buffer);
+                buffer = bigger;
+            } else {
+                buffer.compact();
+            }
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    throw new EOFException("snapshot is truncated");
+                }
+            }
+            buffer.flip();
+            return buffer;
+        }
+
+        /**
+         * Reads a count of items, checking that the rest of the file is long
+         * enough to hold them.
+         *
+         * @param bytesEach
+         *                  smallest size of one item in bytes
+         * @return the count
+         * @throws IOException
+         *                     if reading fails or the count is impossible
+         */
+        int count(int bytesEach) throws IOException {
+            int n = need(4).getInt();
+            long left = channel.size() - channel.position() + buffer
+                .remaining();
+            if (n < 0 || (long)n * bytesEach > left) {
+                throw new IOException("bad count " + n);
+            }
+            return n;
+        }
+
+        /**
+         * Reads a length-prefixed UTF-8 string.
+         *
+         * @return the string
+         * @throws IOException
+         *                     if reading fails
+         */
+        String string() throws IOException {
+            int length = count(1);
+            ByteBuffer b = need(length);
+            String s = new String(b.array(), b.arrayOffset() + b.position(),
+                length, StandardCharsets.UTF_8);
+            b.position(b.position() + length);
+            return s;
+        }
+
+        /**
+         * Reads a bit set written by {@link Output#putBits(BitSet)}.
+         *
+         * @return the bits
+         * @throws IOException
+         *                     if reading fails
+         */
+        BitSet bits() throws IOException {
+            long[] words = new long[count(8)];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = need(8).getLong();
+            }
+            return BitSet.valueOf(words);
+        }
+    }
+}
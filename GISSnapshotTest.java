@@ -0,0 +1,187 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import student.TestCase;
+
+/**
+ * Tests for {@link GISDB#saveSnapshot(Path)},
+ * {@link GISDB#loadSnapshot(Path)} and the {@link GISSnapshot} format.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class GISSnapshotTest extends TestCase {
+
+    private Path file;
+
+    /**
+     * Picks a fresh snapshot file.
+     *
+     * @throws IOException
+     *                     if the temporary file cannot be created
+     */
+    public void setUp() throws IOException {
+        file = Files.createTempFile("gis", ".snapshot");
+    }
+
+    /**
+     * Removes the snapshot file.
+     *
+     * @throws IOException
+     *                     if it cannot be deleted
+     */
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Tests that a loaded snapshot has exactly the same trees (same debug and
+     * print output) and behaves the same under further writes.
+     *
+     * @throws IOException
+     *                     if the snapshot cannot be written or read
+     */
+    public void testRoundTrip() throws IOException {
+        GISDB original = new GISDB();
+        Random random = new Random(34);
+        for (int i = 0; i < 2000; i++) {
+            original.insert("City" + random.nextInt(150), random.nextInt(
+                GISDB.MAXCOORD + 1), random.nextInt(GISDB.MAXCOORD + 1));
+        }
+        original.insert("São Paulo", 0, GISDB.MAXCOORD);
+        for (int i = 0; i < 20; i++) {
+            original.delete("City" + i);
+        }
+
+        original.saveSnapshot(file);
+        GISDB loaded = new GISDB();
+        loaded.insert("Gone", 5, 5);
+        loaded.loadSnapshot(file);
+
+        assertEquals(original.debug(), loaded.debug());
+        assertEquals(original.print(), loaded.print());
+        assertEquals("", loaded.info(5, 5));
+        assertEquals("São Paulo", loaded.info(0, GISDB.MAXCOORD));
+        assertEquals(original.search(100, 100, 5000), loaded.search(100, 100,
+            5000));
+
+        // Both trees share cities, so deletes through either index work
+        assertEquals(original.delete("City30"), loaded.delete("City30"));
+        assertEquals(original.delete(0, GISDB.MAXCOORD), loaded.delete(0,
+            GISDB.MAXCOORD));
+        assertEquals(original.print(), loaded.print());
+        assertEquals(original.debug(), loaded.debug());
+    }
+
+    /**
+     * Tests saving and loading an empty database.
+     *
+     * @throws IOException
+     *                     if the snapshot cannot be written or read
+     */
+    public void testEmpty() throws IOException {
+        new GISDB().saveSnapshot(file);
+        GISDB loaded = new GISDB();
+        loaded.insert("A", 1, 1);
+        loaded.loadSnapshot(file);
+        assertEquals("", loaded.debug());
+        assertEquals("", loaded.print());
+        assertTrue(loaded.insert("A", 1, 1));
+    }
+
+    /**
+     * Tests that a bad file is rejected and leaves the database unchanged.
+     *
+     * @throws IOException
+     *                     if the test files cannot be written
+     */
+    public void testBadFiles() throws IOException {
+        GISDB db = new GISDB();
+        db.insert("Keep", 7, 7);
+
+        Files.write(file, "insert A 1 1\n".getBytes());
+        assertLoadFails(db);
+
+        GISDB source = new GISDB();
+        source.insert("A", 1, 1);
+        source.insert("B", 2, 2);
+        source.saveSnapshot(file);
+        byte[] good = Files.readAllBytes(file);
+
+        byte[] truncated = new byte[good.length - 3];
+        System.arraycopy(good, 0, truncated, 0, truncated.length);
+        Files.write(file, truncated);
+        assertLoadFails(db);
+
+        byte[] hugeCount = good.clone();
+        ByteBuffer.wrap(hugeCount).putInt(16, Integer.MAX_VALUE);
+        Files.write(file, hugeCount);
+        assertLoadFails(db);
+
+        assertEquals("Keep", db.info(7, 7));
+    }
+
+    /**
+     * Tests the log sequence tag, and that version 1 files (which have no
+     * tag) still load.
+     *
+     * @throws IOException
+     *                     if the snapshot cannot be written or read
+     */
+    public void testLogSequence() throws IOException {
+        GISDB db = new GISDB();
+        db.insert("A", 1, 2);
+        db.insert("B", 3, 4);
+        db.saveSnapshot(file, 42);
+        GISDB loaded = new GISDB();
+        assertEquals(42, loaded.readSnapshot(file));
+        assertEquals(db.print(), loaded.print());
+
+        // Version 1: same layout without the tag
+        byte[] v2 = Files.readAllBytes(file);
+        byte[] v1 = new byte[v2.length - 8];
+        System.arraycopy(v2, 0, v1, 0, 8);
+        System.arraycopy(v2, 16, v1, 8, v1.length - 8);
+        ByteBuffer.wrap(v1).putInt(4, 1);
+        Files.write(file, v1);
+        loaded = new GISDB();
+        assertEquals(0, loaded.readSnapshot(file));
+        assertEquals(db.debug(), loaded.debug());
+    }
+
+    /**
+     * Asserts that loading the snapshot file throws an IOException.
+     *
+     * @param db
+     *           the database to load into
+     */
+    private void assertLoadFails(GISDB db) {
+        IOException thrown = null;
+        try {
+            db.loadSnapshot(file);
+        } catch (IOException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+    }
+
+    /**
+     * Tests the concurrent wrapper's snapshot methods.
+     *
+     * @throws IOException
+     *                     if the snapshot cannot be written or read
+     */
+    public void testConcurrentGISDB() throws IOException {
+        ConcurrentGISDB db = new ConcurrentGISDB();
+        db.insert("A", 10, 20);
+        db.insert("B", 30, 40);
+        db.saveSnapshot(file);
+        ConcurrentGISDB loaded = new ConcurrentGISDB();
+        loaded.loadSnapshot(file);
+        assertEquals(db.debug(), loaded.debug());
+        assertEquals(db.print(), loaded.print());
+    }
+}
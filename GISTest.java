@@ -1,4 +1,9 @@
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 import student.TestCase;
 
 /**
@@ -478,4 +483,204 @@ public class GISTest extends TestCase {
         String result = testDB.delete(100, 100);
         assertTrue(result.trim().isEmpty() || result.matches("\\d+ *"));
     }
+
+    /**
+     * Tests that a batch gives the per-operation results and final contents
+     * of applying the same writes one at a time.
+     */
+    public void testApplyBatchMatchesSequentialWrites() {
+        GISDB batched = new GISDB();
+        GISDB sequential = new GISDB();
+        Random random = new Random(17);
+        for (int round = 0; round < 20; round++) {
+            List<GISDB.Op> ops = new ArrayList<>();
+            int[] expected = new int[200];
+            for (int i = 0; i < expected.length; i++) {
+                String name = "N" + random.nextInt(40);
+                int x = random.nextInt(60) - 2;
+                int y = random.nextInt(60);
+                int kind = random.nextInt(6);
+                if (kind == 0) {
+                    ops.add(GISDB.Op.delete(name));
+                    String out = sequential.delete(name);
+                    expected[i] = out.isEmpty() ? 0 : out.split("\n").length;
+                } else if (kind == 1) {
+                    ops.add(GISDB.Op.delete(x, y));
+                    expected[i] = sequential.delete(x, y).isEmpty() ? 0 : 1;
+                } else {
+                    ops.add(GISDB.Op.insert(name, x, y));
+                    expected[i] = sequential.insert(name, x, y) ? 1 : 0;
+                }
+            }
+            int[] actual = batched.applyBatch(ops);
+            assertEquals(Arrays.toString(expected), Arrays.toString(actual));
+        }
+        assertEquals(cities(sequential.print()), cities(batched.print()));
+        assertEquals(cities(sequential.debug()), cities(batched.debug()));
+        for (int x = 0; x < 60; x++) {
+            assertEquals(sequential.info(x, x), batched.info(x, x));
+        }
+    }
+
+    /**
+     * Tests that inserts and deletes that cancel out inside one batch leave
+     * the database unchanged.
+     */
+    public void testApplyBatchNetEffect() {
+        GISDB db = new GISDB();
+        db.insert("Old", 5, 5);
+        int[] results = db.applyBatch(Arrays.asList(
+            GISDB.Op.insert("Temp", 1, 1),
+            GISDB.Op.insert("Clash", 5, 5),
+            GISDB.Op.delete(1, 1),
+            GISDB.Op.delete("Old"),
+            GISDB.Op.insert("New", 5, 5),
+            GISDB.Op.insert("Bad", -1, 0),
+            GISDB.Op.delete(GISDB.MAXCOORD + 1, 0),
+            GISDB.Op.delete("New")));
+        assertEquals("[1, 0, 1, 1, 1, 0, 0, 1]", Arrays.toString(results));
+        assertEquals("", db.print());
+        assertEquals("", db.debug());
+        assertEquals(0, db.applyBatch(new ArrayList<>()).length);
+
+        Exception thrown = null;
+        try {
+            GISDB.Op.insert(null, 1, 1);
+        } catch (IllegalArgumentException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+    }
+
+    /**
+     * Tests that a bulk load accepts and rejects the same cities as
+     * inserting them one at a time, and builds a balanced k-d tree.
+     */
+    public void testBulkLoadMatchesInserts() {
+        GISDB bulk = new GISDB();
+        GISDB sequential = new GISDB();
+        bulk.insert("Old", 5, 5);
+        sequential.insert("Old", 5, 5);
+        Random random = new Random(23);
+        List<City> cities = new ArrayList<>();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            City c = new City("N" + random.nextInt(50), random.nextInt(70)
+                - 2, random.nextInt(70));
+            cities.add(c);
+            expected.append(sequential.insert(c.getName(), c.getX(), c
+                .getY()) ? 'T' : 'F');
+        }
+        boolean[] inserted = bulk.bulkLoad(cities);
+        StringBuilder actual = new StringBuilder();
+        for (boolean b : inserted) {
+            actual.append(b ? 'T' : 'F');
+        }
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(cities(sequential.print()), cities(bulk.print()));
+        assertEquals(cities(sequential.debug()), cities(bulk.debug()));
+        for (City c : cities) {
+            assertEquals(sequential.info(c.getX(), c.getY()), bulk.info(c
+                .getX(), c.getY()));
+            assertEquals(sequential.info(c.getName()).length(), bulk.info(c
+                .getName()).length());
+        }
+        assertEquals(sequential.search(30, 30, 20).split("\n").length, bulk
+            .search(30, 30, 20).split("\n").length);
+
+        // Balanced: no deeper than log2(n) + 1 levels
+        int deepest = 0;
+        for (String line : bulk.debug().split("\n")) {
+            deepest = Math.max(deepest, Integer.parseInt(line.replaceFirst(
+                "^(\\d+).*", "$1")));
+        }
+        int count = bulk.debug().split("\n").length;
+        assertTrue(deepest <= 32 - Integer.numberOfLeadingZeros(count));
+    }
+
+    /**
+     * Tests that a bulk load accepts a city listed twice only once, skips
+     * null entries, and leaves both indexes agreeing after a delete.
+     */
+    public void testBulkLoadDuplicateInstance() {
+        GISDB db = new GISDB();
+        City c = new City("Dup", 3, 3);
+        assertEquals("[true, false, false]", Arrays.toString(db.bulkLoad(
+            Arrays.asList(c, null, c))));
+        assertEquals(1, db.print().split("\n").length);
+        assertTrue(db.delete(3, 3).length() > 0);
+        assertEquals("", db.info("Dup"));
+        assertEquals("", db.print());
+    }
+
+    /**
+     * Tests that lazy deletes leave the database holding the same cities as
+     * eager deletes, and that cached searches stay exact when a delete
+     * compacts the k-d tree.
+     */
+    public void testLazyDeletesMatchEager() {
+        GISDB eager = new GISDB();
+        GISDB lazy = new GISDB();
+        GISDB cached = new GISDB();
+        lazy.setLazyDeletes(0.25);
+        cached.setLazyDeletes(0.25);
+        cached.setSearchCache(16);
+        Random random = new Random(5);
+        for (int i = 0; i < 4000; i++) {
+            int x = random.nextInt(60);
+            int y = random.nextInt(60);
+            int r = random.nextInt(10);
+            if (r < 4) {
+                String name = "C" + random.nextInt(20);
+                assertEquals(eager.insert(name, x, y), lazy.insert(name, x,
+                    y));
+                cached.insert(name, x, y);
+            } else if (r < 7) {
+                String deleted = lazy.delete(x, y);
+                assertEquals(deleted, cached.delete(x, y));
+                assertEquals(eager.delete(x, y).isEmpty(), deleted.isEmpty());
+            } else if (r == 7 && i % 20 == 0) {
+                String name = "C" + random.nextInt(20);
+                assertEquals(eager.delete(name), lazy.delete(name));
+                cached.delete(name);
+            } else {
+                int cx = 5 + 50 * random.nextInt(2);
+                int cy = 5 + 50 * random.nextInt(2);
+                String found = lazy.search(cx, cy, 5);
+                assertEquals(found, cached.search(cx, cy, 5));
+                assertEquals(eager.search(cx, cy, 5).split("\n").length,
+                    found.split("\n").length);
+                assertEquals(eager.info(x, y), lazy.info(x, y));
+            }
+        }
+        assertEquals(eager.print(), lazy.print());
+        assertEquals(cities(eager.debug()), cities(lazy.debug()));
+        assertEquals(lazy.debug(), cached.debug());
+        assertTrue(cached.getSearchCache().getHits() > 0);
+
+        lazy.clear();
+        assertEquals(0.25, lazy.getLazyDeletes(), 0.0);
+        lazy.insert("A", 1, 1);
+        lazy.insert("B", 2, 2);
+        assertEquals("1\nA", lazy.delete(1, 1));
+        assertEquals("0B (2, 2)\n", lazy.debug());
+        lazy.setLazyDeletes(0);
+        assertEquals(1, lazy.getKDTreeHealth().getNodeCount());
+    }
+
+    /**
+     * Returns the sorted city lines of a tree listing, without levels.
+     *
+     * @param listing
+     *                print() or debug() output
+     * @return the cities, one per entry, sorted
+     */
+    private List<String> cities(String listing) {
+        List<String> lines = new ArrayList<>();
+        for (String line : listing.split("\n")) {
+            lines.add(line.replaceFirst("^\\d+\\s*", ""));
+        }
+        Collections.sort(lines);
+        return lines;
+    }
 }
@@ -0,0 +1,402 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Saves a {@link NodeStore} as a chain of checkpoint files in a directory:
+ * one full checkpoint holding every page, followed by deltas holding only
+ * the pages written since the checkpoint before them (see
+ * {@link NodeStore#PAGE_SIZE}). A checkpoint of a large store where little
+ * has changed therefore writes little. Loading applies the full checkpoint
+ * and then each delta in order.
+ * <p>
+ * Once a chain has {@code maxDeltas} deltas, the next checkpoint is a full
+ * one, and the old chain is deleted after it is safely on disk. This keeps
+ * loading time bounded. Each file is written under a temporary name,
+ * forced, and then renamed, so a crash never leaves a half-written
+ * checkpoint. The first checkpoint of a store this checkpointer did not
+ * load or save is always full, because the store's dirty pages say nothing
+ * about what is on disk.
+ * <p>
+ * File names are the checkpoint number with {@code .full} or
+ * {@code .delta}. Each file holds (big-endian):
+ *
+ * <pre>
+ * int     magic ("GISI")
+ * int     format version
+ * long    checkpoint number
+ * long    number of the full checkpoint the chain starts with
+ * int     end of the store's used space
+ * int     page count, then per page:
+ *             int page number, int length, bytes
+ * </pre>
+ *
+ * A checkpoint first copies the pages it saves into a private buffer, and
+ * only then writes and forces the file, so the store only has to be left
+ * alone while the pages are copied. {@link #checkpoint(NodeStore, Lock)}
+ * holds a lock for just that copy: pass the lock that keeps writers out of
+ * the store, for example the read lock of the read-write lock guarding an
+ * {@link OffHeapGISDB} shared between threads. Readers can carry on
+ * throughout, and writers wait for the copy but not for the disk.
+ * {@link #checkpoint(NodeStore)} is for stores nothing else is using.
+ * <p>
+ * A checkpointer itself is not thread-safe.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class IncrementalCheckpointer {
+
+    /** First four bytes of every checkpoint file: "GISI". */
+    static final int MAGIC = 0x47495349;
+
+    /** Current format version. */
+    static final int VERSION = 1;
+
+    /** Default number of deltas before a new full checkpoint. */
+    public static final int DEFAULT_MAX_DELTAS = 16;
+
+    /** File name suffixes. */
+    private static final String FULL = ".full";
+    private static final String DELTA = ".delta";
+
+    /** Size of the write buffer; a multiple of the page size. */
+    private static final int BUFFER_SIZE = 64 * NodeStore.PAGE_SIZE;
+
+    /** Where the checkpoint files are. */
+    private final Path dir;
+
+    /** Deltas allowed before a new full checkpoint. */
+    private final int maxDeltas;
+
+    /** Highest checkpoint number used so far. */
+    private long lastNumber;
+
+    /** Number of the full checkpoint of the current chain. */
+    private long baseNumber;
+
+    /** Deltas written after {@link #baseNumber}. */
+    private int deltas;
+
+    /**
+     * The store whose dirty pages continue the current chain, or
+     * {@code null} if the next checkpoint must be full.
+     */
+    private NodeStore tracked;
+
+    /**
+     * Creates a checkpointer with the default chain length.
+     *
+     * @param dir
+     *            where the checkpoint files are; created if needed
+     * @throws IOException
+     *                     if the directory cannot be read or created
+     */
+    public IncrementalCheckpointer(Path dir) throws IOException {
+        this(dir, DEFAULT_MAX_DELTAS);
+    }
+
+    /**
+     * Creates a checkpointer.
+     *
+     * @param dir
+     *                  where the checkpoint files are; created if needed
+     * @param maxDeltas
+     *                  deltas allowed before a new full checkpoint
+     * @throws IOException
+     *                     if the directory cannot be read or created
+     */
+    public IncrementalCheckpointer(Path dir, int maxDeltas)
+        throws IOException {
+        this.dir = dir;
+        this.maxDeltas = maxDeltas;
+        Files.createDirectories(dir);
+        TreeMap<Long, Path> files = list();
+        lastNumber = files.isEmpty() ? 0 : files.lastKey();
+    }
+
+    /**
+     * Returns the number of the last checkpoint written or found.
+     *
+     * @return the checkpoint number, 0 if there are none
+     */
+    public long getLastNumber() {
+        return lastNumber;
+    }
+
+    /**
+     * Loads the latest checkpoint chain into a new off-heap store. Later
+     * checkpoints of the returned store can be deltas.
+     *
+     * @return the store, empty if there are no checkpoints
+     * @throws IOException
+     *                     if a file cannot be read, is not valid, or a
+     *                     delta is missing from the chain
+     */
+    public NodeStore load() throws IOException {
+        DirectNodeStore store = new DirectNodeStore();
+        TreeMap<Long, Path> files = list();
+        Long base = null;
+        for (Long number : files.descendingKeySet()) {
+            if (files.get(number).getFileName().toString().endsWith(FULL)) {
+                base = number;
+                break;
+            }
+        }
+        tracked = null;
+        deltas = 0;
+        if (base == null) {
+            return store;
+        }
+
+        long expected = base;
+        for (Long number : files.tailMap(base, true).keySet()) {
+            if (number != expected) {
+                throw new IOException("checkpoint " + expected
+                    + " is missing");
+            }
+            apply(files.get(number), number, base, store);
+            expected++;
+        }
+        store.checkRestored();
+        baseNumber = base;
+        deltas = (int)(expected - 1 - base);
+        tracked = store;
+        return store;
+    }
+
+    /**
+     * Saves a checkpoint of a store: a delta of the pages written since the
+     * last checkpoint, or a full checkpoint when required. Nothing else may
+     * use the store until this returns.
+     *
+     * @param store
+     *              the store
+     * @return {@code true} if a full checkpoint was written
+     * @throws IOException
+     *                     if the checkpoint cannot be written
+     */
+    public boolean checkpoint(NodeStore store) throws IOException {
+        boolean full = store != tracked || deltas >= maxDeltas;
+        return write(store, copy(store, full), full);
+    }
+
+    /**
+     * Saves a checkpoint of a store that other threads are using. The pages
+     * are copied while {@code lock} is held; the file is written and forced
+     * after it is released.
+     *
+     * @param store
+     *              the store
+     * @param lock
+     *              a lock that keeps writers out of the store while it is
+     *              held
+     * @return {@code true} if a full checkpoint was written
+     * @throws IOException
+     *                     if the checkpoint cannot be written
+     */
+    public boolean checkpoint(NodeStore store, Lock lock)
+        throws IOException {
+        boolean full = store != tracked || deltas >= maxDeltas;
+        List<ByteBuffer> copy;
+        lock.lock();
+        try {
+            copy = copy(store, full);
+        } finally {
+            lock.unlock();
+        }
+        return write(store, copy, full);
+    }
+
+    /**
+     * Takes a store's dirty pages and copies the checkpoint file's contents
+     * into private buffers. This is the only part of a checkpoint that reads
+     * the store.
+     *
+     * @param store
+     *              the store
+     * @param full
+     *              whether to copy every page
+     * @return the file contents, each buffer ready to write
+     */
+    private List<ByteBuffer> copy(NodeStore store, boolean full) {
+        BitSet pages = store.takeDirtyPages();
+        tracked = null; // until this checkpoint is safely written
+        if (full) {
+            pages.set(0, (store.end() + NodeStore.PAGE_SIZE - 1)
+                / NodeStore.PAGE_SIZE);
+        }
+
+        long number = lastNumber + 1;
+        long base = full ? number : baseNumber;
+        List<ByteBuffer> copy = new ArrayList<>();
+        ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+        out.putInt(MAGIC).putInt(VERSION).putLong(number).putLong(base)
+            .putInt(store.end()).putInt(pages.cardinality());
+        for (int page = pages.nextSetBit(0); page >= 0; page = pages
+            .nextSetBit(page + 1)) {
+            if (out.remaining() < 8 + NodeStore.PAGE_SIZE) {
+                copy.add(out.flip());
+                out = ByteBuffer.allocate(BUFFER_SIZE);
+            }
+            int lengthAt = out.position() + 4;
+            out.putInt(page).putInt(0);
+            out.putInt(lengthAt, store.copyPage(page, out));
+        }
+        copy.add(out.flip());
+        return copy;
+    }
+
+    /**
+     * Writes and forces a checkpoint file copied by
+     * {@link #copy(NodeStore, boolean)}, then moves it into place.
+     *
+     * @param store
+     *              the store it was copied from
+     * @param copy
+     *              the file contents
+     * @param full
+     *              whether it is a full checkpoint
+     * @return {@code full}
+     * @throws IOException
+     *                     if the checkpoint cannot be written
+     */
+    private boolean write(NodeStore store, List<ByteBuffer> copy,
+        boolean full) throws IOException {
+        long number = lastNumber + 1;
+        Path target = dir.resolve(name(number, full));
+        Path temp = dir.resolve(name(number, full) + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (ByteBuffer out : copy) {
+                while (out.hasRemaining()) {
+                    channel.write(out);
+                }
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+
+        lastNumber = number;
+        tracked = store;
+        if (full) {
+            baseNumber = number;
+            deltas = 0;
+            for (Path old : list().headMap(number).values()) {
+                Files.deleteIfExists(old);
+            }
+        } else {
+            deltas++;
+        }
+        return full;
+    }
+
+    /**
+     * Applies one checkpoint file to a store.
+     *
+     * @param file
+     *               the file
+     * @param number
+     *               its checkpoint number
+     * @param base
+     *               number of the full checkpoint of its chain
+     * @param store
+     *               the store to write into
+     * @throws IOException
+     *                     if the file cannot be read or is not valid
+     */
+    private static void apply(Path file, long number, long base,
+        NodeStore store) throws IOException {
+        ByteBuffer in;
+        try (FileChannel channel = FileChannel.open(file,
+            StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too big");
+            }
+            in = ByteBuffer.allocate((int)channel.size());
+            while (in.hasRemaining()) {
+                if (channel.read(in) < 0) {
+                    throw new EOFException(file + " is truncated");
+                }
+            }
+            in.flip();
+        }
+        try {
+            if (in.getInt() != MAGIC || in.getInt() != VERSION || in
+                .getLong() != number || in.getLong() != base) {
+                throw new IOException(file + " is not checkpoint " + number);
+            }
+            in.getInt(); // end; restored with the header page
+            int count = in.getInt();
+            for (int i = 0; i < count; i++) {
+                int page = in.getInt();
+                int length = in.getInt();
+                if (page < 0 || length < 0 || length > NodeStore.PAGE_SIZE) {
+                    throw new IOException(file + " has a bad page");
+                }
+                ByteBuffer bytes = in.slice();
+                bytes.limit(length);
+                store.restore(page * NodeStore.PAGE_SIZE, bytes);
+                in.position(in.position() + length);
+            }
+        } catch (RuntimeException e) {
+            throw new IOException(file + " is corrupt", e);
+        }
+    }
+
+    /**
+     * Lists the checkpoint files by number.
+     *
+     * @return the files
+     * @throws IOException
+     *                     if the directory cannot be read
+     */
+    private TreeMap<Long, Path> list() throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path p : stream) {
+                String name = p.getFileName().toString();
+                int dot = name.indexOf('.');
+                String suffix = (dot < 0) ? "" : name.substring(dot);
+                if (suffix.equals(FULL) || suffix.equals(DELTA)) {
+                    try {
+                        files.put(Long.parseLong(name.substring(0, dot)), p);
+                    } catch (NumberFormatException e) {
+                        // not one of ours
+                    }
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Returns the file name of a checkpoint.
+     *
+     * @param number
+     *               the checkpoint number
+     * @param full
+     *               whether it is a full checkpoint
+     * @return the name
+     */
+    private static String name(long number, boolean full) {
+        return String.format("%016d%s", number, full ? FULL : DELTA);
+    }
+}
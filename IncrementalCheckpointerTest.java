@@ -0,0 +1,286 @@
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import student.TestCase;
+
+/**
+ * Tests for {@link IncrementalCheckpointer}.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class IncrementalCheckpointerTest extends TestCase {
+
+    private Path dir;
+
+    /**
+     * Creates an empty checkpoint directory.
+     *
+     * @throws IOException
+     *                     if the directory cannot be created
+     */
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("checkpoints");
+    }
+
+    /**
+     * Deletes the checkpoint directory.
+     *
+     * @throws IOException
+     *                     if a file cannot be deleted
+     */
+    public void tearDown() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path p : stream) {
+                Files.delete(p);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    /**
+     * Fills a database with a grid of cities.
+     *
+     * @param db
+     *              the database
+     * @param count
+     *              number of cities
+     */
+    private static void fill(GIS db, int count) {
+        for (int i = 0; i < count; i++) {
+            db.insert("City" + (i * 7919 % count), i * 7919 % 30000, i * 104729
+                % 30000);
+        }
+    }
+
+    /**
+     * Counts the checkpoint files in the directory.
+     *
+     * @return the count
+     * @throws IOException
+     *                     if the directory cannot be read
+     */
+    private int files() throws IOException {
+        int count = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path p : stream) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Tests that a delta holds only the changed pages and that loading
+     * the chain gives back the database.
+     *
+     * @throws IOException
+     *                     on failure
+     */
+    public void testDeltaRoundTrip() throws IOException {
+        IncrementalCheckpointer checkpointer = new IncrementalCheckpointer(
+            dir);
+        OffHeapGISDB db = new OffHeapGISDB(checkpointer.load());
+        fill(db, 5000);
+        assertTrue(checkpointer.checkpoint(db.getStore()));
+        long fullSize = Files.size(dir.resolve(String.format("%016d.full",
+            1)));
+
+        db.insert("Late", 12345, 6789);
+        db.delete(0, 0);
+        assertFalse(checkpointer.checkpoint(db.getStore()));
+        long deltaSize = Files.size(dir.resolve(String.format("%016d.delta",
+            2)));
+        assertTrue(deltaSize < fullSize / 4);
+        assertEquals(2, checkpointer.getLastNumber());
+
+        OffHeapGISDB loaded = new OffHeapGISDB(new IncrementalCheckpointer(dir)
+            .load());
+        assertEquals(db.debug(), loaded.debug());
+        assertEquals(db.print(), loaded.print());
+        assertEquals("Late", loaded.info(12345, 6789));
+    }
+
+    /**
+     * Tests checkpoints, including rolled-over full ones, taken while another
+     * thread writes the database under a read-write lock. The checkpointer
+     * holds the read lock only while copying, and the last chain loads back
+     * the final database.
+     *
+     * @throws Exception
+     *                   on failure
+     */
+    public void testCheckpointWhileWriting() throws Exception {
+        IncrementalCheckpointer checkpointer = new IncrementalCheckpointer(
+            dir, 2);
+        OffHeapGISDB db = new OffHeapGISDB(checkpointer.load());
+        ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 3000; i++) {
+                lock.writeLock().lock();
+                try {
+                    db.insert("City" + i, i * 7919 % 30000, i);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        });
+        writer.setUncaughtExceptionHandler((thread, e) -> failure.set(e));
+        writer.start();
+        int checkpoints = 0;
+        while (writer.isAlive() || checkpoints < 4) {
+            checkpointer.checkpoint(db.getStore(), lock.readLock());
+            assertEquals(0, lock.getReadLockCount());
+            checkpoints++;
+        }
+        writer.join();
+        assertNull(failure.get());
+        checkpointer.checkpoint(db.getStore(), lock.readLock());
+
+        OffHeapGISDB loaded = new OffHeapGISDB(new IncrementalCheckpointer(dir)
+            .load());
+        assertEquals(db.debug(), loaded.debug());
+        assertEquals(db.print(), loaded.print());
+    }
+
+    /**
+     * Tests that a loaded store continues its chain with deltas.
+     *
+     * @throws IOException
+     *                     on failure
+     */
+    public void testLoadedStoreContinuesChain() throws IOException {
+        IncrementalCheckpointer first = new IncrementalCheckpointer(dir);
+        OffHeapGISDB db = new OffHeapGISDB(first.load());
+        fill(db, 200);
+        first.checkpoint(db.getStore());
+
+        IncrementalCheckpointer second = new IncrementalCheckpointer(dir);
+        OffHeapGISDB loaded = new OffHeapGISDB(second.load());
+        loaded.insert("Next", 1, 2);
+        assertFalse(second.checkpoint(loaded.getStore()));
+        loaded.clear();
+        loaded.insert("Only", 3, 4);
+        assertFalse(second.checkpoint(loaded.getStore()));
+
+        OffHeapGISDB again = new OffHeapGISDB(new IncrementalCheckpointer(dir)
+            .load());
+        assertEquals("0Only (3, 4)\n", again.debug());
+    }
+
+    /**
+     * Tests that a store the checkpointer did not load is saved in full.
+     *
+     * @throws IOException
+     *                     on failure
+     */
+    public void testUntrackedStoreIsFull() throws IOException {
+        IncrementalCheckpointer checkpointer = new IncrementalCheckpointer(
+            dir);
+        OffHeapGISDB db = new OffHeapGISDB();
+        fill(db, 100);
+        assertTrue(checkpointer.checkpoint(db.getStore()));
+        assertFalse(checkpointer.checkpoint(db.getStore()));
+        OffHeapGISDB other = new OffHeapGISDB();
+        other.insert("Other", 5, 5);
+        assertTrue(checkpointer.checkpoint(other.getStore()));
+        assertEquals(1, files());
+        assertEquals("0Other (5, 5)\n", new OffHeapGISDB(checkpointer.load())
+            .debug());
+    }
+
+    /**
+     * Tests that a new full checkpoint starts after maxDeltas and removes
+     * the old chain.
+     *
+     * @throws IOException
+     *                     on failure
+     */
+    public void testRollover() throws IOException {
+        IncrementalCheckpointer checkpointer = new IncrementalCheckpointer(dir,
+            2);
+        OffHeapGISDB db = new OffHeapGISDB(checkpointer.load());
+        assertTrue(checkpointer.checkpoint(db.getStore()));
+        db.insert("A", 1, 1);
+        assertFalse(checkpointer.checkpoint(db.getStore()));
+        db.insert("B", 2, 2);
+        assertFalse(checkpointer.checkpoint(db.getStore()));
+        assertEquals(3, files());
+        db.insert("C", 3, 3);
+        assertTrue(checkpointer.checkpoint(db.getStore()));
+        assertEquals(1, files());
+        assertTrue(Files.exists(dir.resolve(String.format("%016d.full", 4))));
+        assertEquals(db.print(), new OffHeapGISDB(checkpointer.load())
+            .print());
+    }
+
+    /**
+     * Tests that an empty directory loads as an empty store.
+     *
+     * @throws IOException
+     *                     on failure
+     */
+    public void testLoadEmpty() throws IOException {
+        IncrementalCheckpointer checkpointer = new IncrementalCheckpointer(
+            dir);
+        assertEquals(0, checkpointer.getLastNumber());
+        assertEquals(NodeStore.HEADER_SIZE, checkpointer.load().end());
+    }
+
+    /**
+     * Tests that a gap in the chain is reported instead of loading stale
+     * pages.
+     *
+     * @throws IOException
+     *                     on failure
+     */
+    public void testMissingDelta() throws IOException {
+        IncrementalCheckpointer checkpointer = new IncrementalCheckpointer(
+            dir);
+        OffHeapGISDB db = new OffHeapGISDB(checkpointer.load());
+        checkpointer.checkpoint(db.getStore());
+        db.insert("A", 1, 1);
+        checkpointer.checkpoint(db.getStore());
+        db.insert("B", 2, 2);
+        checkpointer.checkpoint(db.getStore());
+        Files.delete(dir.resolve(String.format("%016d.delta", 2)));
+        Exception thrown = null;
+        try {
+            new IncrementalCheckpointer(dir).load();
+        } catch (IOException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+        assertTrue(thrown.getMessage().contains("missing"));
+    }
+
+    /**
+     * Tests that a corrupt file is reported.
+     *
+     * @throws IOException
+     *                     on failure
+     */
+    public void testCorruptFile() throws IOException {
+        IncrementalCheckpointer checkpointer = new IncrementalCheckpointer(
+            dir);
+        OffHeapGISDB db = new OffHeapGISDB(checkpointer.load());
+        db.insert("A", 1, 1);
+        checkpointer.checkpoint(db.getStore());
+        Path full = dir.resolve(String.format("%016d.full", 1));
+        byte[] bytes = Files.readAllBytes(full);
+        Files.write(full, Arrays.copyOf(bytes, 40));
+        Exception thrown = null;
+        try {
+            checkpointer.load();
+        } catch (IOException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+    }
+}
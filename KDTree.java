@@ -1,3 +1,11 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
 /**
  * A 2D KD-Tree data structure for storing and querying {@link City} objects
  * using integer coordinates.
@@ -6,10 +14,13 @@
  * structures) and supports standard KD-tree operations including:
  * <ul>
  * <li>Insertion</li>
+ * <li>Balanced bulk loading (sequential or fork-join parallel)</li>
  * <li>Find by coordinates</li>
- * <li>Deletion</li>
+ * <li>Deletion, eager or lazy (tombstones with compaction)</li>
  * <li>Range search within a radius</li>
  * <li>In-order printing</li>
+ * <li>Shape health reports</li>
+ * <li>Exporting and restoring the exact tree shape (for snapshots)</li>
  * </ul>
  * <p>
  * Duplicate coordinates are not allowed. If two cities have the same name but
@@ -17,6 +28,17 @@
  * <p>
  * Splitting alternates between X (depth % 2 == 0) and Y (depth % 2 == 1)
  * coordinates.
+ * <p>
+ * By default a delete restructures the tree at once, which needs a search
+ * for the minimum of a whole subtree and then a delete of that node below.
+ * With {@link #setLazyDelete(double)} a delete instead marks the node dead
+ * (a tombstone), so it costs one {@link #find(int, int)}. Dead nodes still
+ * split the plane, so searches walk through them, but they are never
+ * reported. Once tombstones make up more than the given fraction of the
+ * nodes, the next delete compacts the tree: it is rebuilt balanced from the
+ * live cities, as {@link #bulkLoad(City[])} would. The rebuild is done in
+ * line by that delete rather than by a background thread, as the tree is
+ * not thread-safe; its cost is spread over the deletes that caused it.
  * 
  * @author Jonah Schepers
  * @author Rowan Muhoberac
@@ -34,6 +56,8 @@ public class KDTree {
         Node left;
         /** Right child (larger or equal values on the current axis). */
         Node right;
+        /** Whether the city was lazily deleted (the node is a tombstone). */
+        boolean dead;
 
         /**
          * Creates a new node with the given city.
@@ -46,9 +70,24 @@ public class KDTree {
         }
     }
 
+    /** Subtree size below which parallel bulk loads stop forking. */
+    private static final int PARALLEL_THRESHOLD = 8192;
+
     /** The root node of the KD-tree (may be {@code null} if empty). */
     private Node root;
 
+    /** Number of nodes, tombstones included. */
+    private int nodeCount;
+
+    /** Number of tombstones. */
+    private int deadCount;
+
+    /** Tombstones allowed, as a fraction of the nodes; 0 if deletes are eager. */
+    private double maxDeadFraction;
+
+    /** Number of times tombstones were compacted away. */
+    private long compactions;
+
     /**
      * Constructs an empty KD-tree.
      */
@@ -66,12 +105,38 @@ public class KDTree {
      *         identical coordinates already exists
      */
     public boolean insert(City city) {
+        return insert(city, new QueryStats());
+    }
+
+    /**
+     * Inserts a city into the KD-tree, counting the work done: the lookup
+     * for an existing city at the same coordinates, then the descent to the
+     * new leaf. A successful insert counts as one match.
+     * 
+     * @param city
+     *              the city to insert
+     * @param stats
+     *              receives the counts
+     * @return {@code true} if the city was successfully inserted
+     */
+    public boolean insert(City city, QueryStats stats) {
         if (city == null)
             return false;
-        else if (find(city.getX(), city.getY()) != null) {
+        Node existing = findRec(root, city.getX(), city.getY(), 0, stats);
+        if (existing != null && !existing.dead) {
+            stats.match();
             return false;
         }
-        root = insertRec(root, city, 0);
+        if (existing != null) {
+            // Revive the tombstone; it already splits at these coordinates
+            existing.city = city;
+            existing.dead = false;
+            deadCount--;
+        } else {
+            root = insertRec(root, city, 0, stats);
+            nodeCount++;
+        }
+        stats.match();
         return true;
     }
 
@@ -84,24 +149,400 @@ public class KDTree {
      *              city to insert
      * @param depth
      *              current tree depth (determines axis)
+     * @param stats
+     *              receives the counts
      * @return the subtree root after insertion
      */
-    private Node insertRec(Node node, City city, int depth) {
+    private Node insertRec(Node node, City city, int depth, QueryStats stats) {
         if (node == null)
             return new Node(city);
+        stats.visit(depth);
+        stats.compare();
 
         int axis = depth & 1;
         int cmp = compareByAxis(city, node.city, axis);
 
         // Equal values go RIGHT in KDTree
         if (cmp < 0) {
-            node.left = insertRec(node.left, city, depth + 1);
+            prune(node.right, stats);
+            node.left = insertRec(node.left, city, depth + 1, stats);
         } else {
-            node.right = insertRec(node.right, city, depth + 1);
+            prune(node.left, stats);
+            node.right = insertRec(node.right, city, depth + 1, stats);
+        }
+        return node;
+    }
+
+    /**
+     * Counts a subtree that an operation skips, if it is not empty.
+     * 
+     * @param skipped
+     *                the subtree
+     * @param stats
+     *                receives the count
+     */
+    private static void prune(Node skipped, QueryStats stats) {
+        if (skipped != null)
+            stats.prune();
+    }
+
+    /**
+     * Rebuilds the KD-tree as a balanced tree holding its current cities plus
+     * the given ones.
+     * <p>
+     * Each subtree root is the median of its cities on the axis for its depth,
+     * so the height is about log2(n). Cities equal to the median on that axis
+     * are placed in the right subtree, the same rule {@link #insert(City)}
+     * follows, so {@link #find(int, int)} and {@link #search(int, int, int)}
+     * work unchanged on the result. Null entries are skipped, and when two
+     * cities share coordinates the one already in the tree (or the earlier one
+     * in the array) is kept.
+     *
+     * @param cities
+     *               the cities to add
+     * @return the number of cities in the rebuilt tree
+     */
+    public int bulkLoad(City[] cities) {
+        City[] unique = uniqueCities(cities, false);
+        root = buildRec(unique, 0, unique.length, 0);
+        nodeCount = unique.length;
+        deadCount = 0;
+        return unique.length;
+    }
+
+    /**
+     * Same as {@link #bulkLoad(City[])}, but partitions and builds the left and
+     * right subtrees concurrently on the common fork-join pool. Subtrees with
+     * fewer than {@link #PARALLEL_THRESHOLD} cities are built on the worker
+     * that reaches them.
+     *
+     * @param cities
+     *               the cities to add
+     * @return the number of cities in the rebuilt tree
+     */
+    public int parallelBulkLoad(City[] cities) {
+        City[] unique = uniqueCities(cities, true);
+        root = ForkJoinPool.commonPool()
+                .invoke(new BuildTask(unique, 0, unique.length, 0));
+        nodeCount = unique.length;
+        deadCount = 0;
+        return unique.length;
+    }
+
+    /**
+     * Fork-join task building the balanced subtree for one slice of the city
+     * array.
+     */
+    private static class BuildTask extends RecursiveTask<Node> {
+        private static final long serialVersionUID = 1L;
+
+        private final City[] cities;
+        private final int lo;
+        private final int hi;
+        private final int depth;
+
+        /**
+         * Creates a task for {@code cities[lo, hi)}.
+         *
+         * @param cities
+         *               shared city array
+         * @param lo
+         *               first index (inclusive)
+         * @param hi
+         *               last index (exclusive)
+         * @param depth
+         *               depth of the subtree root
+         */
+        BuildTask(City[] cities, int lo, int hi, int depth) {
+            this.cities = cities;
+            this.lo = lo;
+            this.hi = hi;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Node compute() {
+            if (hi - lo <= PARALLEL_THRESHOLD)
+                return buildRec(cities, lo, hi, depth);
+
+            int mid = selectMedian(cities, lo, hi, depth & 1);
+            Node node = new Node(cities[mid]);
+            BuildTask left = new BuildTask(cities, lo, mid, depth + 1);
+            left.fork();
+            node.right = new BuildTask(cities, mid + 1, hi, depth + 1)
+                    .compute();
+            node.left = left.join();
+            return node;
         }
+    }
+
+    /**
+     * Builds a balanced subtree from {@code cities[lo, hi)}.
+     *
+     * @param cities
+     *               city array (reordered in place)
+     * @param lo
+     *               first index (inclusive)
+     * @param hi
+     *               last index (exclusive)
+     * @param depth
+     *               depth of the subtree root (determines axis)
+     * @return the subtree root, or {@code null} if the slice is empty
+     */
+    private static Node buildRec(City[] cities, int lo, int hi, int depth) {
+        if (lo >= hi)
+            return null;
+        int mid = selectMedian(cities, lo, hi, depth & 1);
+        Node node = new Node(cities[mid]);
+        node.left = buildRec(cities, lo, mid, depth + 1);
+        node.right = buildRec(cities, mid + 1, hi, depth + 1);
         return node;
     }
 
+    /**
+     * Partially orders {@code cities[lo, hi)} around its median on one axis
+     * (3-way quickselect). On return every city before the returned index is
+     * strictly smaller on the axis and every city after it is greater or
+     * equal, which is exactly the layout {@link #insertRec} produces.
+     *
+     * @param cities
+     *               city array (reordered in place)
+     * @param lo
+     *               first index (inclusive)
+     * @param hi
+     *               last index (exclusive)
+     * @param axis
+     *               axis to partition on (0 for x, 1 for y)
+     * @return index of the city to use as the subtree root
+     */
+    private static int selectMedian(City[] cities, int lo, int hi, int axis) {
+        int k = (lo + hi) >>> 1;
+        while (hi - lo > 1) {
+            int pivot = medianOfThree(axisValue(cities[lo], axis),
+                    axisValue(cities[k], axis),
+                    axisValue(cities[hi - 1], axis));
+
+            // [lo, lt) < pivot, [lt, i) == pivot, [gt, hi) > pivot
+            int lt = lo;
+            int i = lo;
+            int gt = hi;
+            while (i < gt) {
+                int value = axisValue(cities[i], axis);
+                if (value < pivot)
+                    swap(cities, lt++, i++);
+                else if (value > pivot)
+                    swap(cities, i, --gt);
+                else
+                    i++;
+            }
+
+            if (k < lt)
+                hi = lt;
+            else if (k >= gt)
+                lo = gt;
+            else
+                return lt; // first of the run equal to the median
+        }
+        return lo;
+    }
+
+    /**
+     * Returns a copy of {@code cities} without nulls or repeated coordinates,
+     * preceded by the cities already in the tree.
+     *
+     * @param cities
+     *                 cities to add
+     * @param parallel
+     *                 whether to sort on the common fork-join pool
+     * @return the cities to build from
+     */
+    private City[] uniqueCities(City[] cities, boolean parallel) {
+        ArrayList<City> all = new ArrayList<>();
+        collectRec(root, all);
+        for (City c : cities) {
+            if (c != null)
+                all.add(c);
+        }
+
+        // Stable sort, so the first city at each coordinate stays first
+        City[] sorted = all.toArray(new City[0]);
+        Comparator<City> byCoordinates = Comparator.comparingInt(City::getX)
+                .thenComparingInt(City::getY);
+        if (parallel)
+            Arrays.parallelSort(sorted, byCoordinates);
+        else
+            Arrays.sort(sorted, byCoordinates);
+
+        int count = 0;
+        for (City c : sorted) {
+            if (count == 0 || c.getX() != sorted[count - 1].getX()
+                    || c.getY() != sorted[count - 1].getY()) {
+                sorted[count++] = c;
+            }
+        }
+        return Arrays.copyOf(sorted, count);
+    }
+
+    /**
+     * Adds every live city in a subtree to a list (preorder).
+     *
+     * @param node
+     *             subtree root
+     * @param out
+     *             list to add to
+     */
+    private static void collectRec(Node node, ArrayList<City> out) {
+        if (node == null)
+            return;
+        if (!node.dead)
+            out.add(node.city);
+        collectRec(node.left, out);
+        collectRec(node.right, out);
+    }
+
+    /**
+     * Lists the cities in preorder along with the shape of the tree, so that
+     * {@link #loadPreorder(List, BitSet)} can rebuild exactly this tree. If
+     * the tree holds tombstones, the listing is of the tree that
+     * {@link #compact()} would build instead, without changing this one.
+     *
+     * @param out
+     *              receives the cities, in preorder
+     * @param shape
+     *              for the {@code i}th city in preorder, bit {@code 2i} is set
+     *              if it has a left child and bit {@code 2i + 1} if it has a
+     *              right child
+     */
+    void preorder(List<City> out, BitSet shape) {
+        if (deadCount == 0) {
+            preorderRec(root, out, shape);
+            return;
+        }
+        ArrayList<City> live = new ArrayList<>();
+        collectRec(root, live);
+        City[] cities = live.toArray(new City[0]);
+        preorderRec(buildRec(cities, 0, cities.length, 0), out, shape);
+    }
+
+    /**
+     * Recursive helper for {@link #preorder(List, BitSet)}.
+     *
+     * @param node
+     *              subtree root
+     * @param out
+     *              receives the cities
+     * @param shape
+     *              receives the child flags
+     */
+    private static void preorderRec(Node node, List<City> out, BitSet shape) {
+        if (node == null)
+            return;
+        int i = out.size();
+        out.add(node.city);
+        shape.set(2 * i, node.left != null);
+        shape.set(2 * i + 1, node.right != null);
+        preorderRec(node.left, out, shape);
+        preorderRec(node.right, out, shape);
+    }
+
+    /**
+     * Replaces the contents of this tree with the tree described by
+     * {@link #preorder(List, BitSet)}. No coordinates are compared, so the
+     * caller must pass a shape that came from a valid tree.
+     *
+     * @param cities
+     *               the cities, in preorder
+     * @param shape
+     *               the child flags
+     * @throws IllegalArgumentException
+     *                                  if the shape does not use exactly
+     *                                  {@code cities.size()} nodes
+     */
+    void loadPreorder(List<City> cities, BitSet shape) {
+        int[] next = new int[] { 0 };
+        Node loaded = cities.isEmpty()
+            ? null
+            : loadRec(cities, shape, next);
+        if (next[0] != cities.size()) {
+            throw new IllegalArgumentException("shape does not match "
+                + cities.size() + " cities");
+        }
+        root = loaded;
+        nodeCount = cities.size();
+        deadCount = 0;
+    }
+
+    /**
+     * Recursive helper for {@link #loadPreorder(List, BitSet)}.
+     *
+     * @param cities
+     *               the cities, in preorder
+     * @param shape
+     *               the child flags
+     * @param next
+     *               index of the next city to use
+     * @return the rebuilt subtree
+     */
+    private static Node loadRec(List<City> cities, BitSet shape, int[] next) {
+        int i = next[0]++;
+        if (i >= cities.size()) {
+            throw new IllegalArgumentException("shape does not match "
+                + cities.size() + " cities");
+        }
+        Node node = new Node(cities.get(i));
+        if (shape.get(2 * i)) {
+            node.left = loadRec(cities, shape, next);
+        }
+        if (shape.get(2 * i + 1)) {
+            node.right = loadRec(cities, shape, next);
+        }
+        return node;
+    }
+
+    /**
+     * Returns a city's coordinate on one axis.
+     *
+     * @param c
+     *             the city
+     * @param axis
+     *             0 for x, 1 for y
+     * @return the coordinate
+     */
+    private static int axisValue(City c, int axis) {
+        return (axis == 0) ? c.getX() : c.getY();
+    }
+
+    /**
+     * Returns the median of three values.
+     *
+     * @param a
+     *          first value
+     * @param b
+     *          second value
+     * @param c
+     *          third value
+     * @return the middle value
+     */
+    private static int medianOfThree(int a, int b, int c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    /**
+     * Swaps two array entries.
+     *
+     * @param cities
+     *               the array
+     * @param i
+     *               first index
+     * @param j
+     *               second index
+     */
+    private static void swap(City[] cities, int i, int j) {
+        City tmp = cities[i];
+        cities[i] = cities[j];
+        cities[j] = tmp;
+    }
+
     /**
      * Finds a city in the KD-tree by its coordinates.
      * 
@@ -112,11 +553,69 @@ public class KDTree {
      * @return the {@link City} if found, or {@code null} if not present
      */
     public City find(int x, int y) {
-        return findRec(root, x, y, 0);
+        return find(x, y, new QueryStats());
     }
 
     /**
-     * Recursive helper to locate a city by coordinates.
+     * Finds a city by its coordinates, counting the work done.
+     * 
+     * @param x
+     *              the x-coordinate
+     * @param y
+     *              the y-coordinate
+     * @param stats
+     *              receives the counts
+     * @return the {@link City} if found, or {@code null} if not present
+     */
+    public City find(int x, int y, QueryStats stats) {
+        Node node = findRec(root, x, y, 0, stats);
+        if (node == null || node.dead)
+            return null;
+        stats.match();
+        return node.city;
+    }
+
+    /**
+     * Finds the region of the plane covered by the subtree that holds (or
+     * would hold) a point: the node at those coordinates, or the empty spot
+     * where a city there would be inserted. Inserting or deleting a city at
+     * the point changes only that subtree, and a search visits any of it
+     * only if its centre is within the radius of the region on both axes.
+     * 
+     * @param x
+     *              the x-coordinate
+     * @param y
+     *              the y-coordinate
+     * @param cell
+     *              receives the region as {minX, maxX, minY, maxY},
+     *              inclusive
+     */
+    public void cell(int x, int y, int[] cell) {
+        cell[0] = Integer.MIN_VALUE;
+        cell[1] = Integer.MAX_VALUE;
+        cell[2] = Integer.MIN_VALUE;
+        cell[3] = Integer.MAX_VALUE;
+        Node node = root;
+        int depth = 0;
+        while (node != null
+                && (node.city.getX() != x || node.city.getY() != y)) {
+            int axis = depth & 1;
+            int split = (axis == 0) ? node.city.getX() : node.city.getY();
+            // Equal values are on the RIGHT
+            if (((axis == 0) ? x : y) < split) {
+                cell[2 * axis + 1] = split - 1;
+                node = node.left;
+            } else {
+                cell[2 * axis] = split;
+                node = node.right;
+            }
+            depth++;
+        }
+    }
+
+    /**
+     * Recursive helper to locate the node at some coordinates, live or
+     * dead.
      * 
      * @param node
      *              current node
@@ -126,21 +625,32 @@ public class KDTree {
      *              y-coordinate to search for
      * @param depth
      *              current tree depth (determines axis)
-     * @return the city if found, otherwise {@code null}
+     * @param stats
+     *              receives the counts
+     * @return the node if found, otherwise {@code null}
      */
-    private City findRec(Node node, int x, int y, int depth) {
+    private Node findRec(
+            Node node,
+            int x,
+            int y,
+            int depth,
+            QueryStats stats) {
         if (node == null)
             return null;
+        stats.visit(depth);
+        stats.compare();
         if (node.city.getX() == x && node.city.getY() == y)
-            return node.city;
+            return node;
 
         int axis = depth & 1;
         int searchValue = (axis == 0) ? x : y;
         int nodeValue = (axis == 0) ? node.city.getX() : node.city.getY();
 
         // Equal values are on the RIGHT
-        Node nextNode = (searchValue < nodeValue) ? node.left : node.right;
-        return findRec(nextNode, x, y, depth + 1);
+        boolean goLeft = searchValue < nodeValue;
+        prune(goLeft ? node.right : node.left, stats);
+        return findRec(goLeft ? node.left : node.right, x, y, depth + 1,
+                stats);
     }
 
     /**
@@ -154,12 +664,122 @@ public class KDTree {
      *         the city's name
      */
     public String delete(int x, int y) {
-        int[] visited = new int[] { 0 };
+        return delete(x, y, new QueryStats());
+    }
+
+    /**
+     * Deletes a city by its coordinates, counting the work done. With lazy
+     * deletes the city's node is only marked dead, so the visit count is
+     * that of finding it.
+     * 
+     * @param x
+     *              the x-coordinate of the city to delete
+     * @param y
+     *              the y-coordinate of the city to delete
+     * @param stats
+     *              receives the counts
+     * @return the same string as {@link #delete(int, int)}
+     */
+    public String delete(int x, int y, QueryStats stats) {
+        if (maxDeadFraction > 0)
+            return markDead(x, y, stats);
+        long before = stats.getVisited();
         StringBuilder name = new StringBuilder();
-        root = deleteRec(root, x, y, 0, visited, name);
+        root = deleteRec(root, x, y, 0, stats, name);
+        long visited = stats.getVisited() - before;
         if (name.length() == 0)
-            return visited[0] + " ";
-        return visited[0] + "\n" + name.toString();
+            return visited + " ";
+        nodeCount--;
+        stats.match();
+        return visited + "\n" + name.toString();
+    }
+
+    /**
+     * Lazily deletes a city: marks its node dead, then compacts the tree if
+     * there are too many tombstones.
+     * 
+     * @param x
+     *              the x-coordinate of the city to delete
+     * @param y
+     *              the y-coordinate of the city to delete
+     * @param stats
+     *              receives the counts
+     * @return the same string as {@link #delete(int, int)}
+     */
+    private String markDead(int x, int y, QueryStats stats) {
+        long before = stats.getVisited();
+        Node node = findRec(root, x, y, 0, stats);
+        long visited = stats.getVisited() - before;
+        if (node == null || node.dead)
+            return visited + " ";
+        node.dead = true;
+        deadCount++;
+        stats.match();
+        if (deadCount > maxDeadFraction * nodeCount)
+            compact();
+        return visited + "\n" + node.city.getName();
+    }
+
+    /**
+     * Turns lazy deletes on or off. Turning them off compacts the tree.
+     * 
+     * @param maxDeadFraction
+     *                        the most tombstones allowed, as a fraction of
+     *                        the nodes, before a delete compacts the tree
+     *                        (below 1); 0 for eager deletes
+     * @throws IllegalArgumentException
+     *                                  if the fraction is not in [0, 1)
+     */
+    public void setLazyDelete(double maxDeadFraction) {
+        if (!(maxDeadFraction >= 0 && maxDeadFraction < 1)) {
+            throw new IllegalArgumentException(
+                "maxDeadFraction must be in [0, 1)");
+        }
+        this.maxDeadFraction = maxDeadFraction;
+        if (maxDeadFraction == 0)
+            compact();
+    }
+
+    /**
+     * @return the most tombstones allowed, as a fraction of the nodes; 0 if
+     *         deletes are eager
+     */
+    public double getMaxDeadFraction() {
+        return maxDeadFraction;
+    }
+
+    /**
+     * @return the number of lazily deleted nodes still in the tree
+     */
+    public int getTombstoneCount() {
+        return deadCount;
+    }
+
+    /**
+     * @return the number of times the tree was rebuilt to drop tombstones
+     */
+    public long getCompactionCount() {
+        return compactions;
+    }
+
+    /**
+     * Drops every tombstone by rebuilding the tree balanced from its live
+     * cities. Does nothing if there are none.
+     * 
+     * @return the number of tombstones dropped
+     */
+    public int compact() {
+        int dropped = deadCount;
+        if (dropped == 0)
+            return 0;
+        ArrayList<City> live = new ArrayList<>();
+        collectRec(root, live);
+        City[] cities = live.toArray(new City[0]);
+        root = buildRec(cities, 0, cities.length, 0);
+        nodeCount = cities.length;
+        deadCount = 0;
+        compactions++;
+        return dropped;
     }
 
     /**
@@ -173,8 +793,8 @@ public class KDTree {
      *                y-coordinate
      * @param depth
      *                current depth
-     * @param visited
-     *                node visit counter
+     * @param stats
+     *                receives the counts
      * @param name
      *                buffer to store deleted city name
      * @return the updated subtree root
@@ -184,18 +804,19 @@ public class KDTree {
             int x,
             int y,
             int depth,
-            int[] visited,
+            QueryStats stats,
             StringBuilder name) {
         if (node == null)
             return null;
-        visited[0]++;
+        stats.visit(depth);
+        stats.compare();
 
         if (node.city.getX() == x) {
 
             if (node.city.getY() == y) {
 
                 name.append(node.city.getName());
-                return deleteNode(node, depth, visited);
+                return deleteNode(node, depth, stats);
             }
 
         }
@@ -205,9 +826,11 @@ public class KDTree {
         int nodeValue = (axis == 0) ? node.city.getX() : node.city.getY();
 
         if (searchValue < nodeValue) {
-            node.left = deleteRec(node.left, x, y, depth + 1, visited, name);
+            prune(node.right, stats);
+            node.left = deleteRec(node.left, x, y, depth + 1, stats, name);
         } else {
-            node.right = deleteRec(node.right, x, y, depth + 1, visited, name);
+            prune(node.left, stats);
+            node.right = deleteRec(node.right, x, y, depth + 1, stats, name);
         }
         return node;
     }
@@ -220,17 +843,17 @@ public class KDTree {
      *                node to delete
      * @param depth
      *                current depth
-     * @param visited
-     *                node visit counter
+     * @param stats
+     *                receives the counts
      * @return the new root of this subtree
      */
-    private Node deleteNode(Node node, int depth, int[] visited) {
+    private Node deleteNode(Node node, int depth, QueryStats stats) {
         if (node.right != null) {
-            return replaceWithSuccessor(node, node.right, depth, visited,
+            return replaceWithSuccessor(node, node.right, depth, stats,
                     false);
         }
         if (node.left != null) {
-            return replaceWithSuccessor(node, node.left, depth, visited, true);
+            return replaceWithSuccessor(node, node.left, depth, stats, true);
         }
         return null;
     }
@@ -244,8 +867,8 @@ public class KDTree {
      *                 subtree to search for replacement
      * @param depth
      *                 current depth
-     * @param visited
-     *                 node visit counter
+     * @param stats
+     *                 receives the counts
      * @param usedLeft
      *                 whether the left subtree was used for replacement
      * @return the updated node
@@ -254,19 +877,19 @@ public class KDTree {
             Node node,
             Node subtree,
             int depth,
-            int[] visited,
+            QueryStats stats,
             boolean usedLeft) {
         int axis = depth & 1;
-        Node successor = findMin(subtree, axis, depth + 1, visited);
+        Node successor = findMin(subtree, axis, depth + 1, stats);
         node.city = successor.city;
 
         if (usedLeft) {
             node.right = deleteRec(node.left, successor.city.getX(),
-                    successor.city.getY(), depth + 1, visited, new StringBuilder());
+                    successor.city.getY(), depth + 1, stats, new StringBuilder());
             node.left = null;
         } else {
             node.right = deleteRec(node.right, successor.city.getX(),
-                    successor.city.getY(), depth + 1, visited, new StringBuilder());
+                    successor.city.getY(), depth + 1, stats, new StringBuilder());
 
         }
         return node;
@@ -281,23 +904,27 @@ public class KDTree {
      *                axis to minimize (0 for x, 1 for y)
      * @param depth
      *                current depth
-     * @param visited
-     *                node visit counter
+     * @param stats
+     *                receives the counts
      * @return node with minimum coordinate on the given axis
      */
-    private Node findMin(Node node, int axis, int depth, int[] visited) {
+    private Node findMin(Node node, int axis, int depth, QueryStats stats) {
         if (node == null)
             return null;
-        visited[0]++;
-        Node leftMin = findMin(node.left, axis, depth + 1, visited);
+        stats.visit(depth);
+        Node leftMin = findMin(node.left, axis, depth + 1, stats);
         int currentAxis = depth & 1;
         if (currentAxis == axis) {
-
+            prune(node.right, stats);
             return (leftMin != null) ? leftMin : node;
         }
 
         // Node leftMin = findMin(node.left, axis, depth+1 , visited);
-        Node rightMin = findMin(node.right, axis, depth + 1, visited);
+        Node rightMin = findMin(node.right, axis, depth + 1, stats);
+        if (leftMin != null)
+            stats.compare();
+        if (rightMin != null)
+            stats.compare();
         return getMinOfThree(node, leftMin, rightMin, axis);
     }
 
@@ -355,12 +982,29 @@ public class KDTree {
      *         visited nodes
      */
     public String search(int x, int y, int radius) {
+        return search(x, y, radius, new QueryStats());
+    }
+
+    /**
+     * Performs a range search, counting the work done.
+     * 
+     * @param x
+     *               query x-coordinate
+     * @param y
+     *               query y-coordinate
+     * @param radius
+     *               search radius (must be non-negative)
+     * @param stats
+     *               receives the counts
+     * @return the same string as {@link #search(int, int, int)}
+     */
+    public String search(int x, int y, int radius, QueryStats stats) {
         if (radius < 0)
             return "";
+        long before = stats.getVisited();
         StringBuilder sb = new StringBuilder();
-        int[] visited = { 0 };
-        searchRec(root, x, y, radius, 0, sb, visited);
-        sb.append(visited[0]);
+        searchRec(root, x, y, radius, 0, sb, stats);
+        sb.append(stats.getVisited() - before);
         return sb.toString();
     }
 
@@ -379,8 +1023,8 @@ public class KDTree {
      *                current depth
      * @param sb
      *                result accumulator
-     * @param visited
-     *                node visit counter
+     * @param stats
+     *                receives the counts
      */
     private void searchRec(
             Node node,
@@ -389,15 +1033,17 @@ public class KDTree {
             int radius,
             int depth,
             StringBuilder sb,
-            int[] visited) {
+            QueryStats stats) {
         if (node == null)
             return;
-        visited[0]++;
+        stats.visit(depth);
+        stats.compare();
 
         int dx = node.city.getX() - qx;
         int dy = node.city.getY() - qy;
-        if (dx * dx + dy * dy <= radius * radius) {
+        if (!node.dead && dx * dx + dy * dy <= radius * radius) {
             sb.append(node.city.toString()).append("\n");
+            stats.match();
         }
 
         int axis = depth & 1;
@@ -405,14 +1051,110 @@ public class KDTree {
 
         // Visit both sides if they could contain results
         if (diff > -radius)
-            searchRec(node.left, qx, qy, radius, depth + 1, sb, visited);
+            searchRec(node.left, qx, qy, radius, depth + 1, sb, stats);
+        else
+            prune(node.left, stats);
         if (diff <= radius)
-            searchRec(node.right, qx, qy, radius, depth + 1, sb, visited);
+            searchRec(node.right, qx, qy, radius, depth + 1, sb, stats);
+        else
+            prune(node.right, stats);
+    }
+
+    /**
+     * Counts the cities in a rectangle, skipping the subtrees whose
+     * splitting line puts them outside it.
+     * 
+     * @param minX
+     *             smallest x-coordinate
+     * @param maxX
+     *             largest x-coordinate, inclusive
+     * @param minY
+     *             smallest y-coordinate
+     * @param maxY
+     *             largest y-coordinate, inclusive
+     * @return the number of cities
+     */
+    public int count(int minX, int maxX, int minY, int maxY) {
+        return countRec(root, 0, minX, maxX, minY, maxY);
+    }
+
+    /**
+     * Recursive helper for {@link #count(int, int, int, int)}.
+     * 
+     * @param node
+     *              current node
+     * @param depth
+     *              current depth
+     * @param minX
+     *              smallest x-coordinate
+     * @param maxX
+     *              largest x-coordinate
+     * @param minY
+     *              smallest y-coordinate
+     * @param maxY
+     *              largest y-coordinate
+     * @return the number of cities in the subtree and the rectangle
+     */
+    private static int countRec(
+            Node node,
+            int depth,
+            int minX,
+            int maxX,
+            int minY,
+            int maxY) {
+        if (node == null)
+            return 0;
+        int x = node.city.getX();
+        int y = node.city.getY();
+        int found = (!node.dead && x >= minX && x <= maxX && y >= minY
+                && y <= maxY) ? 1 : 0;
+        int split = ((depth & 1) == 0) ? x : y;
+        int min = ((depth & 1) == 0) ? minX : minY;
+        int max = ((depth & 1) == 0) ? maxX : maxY;
+        // Smaller values are on the left, equal and larger on the right
+        if (min < split)
+            found += countRec(node.left, depth + 1, minX, maxX, minY, maxY);
+        if (max >= split)
+            found += countRec(node.right, depth + 1, minX, maxX, minY, maxY);
+        return found;
+    }
+
+    /**
+     * Reports the shape of the tree in one pass over its nodes, tombstones
+     * included. The walk is iterative, so it works on the degenerate trees
+     * it is meant to diagnose.
+     * 
+     * @return the report
+     */
+    public TreeHealth health() {
+        TreeHealth health = new TreeHealth();
+        // Post-order; the stack is the path from the root to the node
+        ArrayList<Node> path = new ArrayList<>();
+        Node node = root;
+        Node done = null;
+        while (node != null || !path.isEmpty()) {
+            if (node != null) {
+                path.add(node);
+                node = node.left;
+                continue;
+            }
+            Node top = path.get(path.size() - 1);
+            if (top.right != null && top.right != done) {
+                node = top.right;
+            } else {
+                path.remove(path.size() - 1);
+                health.addNode(path.size(), top.left != null,
+                        top.right != null);
+                done = top;
+            }
+        }
+        return health;
     }
 
     /**
      * Returns a formatted in-order traversal of the KD-tree.
      * Each line shows the depth followed by the city's {@code toString()}.
+     * Tombstones are skipped, so the depths of the others are unchanged.
      * 
      * @return a string representation of the tree structure
      */
@@ -438,10 +1180,12 @@ public class KDTree {
 
         printRec(node.left, sb, depth + 1);
 
-        sb.append(depth);
-        if (depth > 0)
-            sb.append("  ".repeat(depth));
-        sb.append(node.city.toString()).append("\n");
+        if (!node.dead) {
+            sb.append(depth);
+            if (depth > 0)
+                sb.append("  ".repeat(depth));
+            sb.append(node.city.toString()).append("\n");
+        }
 
         printRec(node.right, sb, depth + 1);
     }
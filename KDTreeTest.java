@@ -1,3 +1,7 @@
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
 import student.TestCase;
 import org.junit.Test;
 import org.junit.Before;
@@ -799,4 +803,200 @@ public class KDTreeTest extends TestCase {
     assertTrue(finalTree.contains("Chicago"));
     assertTrue(finalTree.contains("Atlanta"));
   }
-}
\ No newline at end of file
+
+  /**
+   * Tests that a bulk load builds a balanced tree, keeps equal values on
+   * the right and skips nulls and repeated coordinates.
+   */
+  @Test
+  public void testBulkLoadBalancedAndDeduplicated() {
+    City[] cities = new City[] {
+        new City("A", 10, 10),
+        new City("B", 20, 5),
+        null,
+        new City("C", 30, 20),
+        new City("Dup", 20, 5),
+        new City("D", 40, 15),
+        new City("E", 50, 25),
+        new City("F", 30, 1)
+    };
+    assertEquals(6, tree.bulkLoad(cities));
+    assertEquals(
+        "2    B (20, 5)\n1  A (10, 10)\n0F (30, 1)\n"
+            + "2    D (40, 15)\n1  C (30, 20)\n2    E (50, 25)\n",
+        tree.printTree());
+    assertEquals("B", tree.find(20, 5).getName());
+    assertFalse(tree.insert(new City("Again", 40, 15)));
+  }
+
+  /**
+   * Tests that a bulk load keeps the cities already in the tree and that
+   * they win over new cities with the same coordinates.
+   */
+  @Test
+  public void testBulkLoadMergesExistingCities() {
+    tree.insert(new City("Old", 5, 5));
+    assertEquals(3, tree.bulkLoad(new City[] {
+        new City("New", 5, 5), new City("X", 1, 1), new City("Y", 9, 9) }));
+    assertEquals("1  X (1, 1)\n0Old (5, 5)\n1  Y (9, 9)\n",
+        tree.printTree());
+    assertEquals(0, new KDTree().bulkLoad(new City[0]));
+  }
+
+  /**
+   * Tests that the parallel bulk load produces exactly the same tree as the
+   * sequential one and the same query answers as one built by insertion.
+   */
+  @Test
+  public void testParallelBulkLoadMatchesSequential() {
+    Random random = new Random(42);
+    City[] cities = new City[50000];
+    for (int i = 0; i < cities.length; i++) {
+      cities[i] = new City("C" + i, random.nextInt(2000),
+          random.nextInt(2000));
+    }
+    KDTree sequential = new KDTree();
+    int loaded = sequential.bulkLoad(cities.clone());
+    assertEquals(loaded, tree.parallelBulkLoad(cities.clone()));
+    assertEquals(sequential.printTree(), tree.printTree());
+
+    KDTree inserted = new KDTree();
+    for (City c : cities) {
+      inserted.insert(c);
+    }
+    for (City c : cities) {
+      assertEquals(inserted.find(c.getX(), c.getY()),
+          tree.find(c.getX(), c.getY()));
+    }
+    String expected = inserted.search(1000, 1000, 150);
+    String actual = tree.search(1000, 1000, 150);
+    assertEquals(expected.split("\n").length, actual.split("\n").length);
+  }
+
+  /**
+   * Tests that a lazy delete only marks the node dead: it costs the find,
+   * and the city disappears from find, search, count and printTree, while
+   * an insert at the same coordinates revives the node.
+   */
+  @Test
+  public void testLazyDeleteMarksDead() {
+    tree.insert(testCities[0]);
+    tree.insert(testCities[1]);
+    tree.insert(testCities[2]);
+    tree.setLazyDelete(0.5);
+    assertEquals(0.5, tree.getMaxDeadFraction(), 0.0);
+
+    assertEquals("1\nCityA", tree.delete(50, 50));
+    assertEquals(1, tree.getTombstoneCount());
+    assertEquals(0, tree.getCompactionCount());
+    assertNull(tree.find(50, 50));
+    assertEquals("1  CityB (25, 75)\n1  CityC (75, 25)\n",
+        tree.printTree());
+    assertEquals("CityB (25, 75)\nCityC (75, 25)\n3",
+        tree.search(50, 50, 100));
+    assertEquals(2, tree.count(0, 100, 0, 100));
+    assertEquals(3, tree.health().getNodeCount());
+    assertEquals("1 ", tree.delete(50, 50));
+
+    List<City> cities = new ArrayList<>();
+    tree.preorder(cities, new BitSet());
+    assertEquals(2, cities.size());
+    assertFalse(cities.contains(testCities[0]));
+
+    City revived = new City("New", 50, 50);
+    assertTrue(tree.insert(revived));
+    assertEquals(0, tree.getTombstoneCount());
+    assertSame(revived, tree.find(50, 50));
+    assertFalse(tree.insert(new City("Other", 50, 50)));
+    assertEquals(
+        "1  CityB (25, 75)\n0New (50, 50)\n1  CityC (75, 25)\n",
+        tree.printTree());
+  }
+
+  /**
+   * Tests that too many tombstones make the next delete rebuild the tree,
+   * and that switching back to eager deletes drops the rest.
+   */
+  @Test
+  public void testLazyDeleteCompaction() {
+    for (City c : testCities) {
+      tree.insert(c);
+    }
+    tree.setLazyDelete(0.5);
+    tree.delete(25, 75);
+    tree.delete(10, 30);
+    assertEquals(2, tree.getTombstoneCount());
+    assertEquals(0, tree.getCompactionCount());
+
+    // 3 dead of 5 is over half
+    assertEquals("1\nCityA", tree.delete(50, 50));
+    assertEquals(0, tree.getTombstoneCount());
+    assertEquals(1, tree.getCompactionCount());
+    assertEquals(2, tree.health().getNodeCount());
+    assertEquals("1  CityC (75, 25)\n0CityE (90, 80)\n",
+        tree.printTree());
+
+    tree.delete(75, 25);
+    assertEquals(1, tree.getTombstoneCount());
+    tree.setLazyDelete(0);
+    assertEquals(0, tree.getTombstoneCount());
+    assertEquals(2, tree.getCompactionCount());
+    assertEquals("0CityE (90, 80)\n", tree.printTree());
+    assertEquals("1\nCityE", tree.delete(90, 80));
+    assertEquals(0, tree.compact());
+    assertEquals("", tree.printTree());
+
+    try {
+      tree.setLazyDelete(1);
+      fail("expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals(0, tree.getMaxDeadFraction(), 0.0);
+    }
+  }
+
+  /**
+   * Tests that a tree with lazy deletes holds the same cities as one with
+   * eager deletes through random inserts and deletes.
+   */
+  @Test
+  public void testLazyDeleteMatchesEager() {
+    Random random = new Random(7);
+    KDTree eager = new KDTree();
+    tree.setLazyDelete(0.25);
+    for (int i = 0; i < 5000; i++) {
+      int x = random.nextInt(40);
+      int y = random.nextInt(40);
+      if (random.nextInt(2) == 0) {
+        City c = new City("C" + i, x, y);
+        assertEquals(eager.insert(c), tree.insert(c));
+      } else {
+        // Visit counts differ; the deleted name must not
+        String expected = eager.delete(x, y);
+        String actual = tree.delete(x, y);
+        assertEquals(deletedName(expected), deletedName(actual));
+      }
+      if (i % 100 == 0) {
+        int r = random.nextInt(30);
+        assertEquals(eager.count(x - r, x + r, y - r, y + r),
+            tree.count(x - r, x + r, y - r, y + r));
+        assertEquals(eager.find(x, y), tree.find(x, y));
+      }
+    }
+    assertTrue(tree.getCompactionCount() > 0);
+    String expected = eager.search(50, 50, 40);
+    String actual = tree.search(50, 50, 40);
+    assertEquals(expected.split("\n").length, actual.split("\n").length);
+  }
+
+  /**
+   * Returns the name in a delete result.
+   *
+   * @param output
+   *          what delete returned
+   * @return the deleted city's name, or "" if none was deleted
+   */
+  private static String deletedName(String output) {
+    int newline = output.indexOf('\n');
+    return (newline < 0) ? "" : output.substring(newline + 1);
+  }
+}
@@ -0,0 +1,195 @@
+/**
+ * Records latencies in nanoseconds and reports percentiles, in fixed memory
+ * however many values are recorded. Values below 64 are counted exactly;
+ * larger values fall into buckets 1/32 of a power of two wide, so a
+ * reported percentile is at most about 3% above the true value. Recording
+ * is a few shifts and an array increment, cheap enough to time every
+ * command of a replay.
+ * <p>
+ * A histogram is not thread-safe; give each thread its own and
+ * {@link #add(LatencyHistogram)} them afterwards.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class LatencyHistogram {
+
+    /** Sub-buckets per power of two, as a power of two. */
+    private static final int SUB_BITS = 5;
+
+    /** Sub-buckets per power of two. */
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+
+    /** Enough buckets for every non-negative long. */
+    static final int BUCKETS = index(Long.MAX_VALUE) + 1;
+
+    /** Count of values in each bucket. */
+    private final long[] counts = new long[BUCKETS];
+
+    /** Number of values recorded. */
+    private long count;
+
+    /** Sum of the values recorded. */
+    private long sum;
+
+    /** Smallest and largest values recorded. */
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LatencyHistogram() {
+        // nothing recorded yet
+    }
+
+    /**
+     * Creates a histogram from bucket counts kept elsewhere, such as the
+     * concurrent counters of {@link GISMetrics}.
+     *
+     * @param counts
+     *               count of values in each bucket, {@link #BUCKETS} long
+     * @param sum
+     *               sum of the values
+     * @param min
+     *               smallest value
+     * @param max
+     *               largest value
+     */
+    LatencyHistogram(long[] counts, long sum, long min, long max) {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.counts[i] = counts[i];
+            count += counts[i];
+        }
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * Records one value.
+     *
+     * @param nanos
+     *              the value; negative values count as 0
+     */
+    public void record(long nanos) {
+        long v = Math.max(0, nanos);
+        counts[index(v)]++;
+        count++;
+        sum += v;
+        min = Math.min(min, v);
+        max = Math.max(max, v);
+    }
+
+    /**
+     * Adds every value recorded in another histogram to this one.
+     *
+     * @param other
+     *              the other histogram
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * @return the number of values recorded
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the mean value, 0 if there are none
+     */
+    public double getMean() {
+        return (count == 0) ? 0 : (double)sum / count;
+    }
+
+    /**
+     * @return the smallest value, 0 if there are none
+     */
+    public long getMin() {
+        return (count == 0) ? 0 : min;
+    }
+
+    /**
+     * @return the largest value, 0 if there are none
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns a percentile: a value that at least {@code percent}% of the
+     * recorded values are less than or equal to.
+     *
+     * @param percent
+     *                from 0 to 100
+     * @return the percentile, 0 if there are no values
+     */
+    public long getPercentile(double percent) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long)Math.ceil(percent / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.max(min, Math.min(max, highest(i)));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Returns the bucket a value falls into.
+     *
+     * @param v
+     *          a non-negative value
+     * @return the bucket
+     */
+    static int index(long v) {
+        if (v < 2 * SUB_COUNT) {
+            return (int)v;
+        }
+        // v >> shift has SUB_BITS + 1 bits, so buckets of the same power of
+        // two are consecutive
+        int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS;
+        return (int)(SUB_COUNT * shift + (v >>> shift));
+    }
+
+    /**
+     * Returns the largest value in a bucket.
+     *
+     * @param index
+     *              the bucket
+     * @return the value
+     */
+    private static long highest(int index) {
+        if (index < 2 * SUB_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_COUNT - 1;
+        long mantissa = index - (long)SUB_COUNT * shift;
+        long next = (mantissa + 1) << shift;
+        return (next <= 0) ? Long.MAX_VALUE : next - 1;
+    }
+
+    /**
+     * @return count, mean and the usual percentiles in nanoseconds
+     */
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.0f p50=%d p90=%d p99=%d p99.9=%d "
+            + "max=%d", count, getMean(), getPercentile(50), getPercentile(
+                90), getPercentile(99), getPercentile(99.9), getMax());
+    }
+}
@@ -0,0 +1,91 @@
+import java.util.Arrays;
+import java.util.Random;
+import student.TestCase;
+
+/**
+ * Tests for {@link LatencyHistogram}.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class LatencyHistogramTest extends TestCase {
+
+    private LatencyHistogram histogram;
+
+    /**
+     * Creates an empty histogram.
+     */
+    public void setUp() {
+        histogram = new LatencyHistogram();
+    }
+
+    /**
+     * Tests an empty histogram.
+     */
+    public void testEmpty() {
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(50));
+        assertEquals(0, histogram.getMin());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0.0, histogram.getMean(), 0.0);
+    }
+
+    /**
+     * Tests that small values are exact.
+     */
+    public void testSmallValuesExact() {
+        for (int v = 1; v <= 60; v++) {
+            histogram.record(v);
+        }
+        histogram.record(-5);
+        assertEquals(61, histogram.getCount());
+        assertEquals(0, histogram.getMin());
+        assertEquals(60, histogram.getMax());
+        assertEquals(30, histogram.getPercentile(50));
+        assertEquals(60, histogram.getPercentile(100));
+        assertEquals(0, histogram.getPercentile(0));
+        assertEquals(30.0, histogram.getMean(), 1e-9);
+    }
+
+    /**
+     * Tests that percentiles of a wide spread of values are within the
+     * promised 3%, and never below the true value.
+     */
+    public void testPercentilesWithinThreePercent() {
+        Random random = new Random(3);
+        long[] values = new long[100000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long)Math.exp(random.nextDouble() * 25);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        for (double p : new double[] { 1, 10, 50, 90, 99, 99.9, 100 }) {
+            long exact = values[(int)Math.ceil(p / 100 * values.length) - 1];
+            long reported = histogram.getPercentile(p);
+            assertTrue(reported >= exact);
+            assertTrue(reported <= exact + exact / 32 + 1);
+        }
+        assertEquals(values[values.length - 1], histogram.getMax());
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.getPercentile(100));
+    }
+
+    /**
+     * Tests adding one histogram to another.
+     */
+    public void testAdd() {
+        LatencyHistogram other = new LatencyHistogram();
+        histogram.record(10);
+        other.record(1000);
+        other.record(2000);
+        histogram.add(other);
+        assertEquals(3, histogram.getCount());
+        assertEquals(10, histogram.getMin());
+        assertEquals(2000, histogram.getMax());
+        assertEquals(1000, histogram.getPercentile(50), 1000 / 32);
+        assertTrue(histogram.toString().startsWith("n=3 mean=1003 p50="));
+        histogram.add(new LatencyHistogram());
+        assertEquals(10, histogram.getMin());
+    }
+}
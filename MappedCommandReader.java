@@ -0,0 +1,107 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A {@link CommandReader} that parses commands straight out of a
+ * memory-mapped command file, so the bytes are never copied into a separate
+ * read buffer.
+ * <p>
+ * The file is mapped one window at a time (64 MB by default). When the
+ * parser runs off the end of a window, the next window is mapped starting at
+ * the first unparsed byte, so a line is never split between windows. A line
+ * longer than a whole window gets a bigger window. Names are decoded only
+ * for the commands that carry one.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class MappedCommandReader extends CommandReader {
+
+    /** Default number of bytes mapped at once. */
+    public static final int DEFAULT_WINDOW_SIZE = 1 << 26;
+
+    /** The command file. */
+    private final FileChannel channel;
+
+    /** Size of the command file in bytes. */
+    private final long fileSize;
+
+    /** Normal number of bytes to map at once. */
+    private final int windowSize;
+
+    /** File offset of the first byte of the current window. */
+    private long windowStart;
+
+    /**
+     * Creates a reader with the default window size.
+     *
+     * @param channel
+     *                the command file, open for reading
+     * @throws IOException
+     *                     if the file cannot be mapped
+     */
+    public MappedCommandReader(FileChannel channel) throws IOException {
+        this(channel, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Creates a reader.
+     *
+     * @param channel
+     *                   the command file, open for reading
+     * @param windowSize
+     *                   number of bytes to map at once (raised to 16 if smaller)
+     * @throws IOException
+     *                     if the file cannot be mapped
+     */
+    public MappedCommandReader(FileChannel channel, int windowSize)
+        throws IOException {
+        super(map(channel, 0, Math.max(windowSize, 16)));
+        this.channel = channel;
+        this.fileSize = channel.size();
+        this.windowSize = Math.max(windowSize, 16);
+        this.windowStart = 0;
+    }
+
+    /**
+     * Maps part of a file read-only.
+     *
+     * @param channel
+     *                 the file
+     * @param start
+     *                 first byte to map
+     * @param maxBytes
+     *                 most bytes to map
+     * @return the mapped bytes
+     * @throws IOException
+     *                     if mapping fails
+     */
+    private static ByteBuffer map(FileChannel channel, long start,
+        long maxBytes) throws IOException {
+        long length = Math.min(maxBytes, channel.size() - start);
+        return channel.map(FileChannel.MapMode.READ_ONLY, start,
+            Math.min(length, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Maps the next window, starting at the first unparsed byte.
+     *
+     * @return {@code false} if the current window already reaches the end
+     *         of the file
+     * @throws IOException
+     *                     if mapping fails
+     */
+    @Override
+    protected boolean fill() throws IOException {
+        if (windowStart + buffer.limit() >= fileSize) {
+            return false;
+        }
+        long start = windowStart + buffer.position();
+        long unparsed = buffer.remaining();
+        buffer = map(channel, start, Math.max(windowSize, 2 * unparsed));
+        windowStart = start;
+        return true;
+    }
+}
@@ -0,0 +1,99 @@
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import student.TestCase;
+
+/**
+ * Tests for {@link MappedCommandReader}.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class MappedCommandReaderTest extends TestCase {
+
+    private Path file;
+
+    /**
+     * Creates an empty temporary command file.
+     *
+     * @throws IOException
+     *                     if the file cannot be created
+     */
+    public void setUp() throws IOException {
+        file = Files.createTempFile("mapped", ".txt");
+    }
+
+    /**
+     * Deletes the temporary command file.
+     *
+     * @throws IOException
+     *                     if the file cannot be deleted
+     */
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Tests that small windows (so lines cross window ends, and some lines
+     * are longer than a window) parse exactly like the buffered reader.
+     *
+     * @throws IOException
+     *                     if reading fails
+     */
+    public void testMatchesBufferedReader() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            String name = (i % 11 == 0) ? "Long City " + "Y".repeat(60)
+                : "C" + i;
+            text.append("insert ").append(name).append(' ').append(i)
+                .append(' ').append(i * 3).append("\r\n");
+            text.append("search ").append(i).append(" 7 ").append(i % 5)
+                .append('\n');
+            text.append("info ").append(name).append('\n');
+        }
+        text.append("print"); // no final newline
+        Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+
+        for (int window : new int[] { 1, 16, 37, 4096 }) {
+            try (FileChannel a = FileChannel.open(file,
+                StandardOpenOption.READ);
+                FileChannel b = FileChannel.open(file,
+                    StandardOpenOption.READ)) {
+                CommandReader expected = new CommandReader(a, 64);
+                CommandReader actual = new MappedCommandReader(b, window);
+                Command e = new Command();
+                Command c = new Command();
+                int count = 0;
+                while (expected.next(e)) {
+                    assertTrue(actual.next(c));
+                    assertEquals(e.getType(), c.getType());
+                    assertEquals(e.getName(), c.getName());
+                    assertEquals(e.getX(), c.getX());
+                    assertEquals(e.getY(), c.getY());
+                    assertEquals(e.getRadius(), c.getRadius());
+                    assertEquals(e.getLine(), c.getLine());
+                    count++;
+                }
+                assertFalse(actual.next(c));
+                assertEquals(901, count);
+            }
+        }
+    }
+
+    /**
+     * Tests an empty file.
+     *
+     * @throws IOException
+     *                     if reading fails
+     */
+    public void testEmptyFile() throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+            StandardOpenOption.READ)) {
+            assertFalse(new MappedCommandReader(channel).next(new Command()));
+        }
+    }
+}
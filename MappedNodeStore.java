@@ -0,0 +1,118 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A {@link NodeStore} kept in a memory-mapped file. Reads and writes go
+ * straight to the OS page cache, so a store bigger than the heap works, and
+ * reopening a store only maps the file: nothing is parsed or rebuilt, and
+ * pages are read from disk as queries touch them.
+ * <p>
+ * When the store runs out of space, the file is mapped again at twice the
+ * size. Changes reach the disk when the OS writes the pages back, or at
+ * {@link #force()} and {@link #close()}. The file may be up to 2 GB.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class MappedNodeStore extends NodeStore {
+
+    /** Default size of a new file. */
+    public static final int DEFAULT_CAPACITY = 1 << 20;
+
+    /** The file. */
+    private final FileChannel channel;
+
+    /**
+     * Opens a store, creating the file if it does not exist.
+     *
+     * @param path
+     *             the file
+     * @throws IOException
+     *                     if the file cannot be mapped or is not a store
+     */
+    public MappedNodeStore(Path path) throws IOException {
+        this(path, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Opens a store, creating the file if it does not exist.
+     *
+     * @param path
+     *                        the file
+     * @param initialCapacity
+     *                        size of a new file in bytes
+     * @throws IOException
+     *                     if the file cannot be mapped or is not a store
+     */
+    public MappedNodeStore(Path path, int initialCapacity) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(path + " is too big to map");
+            }
+            boolean fresh = size == 0;
+            int capacity = fresh
+                ? Math.max(initialCapacity, HEADER_SIZE)
+                : (int)size;
+            init(channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity),
+                fresh);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Maps the file again, at least twice as big.
+     *
+     * @param current
+     *                    the mapping in use
+     * @param minCapacity
+     *                    the capacity needed
+     * @return the new mapping
+     * @throws IOException
+     *                     if the file cannot be mapped
+     */
+    @Override
+    protected ByteBuffer grow(ByteBuffer current, int minCapacity)
+        throws IOException {
+        long capacity = Math.max(2L * current.capacity(), minCapacity);
+        return channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(
+            capacity, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Writes every changed page to the file.
+     *
+     * @throws IOException
+     *                     if writing fails
+     */
+    @Override
+    public void force() throws IOException {
+        ((MappedByteBuffer)buffer).force();
+    }
+
+    /**
+     * Writes every changed page and closes the file.
+     *
+     * @throws IOException
+     *                     if writing fails
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel.isOpen()) {
+            try {
+                force();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded least-recently-used cache of {@link GISDB#info(String)}
+ * results, so a popular name is a hash lookup instead of a walk of the
+ * whole BST and a reformatting of every match.
+ * <p>
+ * The result lists the matches in BST preorder, so it changes when a city
+ * with the name is inserted or deleted, and also when a deletion moves a
+ * city with the name up the tree to replace the deleted node. The database
+ * evicts the names affected by each write (the BST reports the values it
+ * moves), so cached results stay identical to what the tree would return.
+ * <p>
+ * All methods are synchronized, so concurrent readers (such as under
+ * {@link ConcurrentGISDB}'s shared lock, after
+ * {@link ConcurrentGISDB#setNameCache(int)}) can use the cache; an
+ * uncontended hit costs a lock and one hash lookup.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class NameCache {
+
+    private final int capacity;
+    private final LinkedHashMap<String, String> results;
+    private long hits;
+    private long misses;
+    private long invalidations;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param capacity
+     *                 the most names to keep, at least 1
+     */
+    public NameCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        results = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> e) {
+                return size() > NameCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Looks up a name.
+     *
+     * @param name
+     *             the name
+     * @return the cached result, or null
+     */
+    public synchronized String get(String name) {
+        String result = results.get(name);
+        if (result == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return result;
+    }
+
+    /**
+     * Caches the result for a name, evicting the least recently used name
+     * if the cache is full.
+     *
+     * @param name
+     *               the name
+     * @param result
+     *               what {@link GISDB#info(String)} returned
+     */
+    public synchronized void put(String name, String result) {
+        results.put(name, result);
+    }
+
+    /**
+     * Evicts a name whose cities changed.
+     *
+     * @param name
+     *             the name
+     */
+    public synchronized void invalidate(String name) {
+        if (results.remove(name) != null) {
+            invalidations++;
+        }
+    }
+
+    /**
+     * Evicts everything, for changes that rebuild the tree.
+     */
+    public synchronized void clear() {
+        invalidations += results.size();
+        results.clear();
+    }
+
+    /**
+     * @return the number of names cached
+     */
+    public synchronized int size() {
+        return results.size();
+    }
+
+    /**
+     * @return the most names kept
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return lookups that found a result
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return lookups that found nothing
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return results evicted because the tree changed
+     */
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+}
@@ -0,0 +1,124 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import student.TestCase;
+
+/**
+ * Tests for {@link NameCache} and the name caching of {@link GISDB}.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class NameCacheTest extends TestCase {
+
+    /**
+     * Tests hits, misses, eviction and invalidation.
+     */
+    public void testCache() {
+        NameCache cache = new NameCache(2);
+        assertNull(cache.get("A"));
+        cache.put("A", "A (1, 1)");
+        cache.put("B", "");
+        assertEquals("", cache.get("B"));
+        cache.put("C", "C (3, 3)"); // evicts A
+        assertNull(cache.get("A"));
+        assertEquals(2, cache.size());
+        cache.invalidate("B");
+        cache.invalidate("Z");
+        assertEquals(1, cache.size());
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getInvalidations());
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.getCapacity());
+
+        Exception thrown = null;
+        try {
+            new NameCache(-1);
+        } catch (IllegalArgumentException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+    }
+
+    /**
+     * Tests that a deletion moving a city with a cached name up the tree
+     * evicts that name too, since its preorder changes.
+     */
+    public void testMovedCityEvicted() {
+        GISDB db = new GISDB();
+        db.setNameCache(8);
+        db.insert("M", 1, 1);
+        db.insert("B", 2, 2);
+        db.insert("C", 3, 3);
+        db.insert("B", 4, 4);
+        db.insert("B", 5, 5);
+        db.insert("Z", 6, 6);
+        String before = db.info("B");
+        assertEquals(before, db.info("B"));
+        assertEquals(1, db.getNameCache().getHits());
+        db.info("M");
+        db.info("C");
+        assertEquals(3, db.getNameCache().size());
+        // Deleting M moves C, the largest name below it, up to the root
+        db.delete(1, 1);
+        assertNull(db.getNameCache().get("C"));
+        assertEquals(1, db.getNameCache().size());
+        assertEquals(before, db.info("B"));
+        db.delete("C");
+        GISDB plain = new GISDB();
+        plain.insert("M", 1, 1);
+        plain.insert("B", 2, 2);
+        plain.insert("C", 3, 3);
+        plain.insert("B", 4, 4);
+        plain.insert("B", 5, 5);
+        plain.insert("Z", 6, 6);
+        plain.delete(1, 1);
+        plain.delete("C");
+        assertEquals(plain.info("B"), db.info("B"));
+    }
+
+    /**
+     * Tests that a cached database answers every lookup exactly like an
+     * uncached one through random writes.
+     */
+    public void testMatchesUncached() {
+        GISDB cached = new GISDB();
+        GISDB plain = new GISDB();
+        cached.setNameCache(5);
+        Random random = new Random(4);
+        for (int i = 0; i < 5000; i++) {
+            String name = "N" + random.nextInt(12);
+            int x = random.nextInt(60);
+            int y = random.nextInt(60);
+            int r = random.nextInt(20);
+            if (r < 6) {
+                assertEquals(plain.insert(name, x, y), cached.insert(name, x,
+                    y));
+            } else if (r < 9) {
+                assertEquals(plain.delete(x, y), cached.delete(x, y));
+            } else if (r == 9) {
+                assertEquals(plain.delete(name), cached.delete(name));
+            } else if (r == 10) {
+                List<GISDB.Op> ops = new ArrayList<>();
+                ops.add(GISDB.Op.insert(name, x, y));
+                ops.add(GISDB.Op.delete(y, x));
+                plain.applyBatch(ops);
+                cached.applyBatch(ops);
+            } else {
+                assertEquals(plain.info(name), cached.info(name));
+            }
+        }
+        NameCache cache = cached.getNameCache();
+        assertTrue(cache.getHits() > 0);
+        assertTrue(cache.getInvalidations() > 0);
+        assertEquals(plain.print(), cached.print());
+        cached.clear();
+        assertEquals(0, cache.size());
+        assertEquals("", cached.info("N1"));
+        cached.setNameCache(0);
+        assertNull(cached.getNameCache());
+    }
+}
@@ -0,0 +1,389 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+
+/**
+ * Byte storage for trees whose nodes are packed into a {@link ByteBuffer}
+ * instead of being Java objects, such as {@link PackedKDTree}. Nodes and
+ * strings are records at int offsets into the buffer, and a tree links its
+ * nodes by offset. Offset 0 is the store header, so it doubles as the
+ * {@code null} offset.
+ * <p>
+ * Storage only grows: {@link #allocate(int)} hands out space after the last
+ * record, and the subclass supplies a bigger buffer when it runs out.
+ * Subclasses decide where the bytes live, for example in a memory-mapped
+ * file ({@link MappedNodeStore}).
+ * <p>
+ * The header holds a magic number, a version, the end of the used space,
+ * and {@link #OWNER_FIELDS} int fields that the trees using the store keep
+ * their roots and sizes in, so a store can be reopened without any other
+ * metadata.
+ * <p>
+ * Every write marks the {@link #PAGE_SIZE}-byte pages it touches as dirty,
+ * so an {@link IncrementalCheckpointer} can save just the pages changed
+ * since its last checkpoint.
+ * <p>
+ * A store is not thread-safe.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public abstract class NodeStore implements Closeable {
+
+    /** First four bytes of every store: "GISN". */
+    static final int MAGIC = 0x4749534E;
+
+    /** Current format version. */
+    static final int VERSION = 1;
+
+    /** Size of the header in bytes; the first record starts here. */
+    public static final int HEADER_SIZE = 64;
+
+    /** Number of int fields in the header reserved for owners. */
+    public static final int OWNER_FIELDS = 12;
+
+    /** Header offset of the end of the used space. */
+    private static final int END = 8;
+
+    /** Header offset of the first owner field. */
+    private static final int FIELDS = 16;
+
+    /** Size of the pages dirty bits are kept for. */
+    public static final int PAGE_SIZE = 4096;
+
+    /**
+     * The bytes. Records are in {@code [HEADER_SIZE, end)}; the position and
+     * limit are not used.
+     */
+    protected ByteBuffer buffer;
+
+    /** Pages written since the last {@link #takeDirtyPages()}. */
+    private final BitSet dirtyPages = new BitSet();
+
+    /**
+     * Starts using a buffer, writing a fresh header or checking an existing
+     * one.
+     *
+     * @param initial
+     *                the buffer, at least {@link #HEADER_SIZE} bytes
+     * @param fresh
+     *                {@code true} to write a new, empty header
+     * @throws IOException
+     *                     if an existing header is not a valid store
+     */
+    protected void init(ByteBuffer initial, boolean fresh) throws IOException {
+        if (fresh) {
+            format(initial);
+            return;
+        }
+        buffer = initial;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("not a GIS node store");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("unsupported node store version " + buffer
+                .getInt(4));
+        }
+        int end = buffer.getInt(END);
+        if (end < HEADER_SIZE || end > buffer.capacity()) {
+            throw new IOException("corrupt node store: end " + end);
+        }
+    }
+
+    /**
+     * Starts using a buffer as a new, empty store.
+     *
+     * @param initial
+     *                the buffer, at least {@link #HEADER_SIZE} bytes
+     */
+    protected void format(ByteBuffer initial) {
+        buffer = initial;
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(12, 0); // reserved
+        reset();
+        markDirty(0, HEADER_SIZE);
+    }
+
+    /**
+     * Returns a buffer with the same contents and at least the given
+     * capacity.
+     *
+     * @param current
+     *                    the buffer in use
+     * @param minCapacity
+     *                    the capacity needed
+     * @return the new buffer
+     * @throws IOException
+     *                     if more space cannot be had
+     */
+    protected abstract ByteBuffer grow(ByteBuffer current, int minCapacity)
+        throws IOException;
+
+    /**
+     * Reserves space for a record after the last one.
+     *
+     * @param bytes
+     *              the record size
+     * @return the record's offset
+     * @throws UncheckedIOException
+     *                              if the store cannot grow
+     * @throws IllegalStateException
+     *                              if the store would pass 2 GB
+     */
+    public int allocate(int bytes) {
+        int offset = buffer.getInt(END);
+        long newEnd = (long)offset + bytes;
+        if (newEnd > Integer.MAX_VALUE) {
+            throw new IllegalStateException("node store is full");
+        }
+        if (newEnd > buffer.capacity()) {
+            try {
+                buffer = grow(buffer, (int)newEnd);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        putInt(END, (int)newEnd);
+        return offset;
+    }
+
+    /**
+     * Returns the end of the used space.
+     *
+     * @return the offset just past the last record
+     */
+    public int end() {
+        return buffer.getInt(END);
+    }
+
+    /**
+     * Drops every record and zeroes the owner fields.
+     */
+    public void reset() {
+        for (int i = 0; i < OWNER_FIELDS; i++) {
+            setField(i, 0);
+        }
+        putInt(END, HEADER_SIZE);
+    }
+
+    /**
+     * Reads an owner field from the header.
+     *
+     * @param field
+     *              the field number, 0 to {@link #OWNER_FIELDS} - 1
+     * @return its value
+     */
+    public int getField(int field) {
+        return buffer.getInt(FIELDS + 4 * field);
+    }
+
+    /**
+     * Writes an owner field in the header.
+     *
+     * @param field
+     *              the field number, 0 to {@link #OWNER_FIELDS} - 1
+     * @param value
+     *              its new value
+     */
+    public void setField(int field, int value) {
+        putInt(FIELDS + 4 * field, value);
+    }
+
+    /**
+     * Reads an int.
+     *
+     * @param offset
+     *               where to read
+     * @return the value
+     */
+    public int getInt(int offset) {
+        return buffer.getInt(offset);
+    }
+
+    /**
+     * Writes an int.
+     *
+     * @param offset
+     *               where to write
+     * @param value
+     *               the value
+     */
+    public void putInt(int offset, int value) {
+        buffer.putInt(offset, value);
+        markDirty(offset, 4);
+    }
+
+    /**
+     * Stores a string as a new record: an int byte length, then UTF-8.
+     *
+     * @param s
+     *          the string
+     * @return the record's offset
+     */
+    public int putString(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        int offset = allocate(4 + bytes.length);
+        buffer.putInt(offset, bytes.length);
+        buffer.put(offset + 4, bytes);
+        markDirty(offset, 4 + bytes.length);
+        return offset;
+    }
+
+    /**
+     * Reads a string stored by {@link #putString(String)}.
+     *
+     * @param offset
+     *               the record's offset
+     * @return the string
+     */
+    public String getString(int offset) {
+        byte[] bytes = new byte[buffer.getInt(offset)];
+        buffer.get(offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compares a stored string with another string, in the order of
+     * {@link String#compareTo(String)}. ASCII text is compared byte by byte
+     * without decoding.
+     *
+     * @param offset
+     *               the stored string's offset
+     * @param s
+     *               the other string
+     * @return negative, zero or positive as the stored string is less than,
+     *         equal to or greater than {@code s}
+     */
+    public int compareString(int offset, String s) {
+        int length = buffer.getInt(offset);
+        int n = Math.min(length, s.length());
+        for (int i = 0; i < n; i++) {
+            byte b = buffer.get(offset + 4 + i);
+            char c = s.charAt(i);
+            if (b < 0 || c >= 0x80) {
+                return getString(offset).compareTo(s); // not ASCII
+            }
+            if (b != c) {
+                return b - c;
+            }
+        }
+        if (length > n) {
+            // s is a prefix; any longer stored text sorts after it
+            return 1;
+        }
+        return n - s.length();
+    }
+
+    /**
+     * Marks the pages holding some bytes as dirty.
+     *
+     * @param offset
+     *               first byte written
+     * @param length
+     *               number of bytes written
+     */
+    private void markDirty(int offset, int length) {
+        int first = offset / PAGE_SIZE;
+        int last = (offset + length - 1) / PAGE_SIZE;
+        if (first == last) {
+            dirtyPages.set(first);
+        } else {
+            dirtyPages.set(first, last + 1);
+        }
+    }
+
+    /**
+     * Returns the pages written since the last call, up to the end of the
+     * used space, and starts tracking afresh.
+     *
+     * @return the dirty pages
+     */
+    BitSet takeDirtyPages() {
+        BitSet taken = (BitSet)dirtyPages.clone();
+        dirtyPages.clear();
+        int pages = (end() + PAGE_SIZE - 1) / PAGE_SIZE;
+        if (taken.length() > pages) {
+            taken.clear(pages, taken.length());
+        }
+        return taken;
+    }
+
+    /**
+     * Copies one page of the used space into a buffer.
+     *
+     * @param page
+     *             the page number
+     * @param out
+     *             receives the page's bytes up to the end of the used space
+     * @return the number of bytes copied
+     */
+    int copyPage(int page, ByteBuffer out) {
+        int from = page * PAGE_SIZE;
+        int length = Math.min(PAGE_SIZE, end() - from);
+        ByteBuffer src = buffer.duplicate();
+        src.clear().position(from).limit(from + length);
+        out.put(src);
+        return length;
+    }
+
+    /**
+     * Overwrites bytes, growing the store if needed, without marking them
+     * dirty. Used to restore a store from checkpoints; the header must be
+     * checked with {@link #checkRestored()} once every page is in.
+     *
+     * @param offset
+     *               where the bytes go
+     * @param bytes
+     *               the bytes, from position to limit
+     * @throws IOException
+     *                     if the store cannot grow
+     */
+    void restore(int offset, ByteBuffer bytes) throws IOException {
+        int needed = offset + bytes.remaining();
+        if (needed > buffer.capacity()) {
+            buffer = grow(buffer, needed);
+        }
+        ByteBuffer dst = buffer.duplicate();
+        dst.clear().position(offset);
+        dst.put(bytes);
+    }
+
+    /**
+     * Checks the header after {@link #restore(int, ByteBuffer)} and clears
+     * the dirty pages, so the store counts as matching its checkpoints.
+     *
+     * @throws IOException
+     *                     if the restored header is not valid
+     */
+    void checkRestored() throws IOException {
+        init(buffer, false);
+        dirtyPages.clear();
+    }
+
+    /**
+     * Makes sure every change has reached the underlying storage. Does
+     * nothing unless the storage is persistent.
+     *
+     * @throws IOException
+     *                     if writing fails
+     */
+    public void force() throws IOException {
+        // nothing to flush by default
+    }
+
+    /**
+     * Releases the storage. Does nothing by default.
+     *
+     * @throws IOException
+     *                     if releasing fails
+     */
+    @Override
+    public void close() throws IOException {
+        // nothing to release by default
+    }
+}
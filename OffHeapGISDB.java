@@ -0,0 +1,231 @@
+// -------------------------------------------------------------------------
+/**
+ * A {@link GIS} implementation that keeps no per-city objects on the Java
+ * heap. The k-d tree ({@link PackedKDTree}) and the name BST
+ * ({@link PackedBST}) pack their nodes into one {@link NodeStore}, by
+ * default a {@link DirectNodeStore} in off-heap memory. Each name is stored
+ * once, and both trees refer to it by offset. The heap only holds a few
+ * objects per database, so garbage collection pauses do not grow with the
+ * number of cities. Strings and {@link City} objects are only created for
+ * query results.
+ * <p>
+ * Every method returns exactly what {@link GISDB} returns for the same
+ * calls. Space freed by deletes is not reused until {@link #clear()}.
+ * <p>
+ * Like {@link GISDB}, this class is not thread-safe. To checkpoint it with
+ * an {@link IncrementalCheckpointer} while other threads use it, guard it
+ * with a {@link java.util.concurrent.locks.ReentrantReadWriteLock} and pass
+ * the read lock to
+ * {@link IncrementalCheckpointer#checkpoint(NodeStore, java.util.concurrent.locks.Lock)},
+ * which holds it only while the changed pages are copied.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class OffHeapGISDB implements GIS {
+
+    /** Owner field of the store used by the k-d tree (and the next one). */
+    private static final int CITY_FIELD = 0;
+
+    /** Owner field of the store used by the BST (and the next one). */
+    private static final int NAME_FIELD = 2;
+
+    /** Where both trees live. */
+    private final NodeStore store;
+
+    /** Cities keyed on coordinates. */
+    private final PackedKDTree cityKDTree;
+
+    /** Cities keyed on name. */
+    private final PackedBST cityNames;
+
+    // ----------------------------------------------------------
+    /**
+     * Create a new, empty database in off-heap memory.
+     */
+    OffHeapGISDB() {
+        this(new DirectNodeStore());
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Create a database in a store. If the store already holds a database,
+     * this is that database.
+     *
+     * @param store
+     *              where both trees live
+     */
+    OffHeapGISDB(NodeStore store) {
+        this.store = store;
+        cityKDTree = new PackedKDTree(store, CITY_FIELD);
+        cityNames = new PackedBST(store, NAME_FIELD);
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Returns the store both trees live in.
+     *
+     * @return the store
+     */
+    public NodeStore getStore() {
+        return store;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Reinitialize the database, freeing all of its space in the store.
+     *
+     * @return True if the database has been cleared
+     */
+    public boolean clear() {
+        store.reset();
+        return true;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * A city at coordinate (x, y) with name name is entered into the database.
+     *
+     * @param name
+     *             City name.
+     * @param x
+     *             City x-coordinate. Integer in the range 0 to 2^{15} − 1.
+     * @param y
+     *             City y-coordinate. Integer in the range 0 to 2^{15} − 1.
+     * @return True iff the city is successfully entered into the database
+     */
+    public boolean insert(String name, int x, int y) {
+        if (x < 0 || x > GISDB.MAXCOORD || y < 0 || y > GISDB.MAXCOORD) {
+            return false;
+        }
+        if (cityKDTree.findNode(x, y) != 0) {
+            return false;
+        }
+        int nameRef = store.putString(name);
+        cityKDTree.insertRef(nameRef, x, y);
+        cityNames.insert(nameRef, x, y);
+        return true;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * The city with these coordinates is deleted from the database (if it
+     * exists).
+     *
+     * @param x
+     *          City x-coordinate.
+     * @param y
+     *          City y-coordinate.
+     * @return A string with the number of nodes visited during the deletion
+     *         followed by the name of the city (this is blank if nothing was
+     *         deleted).
+     */
+    public String delete(int x, int y) {
+        String kdOutput = cityKDTree.delete(x, y);
+        String[] parts = kdOutput.trim().split("\n", 2);
+        if (parts.length < 2) {
+            return "";
+        }
+        cityNames.deleteOne(parts[1], x, y);
+        return kdOutput;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * The city with this name is deleted from the database (if it exists).
+     * If two or more cities have this name, then ALL such cities are removed.
+     *
+     * @param name
+     *             City name.
+     * @return A string with the coordinates of each city that is deleted
+     *         (listed in preorder as they are deleted). Print the empty string
+     *         if no cites match.
+     */
+    public String delete(String name) {
+        String allMatches = cityNames.findAll(name);
+        if (allMatches.isEmpty()) {
+            return "";
+        }
+        for (String line : allMatches.split("\n")) {
+            // line format: "Name (x, y)"
+            int start = line.lastIndexOf('(');
+            int comma = line.indexOf(',', start);
+            int end = line.indexOf(')', comma);
+            int x = Integer.parseInt(line.substring(start + 1, comma).trim());
+            int y = Integer.parseInt(line.substring(comma + 1, end).trim());
+            cityKDTree.delete(x, y);
+        }
+        cityNames.deleteAll(name);
+        return allMatches;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Display the name of the city at coordinate (x, y) if it exists.
+     *
+     * @param x
+     *          X coordinate.
+     * @param y
+     *          Y coordinate.
+     * @return The city name if there is such a city, empty otherwise
+     */
+    public String info(int x, int y) {
+        int node = cityKDTree.findNode(x, y);
+        return (node == 0) ? "" : store.getString(cityKDTree.nameRef(node));
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Display the coordinates of all cities with this name, if any exist.
+     *
+     * @param name
+     *             The city name.
+     * @return String representing the list of cities and coordinates, empty if
+     *         there are none.
+     */
+    public String info(String name) {
+        if (name == null) {
+            return "";
+        }
+        return cityNames.findAll(name);
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * All cities within radius distance from location (x, y) are listed.
+     *
+     * @param x
+     *               Search circle center: X coordinate. May be negative.
+     * @param y
+     *               Search circle center: Y coordinate. May be negative.
+     * @param radius
+     *               Search radius, must be non-negative.
+     * @return String listing the cities found (if any), followed by the count
+     *         of the number of k-d tree nodes looked at.
+     */
+    public String search(int x, int y, int radius) {
+        return cityKDTree.search(x, y, radius);
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Print a listing of the database as an inorder traversal of the k-d
+     * tree.
+     *
+     * @return String listing the cities as specified.
+     */
+    public String debug() {
+        return cityKDTree.printTree();
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Print a listing of the BST in alphabetical order on the names.
+     *
+     * @return String listing the cities as specified.
+     */
+    public String print() {
+        return cityNames.printTree();
+    }
+}
@@ -0,0 +1,99 @@
+import java.util.Random;
+import student.TestCase;
+
+/**
+ * Tests for {@link OffHeapGISDB}: it must give exactly the same answers as
+ * {@link GISDB}.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class OffHeapGISDBTest extends TestCase {
+
+    private OffHeapGISDB it;
+    private GISDB reference;
+
+    /**
+     * Creates an off-heap database with a tiny store, so it has to grow,
+     * and a plain one to compare with.
+     */
+    public void setUp() {
+        it = new OffHeapGISDB(new DirectNodeStore(128));
+        reference = new GISDB();
+    }
+
+    /**
+     * Tests that a random mix of every operation matches GISDB.
+     */
+    public void testMatchesGISDB() {
+        String[] names = { "Chicago", "Atlanta", "Zürich", "Ærø", "A", "Ab",
+            "Chicago Heights", "Ábaco", "Tacoma" };
+        Random random = new Random(37);
+        for (int i = 0; i < 4000; i++) {
+            String name = names[random.nextInt(names.length)];
+            int x = random.nextInt(120);
+            int y = random.nextInt(120);
+            switch (random.nextInt(8)) {
+                case 0:
+                    assertEquals(reference.delete(x, y), it.delete(x, y));
+                    break;
+                case 1:
+                    if (random.nextInt(5) == 0) {
+                        assertEquals(reference.delete(name), it.delete(name));
+                    }
+                    break;
+                case 2:
+                    assertEquals(reference.info(name), it.info(name));
+                    assertEquals(reference.info(x, y), it.info(x, y));
+                    break;
+                case 3:
+                    assertEquals(reference.search(x, y, 15), it.search(x, y,
+                        15));
+                    break;
+                default:
+                    assertEquals(reference.insert(name, x, y), it.insert(name,
+                        x, y));
+            }
+        }
+        assertEquals(reference.debug(), it.debug());
+        assertEquals(reference.print(), it.print());
+    }
+
+    /**
+     * Tests bad input and clearing.
+     */
+    public void testBadInputAndClear() {
+        assertFalse(it.insert("Bad", -1, 5));
+        assertFalse(it.insert("Bad", 5, GISDB.MAXCOORD + 1));
+        assertTrue(it.insert("Good", 5, 5));
+        assertFalse(it.insert("Dup", 5, 5));
+        assertEquals("", it.info((String)null));
+        assertEquals("", it.delete("Nobody"));
+        assertEquals("", it.delete(1, 1));
+        int used = it.getStore().end();
+        assertTrue(it.clear());
+        assertEquals("", it.debug());
+        assertEquals("", it.print());
+        assertTrue(it.getStore().end() < used);
+        assertTrue(it.insert("Dup", 5, 5));
+        assertEquals("Dup", it.info(5, 5));
+    }
+
+    /**
+     * Tests comparing stored strings with and without ASCII text.
+     */
+    public void testCompareString() {
+        NodeStore store = it.getStore();
+        String[] words = { "", "a", "ab", "b", "B", "Ærø", "Zürich", "Zu",
+            "Zürichsee", "🌍" };
+        for (String stored : words) {
+            int ref = store.putString(stored);
+            assertEquals(stored, store.getString(ref));
+            for (String other : words) {
+                assertEquals(Integer.signum(stored.compareTo(other)), Integer
+                    .signum(store.compareString(ref, other)));
+            }
+        }
+    }
+}
@@ -0,0 +1,391 @@
+/**
+ * A BST of cities ordered by name, like {@code BST<City>}, whose nodes live
+ * in a {@link NodeStore} instead of the Java heap.
+ * <p>
+ * Each node is a fixed-size record of five ints:
+ *
+ * <pre>
+ * name offset, x, y, left child offset, right child offset
+ * </pre>
+ *
+ * where the name is a string record in the same store, so a
+ * {@link PackedKDTree} in the same store can share it. Offset 0 means no
+ * child. The root offset and size are kept in two of the store's owner
+ * fields.
+ * <p>
+ * Insertion, both deletes, {@code findAll} and printing follow exactly the
+ * same rules as {@link BST} (equal names go left; a deleted node with two
+ * children is replaced by the maximum of its left subtree), so they return
+ * the same text and leave the same shape. The space of deleted nodes is not
+ * reused.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class PackedBST {
+
+    /** Field offsets within a node record. */
+    private static final int NAME = 0;
+    private static final int X = 4;
+    private static final int Y = 8;
+    private static final int LEFT = 12;
+    private static final int RIGHT = 16;
+
+    /** Size of a node record in bytes. */
+    static final int NODE_SIZE = 20;
+
+    /** Where the nodes live. */
+    private final NodeStore store;
+
+    /** Owner field holding the root offset; the next one holds the size. */
+    private final int rootField;
+
+    /**
+     * Creates a tree using two owner fields of a store. If the store already
+     * holds a tree there, this is that tree.
+     *
+     * @param store
+     *                  where the nodes live
+     * @param rootField
+     *                  the owner field for the root offset; the size is kept
+     *                  in the next one
+     */
+    public PackedBST(NodeStore store, int rootField) {
+        this.store = store;
+        this.rootField = rootField;
+    }
+
+    /**
+     * Returns the number of cities in the tree.
+     *
+     * @return the size
+     */
+    public int size() {
+        return store.getField(rootField + 1);
+    }
+
+    /**
+     * Removes every city. The store's space is not reclaimed.
+     */
+    public void clear() {
+        store.setField(rootField, 0);
+        store.setField(rootField + 1, 0);
+    }
+
+    /**
+     * @param delta
+     *              change in size
+     */
+    private void addSize(int delta) {
+        store.setField(rootField + 1, size() + delta);
+    }
+
+    /**
+     * Builds a City for a node.
+     *
+     * @param node
+     *             the node offset
+     * @return the city stored there
+     */
+    private City city(int node) {
+        return new City(store.getString(store.getInt(node + NAME)), store
+            .getInt(node + X), store.getInt(node + Y));
+    }
+
+    /**
+     * Compares a name with a node's name.
+     *
+     * @param name
+     *             the name
+     * @param node
+     *             the node offset
+     * @return negative, zero or positive as {@code name} sorts before, with
+     *         or after the node
+     */
+    private int compare(String name, int node) {
+        return -store.compareString(store.getInt(node + NAME), name);
+    }
+
+    /**
+     * Copies a node's city into another node.
+     *
+     * @param from
+     *             source node offset
+     * @param to
+     *             target node offset
+     */
+    private void copyCity(int from, int to) {
+        store.putInt(to + NAME, store.getInt(from + NAME));
+        store.putInt(to + X, store.getInt(from + X));
+        store.putInt(to + Y, store.getInt(from + Y));
+    }
+
+    /**
+     * Inserts a city whose name is already a string record in the store.
+     * Equal names go left.
+     *
+     * @param nameRef
+     *                offset of the name record
+     * @param x
+     *                City x-coordinate.
+     * @param y
+     *                City y-coordinate.
+     */
+    public void insert(int nameRef, int x, int y) {
+        int node = store.allocate(NODE_SIZE);
+        store.putInt(node + NAME, nameRef);
+        store.putInt(node + X, x);
+        store.putInt(node + Y, y);
+        store.putInt(node + LEFT, 0);
+        store.putInt(node + RIGHT, 0);
+
+        String name = store.getString(nameRef);
+        int curr = store.getField(rootField);
+        if (curr == 0) {
+            store.setField(rootField, node);
+        } else {
+            while (true) {
+                int link = (compare(name, curr) <= 0) ? LEFT : RIGHT;
+                int next = store.getInt(curr + link);
+                if (next == 0) {
+                    store.putInt(curr + link, node);
+                    break;
+                }
+                curr = next;
+            }
+        }
+        addSize(1);
+    }
+
+    /**
+     * Lists every city with a name, in preorder, as {@link BST#findAll}
+     * does.
+     *
+     * @param name
+     *             the name
+     * @return one {@code "Name (x, y)"} line per match, or an empty string
+     */
+    public String findAll(String name) {
+        StringBuilder sb = new StringBuilder();
+        findAllRec(store.getField(rootField), name, sb);
+        return sb.toString().trim();
+    }
+
+    /**
+     * Recursive helper for {@link #findAll(String)}.
+     *
+     * @param node
+     *             current node offset
+     * @param name
+     *             the name
+     * @param sb
+     *             result accumulator
+     */
+    private void findAllRec(int node, String name, StringBuilder sb) {
+        if (node == 0) {
+            return;
+        }
+        if (compare(name, node) == 0) {
+            sb.append(city(node).toString()).append("\n");
+        }
+        findAllRec(store.getInt(node + LEFT), name, sb);
+        findAllRec(store.getInt(node + RIGHT), name, sb);
+    }
+
+    /**
+     * Deletes every city with a name, as {@link BST#deleteAll} does.
+     *
+     * @param name
+     *             the name
+     * @return the number of cities deleted
+     */
+    public int deleteAll(String name) {
+        int[] deleted = { 0 };
+        store.setField(rootField, deleteAllRec(store.getField(rootField),
+            name, deleted));
+        addSize(-deleted[0]);
+        return deleted[0];
+    }
+
+    /**
+     * Recursive helper for {@link #deleteAll(String)} (post-order).
+     *
+     * @param node
+     *                current node offset
+     * @param name
+     *                the name
+     * @param deleted
+     *                deletion counter
+     * @return the updated subtree root
+     */
+    private int deleteAllRec(int node, String name, int[] deleted) {
+        if (node == 0) {
+            return 0;
+        }
+        store.putInt(node + LEFT, deleteAllRec(store.getInt(node + LEFT),
+            name, deleted));
+        store.putInt(node + RIGHT, deleteAllRec(store.getInt(node + RIGHT),
+            name, deleted));
+
+        if (compare(name, node) != 0) {
+            return node;
+        }
+        deleted[0]++;
+        int left = store.getInt(node + LEFT);
+        int right = store.getInt(node + RIGHT);
+        if (left == 0) {
+            return right;
+        }
+        if (right == 0) {
+            return left;
+        }
+        // Two children: replace with the max of the left subtree
+        copyCity(findMax(left), node);
+        store.putInt(node + LEFT, spliceMax(left));
+        return node;
+    }
+
+    /**
+     * Removes the maximum node of a subtree by replacing it with its left
+     * child.
+     *
+     * @param node
+     *             the subtree root (not 0)
+     * @return the updated subtree root
+     */
+    private int spliceMax(int node) {
+        int right = store.getInt(node + RIGHT);
+        if (right == 0) {
+            return store.getInt(node + LEFT);
+        }
+        store.putInt(node + RIGHT, spliceMax(right));
+        return node;
+    }
+
+    /**
+     * Deletes the one city with a name and coordinates, as
+     * {@link BST#deleteOne} does.
+     *
+     * @param name
+     *             City name.
+     * @param x
+     *             City x-coordinate.
+     * @param y
+     *             City y-coordinate.
+     * @return {@code true} if it was found and deleted
+     */
+    public boolean deleteOne(String name, int x, int y) {
+        boolean[] deleted = { false };
+        store.setField(rootField, deleteOneRec(store.getField(rootField),
+            name, x, y, deleted));
+        if (deleted[0]) {
+            addSize(-1);
+        }
+        return deleted[0];
+    }
+
+    /**
+     * Recursive helper for {@link #deleteOne(String, int, int)}.
+     *
+     * @param node
+     *                current node offset
+     * @param name
+     *                City name.
+     * @param x
+     *                City x-coordinate.
+     * @param y
+     *                City y-coordinate.
+     * @param deleted
+     *                set when the city is deleted
+     * @return the updated subtree root
+     */
+    private int deleteOneRec(
+        int node,
+        String name,
+        int x,
+        int y,
+        boolean[] deleted) {
+        if (node == 0) {
+            return 0;
+        }
+        int cmp = compare(name, node);
+        if (cmp <= 0) {
+            store.putInt(node + LEFT, deleteOneRec(store.getInt(node + LEFT),
+                name, x, y, deleted));
+            if (deleted[0]) {
+                return node;
+            }
+        }
+
+        if (cmp == 0 && store.getInt(node + X) == x && store.getInt(node
+            + Y) == y) {
+            deleted[0] = true;
+            int left = store.getInt(node + LEFT);
+            if (left == 0) {
+                return store.getInt(node + RIGHT);
+            }
+            int max = findMax(left);
+            copyCity(max, node);
+            store.putInt(node + LEFT, deleteOneRec(left, store.getString(store
+                .getInt(node + NAME)), store.getInt(node + X), store.getInt(
+                    node + Y), new boolean[1]));
+            return node;
+        }
+
+        if (cmp >= 0) {
+            store.putInt(node + RIGHT, deleteOneRec(store.getInt(node + RIGHT),
+                name, x, y, deleted));
+        }
+        return node;
+    }
+
+    /**
+     * Finds the maximum node of a subtree.
+     *
+     * @param node
+     *             the subtree root (not 0)
+     * @return the rightmost node offset
+     */
+    private int findMax(int node) {
+        int right;
+        while ((right = store.getInt(node + RIGHT)) != 0) {
+            node = right;
+        }
+        return node;
+    }
+
+    /**
+     * Returns the same in-order listing as {@link BST#printTree()}.
+     *
+     * @return a string representation of the tree structure
+     */
+    public String printTree() {
+        StringBuilder sb = new StringBuilder();
+        printRec(store.getField(rootField), sb, 0);
+        return sb.toString();
+    }
+
+    /**
+     * Recursive helper for {@link #printTree()}.
+     *
+     * @param node
+     *              current node offset
+     * @param sb
+     *              output accumulator
+     * @param depth
+     *              current depth
+     */
+    private void printRec(int node, StringBuilder sb, int depth) {
+        if (node == 0) {
+            return;
+        }
+        printRec(store.getInt(node + LEFT), sb, depth + 1);
+        sb.append(depth);
+        if (depth > 0) {
+            sb.append(" ".repeat(depth * 2));
+        }
+        sb.append(city(node).toString()).append("\n");
+        printRec(store.getInt(node + RIGHT), sb, depth + 1);
+    }
+}
@@ -0,0 +1,521 @@
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A 2D KD-Tree like {@link KDTree} whose nodes live in a {@link NodeStore}
+ * instead of the Java heap. With a {@link MappedNodeStore} the whole index
+ * is a memory-mapped file: the OS page cache serves queries, the index can
+ * be larger than the heap, and opening it again is instant because the file
+ * is mapped, not rebuilt (see {@link #map(Path)}).
+ * <p>
+ * Each node is a fixed-size record of five ints:
+ *
+ * <pre>
+ * x, y, left child offset, right child offset, name offset
+ * </pre>
+ *
+ * where the name is a string record in the same store and offset 0 means
+ * no child. The root offset and size are kept in two of the store's owner
+ * fields.
+ * <p>
+ * Insertion, deletion, find, search and printing follow exactly the same
+ * rules as {@link KDTree} (equal values go right; deletion replaces a node
+ * with the minimum of its right subtree, or of its left subtree moved to
+ * the right), so every method returns the same text, including the visited
+ * node counts. The space of deleted nodes is not reused.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class PackedKDTree {
+
+    /** Field offsets within a node record. */
+    private static final int X = 0;
+    private static final int Y = 4;
+    private static final int LEFT = 8;
+    private static final int RIGHT = 12;
+    private static final int NAME = 16;
+
+    /** Size of a node record in bytes. */
+    static final int NODE_SIZE = 20;
+
+    /** Where the nodes live. */
+    private final NodeStore store;
+
+    /** Owner field holding the root offset; the next one holds the size. */
+    private final int rootField;
+
+    /**
+     * Creates a tree using owner fields 0 and 1 of a store. If the store
+     * already holds a tree there, this is that tree.
+     *
+     * @param store
+     *              where the nodes live
+     */
+    public PackedKDTree(NodeStore store) {
+        this(store, 0);
+    }
+
+    /**
+     * Creates a tree using two owner fields of a store, so several trees
+     * can share one store.
+     *
+     * @param store
+     *                  where the nodes live
+     * @param rootField
+     *                  the owner field for the root offset; the size is kept
+     *                  in the next one
+     */
+    public PackedKDTree(NodeStore store, int rootField) {
+        this.store = store;
+        this.rootField = rootField;
+    }
+
+    /**
+     * Opens a tree kept in a memory-mapped file, creating the file if it
+     * does not exist.
+     *
+     * @param path
+     *             the file
+     * @return the tree; close its {@link #getStore() store} when done
+     * @throws IOException
+     *                     if the file cannot be mapped
+     */
+    public static PackedKDTree map(Path path) throws IOException {
+        return new PackedKDTree(new MappedNodeStore(path));
+    }
+
+    /**
+     * Returns the store the nodes live in.
+     *
+     * @return the store
+     */
+    public NodeStore getStore() {
+        return store;
+    }
+
+    /**
+     * Returns the number of cities in the tree.
+     *
+     * @return the size
+     */
+    public int size() {
+        return store.getField(rootField + 1);
+    }
+
+    /**
+     * Removes every city. The store's space is not reclaimed.
+     */
+    public void clear() {
+        setRoot(0);
+        store.setField(rootField + 1, 0);
+    }
+
+    /**
+     * @return the root offset, 0 if empty
+     */
+    private int root() {
+        return store.getField(rootField);
+    }
+
+    /**
+     * @param node
+     *             the new root offset
+     */
+    private void setRoot(int node) {
+        store.setField(rootField, node);
+    }
+
+    /**
+     * Returns a node's coordinate on one axis.
+     *
+     * @param node
+     *             the node offset
+     * @param axis
+     *             0 for x, 1 for y
+     * @return the coordinate
+     */
+    private int coord(int node, int axis) {
+        return store.getInt(node + ((axis == 0) ? X : Y));
+    }
+
+    /**
+     * Builds a City for a node.
+     *
+     * @param node
+     *             the node offset
+     * @return the city stored there
+     */
+    private City city(int node) {
+        return new City(store.getString(store.getInt(node + NAME)), store
+            .getInt(node + X), store.getInt(node + Y));
+    }
+
+    /**
+     * Inserts a city.
+     *
+     * @param city
+     *             the city to insert
+     * @return {@code true} if inserted; {@code false} if {@code city} is
+     *         {@code null} or a city with identical coordinates already
+     *         exists
+     */
+    public boolean insert(City city) {
+        if (city == null) {
+            return false;
+        }
+        return insert(city.getName(), city.getX(), city.getY());
+    }
+
+    /**
+     * Inserts a city.
+     *
+     * @param name
+     *             City name.
+     * @param x
+     *             City x-coordinate.
+     * @param y
+     *             City y-coordinate.
+     * @return {@code true} if inserted; {@code false} if a city with
+     *         identical coordinates already exists
+     */
+    public boolean insert(String name, int x, int y) {
+        if (findNode(x, y) != 0) {
+            return false;
+        }
+        insertRef(store.putString(name), x, y);
+        return true;
+    }
+
+    /**
+     * Inserts a city whose name is already a string record in the store,
+     * without checking for a city at the same coordinates.
+     *
+     * @param nameRef
+     *                offset of the name record
+     * @param x
+     *                City x-coordinate.
+     * @param y
+     *                City y-coordinate.
+     */
+    void insertRef(int nameRef, int x, int y) {
+        int node = store.allocate(NODE_SIZE);
+        store.putInt(node + X, x);
+        store.putInt(node + Y, y);
+        store.putInt(node + LEFT, 0);
+        store.putInt(node + RIGHT, 0);
+        store.putInt(node + NAME, nameRef);
+
+        int parent = 0;
+        int link = 0;
+        int curr = root();
+        int depth = 0;
+        while (curr != 0) {
+            int axis = depth & 1;
+            int value = (axis == 0) ? x : y;
+            // Equal values go RIGHT
+            link = (value < coord(curr, axis)) ? LEFT : RIGHT;
+            parent = curr;
+            curr = store.getInt(curr + link);
+            depth++;
+        }
+        if (parent == 0) {
+            setRoot(node);
+        } else {
+            store.putInt(parent + link, node);
+        }
+        store.setField(rootField + 1, size() + 1);
+    }
+
+    /**
+     * Finds a city by its coordinates.
+     *
+     * @param x
+     *          the x-coordinate
+     * @param y
+     *          the y-coordinate
+     * @return the city, or {@code null} if not present
+     */
+    public City find(int x, int y) {
+        int node = findNode(x, y);
+        return (node == 0) ? null : city(node);
+    }
+
+    /**
+     * Returns the offset of the node with some coordinates.
+     *
+     * @param x
+     *          the x-coordinate
+     * @param y
+     *          the y-coordinate
+     * @return the node offset, or 0 if not present
+     */
+    int findNode(int x, int y) {
+        int node = root();
+        int depth = 0;
+        while (node != 0) {
+            if (store.getInt(node + X) == x && store.getInt(node + Y) == y) {
+                return node;
+            }
+            int axis = depth & 1;
+            int value = (axis == 0) ? x : y;
+            node = store.getInt(node + ((value < coord(node, axis))
+                ? LEFT
+                : RIGHT));
+            depth++;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the name record offset of a node.
+     *
+     * @param node
+     *             the node offset
+     * @return the name record offset
+     */
+    int nameRef(int node) {
+        return store.getInt(node + NAME);
+    }
+
+    /**
+     * Deletes a city by its coordinates.
+     *
+     * @param x
+     *          the x-coordinate of the city to delete
+     * @param y
+     *          the y-coordinate of the city to delete
+     * @return the same text as {@link KDTree#delete(int, int)}: the number
+     *         of visited nodes and, if deleted, the city's name
+     */
+    public String delete(int x, int y) {
+        int[] visited = new int[] { 0 };
+        int[] nameRef = new int[] { 0 };
+        setRoot(deleteRec(root(), x, y, 0, visited, nameRef));
+        if (nameRef[0] == 0) {
+            return visited[0] + " ";
+        }
+        store.setField(rootField + 1, size() - 1);
+        return visited[0] + "\n" + store.getString(nameRef[0]);
+    }
+
+    /**
+     * Recursive deletion helper.
+     *
+     * @param node
+     *                current node offset
+     * @param x
+     *                x-coordinate
+     * @param y
+     *                y-coordinate
+     * @param depth
+     *                current depth
+     * @param visited
+     *                node visit counter
+     * @param nameRef
+     *                receives the deleted city's name record
+     * @return the updated subtree root
+     */
+    private int deleteRec(
+        int node,
+        int x,
+        int y,
+        int depth,
+        int[] visited,
+        int[] nameRef) {
+        if (node == 0) {
+            return 0;
+        }
+        visited[0]++;
+
+        if (store.getInt(node + X) == x && store.getInt(node + Y) == y) {
+            nameRef[0] = store.getInt(node + NAME);
+            return deleteNode(node, depth, visited);
+        }
+
+        int axis = depth & 1;
+        int value = (axis == 0) ? x : y;
+        int link = (value < coord(node, axis)) ? LEFT : RIGHT;
+        store.putInt(node + link, deleteRec(store.getInt(node + link), x, y,
+            depth + 1, visited, nameRef));
+        return node;
+    }
+
+    /**
+     * Deletes a node by replacing it with the minimum of a subtree, as
+     * {@link KDTree} does.
+     *
+     * @param node
+     *                node to delete
+     * @param depth
+     *                current depth
+     * @param visited
+     *                node visit counter
+     * @return the new root of this subtree
+     */
+    private int deleteNode(int node, int depth, int[] visited) {
+        int right = store.getInt(node + RIGHT);
+        int left = store.getInt(node + LEFT);
+        if (right == 0 && left == 0) {
+            return 0;
+        }
+        boolean usedLeft = right == 0;
+        int axis = depth & 1;
+        int successor = findMin(usedLeft ? left : right, axis, depth + 1,
+            visited);
+        int sx = store.getInt(successor + X);
+        int sy = store.getInt(successor + Y);
+        store.putInt(node + X, sx);
+        store.putInt(node + Y, sy);
+        store.putInt(node + NAME, store.getInt(successor + NAME));
+
+        int[] ignored = new int[1];
+        store.putInt(node + RIGHT, deleteRec(usedLeft ? left : right, sx, sy,
+            depth + 1, visited, ignored));
+        if (usedLeft) {
+            store.putInt(node + LEFT, 0);
+        }
+        return node;
+    }
+
+    /**
+     * Finds the node with the minimum value on an axis in a subtree.
+     *
+     * @param node
+     *                subtree root
+     * @param axis
+     *                axis to minimize (0 for x, 1 for y)
+     * @param depth
+     *                current depth
+     * @param visited
+     *                node visit counter
+     * @return the node offset with the minimum coordinate, or 0 if empty
+     */
+    private int findMin(int node, int axis, int depth, int[] visited) {
+        if (node == 0) {
+            return 0;
+        }
+        visited[0]++;
+        int leftMin = findMin(store.getInt(node + LEFT), axis, depth + 1,
+            visited);
+        if ((depth & 1) == axis) {
+            return (leftMin != 0) ? leftMin : node;
+        }
+        int rightMin = findMin(store.getInt(node + RIGHT), axis, depth + 1,
+            visited);
+        int min = node;
+        if (leftMin != 0 && coord(leftMin, axis) < coord(min, axis)) {
+            min = leftMin;
+        }
+        if (rightMin != 0 && coord(rightMin, axis) < coord(min, axis)) {
+            min = rightMin;
+        }
+        return min;
+    }
+
+    /**
+     * Finds every city within a radius of a point.
+     *
+     * @param x
+     *               query x-coordinate
+     * @param y
+     *               query y-coordinate
+     * @param radius
+     *               search radius (must be non-negative)
+     * @return the same text as {@link KDTree#search(int, int, int)}: the
+     *         matching cities followed by the number of visited nodes
+     */
+    public String search(int x, int y, int radius) {
+        if (radius < 0) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        int[] visited = { 0 };
+        searchRec(root(), x, y, radius, 0, sb, visited);
+        sb.append(visited[0]);
+        return sb.toString();
+    }
+
+    /**
+     * Recursive helper for range search.
+     *
+     * @param node
+     *                current node offset
+     * @param qx
+     *                query x
+     * @param qy
+     *                query y
+     * @param radius
+     *                search radius
+     * @param depth
+     *                current depth
+     * @param sb
+     *                result accumulator
+     * @param visited
+     *                node visit counter
+     */
+    private void searchRec(
+        int node,
+        int qx,
+        int qy,
+        int radius,
+        int depth,
+        StringBuilder sb,
+        int[] visited) {
+        if (node == 0) {
+            return;
+        }
+        visited[0]++;
+
+        int dx = store.getInt(node + X) - qx;
+        int dy = store.getInt(node + Y) - qy;
+        if (dx * dx + dy * dy <= radius * radius) {
+            sb.append(city(node).toString()).append("\n");
+        }
+
+        int diff = ((depth & 1) == 0) ? dx : dy;
+        if (diff > -radius) {
+            searchRec(store.getInt(node + LEFT), qx, qy, radius, depth + 1,
+                sb, visited);
+        }
+        if (diff <= radius) {
+            searchRec(store.getInt(node + RIGHT), qx, qy, radius, depth + 1,
+                sb, visited);
+        }
+    }
+
+    /**
+     * Returns the same in-order listing as {@link KDTree#printTree()}.
+     *
+     * @return a string representation of the tree structure
+     */
+    public String printTree() {
+        StringBuilder sb = new StringBuilder();
+        printRec(root(), sb, 0);
+        return sb.toString();
+    }
+
+    /**
+     * Recursive helper for printing the tree structure.
+     *
+     * @param node
+     *              current node offset
+     * @param sb
+     *              output accumulator
+     * @param depth
+     *              current depth
+     */
+    private void printRec(int node, StringBuilder sb, int depth) {
+        if (node == 0) {
+            return;
+        }
+        printRec(store.getInt(node + LEFT), sb, depth + 1);
+        sb.append(depth);
+        if (depth > 0) {
+            sb.append("  ".repeat(depth));
+        }
+        sb.append(city(node).toString()).append("\n");
+        printRec(store.getInt(node + RIGHT), sb, depth + 1);
+    }
+}
@@ -0,0 +1,144 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import student.TestCase;
+
+/**
+ * Tests for {@link PackedKDTree} over a {@link MappedNodeStore}: it must
+ * match {@link KDTree} exactly and come back intact when the file is mapped
+ * again.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class PackedKDTreeTest extends TestCase {
+
+  private Path file;
+  private PackedKDTree tree;
+
+  /**
+   * Maps a fresh file for every test.
+   *
+   * @throws IOException
+   *                     if the file cannot be mapped
+   */
+  @Before
+  public void setUp() throws IOException {
+    file = Files.createTempFile("kdtree", ".nodes");
+    Files.delete(file);
+    tree = new PackedKDTree(new MappedNodeStore(file, 256));
+  }
+
+  /**
+   * Closes and removes the file.
+   *
+   * @throws IOException
+   *                     if it cannot be removed
+   */
+  @After
+  public void tearDown() throws IOException {
+    tree.getStore().close();
+    Files.deleteIfExists(file);
+  }
+
+  /**
+   * Tests that random inserts, deletes and searches give exactly what
+   * KDTree gives, with a store that has to grow many times.
+   */
+  @Test
+  public void testMatchesKDTree() {
+    KDTree reference = new KDTree();
+    Random random = new Random(36);
+    for (int i = 0; i < 3000; i++) {
+      int x = random.nextInt(200);
+      int y = random.nextInt(200);
+      if (random.nextInt(4) == 0) {
+        assertEquals(reference.delete(x, y), tree.delete(x, y));
+      } else {
+        String name = "C" + random.nextInt(500);
+        assertEquals(reference.insert(new City(name, x, y)),
+            tree.insert(name, x, y));
+      }
+      if (i % 100 == 0) {
+        assertEquals(reference.search(x, y, 30), tree.search(x, y, 30));
+      }
+    }
+    assertEquals(reference.printTree(), tree.printTree());
+    assertEquals(reference.find(10, 10), tree.find(10, 10));
+    assertEquals("", tree.search(1, 1, -1));
+  }
+
+  /**
+   * Tests deleting from small trees, including the left-subtree case.
+   */
+  @Test
+  public void testDelete() {
+    assertEquals("0 ", tree.delete(1, 1));
+    tree.insert("A", 50, 50);
+    tree.insert("B", 25, 75);
+    tree.insert("C", 10, 60);
+    assertEquals(3, tree.size());
+    assertEquals("5\nA", tree.delete(50, 50));
+    assertEquals("0C (10, 60)\n1  B (25, 75)\n", tree.printTree());
+    assertEquals(2, tree.size());
+    assertNull(tree.find(50, 50));
+    assertEquals(new City("C", 10, 60), tree.find(10, 60));
+    tree.clear();
+    assertEquals(0, tree.size());
+    assertEquals("", tree.printTree());
+  }
+
+  /**
+   * Tests that closing and mapping the file again gives the same tree,
+   * which can then keep changing.
+   *
+   * @throws IOException
+   *                     if the file cannot be mapped
+   */
+  @Test
+  public void testReopen() throws IOException {
+    Random random = new Random(7);
+    for (int i = 0; i < 500; i++) {
+      tree.insert("R" + i, random.nextInt(1000), random.nextInt(1000));
+    }
+    String before = tree.printTree();
+    int size = tree.size();
+    String search = tree.search(500, 500, 200);
+    tree.getStore().close();
+
+    tree = PackedKDTree.map(file);
+    assertEquals(size, tree.size());
+    assertEquals(before, tree.printTree());
+    assertEquals(search, tree.search(500, 500, 200));
+    assertTrue(tree.insert("New", 1001, 1001));
+    assertEquals(size + 1, tree.size());
+  }
+
+  /**
+   * Tests that a file that is not a store is rejected.
+   *
+   * @throws IOException
+   *                     if the test file cannot be written
+   */
+  @Test
+  public void testNotAStore() throws IOException {
+    Path other = Files.createTempFile("other", ".nodes");
+    try {
+      Files.write(other, new byte[100]);
+      IOException thrown = null;
+      try {
+        new MappedNodeStore(other);
+      } catch (IOException e) {
+        thrown = e;
+      }
+      assertNotNull(thrown);
+    } finally {
+      Files.delete(other);
+    }
+  }
+}
@@ -0,0 +1,318 @@
+import java.util.List;
+
+/**
+ * An immutable (persistent) version of {@link BST}.
+ * <p>
+ * Nodes are never changed after they are built. Every insert or delete
+ * copies only the path it touches and returns a new tree that shares all
+ * other nodes with the old one, so readers holding an older tree can keep
+ * using it without locks. A write that changes nothing returns the same tree
+ * instance.
+ * <p>
+ * The rules are the same as in {@link BST}: duplicates go into the
+ * <strong>left</strong> subtree, and a deleted node with two children is
+ * replaced with the <strong>maximum value from its left subtree</strong>.
+ * Only the node holding that maximum is removed from the left subtree, even
+ * when other values compare equal to it.
+ *
+ * @param <T>
+ *            the type of elements stored in the tree
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+class PersistentBST<T extends Comparable<T>> {
+
+    /**
+     * Immutable tree node.
+     *
+     * @param <T>
+     *            the element type
+     */
+    private static class Node<T> {
+        /** The data stored at this node. */
+        final T data;
+        /** Reference to the left child node. */
+        final Node<T> left;
+        /** Reference to the right child node. */
+        final Node<T> right;
+
+        /**
+         * Creates a node.
+         *
+         * @param data
+         *              the value to store
+         * @param left
+         *              left child
+         * @param right
+         *              right child
+         */
+        Node(T data, Node<T> left, Node<T> right) {
+            this.data = data;
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    /** The root node (may be {@code null}). */
+    private final Node<T> root;
+
+    /**
+     * Creates an empty tree.
+     */
+    PersistentBST() {
+        this(null);
+    }
+
+    /**
+     * Creates a tree with the given root.
+     *
+     * @param root
+     *             root node
+     */
+    private PersistentBST(Node<T> root) {
+        this.root = root;
+    }
+
+    /**
+     * Returns a tree with the value added. Duplicate values are inserted into
+     * the <strong>left</strong> subtree.
+     *
+     * @param value
+     *              the value to insert
+     * @return the new tree
+     */
+    public PersistentBST<T> insert(T value) {
+        return new PersistentBST<>(insertRec(root, value));
+    }
+
+    /**
+     * Recursive helper for {@link #insert(Comparable)}.
+     *
+     * @param curr
+     *              the current node
+     * @param value
+     *              the value to insert
+     * @return the new subtree root
+     */
+    private Node<T> insertRec(Node<T> curr, T value) {
+        if (curr == null)
+            return new Node<>(value, null, null);
+        if (value.compareTo(curr.data) <= 0) // equal goes LEFT
+            return new Node<>(curr.data, insertRec(curr.left, value),
+                    curr.right);
+        return new Node<>(curr.data, curr.left, insertRec(curr.right, value));
+    }
+
+    /**
+     * Returns a tree without any value that compares equal to {@code value}.
+     *
+     * @param value
+     *              the value to delete
+     * @return the new tree, or this tree if nothing matched
+     */
+    public PersistentBST<T> deleteAll(T value) {
+        Node<T> newRoot = deleteAllRec(root, value);
+        return (newRoot == root) ? this : new PersistentBST<>(newRoot);
+    }
+
+    /**
+     * Recursive helper for {@link #deleteAll(Comparable)} (post-order, like
+     * {@link BST}).
+     *
+     * @param curr
+     *              the current node
+     * @param value
+     *              the value to delete
+     * @return the new subtree root, or {@code curr} if nothing changed
+     */
+    private Node<T> deleteAllRec(Node<T> curr, T value) {
+        if (curr == null)
+            return null;
+
+        Node<T> left = deleteAllRec(curr.left, value);
+        Node<T> right = deleteAllRec(curr.right, value);
+
+        if (value.compareTo(curr.data) == 0) {
+            if (left == null)
+                return right;
+            if (right == null)
+                return left;
+            Node<T> maxLeft = findMax(left);
+            return new Node<>(maxLeft.data, spliceMax(left), right);
+        }
+
+        if (left == curr.left && right == curr.right)
+            return curr;
+        return new Node<>(curr.data, left, right);
+    }
+
+    /**
+     * Returns a subtree without its maximum node, which is replaced by that
+     * node's left child.
+     *
+     * @param curr
+     *             subtree root (not {@code null})
+     * @return the new subtree root
+     */
+    private Node<T> spliceMax(Node<T> curr) {
+        if (curr.right == null)
+            return curr.left;
+        return new Node<>(curr.data, curr.left, spliceMax(curr.right));
+    }
+
+    /**
+     * Returns a tree without one object equal (using {@code equals}) to
+     * {@code value}.
+     *
+     * @param value
+     *              the exact object to delete
+     * @return the new tree, or this tree if the object was not found
+     */
+    public PersistentBST<T> deleteOne(T value) {
+        Node<T> newRoot = deleteOneRec(root, value);
+        return (newRoot == root) ? this : new PersistentBST<>(newRoot);
+    }
+
+    /**
+     * Recursive helper for {@link #deleteOne(Comparable)}: deletes the first
+     * exact match found in-order, exactly as {@link BST} does.
+     *
+     * @param curr
+     *              current node
+     * @param value
+     *              the exact object to delete
+     * @return the new subtree root, or {@code curr} if nothing was deleted
+     */
+    private Node<T> deleteOneRec(Node<T> curr, T value) {
+        if (curr == null)
+            return null;
+
+        int cmp = value.compareTo(curr.data);
+
+        if (cmp <= 0) {
+            Node<T> left = deleteOneRec(curr.left, value);
+            if (left != curr.left)
+                return new Node<>(curr.data, left, curr.right);
+        }
+
+        if (curr.data.equals(value)) {
+            if (curr.left == null)
+                return curr.right;
+            Node<T> maxLeft = findMax(curr.left);
+            return new Node<>(maxLeft.data,
+                    deleteOneRec(curr.left, maxLeft.data), curr.right);
+        }
+
+        if (cmp >= 0) {
+            Node<T> right = deleteOneRec(curr.right, value);
+            if (right != curr.right)
+                return new Node<>(curr.data, curr.left, right);
+        }
+        return curr;
+    }
+
+    /**
+     * Finds the node with the maximum value in a subtree.
+     *
+     * @param curr
+     *             the root of the subtree
+     * @return the node containing the maximum value
+     */
+    private Node<T> findMax(Node<T> curr) {
+        while (curr.right != null)
+            curr = curr.right;
+        return curr;
+    }
+
+    /**
+     * Finds all occurrences of the specified value, in the same preorder
+     * format as {@link BST#findAll(Comparable)}.
+     *
+     * @param value
+     *              the value to search for
+     * @return a newline-separated list of all matching values, or an empty
+     *         string if none found
+     */
+    public String findAll(T value) {
+        StringBuilder sb = new StringBuilder();
+        findAllRec(root, value, sb, null);
+        return sb.toString().trim();
+    }
+
+    /**
+     * Adds every stored value comparing equal to {@code value} to a list, in
+     * the same preorder as {@link #findAll(Comparable)}.
+     *
+     * @param value
+     *              the value to search for
+     * @param out
+     *              list receiving the matches
+     */
+    public void findAll(T value, List<T> out) {
+        findAllRec(root, value, null, out);
+    }
+
+    /**
+     * Recursive helper for both {@code findAll} methods.
+     *
+     * @param curr
+     *              the current node
+     * @param value
+     *              the value to find
+     * @param sb
+     *              text accumulator, or {@code null}
+     * @param out
+     *              list accumulator, or {@code null}
+     */
+    private void findAllRec(Node<T> curr, T value, StringBuilder sb,
+            List<T> out) {
+        if (curr == null)
+            return;
+
+        if (curr.data.compareTo(value) == 0) {
+            if (sb != null)
+                sb.append(curr.data.toString()).append("\n");
+            if (out != null)
+                out.add(curr.data);
+        }
+        findAllRec(curr.left, value, sb, out);
+        findAllRec(curr.right, value, sb, out);
+    }
+
+    /**
+     * Returns an in-order listing with each line prefixed by the node depth,
+     * in the same format as {@link BST#printTree()}.
+     *
+     * @return a formatted string representation of the tree
+     */
+    public String printTree() {
+        StringBuilder sb = new StringBuilder();
+        printRec(root, sb, 0);
+        return sb.toString();
+    }
+
+    /**
+     * Recursive helper for {@link #printTree()}.
+     *
+     * @param curr
+     *              the current node
+     * @param sb
+     *              the string builder accumulating the tree representation
+     * @param depth
+     *              depth of {@code curr}
+     */
+    private void printRec(Node<T> curr, StringBuilder sb, int depth) {
+        if (curr == null)
+            return;
+
+        printRec(curr.left, sb, depth + 1);
+
+        sb.append(depth);
+        if (depth > 0)
+            sb.append(" ".repeat(depth * 2));
+        sb.append(curr.data).append("\n");
+
+        printRec(curr.right, sb, depth + 1);
+    }
+}
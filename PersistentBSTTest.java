@@ -0,0 +1,88 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+import student.TestCase;
+
+/**
+ * Tests for {@link PersistentBST}: it must lay nodes out like {@link BST}
+ * and never change a tree that has already been returned.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class PersistentBSTTest extends TestCase {
+
+  private PersistentBST<Integer> tree;
+
+  /**
+   * Starts every test from an empty tree.
+   */
+  @Before
+  public void setUp() {
+    tree = new PersistentBST<>();
+  }
+
+  /**
+   * Tests that writes leave earlier versions untouched.
+   */
+  @Test
+  public void testOldVersionsAreUnchanged() {
+    PersistentBST<Integer> one = tree.insert(10).insert(5).insert(15);
+    PersistentBST<Integer> two = one.deleteAll(10);
+    assertEquals("1  5\n010\n1  15\n", one.printTree());
+    assertEquals("05\n1  15\n", two.printTree());
+    assertEquals("", tree.printTree());
+    assertSame(two, two.deleteAll(99));
+    assertSame(two, two.deleteOne(99));
+  }
+
+  /**
+   * Tests that deleting a node with two children only removes the one
+   * copy of the left maximum that moved up.
+   */
+  @Test
+  public void testDeleteAllKeepsEqualCopiesOfReplacement() {
+    tree = tree.insert(10).insert(5).insert(5).insert(15);
+    tree = tree.deleteAll(10);
+    assertEquals("1  5\n05\n1  15\n", tree.printTree());
+    assertEquals("5\n5", tree.findAll(5));
+  }
+
+  /**
+   * Tests findAll in both forms.
+   */
+  @Test
+  public void testFindAll() {
+    tree = tree.insert(7).insert(3).insert(7).insert(9).insert(7);
+    assertEquals("7\n7\n7", tree.findAll(7));
+    List<Integer> out = new ArrayList<>();
+    tree.findAll(7, out);
+    assertEquals(3, out.size());
+    assertEquals("", tree.findAll(4));
+  }
+
+  /**
+   * Tests that random inserts and single deletes give exactly the same
+   * tree as the mutable BST.
+   */
+  @Test
+  public void testMatchesBST() {
+    Random random = new Random(11);
+    BST<Integer> reference = new BST<>();
+    for (int i = 0; i < 3000; i++) {
+      int value = random.nextInt(5000);
+      if (random.nextInt(3) < 2) {
+        reference.insert(value);
+        tree = tree.insert(value);
+      } else {
+        PersistentBST<Integer> next = tree.deleteOne(value);
+        assertEquals(reference.deleteOne(value), next != tree);
+        tree = next;
+      }
+    }
+    assertEquals(reference.printTree(), tree.printTree());
+  }
+}
@@ -0,0 +1,386 @@
+/**
+ * An immutable (persistent) version of {@link KDTree}.
+ * <p>
+ * Nodes are never changed after they are built. An insert or delete copies
+ * only the nodes on the path it touches and returns a new tree sharing every
+ * other node with the old one, so a reader holding an older tree keeps a
+ * consistent view with no locking at all. A write that changes nothing
+ * returns the same tree instance.
+ * <p>
+ * The rules are the same as in {@link KDTree}: splitting alternates between
+ * X (even depth) and Y (odd depth), equal values go right, and deletion
+ * replaces a node with the minimum of its right subtree (or of its left
+ * subtree, which then becomes the right one). Node-visit counts and output
+ * strings therefore match {@link KDTree} exactly.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class PersistentKDTree {
+
+    /**
+     * Immutable tree node.
+     */
+    private static class Node {
+        /** The {@link City} stored at this node. */
+        final City city;
+        /** Left child (smaller values on the current axis). */
+        final Node left;
+        /** Right child (larger or equal values on the current axis). */
+        final Node right;
+
+        /**
+         * Creates a node.
+         *
+         * @param city
+         *              the city to store
+         * @param left
+         *              left child
+         * @param right
+         *              right child
+         */
+        Node(City city, Node left, Node right) {
+            this.city = city;
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    /** Shared empty tree. */
+    private static final PersistentKDTree EMPTY = new PersistentKDTree(null);
+
+    /** The root node (may be {@code null} if empty). */
+    private final Node root;
+
+    /**
+     * Creates a tree with the given root.
+     *
+     * @param root
+     *             root node
+     */
+    private PersistentKDTree(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Returns the empty tree.
+     *
+     * @return an empty tree
+     */
+    public static PersistentKDTree empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns whether the tree holds no cities.
+     *
+     * @return {@code true} if empty
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Returns a tree with the city added.
+     *
+     * @param city
+     *             the city to insert
+     * @return the new tree, or this tree if {@code city} is {@code null} or a
+     *         city with identical coordinates already exists
+     */
+    public PersistentKDTree insert(City city) {
+        if (city == null || find(city.getX(), city.getY()) != null)
+            return this;
+        return new PersistentKDTree(insertRec(root, city, 0));
+    }
+
+    /**
+     * Recursive helper to insert a city, copying the path to it.
+     *
+     * @param node
+     *              current node
+     * @param city
+     *              city to insert
+     * @param depth
+     *              current tree depth (determines axis)
+     * @return the new subtree root
+     */
+    private Node insertRec(Node node, City city, int depth) {
+        if (node == null)
+            return new Node(city, null, null);
+
+        // Equal values go RIGHT in KDTree
+        if (axisValue(city, depth & 1) < axisValue(node.city, depth & 1))
+            return new Node(node.city, insertRec(node.left, city, depth + 1),
+                    node.right);
+        return new Node(node.city, node.left,
+                insertRec(node.right, city, depth + 1));
+    }
+
+    /**
+     * Finds a city by its coordinates.
+     *
+     * @param x
+     *          the x-coordinate
+     * @param y
+     *          the y-coordinate
+     * @return the {@link City} if found, or {@code null} if not present
+     */
+    public City find(int x, int y) {
+        Node node = root;
+        int depth = 0;
+        while (node != null) {
+            if (node.city.getX() == x && node.city.getY() == y)
+                return node.city;
+            int searchValue = ((depth & 1) == 0) ? x : y;
+            node = (searchValue < axisValue(node.city, depth & 1))
+                    ? node.left
+                    : node.right;
+            depth++;
+        }
+        return null;
+    }
+
+    /**
+     * Returns a tree without the city at the given coordinates.
+     *
+     * @param x
+     *               the x-coordinate of the city to delete
+     * @param y
+     *               the y-coordinate of the city to delete
+     * @param output
+     *               receives what {@link KDTree#delete(int, int)} returns: the
+     *               number of visited nodes and, if deleted, the city's name
+     * @return the new tree, or this tree if there was no such city
+     */
+    public PersistentKDTree delete(int x, int y, StringBuilder output) {
+        int[] visited = new int[] { 0 };
+        StringBuilder name = new StringBuilder();
+        Node newRoot = deleteRec(root, x, y, 0, visited, name);
+        if (name.length() == 0) {
+            output.append(visited[0]).append(' ');
+            return this;
+        }
+        output.append(visited[0]).append('\n').append(name);
+        return new PersistentKDTree(newRoot);
+    }
+
+    /**
+     * Recursive deletion helper. Returns {@code node} itself when nothing
+     * below it was deleted.
+     *
+     * @param node
+     *                current node
+     * @param x
+     *                x-coordinate
+     * @param y
+     *                y-coordinate
+     * @param depth
+     *                current depth
+     * @param visited
+     *                node visit counter
+     * @param name
+     *                buffer to store deleted city name
+     * @return the new subtree root
+     */
+    private Node deleteRec(
+            Node node,
+            int x,
+            int y,
+            int depth,
+            int[] visited,
+            StringBuilder name) {
+        if (node == null)
+            return null;
+        visited[0]++;
+
+        if (node.city.getX() == x && node.city.getY() == y) {
+            name.append(node.city.getName());
+            return deleteNode(node, depth, visited);
+        }
+
+        int searchValue = ((depth & 1) == 0) ? x : y;
+        if (searchValue < axisValue(node.city, depth & 1)) {
+            Node left = deleteRec(node.left, x, y, depth + 1, visited, name);
+            return (left == node.left)
+                    ? node
+                    : new Node(node.city, left, node.right);
+        }
+        Node right = deleteRec(node.right, x, y, depth + 1, visited, name);
+        return (right == node.right)
+                ? node
+                : new Node(node.city, node.left, right);
+    }
+
+    /**
+     * Builds the replacement for a deleted node: the minimum of its right
+     * subtree, or else the minimum of its left subtree with the rest of the
+     * left subtree moved to the right.
+     *
+     * @param node
+     *                node to delete
+     * @param depth
+     *                current depth
+     * @param visited
+     *                node visit counter
+     * @return the new root of this subtree
+     */
+    private Node deleteNode(Node node, int depth, int[] visited) {
+        Node subtree = (node.right != null) ? node.right : node.left;
+        if (subtree == null)
+            return null;
+
+        City successor = findMin(subtree, depth & 1, depth + 1, visited).city;
+        Node rest = deleteRec(subtree, successor.getX(), successor.getY(),
+                depth + 1, visited, new StringBuilder());
+        Node left = (node.right != null) ? node.left : null;
+        return new Node(successor, left, rest);
+    }
+
+    /**
+     * Finds the node with the minimum value on the given axis in a subtree.
+     *
+     * @param node
+     *                subtree root
+     * @param axis
+     *                axis to minimize (0 for x, 1 for y)
+     * @param depth
+     *                current depth
+     * @param visited
+     *                node visit counter
+     * @return node with minimum coordinate on the given axis
+     */
+    private Node findMin(Node node, int axis, int depth, int[] visited) {
+        if (node == null)
+            return null;
+        visited[0]++;
+        Node leftMin = findMin(node.left, axis, depth + 1, visited);
+        if ((depth & 1) == axis)
+            return (leftMin != null) ? leftMin : node;
+
+        Node rightMin = findMin(node.right, axis, depth + 1, visited);
+        Node min = node;
+        if (leftMin != null
+                && axisValue(leftMin.city, axis) < axisValue(min.city, axis))
+            min = leftMin;
+        if (rightMin != null
+                && axisValue(rightMin.city, axis) < axisValue(min.city, axis))
+            min = rightMin;
+        return min;
+    }
+
+    /**
+     * Returns a city's coordinate on one axis.
+     *
+     * @param c
+     *             the city
+     * @param axis
+     *             0 for x, 1 for y
+     * @return the coordinate
+     */
+    private static int axisValue(City c, int axis) {
+        return (axis == 0) ? c.getX() : c.getY();
+    }
+
+    /**
+     * Finds all cities within a given radius of a point.
+     *
+     * @param x
+     *               query x-coordinate
+     * @param y
+     *               query y-coordinate
+     * @param radius
+     *               search radius (must be non-negative)
+     * @return a string containing matching cities followed by the number of
+     *         visited nodes
+     */
+    public String search(int x, int y, int radius) {
+        if (radius < 0)
+            return "";
+        StringBuilder sb = new StringBuilder();
+        int[] visited = { 0 };
+        searchRec(root, x, y, radius, 0, sb, visited);
+        sb.append(visited[0]);
+        return sb.toString();
+    }
+
+    /**
+     * Recursive helper for range search.
+     *
+     * @param node
+     *                current node
+     * @param qx
+     *                query x
+     * @param qy
+     *                query y
+     * @param radius
+     *                search radius
+     * @param depth
+     *                current depth
+     * @param sb
+     *                result accumulator
+     * @param visited
+     *                node visit counter
+     */
+    private void searchRec(
+            Node node,
+            int qx,
+            int qy,
+            int radius,
+            int depth,
+            StringBuilder sb,
+            int[] visited) {
+        if (node == null)
+            return;
+        visited[0]++;
+
+        int dx = node.city.getX() - qx;
+        int dy = node.city.getY() - qy;
+        if (dx * dx + dy * dy <= radius * radius) {
+            sb.append(node.city.toString()).append("\n");
+        }
+
+        int diff = ((depth & 1) == 0) ? dx : dy;
+        if (diff > -radius)
+            searchRec(node.left, qx, qy, radius, depth + 1, sb, visited);
+        if (diff <= radius)
+            searchRec(node.right, qx, qy, radius, depth + 1, sb, visited);
+    }
+
+    /**
+     * Returns a formatted in-order traversal of the tree, in the same format
+     * as {@link KDTree#printTree()}.
+     *
+     * @return a string representation of the tree structure
+     */
+    public String printTree() {
+        StringBuilder sb = new StringBuilder();
+        printRec(root, sb, 0);
+        return sb.toString();
+    }
+
+    /**
+     * Recursive helper for printing the tree structure.
+     *
+     * @param node
+     *              current node
+     * @param sb
+     *              output accumulator
+     * @param depth
+     *              current depth
+     */
+    private void printRec(Node node, StringBuilder sb, int depth) {
+        if (node == null)
+            return;
+
+        printRec(node.left, sb, depth + 1);
+
+        sb.append(depth);
+        if (depth > 0)
+            sb.append("  ".repeat(depth));
+        sb.append(node.city.toString()).append("\n");
+
+        printRec(node.right, sb, depth + 1);
+    }
+}
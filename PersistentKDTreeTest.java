@@ -0,0 +1,88 @@
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+import student.TestCase;
+
+/**
+ * Tests for {@link PersistentKDTree}: it must match {@link KDTree} exactly
+ * and never change a tree that has already been returned.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class PersistentKDTreeTest extends TestCase {
+
+  private PersistentKDTree tree;
+
+  /**
+   * Starts every test from the empty tree.
+   */
+  @Before
+  public void setUp() {
+    tree = PersistentKDTree.empty();
+  }
+
+  /**
+   * Tests that writes leave earlier versions untouched.
+   */
+  @Test
+  public void testOldVersionsAreUnchanged() {
+    PersistentKDTree one = tree.insert(new City("A", 50, 50));
+    PersistentKDTree two = one.insert(new City("B", 25, 75));
+    assertTrue(tree.isEmpty());
+    assertEquals("0A (50, 50)\n", one.printTree());
+    assertEquals("1  B (25, 75)\n0A (50, 50)\n", two.printTree());
+
+    StringBuilder out = new StringBuilder();
+    PersistentKDTree three = two.delete(50, 50, out);
+    assertEquals("3\nA", out.toString());
+    assertEquals("0B (25, 75)\n", three.printTree());
+    assertEquals("1  B (25, 75)\n0A (50, 50)\n", two.printTree());
+    assertNotNull(two.find(50, 50));
+    assertNull(three.find(50, 50));
+  }
+
+  /**
+   * Tests that writes which change nothing return the same instance.
+   */
+  @Test
+  public void testNoOpWritesReturnSameTree() {
+    PersistentKDTree one = tree.insert(new City("A", 1, 2));
+    assertSame(one, one.insert(new City("Dup", 1, 2)));
+    assertSame(one, one.insert(null));
+    StringBuilder out = new StringBuilder();
+    assertSame(one, one.delete(9, 9, out));
+    assertEquals("1 ", out.toString());
+    assertEquals("", one.search(0, 0, -1));
+    assertEquals("0", tree.search(0, 0, 10));
+  }
+
+  /**
+   * Tests that random inserts, deletes and searches give exactly the same
+   * output and node counts as the mutable KDTree.
+   */
+  @Test
+  public void testMatchesKDTree() {
+    Random random = new Random(7);
+    KDTree reference = new KDTree();
+    for (int i = 0; i < 4000; i++) {
+      int x = random.nextInt(300);
+      int y = random.nextInt(300);
+      int op = random.nextInt(10);
+      if (op < 6) {
+        City c = new City("C" + i, x, y);
+        PersistentKDTree next = tree.insert(c);
+        assertEquals(reference.insert(c), next != tree);
+        tree = next;
+      } else if (op < 9) {
+        StringBuilder out = new StringBuilder();
+        tree = tree.delete(x, y, out);
+        assertEquals(reference.delete(x, y), out.toString());
+      } else {
+        assertEquals(reference.search(x, y, 40), tree.search(x, y, 40));
+      }
+    }
+    assertEquals(reference.printTree(), tree.printTree());
+  }
+}
@@ -0,0 +1,176 @@
+/**
+ * Counts the work an index operation did: nodes visited, subtrees pruned
+ * without being visited, matches, the deepest level reached and the keys
+ * compared. {@link KDTree} and {@link BST} fill one in for each operation,
+ * with or without metrics, because the visit counts they report come from
+ * it; {@link GISMetrics} adds them up per operation type when enabled.
+ * <p>
+ * A new instance describes one operation. {@link #add(QueryStats)} makes it
+ * the total of many, so the averages and {@link #getPruneRatio()} show how
+ * well the trees prune as the data changes.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class QueryStats {
+
+    private long operations;
+    private long visited;
+    private long pruned;
+    private long matches;
+    private long comparisons;
+    private int maxDepth;
+
+    /**
+     * Creates the statistics of one operation, with nothing counted yet.
+     */
+    public QueryStats() {
+        operations = 1;
+    }
+
+    /**
+     * Creates totals counted elsewhere.
+     *
+     * @param operations
+     *                    number of operations
+     * @param visited
+     *                    nodes visited
+     * @param pruned
+     *                    subtrees skipped
+     * @param matches
+     *                    matching entries
+     * @param comparisons
+     *                    keys compared
+     * @param maxDepth
+     *                    deepest level reached, the root being 0
+     */
+    QueryStats(long operations, long visited, long pruned, long matches,
+        long comparisons, int maxDepth) {
+        this.operations = operations;
+        this.visited = visited;
+        this.pruned = pruned;
+        this.matches = matches;
+        this.comparisons = comparisons;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Counts a node visited.
+     *
+     * @param depth
+     *              its level, the root being 0
+     */
+    void visit(int depth) {
+        visited++;
+        if (depth > maxDepth) {
+            maxDepth = depth;
+        }
+    }
+
+    /**
+     * Counts a non-empty subtree skipped because it cannot hold a match.
+     */
+    void prune() {
+        pruned++;
+    }
+
+    /**
+     * Counts a matching entry.
+     */
+    void match() {
+        matches++;
+    }
+
+    /**
+     * Counts a key comparison.
+     */
+    void compare() {
+        comparisons++;
+    }
+
+    /**
+     * Adds another operation's (or total's) counts to these.
+     *
+     * @param other
+     *              the counts to add
+     */
+    public void add(QueryStats other) {
+        operations += other.operations;
+        visited += other.visited;
+        pruned += other.pruned;
+        matches += other.matches;
+        comparisons += other.comparisons;
+        maxDepth = Math.max(maxDepth, other.maxDepth);
+    }
+
+    /**
+     * @return the number of operations counted
+     */
+    public long getOperations() {
+        return operations;
+    }
+
+    /**
+     * @return the nodes visited
+     */
+    public long getVisited() {
+        return visited;
+    }
+
+    /**
+     * @return the non-empty subtrees skipped without being visited
+     */
+    public long getPruned() {
+        return pruned;
+    }
+
+    /**
+     * @return the matching entries found, deleted or inserted
+     */
+    public long getMatches() {
+        return matches;
+    }
+
+    /**
+     * @return the keys compared
+     */
+    public long getComparisons() {
+        return comparisons;
+    }
+
+    /**
+     * @return the deepest level reached, the root being 0
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * @return the nodes visited per operation, 0 if there were none
+     */
+    public double getMeanVisited() {
+        return (operations == 0) ? 0 : (double)visited / operations;
+    }
+
+    /**
+     * Returns the share of subtrees the operations reached that they could
+     * skip: pruned / (visited + pruned). A full traversal scores 0.
+     *
+     * @return from 0 to 1
+     */
+    public double getPruneRatio() {
+        long reached = visited + pruned;
+        return (reached == 0) ? 0 : (double)pruned / reached;
+    }
+
+    /**
+     * @return the counts on one line
+     */
+    @Override
+    public String toString() {
+        return String.format("ops=%d visited=%d pruned=%d matches=%d "
+            + "comparisons=%d maxDepth=%d", operations, visited, pruned,
+            matches, comparisons, maxDepth);
+    }
+}
@@ -0,0 +1,125 @@
+import student.TestCase;
+
+/**
+ * Tests for {@link QueryStats} and the counts {@link KDTree} and
+ * {@link BST} put in it.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class QueryStatsTest extends TestCase {
+
+    private KDTree kd;
+    private BST<City> bst;
+
+    /**
+     * Builds a small k-d tree and BST:
+     *
+     * <pre>
+     *         M(500,500)
+     *        /          \
+     *   C(100,400)   X(900,600)
+     *      \
+     *    D(200,900)
+     * </pre>
+     */
+    public void setUp() {
+        kd = new KDTree();
+        bst = new BST<>();
+        City[] cities = { new City("M", 500, 500), new City("C", 100, 400),
+            new City("X", 900, 600), new City("D", 200, 900) };
+        for (City c : cities) {
+            kd.insert(c);
+            bst.insert(c);
+        }
+    }
+
+    /**
+     * Tests the counts of a point lookup.
+     */
+    public void testFind() {
+        QueryStats stats = new QueryStats();
+        assertEquals("D", kd.find(200, 900, stats).getName());
+        assertEquals(3, stats.getVisited());
+        assertEquals(2, stats.getMaxDepth());
+        assertEquals(1, stats.getPruned()); // X's subtree
+        assertEquals(1, stats.getMatches());
+        assertEquals(3, stats.getComparisons());
+        assertEquals(0.25, stats.getPruneRatio(), 1e-9);
+
+        stats = new QueryStats();
+        assertNull(kd.find(950, 0, stats));
+        assertEquals(0, stats.getMatches());
+    }
+
+    /**
+     * Tests that the counts of search and delete agree with the visit
+     * count they print, even when added to earlier counts.
+     */
+    public void testSearchAndDelete() {
+        QueryStats stats = new QueryStats();
+        String result = kd.search(900, 600, 50, stats);
+        assertEquals("X (900, 600)\n2", result);
+        assertEquals(1, stats.getMatches());
+        assertEquals(1, stats.getPruned()); // C's subtree
+        assertEquals(kd.search(900, 600, 50), result);
+
+        String deleted = kd.delete(500, 500, stats);
+        assertEquals(kd.delete(1, 1), kd.delete(1, 1, new QueryStats()));
+        assertTrue(deleted.endsWith("\nM"));
+        long visits = Long.parseLong(deleted.substring(0, deleted.indexOf(
+            '\n')));
+        assertEquals(2 + visits, stats.getVisited());
+        assertEquals(2, stats.getMatches());
+    }
+
+    /**
+     * Tests the counts of the BST operations.
+     */
+    public void testBST() {
+        QueryStats stats = new QueryStats();
+        assertEquals("D (200, 900)", bst.findAll(new City("D", 0, 0), stats));
+        assertEquals(4, stats.getVisited());
+        assertEquals(0, stats.getPruned()); // findAll visits every node
+        assertEquals(1, stats.getMatches());
+
+        stats = new QueryStats();
+        bst.insert(new City("A", 1, 1), stats);
+        assertEquals(2, stats.getVisited()); // M, C
+        assertEquals(2, stats.getPruned()); // X and D
+        assertEquals(1, stats.getMatches());
+
+        stats = new QueryStats();
+        assertTrue(bst.deleteOne(new City("X", 900, 600), stats));
+        assertEquals(1, stats.getMatches());
+        assertEquals(2, stats.getVisited());
+
+        stats = new QueryStats();
+        assertTrue(bst.deleteAll(new City("A", 0, 0), stats));
+        assertFalse(bst.deleteAll(new City("A", 0, 0), new QueryStats()));
+        assertEquals(4, stats.getVisited());
+        assertEquals(1, stats.getMatches());
+    }
+
+    /**
+     * Tests adding counts together.
+     */
+    public void testAdd() {
+        QueryStats total = new QueryStats(0, 0, 0, 0, 0, 0);
+        assertEquals(0.0, total.getMeanVisited(), 0.0);
+        assertEquals(0.0, total.getPruneRatio(), 0.0);
+        QueryStats one = new QueryStats();
+        kd.find(200, 900, one);
+        QueryStats two = new QueryStats();
+        kd.find(900, 600, two);
+        total.add(one);
+        total.add(two);
+        assertEquals(2, total.getOperations());
+        assertEquals(5, total.getVisited());
+        assertEquals(2, total.getMaxDepth());
+        assertEquals(2.5, total.getMeanVisited(), 1e-9);
+        assertEquals("ops=2 visited=5 pruned=2 matches=2 comparisons=5 "
+            + "maxDepth=2", total.toString());
+    }
+}
@@ -0,0 +1,200 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded least-recently-used cache of {@link GISDB#search(int, int, int)}
+ * results, keyed on (x, y, radius), so a popular search is a hash lookup.
+ * <p>
+ * A search result includes the number of k-d tree nodes visited, which
+ * depends on the shape of the tree and not only on the cities in the
+ * circle. So when the tree changes, the database evicts every cached search
+ * that could reach the part of the tree that changed: the region (cell) of
+ * the plane covered by the subtree holding the inserted or deleted point. A
+ * search reaches a subtree exactly when its square of side 2 * radius
+ * around the centre overlaps the subtree's cell, so cached results stay
+ * identical to what the tree would return, while searches elsewhere stay
+ * cached. That is a superset of the circles containing the point.
+ * <p>
+ * All methods are synchronized, so concurrent readers (such as under
+ * {@link ConcurrentGISDB}'s shared lock, after
+ * {@link ConcurrentGISDB#setSearchCache(int)}) can use the cache.
+ * Invalidation checks every cached search, so keep the capacity to the hot
+ * set.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class SearchCache {
+
+    /**
+     * The arguments of a search.
+     */
+    private static final class Key {
+        private final int x;
+        private final int y;
+        private final int radius;
+
+        /**
+         * Creates a key.
+         *
+         * @param x
+         *               centre x-coordinate
+         * @param y
+         *               centre y-coordinate
+         * @param radius
+         *               radius
+         */
+        Key(int x, int y, int radius) {
+            this.x = x;
+            this.y = y;
+            this.radius = radius;
+        }
+
+        /**
+         * Returns whether the search can reach a region.
+         *
+         * @param cell
+         *             the region, {minX, maxX, minY, maxY}, inclusive
+         * @return whether the search square overlaps it
+         */
+        boolean reaches(int[] cell) {
+            return (long)x - radius <= cell[1] && cell[0] <= (long)x + radius
+                && (long)y - radius <= cell[3] && cell[2] <= (long)y + radius;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key)o;
+            return x == other.x && y == other.y && radius == other.radius;
+        }
+
+        @Override
+        public int hashCode() {
+            return (x * 31 + y) * 31 + radius;
+        }
+    }
+
+    private final int capacity;
+    private final LinkedHashMap<Key, String> results;
+    private long hits;
+    private long misses;
+    private long invalidations;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param capacity
+     *                 the most searches to keep, at least 1
+     */
+    public SearchCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        results = new LinkedHashMap<Key, String>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, String> e) {
+                return size() > SearchCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Looks up a search.
+     *
+     * @param x
+     *               centre x-coordinate
+     * @param y
+     *               centre y-coordinate
+     * @param radius
+     *               radius
+     * @return the cached result, or null
+     */
+    public synchronized String get(int x, int y, int radius) {
+        String result = results.get(new Key(x, y, radius));
+        if (result == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return result;
+    }
+
+    /**
+     * Caches a search result, evicting the least recently used one if the
+     * cache is full.
+     *
+     * @param x
+     *               centre x-coordinate
+     * @param y
+     *               centre y-coordinate
+     * @param radius
+     *               radius
+     * @param result
+     *               what the search returned
+     */
+    public synchronized void put(int x, int y, int radius, String result) {
+        results.put(new Key(x, y, radius), result);
+    }
+
+    /**
+     * Evicts every search that can reach a region of the k-d tree.
+     *
+     * @param cell
+     *             the region, {minX, maxX, minY, maxY}, inclusive
+     */
+    public synchronized void invalidate(int[] cell) {
+        int before = results.size();
+        results.keySet().removeIf(k -> k.reaches(cell));
+        invalidations += before - results.size();
+    }
+
+    /**
+     * Evicts everything, for changes that rebuild the tree.
+     */
+    public synchronized void clear() {
+        invalidations += results.size();
+        results.clear();
+    }
+
+    /**
+     * @return the number of searches cached
+     */
+    public synchronized int size() {
+        return results.size();
+    }
+
+    /**
+     * @return the most searches kept
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return lookups that found a result
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return lookups that found nothing
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return results evicted because the tree changed
+     */
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+}
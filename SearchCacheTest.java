@@ -0,0 +1,130 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import student.TestCase;
+
+/**
+ * Tests for {@link SearchCache} and the search caching of {@link GISDB}.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class SearchCacheTest extends TestCase {
+
+    /**
+     * Tests hits, misses and least-recently-used eviction.
+     */
+    public void testLru() {
+        SearchCache cache = new SearchCache(2);
+        assertNull(cache.get(1, 2, 3));
+        cache.put(1, 2, 3, "a");
+        cache.put(4, 5, 6, "b");
+        assertEquals("a", cache.get(1, 2, 3));
+        cache.put(7, 8, 9, "c"); // evicts (4, 5, 6)
+        assertEquals(2, cache.size());
+        assertNull(cache.get(4, 5, 6));
+        assertEquals("a", cache.get(1, 2, 3));
+        assertEquals("c", cache.get(7, 8, 9));
+        assertEquals(3, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.getCapacity());
+
+        Exception thrown = null;
+        try {
+            new SearchCache(0);
+        } catch (IllegalArgumentException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+    }
+
+    /**
+     * Tests that only searches reaching a region are evicted.
+     */
+    public void testInvalidate() {
+        SearchCache cache = new SearchCache(10);
+        cache.put(100, 100, 10, "near");
+        cache.put(500, 500, 10, "far");
+        cache.put(Integer.MAX_VALUE, 0, Integer.MAX_VALUE, "huge");
+        cache.invalidate(new int[] { 0, 110, 0, 50 }); // reaches only huge
+        assertEquals(2, cache.size());
+        assertEquals("near", cache.get(100, 100, 10));
+        cache.invalidate(new int[] { 0, 89, 0, 89 });
+        assertEquals(2, cache.size());
+        cache.invalidate(new int[] { 0, 110, 110, 110 });
+        assertEquals(1, cache.size());
+        assertEquals("far", cache.get(500, 500, 10));
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(3, cache.getInvalidations());
+    }
+
+    /**
+     * Tests that a cached database answers every search exactly like an
+     * uncached one through random inserts, deletes and batches.
+     */
+    public void testMatchesUncached() {
+        GISDB cached = new GISDB();
+        GISDB plain = new GISDB();
+        cached.setSearchCache(64);
+        Random random = new Random(11);
+        int[][] hot = new int[20][3];
+        for (int[] q : hot) {
+            q[0] = random.nextInt(1000);
+            q[1] = random.nextInt(1000);
+            q[2] = random.nextInt(200);
+        }
+        for (int i = 0; i < 3000; i++) {
+            int x = random.nextInt(1000);
+            int y = random.nextInt(1000);
+            int r = random.nextInt(10);
+            if (r < 3) {
+                assertEquals(plain.insert("C" + (x % 7), x, y), cached.insert(
+                    "C" + (x % 7), x, y));
+            } else if (r == 3) {
+                assertEquals(plain.delete(x, y), cached.delete(x, y));
+            } else if (r == 4 && i % 50 == 0) {
+                assertEquals(plain.delete("C" + (x % 7)), cached.delete("C"
+                    + (x % 7)));
+            } else if (r == 5 && i % 100 == 0) {
+                List<GISDB.Op> ops = new ArrayList<>();
+                ops.add(GISDB.Op.insert("B", x, y));
+                ops.add(GISDB.Op.delete(y, x));
+                plain.applyBatch(ops);
+                cached.applyBatch(ops);
+            } else {
+                int[] q = hot[random.nextInt(hot.length)];
+                assertEquals(plain.search(q[0], q[1], q[2]), cached.search(
+                    q[0], q[1], q[2]));
+            }
+        }
+        SearchCache cache = cached.getSearchCache();
+        assertTrue(cache.getHits() > 0);
+        assertTrue(cache.getInvalidations() > 0);
+
+        cached.clear();
+        assertEquals(0, cache.size());
+        assertEquals("0", cached.search(1, 1, 1));
+        cached.setSearchCache(0);
+        assertNull(cached.getSearchCache());
+    }
+
+    /**
+     * Tests that an insert far from a cached search keeps it cached.
+     */
+    public void testPreciseInvalidation() {
+        GISDB db = new GISDB();
+        db.setSearchCache(8);
+        db.insert("M", 500, 500);
+        db.insert("A", 100, 100);
+        db.insert("Z", 900, 900);
+        String near = db.search(100, 100, 10);
+        db.insert("Y", 950, 950); // in Z's subtree, out of reach
+        assertEquals(near, db.search(100, 100, 10));
+        assertEquals(1, db.getSearchCache().getHits());
+        db.insert("B", 120, 120); // below A: reachable
+        assertEquals(0, db.getSearchCache().size());
+        assertFalse(near.equals(db.search(100, 100, 10)));
+    }
+}
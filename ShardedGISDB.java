@@ -0,0 +1,539 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// -------------------------------------------------------------------------
+/**
+ * A thread-safe {@link GIS} implementation that splits the coordinate space
+ * into vertical stripes. Each stripe has its own {@link KDTree} and its own
+ * read-write lock, so operations on different stripes never wait for each
+ * other and each tree stays small enough to be cache friendly.
+ * <p>
+ * Point operations ({@code insert}, {@code delete(int, int)} and
+ * {@code info(int, int)}) touch only the stripe holding the x-coordinate.
+ * {@code search} only visits the stripes that overlap the bounding square of
+ * the search circle. The name index is partitioned the same way: cities are
+ * listed in one of several {@link BST}s chosen by the hash of their name,
+ * each with its own lock, so {@code info(String)} and {@code delete(String)}
+ * touch a single name shard and writers on different names do not queue on
+ * one lock.
+ * <p>
+ * Locks are always taken in the same order, name shards in ascending index
+ * and then stripes in ascending index, so operations that need several of
+ * them cannot deadlock.
+ * <p>
+ * The answers differ from {@link GISDB} only where they describe tree shape.
+ * {@code search} lists the matches stripe by stripe and reports the total
+ * number of nodes visited in all stripes it searched. {@code delete(int, int)}
+ * counts nodes in the one stripe it touched. {@code debug} lists each stripe's
+ * tree in turn, with levels counted inside that stripe, and {@code print}
+ * merges the name shards into one alphabetical listing with levels counted
+ * inside each name shard.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class ShardedGISDB implements GIS {
+
+    /** One k-d tree per stripe, ordered by x. */
+    private final KDTree[] shards;
+
+    /** Lock for each stripe, same index as {@link #shards}. */
+    private final ReentrantReadWriteLock[] shardLocks;
+
+    /** Width of every stripe except possibly the last. */
+    private final int stripeWidth;
+
+    /** Cities keyed on name, one tree per name shard. */
+    private final BST<City>[] names;
+
+    /**
+     * Lock for each name shard, same index as {@link #names}. Always taken
+     * before any stripe locks.
+     */
+    private final ReentrantReadWriteLock[] nameLocks;
+
+    // ----------------------------------------------------------
+    /**
+     * Create a new ShardedGISDB with one stripe per available processor.
+     */
+    ShardedGISDB() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Create a new ShardedGISDB with the given number of stripes and as many
+     * name shards.
+     *
+     * @param shardCount
+     *                   number of stripes, from 1 to MAXCOORD + 1
+     * @throws IllegalArgumentException
+     *                                  if {@code shardCount} is out of range
+     */
+    ShardedGISDB(int shardCount) {
+        if (shardCount < 1 || shardCount > GISDB.MAXCOORD + 1) {
+            throw new IllegalArgumentException(
+                "shard count must be between 1 and " + (GISDB.MAXCOORD + 1));
+        }
+        stripeWidth = (GISDB.MAXCOORD + shardCount) / shardCount;
+        int count = (GISDB.MAXCOORD + stripeWidth) / stripeWidth;
+        shards = new KDTree[count];
+        shardLocks = new ReentrantReadWriteLock[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new KDTree();
+            shardLocks[i] = new ReentrantReadWriteLock();
+        }
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        BST<City>[] trees = new BST[count];
+        names = trees;
+        nameLocks = new ReentrantReadWriteLock[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = new BST<>();
+            nameLocks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Returns the number of stripes.
+     *
+     * @return the stripe count
+     */
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Returns the stripe holding an x-coordinate.
+     *
+     * @param x
+     *          an x-coordinate from 0 to MAXCOORD
+     * @return the stripe index
+     */
+    private int shardOf(int x) {
+        return x / stripeWidth;
+    }
+
+    /**
+     * Returns the name shard holding a city name. Cities with equal names
+     * always share a name shard.
+     *
+     * @param name
+     *             a city name
+     * @return the name shard index
+     */
+    private int nameShardOf(String name) {
+        return Math.floorMod(name.hashCode(), names.length);
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Reinitialize the database
+     *
+     * @return True if the database has been cleared
+     */
+    public boolean clear() {
+        lockNames(true);
+        lockShards(0, shards.length - 1, true);
+        try {
+            for (int i = 0; i < shards.length; i++) {
+                shards[i] = new KDTree();
+                names[i] = new BST<>();
+            }
+            return true;
+        } finally {
+            unlockShards(0, shards.length - 1, true);
+            unlockNames(true);
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * A city at coordinate (x, y) with name name is entered into the database.
+     * It is an error to insert two cities with identical coordinates, but not
+     * an error to insert two cities with identical names.
+     *
+     * @param name
+     *             City name.
+     * @param x
+     *             City x-coordinate. Integer in the range 0 to 2^{15} - 1.
+     * @param y
+     *             City y-coordinate. Integer in the range 0 to 2^{15} - 1.
+     * @return True iff the city is successfully entered into the database
+     */
+    public boolean insert(String name, int x, int y) {
+        if (x < 0 || x > GISDB.MAXCOORD) {
+            return false;
+        }
+        if (y < 0 || y > GISDB.MAXCOORD) {
+            return false;
+        }
+        City cityToAdd = new City(name, x, y);
+        int nameShard = nameShardOf(name);
+        int shard = shardOf(x);
+        nameLocks[nameShard].writeLock().lock();
+        shardLocks[shard].writeLock().lock();
+        try {
+            if (!shards[shard].insert(cityToAdd)) {
+                return false;
+            }
+            names[nameShard].insert(cityToAdd);
+            return true;
+        } finally {
+            shardLocks[shard].writeLock().unlock();
+            nameLocks[nameShard].writeLock().unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * The city with these coordinates is deleted from the database (if it
+     * exists).
+     * <p>
+     * The city's name, and so its name shard, is looked up under the stripe
+     * read lock first. The name shard and stripe are then write-locked in
+     * order; if another writer replaced the city in between, the lookup is
+     * repeated.
+     *
+     * @param x
+     *          City x-coordinate.
+     * @param y
+     *          City y-coordinate.
+     * @return A string with the number of nodes visited in the city's stripe
+     *         during the deletion followed by the name of the city (this is
+     *         blank if nothing was deleted).
+     */
+    public String delete(int x, int y) {
+        if (x < 0 || x > GISDB.MAXCOORD) {
+            return "";
+        }
+        int shard = shardOf(x);
+        while (true) {
+            City cityToRemove;
+            shardLocks[shard].readLock().lock();
+            try {
+                cityToRemove = shards[shard].find(x, y);
+            } finally {
+                shardLocks[shard].readLock().unlock();
+            }
+            if (cityToRemove == null) {
+                return "";
+            }
+
+            int nameShard = nameShardOf(cityToRemove.getName());
+            nameLocks[nameShard].writeLock().lock();
+            shardLocks[shard].writeLock().lock();
+            try {
+                if (shards[shard].find(x, y) == cityToRemove) {
+                    String kdOutput = shards[shard].delete(x, y);
+                    names[nameShard].deleteOne(cityToRemove);
+                    return kdOutput;
+                }
+            } finally {
+                shardLocks[shard].writeLock().unlock();
+                nameLocks[nameShard].writeLock().unlock();
+            }
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * The city with this name is deleted from the database (if it exists). If
+     * two or more cities have this name, then ALL such cities are removed.
+     * <p>
+     * Only the city's name shard and the stripes holding a matching city are
+     * locked. The matches are found under the name shard's write lock, which
+     * is held while the stripes are locked, so they cannot change in between.
+     *
+     * @param name
+     *             City name.
+     * @return A string with the coordinates of each city that is deleted, or
+     *         the empty string if no cities match.
+     */
+    public String delete(String name) {
+        City key = new City(name, 0, 0);
+        int nameShard = nameShardOf(name);
+        nameLocks[nameShard].writeLock().lock();
+        try {
+            List<City> matches = new ArrayList<>();
+            names[nameShard].findAll(key, matches);
+            if (matches.isEmpty()) {
+                return "";
+            }
+
+            boolean[] needed = new boolean[shards.length];
+            for (City c : matches) {
+                needed[shardOf(c.getX())] = true;
+            }
+            lockShards(needed);
+            try {
+                for (City c : matches) {
+                    shards[shardOf(c.getX())].delete(c.getX(), c.getY());
+                }
+            } finally {
+                unlockShards(needed);
+            }
+            String allMatches = names[nameShard].findAll(key);
+            names[nameShard].deleteAll(key);
+            return allMatches;
+        } finally {
+            nameLocks[nameShard].writeLock().unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Display the name of the city at coordinate (x, y) if it exists.
+     *
+     * @param x
+     *          X coordinate.
+     * @param y
+     *          Y coordinate.
+     * @return The city name if there is such a city, empty otherwise
+     */
+    public String info(int x, int y) {
+        if (x < 0 || x > GISDB.MAXCOORD) {
+            return "";
+        }
+        int shard = shardOf(x);
+        shardLocks[shard].readLock().lock();
+        try {
+            City found = shards[shard].find(x, y);
+            return (found == null) ? "" : found.getName();
+        } finally {
+            shardLocks[shard].readLock().unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Display the coordinates of all cities with this name, if any exist.
+     *
+     * @param name
+     *             The city name.
+     * @return String representing the list of cities and coordinates, empty if
+     *         there are none.
+     */
+    public String info(String name) {
+        if (name == null) {
+            return "";
+        }
+        int nameShard = nameShardOf(name);
+        nameLocks[nameShard].readLock().lock();
+        try {
+            return names[nameShard].findAll(new City(name, 0, 0));
+        } finally {
+            nameLocks[nameShard].readLock().unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * All cities within radius distance from location (x, y) are listed. Only
+     * the stripes overlapping [x - radius, x + radius] are searched; they are
+     * read-locked together, so the result is a consistent view.
+     *
+     * @param x
+     *               Search circle center: X coordinate. May be negative.
+     * @param y
+     *               Search circle center: Y coordinate. May be negative.
+     * @param radius
+     *               Search radius, must be non-negative.
+     * @return String listing the cities found (if any), stripe by stripe,
+     *         followed by the total number of k-d tree nodes looked at. If the
+     *         radius is bad, return an empty string.
+     */
+    public String search(int x, int y, int radius) {
+        if (radius < 0) {
+            return "";
+        }
+        long low = Math.max(0L, (long)x - radius);
+        long high = Math.min(GISDB.MAXCOORD, (long)x + radius);
+        if (low > high) {
+            return "0";
+        }
+        int first = shardOf((int)low);
+        int last = shardOf((int)high);
+
+        StringBuilder sb = new StringBuilder();
+        int visited = 0;
+        lockShards(first, last, false);
+        try {
+            for (int i = first; i <= last; i++) {
+                String result = shards[i].search(x, y, radius);
+                int split = result.lastIndexOf('\n') + 1;
+                sb.append(result, 0, split);
+                visited += Integer.parseInt(result.substring(split));
+            }
+        } finally {
+            unlockShards(first, last, false);
+        }
+        return sb.append(visited).toString();
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Print each stripe's k-d tree in turn, in x order, one city per line.
+     *
+     * @return String listing the cities as specified.
+     */
+    public String debug() {
+        StringBuilder sb = new StringBuilder();
+        lockShards(0, shards.length - 1, false);
+        try {
+            for (KDTree shard : shards) {
+                sb.append(shard.printTree());
+            }
+        } finally {
+            unlockShards(0, shards.length - 1, false);
+        }
+        return sb.toString();
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Print a listing of the name shards merged in alphabetical order, one
+     * city per line. All name shards are read-locked together, so the
+     * listing is a consistent view.
+     *
+     * @return String listing the cities as specified.
+     */
+    public String print() {
+        List<List<City>> values = new ArrayList<>();
+        List<String[]> lines = new ArrayList<>();
+        lockNames(false);
+        try {
+            for (BST<City> tree : names) {
+                List<City> inOrder = new ArrayList<>();
+                tree.inorder(inOrder);
+                values.add(inOrder);
+                lines.add(tree.printTree().split("\n"));
+            }
+        } finally {
+            unlockNames(false);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        int[] next = new int[names.length];
+        while (true) {
+            int best = -1;
+            City bestCity = null;
+            for (int i = 0; i < next.length; i++) {
+                if (next[i] == values.get(i).size()) {
+                    continue;
+                }
+                City head = values.get(i).get(next[i]);
+                if (bestCity == null || head.compareTo(bestCity) < 0) {
+                    best = i;
+                    bestCity = head;
+                }
+            }
+            if (best < 0) {
+                return sb.toString();
+            }
+            sb.append(lines.get(best)[next[best]++]).append('\n');
+        }
+    }
+
+    /**
+     * Locks every name shard in ascending order.
+     *
+     * @param write
+     *              {@code true} for write locks, {@code false} for read locks
+     */
+    private void lockNames(boolean write) {
+        for (ReentrantReadWriteLock lock : nameLocks) {
+            if (write) {
+                lock.writeLock().lock();
+            } else {
+                lock.readLock().lock();
+            }
+        }
+    }
+
+    /**
+     * Releases locks taken by {@link #lockNames(boolean)}.
+     *
+     * @param write
+     *              {@code true} for write locks, {@code false} for read locks
+     */
+    private void unlockNames(boolean write) {
+        for (int i = nameLocks.length - 1; i >= 0; i--) {
+            if (write) {
+                nameLocks[i].writeLock().unlock();
+            } else {
+                nameLocks[i].readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Locks stripes {@code first..last} in ascending order.
+     *
+     * @param first
+     *              lowest stripe index
+     * @param last
+     *              highest stripe index
+     * @param write
+     *              {@code true} for write locks, {@code false} for read locks
+     */
+    private void lockShards(int first, int last, boolean write) {
+        for (int i = first; i <= last; i++) {
+            if (write) {
+                shardLocks[i].writeLock().lock();
+            } else {
+                shardLocks[i].readLock().lock();
+            }
+        }
+    }
+
+    /**
+     * Releases locks taken by {@link #lockShards(int, int, boolean)}.
+     *
+     * @param first
+     *              lowest stripe index
+     * @param last
+     *              highest stripe index
+     * @param write
+     *              {@code true} for write locks, {@code false} for read locks
+     */
+    private void unlockShards(int first, int last, boolean write) {
+        for (int i = last; i >= first; i--) {
+            if (write) {
+                shardLocks[i].writeLock().unlock();
+            } else {
+                shardLocks[i].readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Write-locks the flagged stripes in ascending order.
+     *
+     * @param needed
+     *               one flag per stripe
+     */
+    private void lockShards(boolean[] needed) {
+        for (int i = 0; i < needed.length; i++) {
+            if (needed[i]) {
+                shardLocks[i].writeLock().lock();
+            }
+        }
+    }
+
+    /**
+     * Releases locks taken by {@link #lockShards(boolean[])}.
+     *
+     * @param needed
+     *               one flag per stripe
+     */
+    private void unlockShards(boolean[] needed) {
+        for (int i = needed.length - 1; i >= 0; i--) {
+            if (needed[i]) {
+                shardLocks[i].writeLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import student.TestCase;
+
+/**
+ * Tests for {@link ShardedGISDB}: routing to stripes, searches that cross
+ * stripe boundaries and concurrent use.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class ShardedGISDBTest extends TestCase {
+
+    private ShardedGISDB it;
+    private GIS reference;
+
+    /**
+     * Creates a four-stripe database and a plain one to compare with.
+     */
+    public void setUp() {
+        it = new ShardedGISDB(4);
+        reference = new GISDB();
+    }
+
+    /**
+     * Tests the stripe count and bad stripe counts.
+     */
+    public void testShardCount() {
+        assertEquals(4, it.shardCount());
+        assertEquals(3, new ShardedGISDB(3).shardCount());
+        assertEquals(1, new ShardedGISDB(1).shardCount());
+        assertTrue(new ShardedGISDB().shardCount() >= 1);
+        Exception thrown = null;
+        try {
+            new ShardedGISDB(0);
+        } catch (IllegalArgumentException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+    }
+
+    /**
+     * Tests point operations and a search spanning two stripes.
+     */
+    public void testStripesAndSearch() {
+        assertTrue(it.insert("West", 8190, 100));
+        assertTrue(it.insert("East", 8194, 100));
+        assertTrue(it.insert("Far", 30000, 100));
+        assertFalse(it.insert("Again", 8194, 100));
+        assertFalse(it.insert("Bad", GISDB.MAXCOORD + 1, 0));
+        assertEquals("East", it.info(8194, 100));
+        assertEquals("", it.info(-3, 100));
+
+        assertEquals("West (8190, 100)\nEast (8194, 100)\n2",
+            it.search(8192, 100, 5));
+        assertEquals("", it.search(8192, 100, -1));
+        assertEquals("0", it.search(-100, 0, 10));
+        assertEquals("0West (8190, 100)\n0East (8194, 100)\n"
+            + "0Far (30000, 100)\n", it.debug());
+
+        assertEquals("1\nEast", it.delete(8194, 100));
+        assertEquals("", it.delete(8194, 100));
+        assertEquals("", it.delete(GISDB.MAXCOORD + 5, 0));
+        assertEquals("West (8190, 100)\n1", it.search(8192, 100, 5));
+        assertTrue(it.clear());
+        assertEquals("", it.debug());
+        assertEquals("", it.print());
+    }
+
+    /**
+     * Tests that random operations find the same cities as GISDB.
+     */
+    public void testSameCitiesAsGISDB() {
+        Random random = new Random(9);
+        for (int i = 0; i < 3000; i++) {
+            String name = "N" + random.nextInt(400);
+            int x = random.nextInt(GISDB.MAXCOORD + 1);
+            int y = random.nextInt(2000);
+            switch (random.nextInt(6)) {
+                case 0:
+                    assertEquals(reference.delete(name), it.delete(name));
+                    break;
+                case 1:
+                    assertEquals(reference.info(x, y), it.info(x, y));
+                    break;
+                default:
+                    assertEquals(reference.insert(name, x, y),
+                        it.insert(name, x, y));
+            }
+        }
+        assertEquals(cities(reference.print()), cities(it.print()));
+        for (int r : new int[] { 0, 500, 9000, 40000 }) {
+            assertEquals(matches(reference.search(16000, 1000, r)),
+                matches(it.search(16000, 1000, r)));
+        }
+    }
+
+    /**
+     * Returns the city lines of a print listing with their levels removed.
+     *
+     * @param listing
+     *                print output
+     * @return the cities, in listing order
+     */
+    private List<String> cities(String listing) {
+        List<String> lines = new ArrayList<>();
+        for (String line : listing.split("\n")) {
+            lines.add(line.replaceFirst("^\\d+ *", ""));
+        }
+        return lines;
+    }
+
+    /**
+     * Tests that print merges the name shards alphabetically and that a
+     * single name shard prints exactly like GISDB.
+     */
+    public void testNameShards() {
+        String[] names = { "Oslo", "Bern", "Rome", "Kyiv", "Lima", "Baku",
+            "Doha", "Riga", "Bern" };
+        ShardedGISDB single = new ShardedGISDB(1);
+        for (int i = 0; i < names.length; i++) {
+            assertTrue(it.insert(names[i], i * 3000, i));
+            assertTrue(single.insert(names[i], i * 3000, i));
+            assertTrue(reference.insert(names[i], i * 3000, i));
+        }
+        assertEquals(reference.print(), single.print());
+        assertEquals(cities(reference.print()), cities(it.print()));
+        assertEquals(reference.info("Bern"), it.info("Bern"));
+        assertEquals(reference.delete("Bern"), it.delete("Bern"));
+        assertEquals("", it.info("Bern"));
+        assertEquals("Rome", it.delete(6000, 2).split("\n")[1]);
+        assertEquals("", it.info("Rome"));
+        assertEquals(6, it.print().split("\n").length);
+        assertEquals(6, it.debug().split("\n").length);
+    }
+
+    /**
+     * Returns the sorted match lines of a search result.
+     *
+     * @param result
+     *               search output
+     * @return the city lines, sorted
+     */
+    private List<String> matches(String result) {
+        List<String> lines = new ArrayList<>(Arrays.asList(
+            result.split("\n")));
+        lines.remove(lines.size() - 1);
+        lines.sort(null);
+        return lines;
+    }
+
+    /**
+     * Tests that concurrent writers in different stripes, plus deletes by
+     * name across stripes, keep both indexes consistent.
+     *
+     * @throws InterruptedException
+     *                              if the test is interrupted
+     */
+    public void testConcurrentStripes() throws InterruptedException {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int s = 0; s < 4; s++) {
+            final int base = s * 8192;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 400; i++) {
+                    assertTrue(it.insert("Keep" + base, base + i, i));
+                    assertTrue(it.insert("Temp", base + i, i + 1000));
+                    it.search(base + i, i, 50);
+                }
+            }));
+        }
+        threads.add(new Thread(() -> {
+            for (int i = 0; i < 100; i++) {
+                it.delete("Temp");
+            }
+        }));
+        for (Thread t : threads) {
+            t.setUncaughtExceptionHandler((thread, e) -> failure.set(e));
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertNull(failure.get());
+        it.delete("Temp");
+        assertEquals("", it.info("Temp"));
+        assertEquals(1600, it.print().split("\n").length);
+        assertEquals(1600, it.debug().split("\n").length);
+        assertEquals(400, it.info("Keep8192").split("\n").length);
+    }
+}
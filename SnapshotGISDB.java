@@ -0,0 +1,495 @@
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+// -------------------------------------------------------------------------
+/**
+ * A {@link GIS} implementation whose queries never lock. Both indexes are
+ * persistent trees ({@link PersistentKDTree} and {@link PersistentBST}), and
+ * the pair of roots is published through one {@link AtomicReference}. A query
+ * reads that reference once and then works on an immutable snapshot, so it
+ * always sees the two indexes in agreement and is never blocked by a writer,
+ * even during a long {@code delete(String)} or {@code debug()}.
+ * <p>
+ * Writers build the next version by path copying and publish it with a
+ * single reference store. They are serialized by a lock that readers never
+ * touch, so no write is lost and none has to be retried.
+ * <p>
+ * Every write publishes a new numbered version. {@link #openSnapshot()}
+ * pins the current version in a {@link ReadView}, so a long series of
+ * queries (such as a sweep of searches) all see the same data while writers
+ * carry on. Opening and using a view never takes the write lock, and a
+ * writer never waits for a view. A version's nodes are shared with the
+ * versions after it, so pinning one only keeps alive the nodes that later
+ * writes replaced; they are reclaimed by the garbage collector once the
+ * last view pinning that version is closed.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class SnapshotGISDB implements GIS {
+
+    /**
+     * One immutable version of the database: both indexes as they were after
+     * a given write.
+     */
+    private static final class Version {
+        /** Number of writes published before this version. */
+        final long number;
+        /** Cities keyed on coordinates. */
+        final PersistentKDTree cities;
+        /** Cities keyed on name. */
+        final PersistentBST<City> names;
+
+        /**
+         * Creates a version.
+         *
+         * @param number
+         *               the version number
+         * @param cities
+         *               the k-d tree
+         * @param names
+         *               the BST
+         */
+        Version(long number, PersistentKDTree cities,
+            PersistentBST<City> names) {
+            this.number = number;
+            this.cities = cities;
+            this.names = names;
+        }
+
+        /**
+         * Returns the version after this one, holding the given indexes.
+         *
+         * @param nextCities
+         *                   the new k-d tree
+         * @param nextNames
+         *                   the new BST
+         * @return the next version
+         */
+        Version next(PersistentKDTree nextCities,
+            PersistentBST<City> nextNames) {
+            return new Version(number + 1, nextCities, nextNames);
+        }
+
+        /**
+         * @param x
+         *          X coordinate.
+         * @param y
+         *          Y coordinate.
+         * @return the name of the city there, empty if there is none
+         */
+        String info(int x, int y) {
+            City found = cities.find(x, y);
+            return (found == null) ? "" : found.getName();
+        }
+
+        /**
+         * @param name
+         *             The city name.
+         * @return the cities with this name, empty if there are none
+         */
+        String info(String name) {
+            if (name == null) {
+                return "";
+            }
+            return names.findAll(new City(name, 0, 0));
+        }
+    }
+
+    /**
+     * A read-only view of one version of the database, returned by
+     * {@link SnapshotGISDB#openSnapshot()}. Its queries answer exactly as the
+     * database did when the view was opened, whatever has been written
+     * since. A view may be shared between threads. Closing it releases the
+     * version; queries on a closed view throw {@link IllegalStateException}.
+     */
+    public final class ReadView implements Closeable {
+
+        /** The pinned version, or {@code null} once closed. */
+        private volatile Version version;
+
+        /** The pinned version's number, kept after closing. */
+        private final long number;
+
+        /**
+         * Creates a view of a version that is already pinned.
+         *
+         * @param version
+         *                the version
+         */
+        private ReadView(Version version) {
+            this.version = version;
+            this.number = version.number;
+        }
+
+        /**
+         * Returns the pinned version.
+         *
+         * @return the version
+         * @throws IllegalStateException
+         *                               if the view is closed
+         */
+        private Version pinned() {
+            Version v = version;
+            if (v == null) {
+                throw new IllegalStateException("read view is closed");
+            }
+            return v;
+        }
+
+        /**
+         * Returns the number of the version this view sees; it grows by one
+         * with every write to the database.
+         *
+         * @return the version number
+         */
+        public long getVersion() {
+            return number;
+        }
+
+        /**
+         * Same as {@link SnapshotGISDB#info(int, int)}, as of this version.
+         *
+         * @param x
+         *          X coordinate.
+         * @param y
+         *          Y coordinate.
+         * @return The city name if there is such a city, empty otherwise
+         */
+        public String info(int x, int y) {
+            return pinned().info(x, y);
+        }
+
+        /**
+         * Same as {@link SnapshotGISDB#info(String)}, as of this version.
+         *
+         * @param name
+         *             The city name.
+         * @return String representing the list of cities and coordinates,
+         *         empty if there are none.
+         */
+        public String info(String name) {
+            return pinned().info(name);
+        }
+
+        /**
+         * Same as {@link SnapshotGISDB#search(int, int, int)}, as of this
+         * version.
+         *
+         * @param x
+         *               Search circle center: X coordinate.
+         * @param y
+         *               Search circle center: Y coordinate.
+         * @param radius
+         *               Search radius, must be non-negative.
+         * @return String listing the cities found (if any), followed by the
+         *         count of the number of k-d tree nodes looked at.
+         */
+        public String search(int x, int y, int radius) {
+            return pinned().cities.search(x, y, radius);
+        }
+
+        /**
+         * Same as {@link SnapshotGISDB#debug()}, as of this version.
+         *
+         * @return String listing the cities as specified.
+         */
+        public String debug() {
+            return pinned().cities.printTree();
+        }
+
+        /**
+         * Same as {@link SnapshotGISDB#print()}, as of this version.
+         *
+         * @return String listing the cities as specified.
+         */
+        public String print() {
+            return pinned().names.printTree();
+        }
+
+        /**
+         * Releases the version. Closing a view again does nothing.
+         */
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (version == null) {
+                    return;
+                }
+                version = null;
+            }
+            pins.computeIfPresent(number, (k, count) -> (count == 1)
+                ? null
+                : count - 1);
+        }
+    }
+
+    /** The latest published version. */
+    private final AtomicReference<Version> current;
+
+    /** Serializes writers. Never taken by queries. */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /** Version number -> number of open views pinning it. */
+    private final ConcurrentHashMap<Long, Integer> pins =
+        new ConcurrentHashMap<>();
+
+    // ----------------------------------------------------------
+    /**
+     * Create a new, empty SnapshotGISDB object.
+     */
+    SnapshotGISDB() {
+        current = new AtomicReference<>(emptyVersion(0));
+    }
+
+    /**
+     * Returns a version with both indexes empty.
+     *
+     * @param number
+     *               the version number
+     * @return an empty version
+     */
+    private static Version emptyVersion(long number) {
+        return new Version(number, PersistentKDTree.empty(),
+            new PersistentBST<City>());
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Opens a read view pinned to the current version. The caller must close
+     * it when done, so the version can be reclaimed.
+     *
+     * @return the view
+     */
+    public ReadView openSnapshot() {
+        Version v = current.get();
+        pins.merge(v.number, 1, Integer::sum);
+        return new ReadView(v);
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Returns the number of the latest version.
+     *
+     * @return the version number
+     */
+    public long getVersion() {
+        return current.get().number;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Returns the oldest version still pinned by an open view. Nodes only
+     * older versions used have been released.
+     *
+     * @return the version number, or the latest version's number if no view
+     *         is open
+     */
+    public long getOldestPinnedVersion() {
+        long oldest = current.get().number;
+        for (Long number : pins.keySet()) {
+            oldest = Math.min(oldest, number);
+        }
+        return oldest;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Returns the number of views that are open.
+     *
+     * @return the count
+     */
+    public int getOpenSnapshots() {
+        int open = 0;
+        for (int count : pins.values()) {
+            open += count;
+        }
+        return open;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Reinitialize the database
+     *
+     * @return True if the database has been cleared
+     */
+    public boolean clear() {
+        writeLock.lock();
+        try {
+            current.set(emptyVersion(current.get().number + 1));
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * A city at coordinate (x, y) with name name is entered into the database.
+     * It is an error to insert two cities with identical coordinates, but not
+     * an error to insert two cities with identical names.
+     *
+     * @param name
+     *             City name.
+     * @param x
+     *             City x-coordinate. Integer in the range 0 to 2^{15} - 1.
+     * @param y
+     *             City y-coordinate. Integer in the range 0 to 2^{15} - 1.
+     * @return True iff the city is successfully entered into the database
+     */
+    public boolean insert(String name, int x, int y) {
+        if (x < 0 || x > GISDB.MAXCOORD) {
+            return false;
+        }
+        if (y < 0 || y > GISDB.MAXCOORD) {
+            return false;
+        }
+        writeLock.lock();
+        try {
+            Version v = current.get();
+            if (v.cities.find(x, y) != null) {
+                return false;
+            }
+            City cityToAdd = new City(name, x, y);
+            current.set(v.next(v.cities.insert(cityToAdd), v.names.insert(
+                cityToAdd)));
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * The city with these coordinates is deleted from the database (if it
+     * exists).
+     *
+     * @param x
+     *          City x-coordinate.
+     * @param y
+     *          City y-coordinate.
+     * @return A string with the number of nodes visited during the deletion
+     *         followed by the name of the city (this is blank if nothing was
+     *         deleted).
+     */
+    public String delete(int x, int y) {
+        writeLock.lock();
+        try {
+            Version v = current.get();
+            City cityToRemove = v.cities.find(x, y);
+            if (cityToRemove == null) {
+                return "";
+            }
+            StringBuilder kdOutput = new StringBuilder();
+            PersistentKDTree cities = v.cities.delete(x, y, kdOutput);
+            current.set(v.next(cities, v.names.deleteOne(cityToRemove)));
+            return kdOutput.toString();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * The city with this name is deleted from the database (if it exists). If
+     * two or more cities have this name, then ALL such cities are removed.
+     *
+     * @param name
+     *             City name.
+     * @return A string with the coordinates of each city that is deleted
+     *         (listed in preorder as they are deleted), or the empty string if
+     *         no cities match.
+     */
+    public String delete(String name) {
+        City key = new City(name, 0, 0);
+        writeLock.lock();
+        try {
+            Version v = current.get();
+            String allMatches = v.names.findAll(key);
+            if (allMatches.isEmpty()) {
+                return "";
+            }
+
+            List<City> matches = new ArrayList<>();
+            v.names.findAll(key, matches);
+            PersistentKDTree cities = v.cities;
+            StringBuilder ignored = new StringBuilder();
+            for (City c : matches) {
+                cities = cities.delete(c.getX(), c.getY(), ignored);
+            }
+            current.set(v.next(cities, v.names.deleteAll(key)));
+            return allMatches;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Display the name of the city at coordinate (x, y) if it exists.
+     *
+     * @param x
+     *          X coordinate.
+     * @param y
+     *          Y coordinate.
+     * @return The city name if there is such a city, empty otherwise
+     */
+    public String info(int x, int y) {
+        return current.get().info(x, y);
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Display the coordinates of all cities with this name, if any exist.
+     *
+     * @param name
+     *             The city name.
+     * @return String representing the list of cities and coordinates, empty if
+     *         there are none.
+     */
+    public String info(String name) {
+        return current.get().info(name);
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * All cities within radius distance from location (x, y) are listed.
+     *
+     * @param x
+     *               Search circle center: X coordinate. May be negative.
+     * @param y
+     *               Search circle center: Y coordinate. May be negative.
+     * @param radius
+     *               Search radius, must be non-negative.
+     * @return String listing the cities found (if any), followed by the count
+     *         of the number of k-d tree nodes looked at during the search.
+     */
+    public String search(int x, int y, int radius) {
+        return current.get().cities.search(x, y, radius);
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Print a listing of the k-d tree, one city per line.
+     *
+     * @return String listing the cities as specified.
+     */
+    public String debug() {
+        return current.get().cities.printTree();
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Print a listing of the BST in alphabetical order, one city per line.
+     *
+     * @return String listing the cities as specified.
+     */
+    public String print() {
+        return current.get().names.printTree();
+    }
+}
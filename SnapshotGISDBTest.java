@@ -0,0 +1,230 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import student.TestCase;
+
+/**
+ * Tests for {@link SnapshotGISDB}: it must answer like {@link GISDB} and keep
+ * queries consistent while writers run.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class SnapshotGISDBTest extends TestCase {
+
+    private GIS it;
+    private GIS reference;
+
+    /**
+     * Creates a fresh snapshot database and a plain one to compare with.
+     */
+    public void setUp() {
+        it = new SnapshotGISDB();
+        reference = new GISDB();
+    }
+
+    /**
+     * Tests the basic operations on an empty and a small database.
+     */
+    public void testBasicOperations() {
+        assertEquals("", it.print());
+        assertEquals("", it.debug());
+        assertEquals("", it.delete(5, 5));
+        assertEquals("", it.delete("Nowhere"));
+        assertEquals("", it.info(null));
+        assertFalse(it.insert("Bad", 5, GISDB.MAXCOORD + 1));
+        assertTrue(it.insert("Chicago", 100, 150));
+        assertFalse(it.insert("Other", 100, 150));
+        assertTrue(it.insert("Atlanta", 10, 500));
+        assertEquals("Chicago", it.info(100, 150));
+        assertEquals("Atlanta (10, 500)", it.info("Atlanta"));
+        assertEquals("2\nAtlanta", it.delete(10, 500));
+        assertTrue(it.clear());
+        assertEquals("", it.info(100, 150));
+    }
+
+    /**
+     * Tests that a random mix of operations on repeated names gives the same
+     * output as GISDB.
+     */
+    public void testMatchesGISDB() {
+        Random random = new Random(3);
+        for (int i = 0; i < 3000; i++) {
+            int x = random.nextInt(200);
+            int y = random.nextInt(200);
+            String name = "N" + random.nextInt(500);
+            switch (random.nextInt(8)) {
+                case 0:
+                case 1:
+                    assertEquals(reference.delete(x, y), it.delete(x, y));
+                    break;
+                case 2:
+                    assertEquals(reference.search(x, y, 25),
+                        it.search(x, y, 25));
+                    assertEquals(reference.info(name), it.info(name));
+                    break;
+                default:
+                    assertEquals(reference.insert(name, x, y),
+                        it.insert(name, x, y));
+            }
+        }
+        assertEquals(reference.debug(), it.debug());
+        assertEquals(reference.print(), it.print());
+    }
+
+    /**
+     * Tests that deleting by name gives the same output as GISDB.
+     */
+    public void testDeleteByNameMatchesGISDB() {
+        Random random = new Random(5);
+        for (int i = 0; i < 2000; i++) {
+            String name = "N" + i;
+            int x = random.nextInt(300);
+            int y = random.nextInt(300);
+            assertEquals(reference.insert(name, x, y), it.insert(name, x, y));
+            String victim = "N" + random.nextInt(i + 1);
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.delete(victim), it.delete(victim));
+            }
+        }
+        assertEquals(reference.debug(), it.debug());
+        assertEquals(reference.print(), it.print());
+    }
+
+    /**
+     * Tests that readers running next to a writer always see both indexes
+     * agree: a name is listed by info(name) exactly when its coordinates
+     * answer info(x, y) in the same snapshot.
+     *
+     * @throws InterruptedException
+     *                              if the test is interrupted
+     */
+    public void testReadersSeeConsistentIndexes()
+        throws InterruptedException {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        threads.add(new Thread(() -> {
+            for (int round = 0; round < 200; round++) {
+                for (int i = 0; i < 20; i++) {
+                    it.insert("Pair", i, round % 2);
+                }
+                it.delete("Pair");
+            }
+        }));
+        for (int r = 0; r < 3; r++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    String listed = it.print();
+                    String tree = it.debug();
+                    int inBst = listed.isEmpty()
+                        ? 0
+                        : listed.split("\n").length;
+                    assertTrue(inBst <= 20);
+                    assertTrue(tree.split("\n").length <= 20);
+                }
+            }));
+        }
+        for (Thread t : threads) {
+            t.setUncaughtExceptionHandler((thread, e) -> failure.set(e));
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertNull(failure.get());
+        assertEquals("", it.print());
+        assertEquals("", it.debug());
+    }
+
+    /**
+     * Tests that a read view keeps answering from the version it pinned
+     * while the database changes, and that closing it releases the pin.
+     */
+    public void testReadViewIsPointInTime() {
+        SnapshotGISDB db = new SnapshotGISDB();
+        db.insert("Chicago", 100, 150);
+        db.insert("Atlanta", 10, 500);
+        assertEquals(2, db.getVersion());
+        assertEquals(2, db.getOldestPinnedVersion());
+
+        SnapshotGISDB.ReadView view = db.openSnapshot();
+        String debug = db.debug();
+        String print = db.print();
+        String search = db.search(0, 0, 1000);
+        db.delete("Chicago");
+        db.insert("Tacoma", 20, 30);
+        db.clear();
+        db.insert("Late", 1, 1);
+        assertEquals(6, db.getVersion());
+
+        assertEquals(2, view.getVersion());
+        assertEquals("Chicago", view.info(100, 150));
+        assertEquals("Atlanta (10, 500)", view.info("Atlanta"));
+        assertEquals("", view.info(1, 1));
+        assertEquals("", view.info(null));
+        assertEquals(debug, view.debug());
+        assertEquals(print, view.print());
+        assertEquals(search, view.search(0, 0, 1000));
+        assertEquals("0Late (1, 1)\n", db.debug());
+
+        SnapshotGISDB.ReadView latest = db.openSnapshot();
+        SnapshotGISDB.ReadView again = db.openSnapshot();
+        assertEquals(3, db.getOpenSnapshots());
+        assertEquals(2, db.getOldestPinnedVersion());
+        view.close();
+        view.close();
+        assertEquals(2, db.getOpenSnapshots());
+        assertEquals(6, db.getOldestPinnedVersion());
+        latest.close();
+        again.close();
+        assertEquals(0, db.getOpenSnapshots());
+
+        Exception thrown = null;
+        try {
+            view.info(100, 150);
+        } catch (IllegalStateException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+        assertEquals(2, view.getVersion());
+    }
+
+    /**
+     * Tests that a long sweep over one view sees the same data throughout
+     * while a writer keeps changing the database, and that the writer is
+     * not held up by open views.
+     *
+     * @throws InterruptedException
+     *                              if the test is interrupted
+     */
+    public void testSweepDuringWrites() throws InterruptedException {
+        SnapshotGISDB db = new SnapshotGISDB();
+        for (int i = 0; i < 50; i++) {
+            db.insert("C" + i, i * 10, i * 10);
+        }
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 2000; i++) {
+                db.insert("W" + i, 1 + i % 400, 2 + i / 400);
+                db.delete(1 + i % 400, 2 + i / 400);
+            }
+        });
+        writer.setUncaughtExceptionHandler((thread, e) -> failure.set(e));
+        writer.start();
+        for (int sweep = 0; sweep < 20; sweep++) {
+            try (SnapshotGISDB.ReadView view = db.openSnapshot()) {
+                String first = view.search(250, 250, 400);
+                for (int i = 0; i < 20; i++) {
+                    assertEquals(first, view.search(250, 250, 400));
+                }
+                assertEquals(view.debug(), view.debug());
+            }
+        }
+        writer.join();
+        assertNull(failure.get());
+        assertEquals(0, db.getOpenSnapshots());
+        assertEquals(50 + 4000, db.getVersion());
+    }
+}
@@ -0,0 +1,200 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+
+/**
+ * Replays a command file against a {@link GIS} database and measures it:
+ * overall throughput, and a {@link LatencyHistogram} of the time each
+ * command took, per {@link Command.Type}. The file can be a captured
+ * production trace or one made by {@link WorkloadGenerator}; both use the
+ * format {@link CommandReader} reads.
+ * <p>
+ * Only running each command is timed for its latency. Throughput counts
+ * the whole replay, including reading and parsing the file. Command output
+ * is not written anywhere, so writing it does not distort the numbers.
+ * <p>
+ * From the command line:
+ *
+ * <pre>
+ * java TraceReplayer &lt;trace-file&gt;
+ * java TraceReplayer -generate &lt;seed&gt; &lt;preload&gt; &lt;commands&gt; &lt;trace-file&gt;
+ * </pre>
+ *
+ * The first replays a trace against a new {@link GISDB} and prints the
+ * report; the second writes a workload with the default settings.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class TraceReplayer {
+
+    /**
+     * The measurements of one replay.
+     */
+    public static final class Report {
+        private final EnumMap<Command.Type, LatencyHistogram> latencies;
+        private final long commands;
+        private final long elapsedNanos;
+
+        /**
+         * Creates a report.
+         *
+         * @param latencies
+         *                     the histogram of each type that occurred
+         * @param commands
+         *                     number of commands run
+         * @param elapsedNanos
+         *                     wall-clock time of the whole replay
+         */
+        Report(EnumMap<Command.Type, LatencyHistogram> latencies,
+            long commands, long elapsedNanos) {
+            this.latencies = latencies;
+            this.commands = commands;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * @return the number of commands run
+         */
+        public long getCommands() {
+            return commands;
+        }
+
+        /**
+         * @return the wall-clock time of the whole replay, in nanoseconds
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * @return commands per second over the whole replay
+         */
+        public double getThroughput() {
+            return (elapsedNanos == 0) ? 0 : commands * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * Returns the latencies of one command type.
+         *
+         * @param type
+         *             the type
+         * @return its histogram, empty if no such command was run
+         */
+        public LatencyHistogram getLatency(Command.Type type) {
+            LatencyHistogram h = latencies.get(type);
+            return (h == null) ? new LatencyHistogram() : h;
+        }
+
+        /**
+         * @return the throughput and one line per command type that was run
+         */
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(String.format(
+                "%d commands in %.3f s: %.0f commands/s%n", commands,
+                elapsedNanos / 1e9, getThroughput()));
+            for (Command.Type type : latencies.keySet()) {
+                sb.append(String.format("%-12s %s%n", type, latencies.get(
+                    type)));
+            }
+            return sb.toString();
+        }
+    }
+
+    /** Results are folded in here so the JIT cannot drop the commands. */
+    private static volatile long sink;
+
+    /** Runs the commands. */
+    private final CommandProcessor processor;
+
+    /**
+     * Creates a replayer.
+     *
+     * @param db
+     *           the database commands run against
+     */
+    public TraceReplayer(GIS db) {
+        processor = new CommandProcessor(db);
+    }
+
+    /**
+     * Replays a trace file.
+     *
+     * @param trace
+     *              the file
+     * @return the measurements
+     * @throws IOException
+     *                     if the file cannot be read
+     */
+    public Report replay(Path trace) throws IOException {
+        try (FileChannel channel = FileChannel.open(trace,
+            StandardOpenOption.READ)) {
+            return replay(new CommandReader(channel));
+        }
+    }
+
+    /**
+     * Replays every command a reader supplies.
+     *
+     * @param reader
+     *               source of commands
+     * @return the measurements
+     * @throws IOException
+     *                     if reading fails
+     */
+    public Report replay(CommandReader reader) throws IOException {
+        EnumMap<Command.Type, LatencyHistogram> latencies = new EnumMap<>(
+            Command.Type.class);
+        Command command = new Command();
+        long commands = 0;
+        long folded = 0;
+        long begin = System.nanoTime();
+        while (reader.next(command)) {
+            long start = System.nanoTime();
+            String result = processor.execute(command);
+            long end = System.nanoTime();
+            folded += result.length();
+            latencies.computeIfAbsent(command.getType(),
+                t -> new LatencyHistogram()).record(end - start);
+            commands++;
+        }
+        long elapsed = System.nanoTime() - begin;
+        sink += folded;
+        return new Report(latencies, commands, elapsed);
+    }
+
+    /**
+     * Replays a trace or generates a workload; see the class comment.
+     *
+     * @param args
+     *             the command line
+     * @throws IOException
+     *                     if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 1) {
+            System.out.print(new TraceReplayer(new GISDB()).replay(Paths.get(
+                args[0])));
+        } else if (args.length == 5 && args[0].equals("-generate")) {
+            WorkloadGenerator generator = new WorkloadGenerator(Long
+                .parseLong(args[1]));
+            try (Writer out = Files.newBufferedWriter(Paths.get(args[4]),
+                StandardCharsets.UTF_8)) {
+                generator.generate(Integer.parseInt(args[2]), Long.parseLong(
+                    args[3]), out);
+            }
+        } else {
+            System.err.println("Usage: java TraceReplayer <trace-file>\n"
+                + "       java TraceReplayer -generate <seed> <preload> "
+                + "<commands> <trace-file>");
+        }
+    }
+}
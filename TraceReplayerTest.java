@@ -0,0 +1,72 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import student.TestCase;
+
+/**
+ * Tests for {@link TraceReplayer}.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class TraceReplayerTest extends TestCase {
+
+    /**
+     * Tests replaying a generated workload from a file.
+     *
+     * @throws IOException
+     *                     if the temporary file fails
+     */
+    public void testReplay() throws IOException {
+        Path trace = Files.createTempFile("trace", ".txt");
+        try {
+            try (Writer out = Files.newBufferedWriter(trace,
+                StandardCharsets.UTF_8)) {
+                new WorkloadGenerator(9).generate(1000, 3000, out);
+            }
+            GISDB db = new GISDB();
+            TraceReplayer.Report report = new TraceReplayer(db).replay(trace);
+            assertEquals(4000, report.getCommands());
+            long total = 0;
+            for (Command.Type type : Command.Type.values()) {
+                LatencyHistogram h = report.getLatency(type);
+                total += h.getCount();
+                assertTrue(h.getPercentile(50) <= h.getPercentile(99));
+                assertTrue(h.getPercentile(99) <= h.getMax());
+            }
+            assertEquals(4000, total);
+            assertEquals(0, report.getLatency(Command.Type.CLEAR).getCount());
+            assertTrue(report.getLatency(Command.Type.INSERT).getCount()
+                >= 1000);
+            assertTrue(report.getThroughput() > 0);
+            assertTrue(report.getElapsedNanos() > 0);
+            assertTrue(report.toString().contains("INFO_AT"));
+            assertFalse(db.debug().isEmpty());
+
+            TraceReplayer.main(new String[] { trace.toString() });
+        } finally {
+            Files.delete(trace);
+        }
+    }
+
+    /**
+     * Tests the command line: generating a trace and bad usage.
+     *
+     * @throws IOException
+     *                     if the temporary file fails
+     */
+    public void testMain() throws IOException {
+        Path trace = Files.createTempFile("trace", ".txt");
+        try {
+            TraceReplayer.main(new String[] { "-generate", "4", "10", "20",
+                trace.toString() });
+            assertEquals(30, Files.readAllLines(trace).size());
+        } finally {
+            Files.delete(trace);
+        }
+        TraceReplayer.main(new String[0]);
+    }
+}
@@ -0,0 +1,227 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * A report on the shape of a binary tree, so a degenerated {@link KDTree}
+ * or {@link BST} can be spotted without reading {@code debug()} or
+ * {@code print()} output. The trees build one in a single pass over their
+ * nodes with {@code health()}; no strings are built.
+ * <p>
+ * Depths count the root as 0 and the height is the number of levels, so a
+ * single node has height 1. The balance factor of a node is the height of
+ * its left subtree minus that of its right. A tree is worth rebuilding
+ * (with {@code bulkLoad}) when its height is more than
+ * {@link #DEFAULT_FACTOR} times log2(n + 1), the height a perfectly
+ * balanced tree of n nodes needs; red-black trees stay within twice that.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class TreeHealth {
+
+    /** Height, as a multiple of the ideal, above which to rebuild. */
+    public static final double DEFAULT_FACTOR = 2.0;
+
+    private long nodes;
+    private long leaves;
+    private long leafDepthSum;
+
+    /** Number of leaves at each depth. */
+    private long[] leafDepths = new long[16];
+
+    /** Number of nodes and of their children at each depth. */
+    private long[] levelNodes = new long[16];
+    private long[] levelChildren = new long[16];
+
+    /** Number of nodes with each balance factor. */
+    private final TreeMap<Integer, Long> balance = new TreeMap<>();
+
+    /** Number of levels. */
+    private int height;
+
+    /** Heights of the subtrees added but not yet claimed by a parent. */
+    private int[] pending = new int[16];
+    private int pendingCount;
+
+    /**
+     * Creates a report of an empty tree; the tree adds its nodes.
+     */
+    TreeHealth() {
+        // nodes are added by the tree
+    }
+
+    /**
+     * Counts one node. The tree adds its nodes in post-order, so the
+     * heights of a node's subtrees are the last ones added; they are kept
+     * here rather than on the call stack, so the tree can walk itself with
+     * an explicit stack however deep it is.
+     *
+     * @param depth
+     *                 its depth, the root being 0
+     * @param hasLeft
+     *                 whether it has a left child
+     * @param hasRight
+     *                 whether it has a right child
+     */
+    void addNode(int depth, boolean hasLeft, boolean hasRight) {
+        int right = hasRight ? pending[--pendingCount] : 0;
+        int left = hasLeft ? pending[--pendingCount] : 0;
+        if (pendingCount == pending.length) {
+            pending = Arrays.copyOf(pending, pending.length * 2);
+        }
+        pending[pendingCount++] = 1 + Math.max(left, right);
+        int children = (hasLeft ? 1 : 0) + (hasRight ? 1 : 0);
+        int balanceFactor = left - right;
+        if (depth >= levelNodes.length) {
+            int size = Math.max(depth + 1, levelNodes.length * 2);
+            leafDepths = Arrays.copyOf(leafDepths, size);
+            levelNodes = Arrays.copyOf(levelNodes, size);
+            levelChildren = Arrays.copyOf(levelChildren, size);
+        }
+        nodes++;
+        levelNodes[depth]++;
+        levelChildren[depth] += children;
+        height = Math.max(height, depth + 1);
+        if (children == 0) {
+            leaves++;
+            leafDepthSum += depth;
+            leafDepths[depth]++;
+        }
+        balance.merge(balanceFactor, 1L, Long::sum);
+    }
+
+    /**
+     * @return the number of nodes
+     */
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    /**
+     * @return the number of levels, 0 for an empty tree
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return the height of a perfectly balanced tree with as many nodes
+     */
+    public int getIdealHeight() {
+        return 64 - Long.numberOfLeadingZeros(nodes);
+    }
+
+    /**
+     * @return the number of leaves
+     */
+    public long getLeafCount() {
+        return leaves;
+    }
+
+    /**
+     * @return the mean depth of the leaves, 0 for an empty tree
+     */
+    public double getAverageLeafDepth() {
+        return (leaves == 0) ? 0 : (double)leafDepthSum / leaves;
+    }
+
+    /**
+     * Returns a percentile of the leaf depths: a depth that at least
+     * {@code percent}% of the leaves are at or above.
+     *
+     * @param percent
+     *                from 0 to 100
+     * @return the depth, 0 for an empty tree
+     */
+    public int getLeafDepthPercentile(double percent) {
+        long rank = Math.max(1, (long)Math.ceil(percent / 100 * leaves));
+        long seen = 0;
+        for (int d = 0; d < height; d++) {
+            seen += leafDepths[d];
+            if (seen >= rank) {
+                return d;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns how many nodes have each balance factor. A balanced tree
+     * only has -1, 0 and 1; a tree built by inserting sorted keys has one
+     * node per factor from 1 to its height minus 1 (or the negatives).
+     *
+     * @return node count per balance factor, in increasing order
+     */
+    public SortedMap<Integer, Long> getBalanceFactors() {
+        return Collections.unmodifiableSortedMap(balance);
+    }
+
+    /**
+     * @return the largest absolute balance factor of any node
+     */
+    public int getMaxImbalance() {
+        return balance.isEmpty()
+            ? 0
+            : Math.max(-balance.firstKey(), balance.lastKey());
+    }
+
+    /**
+     * Returns the number of nodes at a depth.
+     *
+     * @param depth
+     *              the depth, the root being 0
+     * @return the count, 0 below the deepest level
+     */
+    public long getLevelSize(int depth) {
+        return (depth < height) ? levelNodes[depth] : 0;
+    }
+
+    /**
+     * Returns the mean number of children of the nodes at a depth: 2 for
+     * every level but the last of a perfect tree, 1 for a linked list.
+     *
+     * @param depth
+     *              the depth, the root being 0
+     * @return the fanout, 0 below the deepest level
+     */
+    public double getFanout(int depth) {
+        return (depth < height)
+            ? (double)levelChildren[depth] / levelNodes[depth]
+            : 0;
+    }
+
+    /**
+     * @return whether the tree is higher than {@link #DEFAULT_FACTOR} times
+     *         the ideal
+     */
+    public boolean isRebuildRecommended() {
+        return isRebuildRecommended(DEFAULT_FACTOR);
+    }
+
+    /**
+     * Returns whether the tree is higher than {@code factor} times the
+     * height of a perfectly balanced tree with as many nodes.
+     *
+     * @param factor
+     *               the allowed multiple, at least 1
+     * @return whether to rebuild
+     */
+    public boolean isRebuildRecommended(double factor) {
+        return height > factor * getIdealHeight();
+    }
+
+    /**
+     * @return the main figures on one line
+     */
+    @Override
+    public String toString() {
+        return String.format("nodes=%d height=%d ideal=%d leaves=%d "
+            + "avgLeafDepth=%.1f p99LeafDepth=%d maxImbalance=%d rebuild=%b",
+            nodes, height, getIdealHeight(), leaves, getAverageLeafDepth(),
+            getLeafDepthPercentile(99), getMaxImbalance(),
+            isRebuildRecommended());
+    }
+}
@@ -0,0 +1,138 @@
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import student.TestCase;
+
+/**
+ * Tests for {@link TreeHealth} reports of {@link KDTree} and {@link BST}.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class TreeHealthTest extends TestCase {
+
+    /**
+     * Tests the report of an empty tree.
+     */
+    public void testEmpty() {
+        TreeHealth health = new KDTree().health();
+        assertEquals(0, health.getNodeCount());
+        assertEquals(0, health.getHeight());
+        assertEquals(0, health.getIdealHeight());
+        assertEquals(0.0, health.getAverageLeafDepth(), 0.0);
+        assertEquals(0, health.getLeafDepthPercentile(99));
+        assertEquals(0, health.getMaxImbalance());
+        assertEquals(0.0, health.getFanout(0), 0.0);
+        assertFalse(health.isRebuildRecommended());
+    }
+
+    /**
+     * Tests a perfect tree of seven cities.
+     */
+    public void testPerfectTree() {
+        BST<City> bst = new BST<>();
+        for (String name : new String[] { "D", "B", "F", "A", "C", "E",
+            "G" }) {
+            bst.insert(new City(name, 0, 0));
+        }
+        TreeHealth health = bst.health();
+        assertEquals(7, health.getNodeCount());
+        assertEquals(3, health.getHeight());
+        assertEquals(3, health.getIdealHeight());
+        assertEquals(4, health.getLeafCount());
+        assertEquals(2.0, health.getAverageLeafDepth(), 0.0);
+        assertEquals(2, health.getLeafDepthPercentile(99));
+        assertEquals(1, health.getBalanceFactors().size());
+        assertEquals(Long.valueOf(7), health.getBalanceFactors().get(0));
+        assertEquals(1, health.getLevelSize(0));
+        assertEquals(4, health.getLevelSize(2));
+        assertEquals(0, health.getLevelSize(3));
+        assertEquals(2.0, health.getFanout(1), 0.0);
+        assertEquals(0.0, health.getFanout(2), 0.0);
+        assertFalse(health.isRebuildRecommended(1.0));
+        assertEquals("nodes=7 height=3 ideal=3 leaves=4 avgLeafDepth=2.0 "
+            + "p99LeafDepth=2 maxImbalance=0 rebuild=false", health
+                .toString());
+    }
+
+    /**
+     * Tests that cities inserted in x order degenerate the k-d tree's x
+     * levels and trigger a rebuild recommendation that a bulk load fixes.
+     */
+    public void testDegenerateTree() {
+        KDTree kd = new KDTree();
+        List<City> cities = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            City c = new City("C" + i, i, i);
+            cities.add(c);
+            kd.insert(c);
+        }
+        TreeHealth health = kd.health();
+        assertEquals(200, health.getHeight());
+        assertEquals(1, health.getLeafCount());
+        assertEquals(199, health.getMaxImbalance());
+        assertEquals(-199, (int)health.getBalanceFactors().firstKey());
+        assertEquals(1.0, health.getFanout(50), 0.0);
+        assertTrue(health.isRebuildRecommended());
+
+        KDTree rebuilt = new KDTree();
+        rebuilt.bulkLoad(cities.toArray(new City[0]));
+        health = rebuilt.health();
+        assertEquals(200, health.getNodeCount());
+        assertEquals(health.getIdealHeight(), health.getHeight());
+        assertTrue(health.getMaxImbalance() <= 1);
+        assertFalse(health.isRebuildRecommended());
+    }
+
+    /**
+     * Tests the reports GISDB gives of its two trees.
+     */
+    public void testDatabase() {
+        GISDB db = new GISDB();
+        db.insert("Denver", 100, 200);
+        db.insert("Boston", 300, 400);
+        db.insert("Atlanta", 50, 50);
+        assertEquals(3, db.getKDTreeHealth().getNodeCount());
+        assertEquals(2, db.getKDTreeHealth().getHeight());
+        assertEquals(3, db.getBSTHealth().getHeight());
+        assertEquals(2, db.getBSTHealth().getMaxImbalance());
+    }
+
+    /**
+     * Tests that reports work on trees too deep to walk recursively: a
+     * chain of 20000 names, as inserting them in sorted order gives, and a
+     * chain of 20000 cities. The trees are built on a thread with a large
+     * stack, as their loaders recurse; the reports run on this one.
+     *
+     * @throws InterruptedException
+     *                              if interrupted while building
+     */
+    public void testDeepChains() throws InterruptedException {
+        int n = 20000;
+        List<City> cities = new ArrayList<>();
+        BitSet chain = new BitSet();
+        for (int i = 0; i < n; i++) {
+            cities.add(new City(String.format("N%05d", i), i, i));
+            chain.set(2 * i + 1, i < n - 1);
+        }
+        BST<City> bst = new BST<>();
+        KDTree kd = new KDTree();
+        Thread builder = new Thread(null, () -> {
+            bst.loadPreorder(cities, chain);
+            kd.loadPreorder(cities, chain);
+        }, "builder", 1L << 28);
+        builder.start();
+        builder.join();
+
+        for (TreeHealth health : new TreeHealth[] { bst.health(), kd
+            .health() }) {
+            assertEquals(n, health.getNodeCount());
+            assertEquals(n, health.getHeight());
+            assertEquals(1, health.getLeafCount());
+            assertEquals(n - 1, health.getMaxImbalance());
+            assertEquals(1.0, health.getFanout(n / 2), 0.0);
+            assertTrue(health.isRebuildRecommended());
+        }
+    }
+}
@@ -0,0 +1,364 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generates reproducible command files (in the format {@link CommandReader}
+ * reads) that look like production traffic, for {@link TraceReplayer} and
+ * benchmarks:
+ * <ul>
+ * <li>City names follow a Zipf distribution over a fixed pool, so a few
+ * names are very popular and most are rare.</li>
+ * <li>Coordinates are drawn around a number of cluster centres, like cities
+ * around metropolitan areas.</li>
+ * <li>The mix of commands is set by a weight per {@link Command.Type}.</li>
+ * <li>Most {@code info} and {@code delete} commands by coordinates target a
+ * city the workload inserted earlier, the rest a random point.</li>
+ * </ul>
+ * The same seed and settings always give the same commands. Change the
+ * settings before calling {@link #generate(int, long, Writer)}.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class WorkloadGenerator {
+
+    /** Command types a workload can contain, in weight order. */
+    private static final Command.Type[] TYPES = { Command.Type.INSERT,
+        Command.Type.DELETE_AT, Command.Type.DELETE_NAME, Command.Type.INFO_AT,
+        Command.Type.INFO_NAME, Command.Type.SEARCH, Command.Type.DEBUG,
+        Command.Type.PRINT, Command.Type.CLEAR };
+
+    /** Default weights, in {@link #TYPES} order: mostly reads. */
+    private static final int[] DEFAULT_WEIGHTS = { 15, 7, 3, 30, 20, 25, 0, 0,
+        0 };
+
+    private final Random random;
+    private final int[] weights = DEFAULT_WEIGHTS.clone();
+    private int namePool = 10000;
+    private double nameSkew = 1.0;
+    private int clusters = 32;
+    private double spread = 800;
+    private int maxRadius = 200;
+    private double hitRate = 0.9;
+
+    /** Coordinates of cities inserted so far, packed as in {@link #pack}. */
+    private long[] inserted = new long[1024];
+    private int insertedCount;
+
+    /**
+     * Creates a generator.
+     *
+     * @param seed
+     *             the random seed
+     */
+    public WorkloadGenerator(long seed) {
+        random = new Random(seed);
+    }
+
+    /**
+     * Sets how often a command type occurs, relative to the others.
+     *
+     * @param type
+     *               any type but INVALID
+     * @param weight
+     *               its weight, 0 to leave it out
+     * @throws IllegalArgumentException
+     *                                  for INVALID or a negative weight
+     */
+    public void setWeight(Command.Type type, int weight) {
+        int i = Arrays.asList(TYPES).indexOf(type);
+        if (i < 0 || weight < 0) {
+            throw new IllegalArgumentException("bad weight for " + type);
+        }
+        weights[i] = weight;
+    }
+
+    /**
+     * Sets the name popularity.
+     *
+     * @param pool
+     *             number of distinct names, at least 1
+     * @param skew
+     *             Zipf exponent: 0 for equally popular names, 1 for the
+     *             classic Zipf law, larger for more skew
+     */
+    public void setNames(int pool, double skew) {
+        if (pool < 1 || skew < 0) {
+            throw new IllegalArgumentException("bad name settings");
+        }
+        namePool = pool;
+        nameSkew = skew;
+    }
+
+    /**
+     * Sets how coordinates cluster.
+     *
+     * @param count
+     *               number of clusters, 0 for uniform coordinates
+     * @param stdDev
+     *               standard deviation of a cluster
+     */
+    public void setClusters(int count, double stdDev) {
+        if (count < 0 || stdDev < 0) {
+            throw new IllegalArgumentException("bad cluster settings");
+        }
+        clusters = count;
+        spread = stdDev;
+    }
+
+    /**
+     * Sets the largest search radius; radii are uniform from 0 to it.
+     *
+     * @param radius
+     *               the largest radius
+     */
+    public void setMaxRadius(int radius) {
+        if (radius < 0) {
+            throw new IllegalArgumentException("bad radius");
+        }
+        maxRadius = radius;
+    }
+
+    /**
+     * Sets the fraction of coordinate lookups and deletes that target a
+     * city inserted earlier.
+     *
+     * @param rate
+     *             from 0 to 1
+     */
+    public void setHitRate(double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("bad hit rate");
+        }
+        hitRate = rate;
+    }
+
+    /**
+     * Writes a workload: {@code preload} inserts to fill the database, then
+     * {@code commands} commands in the configured mix.
+     *
+     * @param preload
+     *                 number of inserts first
+     * @param commands
+     *                 number of mixed commands after them
+     * @param out
+     *                 where to write the command lines (not flushed)
+     * @throws IOException
+     *                     if writing fails
+     */
+    public void generate(int preload, long commands, Writer out)
+        throws IOException {
+        String[] names = new String[namePool];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = randomName(random);
+        }
+        double[] popularity = new double[namePool];
+        double total = 0;
+        for (int i = 0; i < namePool; i++) {
+            total += 1 / Math.pow(i + 1, nameSkew);
+            popularity[i] = total;
+        }
+        int[] centreX = new int[clusters];
+        int[] centreY = new int[clusters];
+        for (int c = 0; c < clusters; c++) {
+            centreX[c] = random.nextInt(GISDB.MAXCOORD + 1);
+            centreY[c] = random.nextInt(GISDB.MAXCOORD + 1);
+        }
+        int weightSum = 0;
+        for (int w : weights) {
+            weightSum += w;
+        }
+        if (weightSum == 0 && commands > 0) {
+            throw new IllegalStateException("every weight is 0");
+        }
+        insertedCount = 0;
+
+        StringBuilder line = new StringBuilder();
+        for (long i = 0; i < preload + commands; i++) {
+            Command.Type type = Command.Type.INSERT;
+            if (i >= preload) {
+                int pick = random.nextInt(weightSum);
+                int t = 0;
+                while (pick >= weights[t]) {
+                    pick -= weights[t++];
+                }
+                type = TYPES[t];
+            }
+
+            line.setLength(0);
+            switch (type) {
+                case INSERT:
+                    long point = point(centreX, centreY);
+                    line.append("insert ").append(name(names, popularity))
+                        .append(' ').append(point >>> 16).append(' ').append(
+                            point & 0xFFFF);
+                    remember(point);
+                    break;
+                case DELETE_AT:
+                case INFO_AT:
+                    long target = target(centreX, centreY, type
+                        == Command.Type.DELETE_AT);
+                    line.append(type == Command.Type.DELETE_AT
+                        ? "delete "
+                        : "info ").append(target >>> 16).append(' ').append(
+                            target & 0xFFFF);
+                    break;
+                case DELETE_NAME:
+                case INFO_NAME:
+                    line.append(type == Command.Type.DELETE_NAME
+                        ? "delete "
+                        : "info ").append(name(names, popularity));
+                    break;
+                case SEARCH:
+                    long centre = target(centreX, centreY, false);
+                    line.append("search ").append(centre >>> 16).append(' ')
+                        .append(centre & 0xFFFF).append(' ').append(random
+                            .nextInt(maxRadius + 1));
+                    break;
+                case DEBUG:
+                    line.append("debug");
+                    break;
+                case PRINT:
+                    line.append("print");
+                    break;
+                default:
+                    line.append("clear");
+                    insertedCount = 0;
+            }
+            line.append('\n');
+            out.append(line);
+        }
+    }
+
+    /**
+     * Draws a name by popularity.
+     *
+     * @param names
+     *                   the pool, most popular first
+     * @param popularity
+     *                   running totals of the names' weights
+     * @return the name
+     */
+    private String name(String[] names, double[] popularity) {
+        double u = random.nextDouble() * popularity[popularity.length - 1];
+        int i = Arrays.binarySearch(popularity, u);
+        return names[Math.min(names.length - 1, (i < 0) ? -i - 1 : i)];
+    }
+
+    /**
+     * Draws a point, clustered if there are clusters.
+     *
+     * @param centreX
+     *                cluster x-coordinates
+     * @param centreY
+     *                cluster y-coordinates
+     * @return the point, packed
+     */
+    private long point(int[] centreX, int[] centreY) {
+        if (clusters == 0) {
+            return pack(random.nextInt(GISDB.MAXCOORD + 1), random.nextInt(
+                GISDB.MAXCOORD + 1));
+        }
+        int c = random.nextInt(clusters);
+        return clusteredPoint(random, centreX[c], centreY[c], spread);
+    }
+
+    /**
+     * Draws a point from a Gaussian cluster, redrawing points that fall
+     * outside the coordinate space. {@link GISBenchmark} draws its
+     * clustered cities with it too.
+     *
+     * @param random
+     *                the source of randomness
+     * @param centreX
+     *                x-coordinate of the cluster centre
+     * @param centreY
+     *                y-coordinate of the cluster centre
+     * @param spread
+     *                standard deviation on each axis
+     * @return the point, packed as {@code x << 16 | y}
+     */
+    static long clusteredPoint(
+        Random random,
+        int centreX,
+        int centreY,
+        double spread) {
+        int x;
+        int y;
+        do { // redraw points that fall outside the space
+            x = centreX + (int)(random.nextGaussian() * spread);
+            y = centreY + (int)(random.nextGaussian() * spread);
+        } while (x < 0 || x > GISDB.MAXCOORD || y < 0 || y > GISDB.MAXCOORD);
+        return pack(x, y);
+    }
+
+    /**
+     * Chooses the point a lookup, delete or search is about: usually a city
+     * inserted earlier, otherwise a fresh point.
+     *
+     * @param centreX
+     *                cluster x-coordinates
+     * @param centreY
+     *                cluster y-coordinates
+     * @param remove
+     *                whether the command deletes the city there
+     * @return the point, packed
+     */
+    private long target(int[] centreX, int[] centreY, boolean remove) {
+        if (insertedCount == 0 || random.nextDouble() >= hitRate) {
+            return point(centreX, centreY);
+        }
+        int i = random.nextInt(insertedCount);
+        long point = inserted[i];
+        if (remove) {
+            inserted[i] = inserted[--insertedCount];
+        }
+        return point;
+    }
+
+    /**
+     * Remembers an inserted city's coordinates.
+     *
+     * @param point
+     *              the coordinates, packed
+     */
+    private void remember(long point) {
+        if (insertedCount == inserted.length) {
+            inserted = Arrays.copyOf(inserted, inserted.length * 2);
+        }
+        inserted[insertedCount++] = point;
+    }
+
+    /**
+     * Packs a point into one long.
+     *
+     * @param x
+     *          x-coordinate
+     * @param y
+     *          y-coordinate
+     * @return the packed point
+     */
+    private static long pack(int x, int y) {
+        return ((long)x << 16) | y;
+    }
+
+    /**
+     * Returns a capitalised random name of 4 to 10 letters.
+     * {@link GISBenchmark} names its cities with it too.
+     *
+     * @param random
+     *               the source of randomness
+     * @return the name
+     */
+    static String randomName(Random random) {
+        char[] letters = new char[4 + random.nextInt(7)];
+        letters[0] = (char)('A' + random.nextInt(26));
+        for (int i = 1; i < letters.length; i++) {
+            letters[i] = (char)('a' + random.nextInt(26));
+        }
+        return new String(letters);
+    }
+}
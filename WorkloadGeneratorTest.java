@@ -0,0 +1,185 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.HashMap;
+import student.TestCase;
+
+/**
+ * Tests for {@link WorkloadGenerator}.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class WorkloadGeneratorTest extends TestCase {
+
+    /**
+     * Generates a workload as text.
+     *
+     * @param generator
+     *                  the generator
+     * @param preload
+     *                  inserts first
+     * @param commands
+     *                  mixed commands after them
+     * @return the command lines
+     * @throws IOException
+     *                     never
+     */
+    private static String generate(WorkloadGenerator generator, int preload,
+        long commands) throws IOException {
+        StringWriter out = new StringWriter();
+        generator.generate(preload, commands, out);
+        return out.toString();
+    }
+
+    /**
+     * Parses a workload and counts the commands of each type.
+     *
+     * @param text
+     *             the command lines
+     * @return the counts
+     * @throws IOException
+     *                     never
+     */
+    private static EnumMap<Command.Type, Integer> count(String text)
+        throws IOException {
+        CommandReader reader = new CommandReader(Channels.newChannel(
+            new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))));
+        EnumMap<Command.Type, Integer> counts = new EnumMap<>(
+            Command.Type.class);
+        Command command = new Command();
+        while (reader.next(command)) {
+            counts.merge(command.getType(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Tests that a seed always gives the same workload.
+     *
+     * @throws IOException
+     *                     never
+     */
+    public void testReproducible() throws IOException {
+        String first = generate(new WorkloadGenerator(5), 100, 1000);
+        assertEquals(first, generate(new WorkloadGenerator(5), 100, 1000));
+        assertFalse(first.equals(generate(new WorkloadGenerator(6), 100,
+            1000)));
+        assertEquals(1100, first.split("\n").length);
+    }
+
+    /**
+     * Tests that the mix follows the weights and every line parses.
+     *
+     * @throws IOException
+     *                     never
+     */
+    public void testMix() throws IOException {
+        WorkloadGenerator generator = new WorkloadGenerator(1);
+        generator.setWeight(Command.Type.SEARCH, 0);
+        generator.setWeight(Command.Type.PRINT, 1);
+        EnumMap<Command.Type, Integer> counts = count(generate(generator, 500,
+            10000));
+        assertNull(counts.get(Command.Type.INVALID));
+        assertNull(counts.get(Command.Type.SEARCH));
+        assertNull(counts.get(Command.Type.DEBUG));
+        // Default weights 15, 7, 3, 30, 20 plus print 1: 76 in all
+        assertEquals(500 + 10000 * 15 / 76, counts.get(Command.Type.INSERT),
+            200);
+        assertEquals(10000 * 30 / 76, counts.get(Command.Type.INFO_AT), 200);
+        assertEquals(10000 * 20 / 76, counts.get(Command.Type.INFO_NAME),
+            200);
+        assertEquals(10000 / 76, counts.get(Command.Type.PRINT), 60);
+
+        Exception thrown = null;
+        try {
+            generator.setWeight(Command.Type.INVALID, 1);
+        } catch (IllegalArgumentException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+    }
+
+    /**
+     * Tests that popular names dominate and that lookups mostly hit
+     * cities that exist.
+     *
+     * @throws IOException
+     *                     never
+     */
+    public void testSkewAndHits() throws IOException {
+        WorkloadGenerator generator = new WorkloadGenerator(2);
+        generator.setNames(1000, 1.2);
+        generator.setWeight(Command.Type.INSERT, 0);
+        generator.setWeight(Command.Type.DELETE_AT, 0);
+        generator.setWeight(Command.Type.DELETE_NAME, 0);
+        generator.setWeight(Command.Type.INFO_NAME, 0);
+        generator.setWeight(Command.Type.SEARCH, 0);
+        String text = generate(generator, 5000, 2000);
+
+        HashMap<String, Integer> names = new HashMap<>();
+        GISDB db = new GISDB();
+        int hits = 0;
+        for (String line : text.split("\n")) {
+            String[] words = line.split(" ");
+            if (words[0].equals("insert")) {
+                names.merge(words[1], 1, Integer::sum);
+                db.insert(words[1], Integer.parseInt(words[2]), Integer
+                    .parseInt(words[3]));
+            } else if (!db.info(Integer.parseInt(words[1]), Integer.parseInt(
+                words[2])).isEmpty()) {
+                hits++;
+            }
+        }
+        int top = 0;
+        for (int n : names.values()) {
+            top = Math.max(top, n);
+        }
+        assertTrue(top > 5000 / 10); // the top name gets over 10%
+        assertTrue(names.size() < 1000);
+        assertTrue(hits > 2000 * 8 / 10);
+    }
+
+    /**
+     * Tests uniform coordinates, bad settings and a clear in the mix.
+     *
+     * @throws IOException
+     *                     never
+     */
+    public void testSettings() throws IOException {
+        WorkloadGenerator generator = new WorkloadGenerator(3);
+        generator.setClusters(0, 0);
+        generator.setMaxRadius(0);
+        generator.setHitRate(0);
+        generator.setWeight(Command.Type.CLEAR, 5);
+        generator.setWeight(Command.Type.DEBUG, 5);
+        EnumMap<Command.Type, Integer> counts = count(generate(generator, 10,
+            2000));
+        assertTrue(counts.get(Command.Type.CLEAR) > 0);
+        assertTrue(counts.get(Command.Type.DEBUG) > 0);
+
+        for (int w = 0; w < Command.Type.values().length - 1; w++) {
+            generator.setWeight(Command.Type.values()[w], 0);
+        }
+        Exception thrown = null;
+        try {
+            generate(generator, 0, 1);
+        } catch (IllegalStateException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+        assertEquals("", generate(generator, 0, 0));
+
+        thrown = null;
+        try {
+            generator.setNames(0, 1);
+        } catch (IllegalArgumentException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+    }
+}
@@ -0,0 +1,607 @@
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of the writes made to a {@link GIS} database, so they can
+ * be replayed after a crash.
+ * <p>
+ * Writing a record is two steps. {@link #logInsert}, {@link #logDelete(int,
+ * int)}, {@link #logDelete(String)} and {@link #logClear()} only add the
+ * record to an in-memory buffer and return its sequence number. Then
+ * {@link #sync(long)} waits until that record is on disk. Syncs use group
+ * commit: the first thread to sync becomes the leader, writes out every
+ * record buffered so far with one {@code write} and one {@code force}, and
+ * wakes the others. Threads that log records while the leader is busy fill
+ * the next buffer, and one of them leads the next group. Under load, one
+ * disk flush covers many writes.
+ * <p>
+ * File format (big-endian): a header of int magic ("GISW") and int version,
+ * then one record per write:
+ *
+ * <pre>
+ * int     length of the body
+ * int     CRC-32 of the body
+ * body:   long sequence, byte type, then
+ *             insert:      int x, int y, int name length, UTF-8 name
+ *             delete x y:  int x, int y
+ *             delete name: int name length, UTF-8 name
+ *             clear:       nothing
+ * </pre>
+ *
+ * A crash can leave a partly written record at the end of the file. Opening
+ * the log replays every complete record and cuts the file off at the first
+ * one that is incomplete or fails its checksum.
+ * <p>
+ * This class is thread-safe. Records are numbered, and written, in the
+ * order their {@code log} calls were made.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class WriteAheadLog implements Closeable {
+
+    /** First four bytes of every log: "GISW". */
+    static final int MAGIC = 0x47495357;
+
+    /** Current format version. */
+    static final int VERSION = 1;
+
+    /** Size of the file header in bytes. */
+    static final int HEADER_SIZE = 8;
+
+    /** Size of a record's length and checksum in bytes. */
+    private static final int FRAME_SIZE = 8;
+
+    /** Record types. */
+    private static final byte INSERT = 1;
+    private static final byte DELETE_AT = 2;
+    private static final byte DELETE_NAME = 3;
+    private static final byte CLEAR = 4;
+
+    /** Initial size of each record buffer. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** The log file. */
+    private final FileChannel channel;
+
+    /** Guards everything below. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Signalled whenever a group commit finishes. */
+    private final Condition synced = lock.newCondition();
+
+    /** Records logged but not yet handed to a leader. */
+    private ByteBuffer pending = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /** Empty buffer to swap in when a leader takes {@link #pending}. */
+    private ByteBuffer spare = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /** Where the record being built in {@link #pending} starts. */
+    private int recordStart;
+
+    /** Checksum scratch, only used under the lock. */
+    private final CRC32 crc = new CRC32();
+
+    /** Sequence number of the last record logged. */
+    private long lastSequence;
+
+    /** Sequence number of the last record known to be on disk. */
+    private long durableSequence;
+
+    /** Whether a leader is writing a group right now. */
+    private boolean syncing;
+
+    /** Number of group commits (disk flushes) done. */
+    private long syncCount;
+
+    /** Set when a write fails; every later call fails with it. */
+    private IOException failure;
+
+    /**
+     * Opens a log, creating it if needed, and replays its records onto a
+     * database.
+     *
+     * @param path
+     *                      the log file
+     * @param target
+     *                      receives every record numbered after
+     *                      {@code afterSequence}, in order
+     * @param afterSequence
+     *                      the last record already applied to
+     *                      {@code target} (for example, by loading a
+     *                      snapshot), or 0
+     * @return the open log, ready to append
+     * @throws IOException
+     *                     if the file cannot be read or written, or is not
+     *                     a log
+     */
+    public static WriteAheadLog open(Path path, GIS target, long afterSequence)
+        throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new WriteAheadLog(channel, target, afterSequence);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Creates a log over an open file, replaying it.
+     *
+     * @param channel
+     *                      the log file
+     * @param target
+     *                      receives the records to replay
+     * @param afterSequence
+     *                      the last record already applied
+     * @throws IOException
+     *                     if the file cannot be read or written
+     */
+    private WriteAheadLog(FileChannel channel, GIS target, long afterSequence)
+        throws IOException {
+        this.channel = channel;
+        lastSequence = afterSequence;
+        if (channel.size() < HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            channel.truncate(0);
+            writeFully(header, 0);
+            channel.force(true);
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("not a GIS write-ahead log");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("unsupported log version " + version);
+            }
+            long end = replay(target, afterSequence);
+            if (end < channel.size()) {
+                channel.truncate(end); // torn tail from a crash
+                channel.force(true);
+            }
+        }
+        channel.position(channel.size());
+        durableSequence = lastSequence;
+    }
+
+    /**
+     * Applies the records after the header to a database.
+     *
+     * @param target
+     *                      the database
+     * @param afterSequence
+     *                      records numbered up to this are skipped
+     * @return the file offset just past the last complete record
+     * @throws IOException
+     *                     if reading fails
+     */
+    private long replay(GIS target, long afterSequence) throws IOException {
+        long size = channel.size();
+        long offset = HEADER_SIZE;
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long bufferStart = offset;
+        buffer.limit(0);
+        CRC32 check = new CRC32();
+        while (true) {
+            // Make sure the frame and then the body are buffered
+            if (offset + FRAME_SIZE > size) {
+                return offset;
+            }
+            if (offset + FRAME_SIZE > bufferStart + buffer.limit()) {
+                buffer = refill(buffer, offset, FRAME_SIZE);
+                bufferStart = offset;
+            }
+            buffer.position((int)(offset - bufferStart));
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length < 9 || offset + FRAME_SIZE + length > size) {
+                return offset;
+            }
+            long bodyStart = offset + FRAME_SIZE;
+            if (bodyStart + length > bufferStart + buffer.limit()) {
+                buffer = refill(buffer, bodyStart, length);
+                bufferStart = bodyStart;
+            }
+            int bodyPosition = (int)(bodyStart - bufferStart);
+            check.reset();
+            check.update(buffer.array(), bodyPosition, length);
+            if ((int)check.getValue() != checksum) {
+                return offset;
+            }
+
+            buffer.position(bodyPosition);
+            long sequence = buffer.getLong();
+            if (sequence > afterSequence) {
+                apply(buffer, target);
+            }
+            lastSequence = Math.max(lastSequence, sequence);
+            offset = bodyStart + length;
+        }
+    }
+
+    /**
+     * Reads the file from some offset into the buffer, growing it if needed.
+     *
+     * @param buffer
+     *               the buffer to reuse
+     * @param offset
+     *               file offset to read from
+     * @param bytes
+     *               bytes that must be read
+     * @return the filled buffer, holding the file from {@code offset}
+     * @throws IOException
+     *                     if reading fails
+     */
+    private ByteBuffer refill(ByteBuffer buffer, long offset, int bytes)
+        throws IOException {
+        ByteBuffer b = (bytes > buffer.capacity())
+            ? ByteBuffer.allocate(bytes)
+            : buffer;
+        b.clear();
+        long left = channel.size() - offset;
+        if (left < b.capacity()) {
+            b.limit((int)left);
+        }
+        readFully(b, offset);
+        b.flip();
+        return b;
+    }
+
+    /**
+     * Applies one record body to a database.
+     *
+     * @param body
+     *               the body, positioned just after the sequence number
+     * @param target
+     *               the database
+     */
+    private static void apply(ByteBuffer body, GIS target) {
+        byte type = body.get();
+        switch (type) {
+            case INSERT:
+                int x = body.getInt();
+                int y = body.getInt();
+                target.insert(getString(body), x, y);
+                break;
+            case DELETE_AT:
+                target.delete(body.getInt(), body.getInt());
+                break;
+            case DELETE_NAME:
+                target.delete(getString(body));
+                break;
+            case CLEAR:
+                target.clear();
+                break;
+            default:
+                throw new IllegalStateException("unknown log record type "
+                    + type);
+        }
+    }
+
+    /**
+     * Reads a length-prefixed UTF-8 string.
+     *
+     * @param body
+     *             where to read it
+     * @return the string
+     */
+    private static String getString(ByteBuffer body) {
+        int length = body.getInt();
+        String s = new String(body.array(), body.arrayOffset() + body
+            .position(), length, StandardCharsets.UTF_8);
+        body.position(body.position() + length);
+        return s;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Logs an insert. Call {@link #sync(long)} to make it durable.
+     *
+     * @param name
+     *             City name.
+     * @param x
+     *             City x-coordinate.
+     * @param y
+     *             City y-coordinate.
+     * @return the record's sequence number
+     */
+    public long logInsert(String name, int x, int y) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        lock.lock();
+        try {
+            ByteBuffer body = begin(INSERT, 12 + bytes.length);
+            body.putInt(x).putInt(y).putInt(bytes.length).put(bytes);
+            return finish();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Logs a delete by coordinates. Call {@link #sync(long)} to make it
+     * durable.
+     *
+     * @param x
+     *          City x-coordinate.
+     * @param y
+     *          City y-coordinate.
+     * @return the record's sequence number
+     */
+    public long logDelete(int x, int y) {
+        lock.lock();
+        try {
+            begin(DELETE_AT, 8).putInt(x).putInt(y);
+            return finish();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Logs a delete by name. Call {@link #sync(long)} to make it durable.
+     *
+     * @param name
+     *             City name.
+     * @return the record's sequence number
+     */
+    public long logDelete(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        lock.lock();
+        try {
+            begin(DELETE_NAME, 4 + bytes.length).putInt(bytes.length).put(
+                bytes);
+            return finish();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Logs a clear. Call {@link #sync(long)} to make it durable.
+     *
+     * @return the record's sequence number
+     */
+    public long logClear() {
+        lock.lock();
+        try {
+            begin(CLEAR, 0);
+            return finish();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts a record in {@link #pending}, leaving room for the frame.
+     * Called under the lock.
+     *
+     * @param type
+     *              the record type
+     * @param extra
+     *              bytes of body after the type
+     * @return the buffer, positioned for the rest of the body
+     */
+    private ByteBuffer begin(byte type, int extra) {
+        int needed = FRAME_SIZE + 9 + extra;
+        if (pending.remaining() < needed) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(pending
+                .capacity() * 2, pending.position() + needed));
+            pending.flip();
+            bigger.put(pending);
+            pending = bigger;
+        }
+        recordStart = pending.position();
+        pending.position(recordStart + FRAME_SIZE);
+        pending.putLong(lastSequence + 1).put(type);
+        return pending;
+    }
+
+    /**
+     * Fills in the frame of the record started by {@link #begin}. Called
+     * under the lock.
+     *
+     * @return the record's sequence number
+     */
+    private long finish() {
+        int bodyStart = recordStart + FRAME_SIZE;
+        int length = pending.position() - bodyStart;
+        crc.reset();
+        crc.update(pending.array(), bodyStart, length);
+        pending.putInt(recordStart, length);
+        pending.putInt(recordStart + 4, (int)crc.getValue());
+        return ++lastSequence;
+    }
+
+    // ----------------------------------------------------------
+    /**
+     * Waits until a record, and every record before it, is on disk.
+     *
+     * @param sequence
+     *                 the record's sequence number
+     * @throws IOException
+     *                     if writing the log fails (now or in an earlier
+     *                     group)
+     */
+    public void sync(long sequence) throws IOException {
+        lock.lock();
+        try {
+            while (durableSequence < sequence) {
+                if (failure != null) {
+                    throw new IOException("write-ahead log failed", failure);
+                }
+                if (syncing) {
+                    synced.await();
+                    continue;
+                }
+                leadGroup();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted waiting for sync");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes and forces everything logged so far, as the group leader. Called
+     * under the lock, which is released during the disk I/O.
+     *
+     * @throws IOException
+     *                     if writing fails
+     */
+    private void leadGroup() throws IOException {
+        syncing = true;
+        ByteBuffer group = pending;
+        pending = spare;
+        long upTo = lastSequence;
+        lock.unlock();
+        IOException error = null;
+        try {
+            group.flip();
+            while (group.hasRemaining()) {
+                channel.write(group);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            error = e;
+        } finally {
+            lock.lock();
+        }
+        group.clear();
+        spare = group;
+        syncing = false;
+        if (error == null) {
+            durableSequence = upTo;
+            syncCount++;
+        } else {
+            failure = error;
+        }
+        synced.signalAll();
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Logs nothing more until every record so far is durable, then empties
+     * the file. Sequence numbers keep counting up. Used after a snapshot
+     * that includes every record has been saved.
+     *
+     * @throws IOException
+     *                     if writing fails
+     */
+    public void truncate() throws IOException {
+        lock.lock();
+        try {
+            sync(lastSequence);
+            while (syncing) {
+                synced.awaitUninterruptibly();
+            }
+            channel.truncate(HEADER_SIZE);
+            channel.position(HEADER_SIZE);
+            channel.force(true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the sequence number of the last record logged.
+     *
+     * @return the sequence number, or the starting point if none were logged
+     */
+    public long getLastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of group commits done so far. Comparing it with the
+     * number of records shows how many writes each flush covered.
+     *
+     * @return the number of disk flushes of log records
+     */
+    public long getSyncCount() {
+        lock.lock();
+        try {
+            return syncCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Syncs every logged record and closes the file.
+     *
+     * @throws IOException
+     *                     if writing fails
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (channel.isOpen() && failure == null) {
+                sync(getLastSequence());
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes a whole buffer at a file offset.
+     *
+     * @param buffer
+     *               the bytes
+     * @param offset
+     *               where to write them
+     * @throws IOException
+     *                     if writing fails
+     */
+    private void writeFully(ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+    }
+
+    /**
+     * Fills a buffer from a file offset.
+     *
+     * @param buffer
+     *               the buffer
+     * @param offset
+     *               where to read from
+     * @throws IOException
+     *                     if reading fails or the file ends first
+     */
+    private void readFully(ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, offset);
+            if (n < 0) {
+                throw new EOFException("write-ahead log is truncated");
+            }
+            offset += n;
+        }
+    }
+}
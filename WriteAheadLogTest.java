@@ -0,0 +1,242 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import student.TestCase;
+
+/**
+ * Tests for {@link WriteAheadLog}.
+ *
+ * @author Jonah Schepers
+ * @author Rowan Muhoberac
+ * @version Oct 12, 2025
+ */
+public class WriteAheadLogTest extends TestCase {
+
+    private Path file;
+
+    /**
+     * Picks a fresh log file.
+     *
+     * @throws IOException
+     *                     if the temporary file cannot be created
+     */
+    public void setUp() throws IOException {
+        file = Files.createTempFile("gis", ".wal");
+        Files.delete(file);
+    }
+
+    /**
+     * Removes the log file.
+     *
+     * @throws IOException
+     *                     if it cannot be deleted
+     */
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Logs a mix of writes, applying them to a database as well.
+     *
+     * @param log
+     *            the log
+     * @param db
+     *            the database
+     * @throws IOException
+     *                     if syncing fails
+     */
+    private void writeSome(WriteAheadLog log, GIS db) throws IOException {
+        db.insert("Chicago", 10, 20);
+        log.logInsert("Chicago", 10, 20);
+        db.insert("Zürich", 30, 40);
+        log.logInsert("Zürich", 30, 40);
+        db.insert("Chicago", 50, 60);
+        long last = log.logInsert("Chicago", 50, 60);
+        log.sync(last);
+        db.delete(30, 40);
+        log.logDelete(30, 40);
+        db.insert("Atlanta", 5, 5);
+        log.logInsert("Atlanta", 5, 5);
+        db.delete("Chicago");
+        log.sync(log.logDelete("Chicago"));
+    }
+
+    /**
+     * Tests that reopening a log replays every record in order.
+     *
+     * @throws IOException
+     *                     if the log cannot be used
+     */
+    public void testReplay() throws IOException {
+        GISDB expected = new GISDB();
+        try (WriteAheadLog log = WriteAheadLog.open(file, new GISDB(), 0)) {
+            writeSome(log, expected);
+            assertEquals(6, log.getLastSequence());
+        }
+
+        GISDB replayed = new GISDB();
+        try (WriteAheadLog log = WriteAheadLog.open(file, replayed, 0)) {
+            assertEquals(6, log.getLastSequence());
+            assertEquals(expected.print(), replayed.print());
+            assertEquals(expected.debug(), replayed.debug());
+
+            // Appending continues after the replayed records
+            assertEquals(7, log.logClear());
+        }
+        replayed = new GISDB();
+        replayed.insert("Stale", 1, 1);
+        WriteAheadLog.open(file, replayed, 0).close();
+        assertEquals("", replayed.print());
+    }
+
+    /**
+     * Tests that records up to the starting sequence are skipped.
+     *
+     * @throws IOException
+     *                     if the log cannot be used
+     */
+    public void testSkipsAppliedRecords() throws IOException {
+        try (WriteAheadLog log = WriteAheadLog.open(file, new GISDB(), 0)) {
+            log.logInsert("A", 1, 1);
+            log.logInsert("B", 2, 2);
+            log.logInsert("C", 3, 3);
+        }
+        GISDB db = new GISDB();
+        try (WriteAheadLog log = WriteAheadLog.open(file, db, 2)) {
+            assertEquals(3, log.getLastSequence());
+        }
+        assertEquals("", db.info(1, 1));
+        assertEquals("C", db.info(3, 3));
+
+        // A start past every record keeps counting from the start
+        try (WriteAheadLog log = WriteAheadLog.open(file, new GISDB(), 10)) {
+            assertEquals(11, log.logInsert("D", 4, 4));
+        }
+    }
+
+    /**
+     * Tests that a torn or corrupt tail is cut off and later appends are
+     * replayed.
+     *
+     * @throws IOException
+     *                     if the log cannot be used
+     */
+    public void testTornTail() throws IOException {
+        try (WriteAheadLog log = WriteAheadLog.open(file, new GISDB(), 0)) {
+            log.logInsert("A", 1, 1);
+            log.logInsert("B", 2, 2);
+        }
+        long goodSize = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file,
+            StandardOpenOption.WRITE)) {
+            // Half a record, as if the machine died mid-write
+            channel.write(ByteBuffer.wrap(new byte[] { 0, 0, 0, 30, 1, 2 }),
+                goodSize);
+        }
+
+        GISDB db = new GISDB();
+        try (WriteAheadLog log = WriteAheadLog.open(file, db, 0)) {
+            assertEquals(goodSize, Files.size(file));
+            log.sync(log.logInsert("C", 3, 3));
+        }
+
+        // Flip a byte in the last record: it fails its checksum
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(file, bytes);
+        db = new GISDB();
+        WriteAheadLog.open(file, db, 0).close();
+        assertEquals("A", db.info(1, 1));
+        assertEquals("B", db.info(2, 2));
+        assertEquals("", db.info(3, 3));
+        assertEquals(goodSize, Files.size(file));
+    }
+
+    /**
+     * Tests truncation after a checkpoint.
+     *
+     * @throws IOException
+     *                     if the log cannot be used
+     */
+    public void testTruncate() throws IOException {
+        try (WriteAheadLog log = WriteAheadLog.open(file, new GISDB(), 0)) {
+            log.logInsert("A", 1, 1);
+            log.truncate();
+            assertEquals(WriteAheadLog.HEADER_SIZE, Files.size(file));
+            assertEquals(2, log.logInsert("B", 2, 2));
+        }
+        GISDB db = new GISDB();
+        WriteAheadLog.open(file, db, 1).close();
+        assertEquals("", db.info(1, 1));
+        assertEquals("B", db.info(2, 2));
+    }
+
+    /**
+     * Tests that a file that is not a log is rejected.
+     *
+     * @throws IOException
+     *                     if the test file cannot be written
+     */
+    public void testNotALog() throws IOException {
+        Files.write(file, "insert A 1 1\n".getBytes());
+        IOException thrown = null;
+        try {
+            WriteAheadLog.open(file, new GISDB(), 0);
+        } catch (IOException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+    }
+
+    /**
+     * Tests that concurrent writers share flushes and every record is
+     * replayed.
+     *
+     * @throws Exception
+     *                   if a thread fails
+     */
+    public void testGroupCommit() throws Exception {
+        final int threads = 8;
+        final int perThread = 200;
+        List<Thread> workers = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        try (WriteAheadLog log = WriteAheadLog.open(file, new GISDB(), 0)) {
+            for (int t = 0; t < threads; t++) {
+                final int row = t;
+                workers.add(new Thread(() -> {
+                    try {
+                        for (int i = 0; i < perThread; i++) {
+                            log.sync(log.logInsert("T" + row, i, row));
+                        }
+                    } catch (IOException e) {
+                        synchronized (failures) {
+                            failures.add(e);
+                        }
+                    }
+                }));
+            }
+            for (Thread w : workers) {
+                w.start();
+            }
+            for (Thread w : workers) {
+                w.join();
+            }
+            assertTrue(failures.isEmpty());
+            assertEquals(threads * perThread, log.getLastSequence());
+            assertTrue(log.getSyncCount() <= threads * perThread);
+        }
+
+        GISDB db = new GISDB();
+        WriteAheadLog.open(file, db, 0).close();
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < perThread; i++) {
+                assertEquals("T" + t, db.info(i, t));
+            }
+        }
+    }
+}